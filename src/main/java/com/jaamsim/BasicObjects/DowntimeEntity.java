@@ -23,7 +23,6 @@ import com.jaamsim.Samples.SampleInput;
 import com.jaamsim.Samples.SampleProvider;
 import com.jaamsim.basicsim.Entity;
 import com.jaamsim.basicsim.EntityTarget;
-import com.jaamsim.basicsim.Simulation;
 import com.jaamsim.events.EventHandle;
 import com.jaamsim.events.EventManager;
 import com.jaamsim.events.ProcessTarget;
@@ -85,6 +84,8 @@ public class DowntimeEntity extends StateEntity implements StateEntityListener {
 	private double startTime;        // The start time of the latest downtime event
 	private double endTime;          // the end time of the latest downtime event
 
+	private final int stateDowntime = getStateIndex("Downtime");
+
 	{
 		workingStateListInput.setHidden(true);
 
@@ -403,9 +404,9 @@ public class DowntimeEntity extends StateEntity implements StateEntityListener {
 	private void setDown(boolean b) {
 		down = b;
 		if (down)
-			setPresentState("Downtime");
+			setPresentState(stateDowntime);
 		else
-			setPresentState("Working");
+			setPresentState(STATE_WORKING);
 	}
 
 	final void endDowntime() {
@@ -563,8 +564,8 @@ public class DowntimeEntity extends StateEntity implements StateEntityListener {
 	    sequence = 4)
 	public double getAvailability(double simTime) {
 		double total = simTime;
-		if (simTime > Simulation.getInitializationTime())
-			total -= Simulation.getInitializationTime();
+		if (simTime > getSimulation().getInitializationTime())
+			total -= getSimulation().getInitializationTime();
 		double down = this.getTimeInState(simTime, "Downtime");
 		return 1.0d - down/total;
 	}
@@ -19,12 +19,14 @@ package com.jaamsim.BasicObjects;
 
 import java.util.ArrayList;
 
+import com.jaamsim.Samples.SampleExpression;
 import com.jaamsim.Samples.SampleListInput;
 import com.jaamsim.Samples.SampleProvider;
 import com.jaamsim.basicsim.EntityTarget;
 import com.jaamsim.basicsim.FileEntity;
 import com.jaamsim.datatypes.IntegerVector;
 import com.jaamsim.events.Conditional;
+import com.jaamsim.events.ConditionalSource;
 import com.jaamsim.events.EventManager;
 import com.jaamsim.events.ProcessTarget;
 import com.jaamsim.input.EntityListInput;
@@ -216,11 +218,12 @@ public class ExpressionLogger extends Logger implements StateEntityListener {
 	}
 
 	@Override
-	protected void recordEntry(FileEntity file, double simTime) {
+	protected void recordEntry(LogBuffer buffer, double simTime) {
 
 		// Write the state values
 		for (StateEntity ent : stateTraceList.getValue()) {
-			file.format("\t%s", ent.getPresentState(simTime));
+			buffer.tab();
+			buffer.text(ent.getPresentState(simTime));
 		}
 
 		try {
@@ -229,16 +232,17 @@ public class ExpressionLogger extends Logger implements StateEntityListener {
 				double val = valueTraceList.getValue().get(i).getNextSample(simTime);
 				double factor = Unit.getDisplayedUnitFactor(valueTraceList.getUnitType(i));
 
+				buffer.tab();
 				if (valuePrecisionList.getValue().size() == 1) {
 					int precision = valuePrecisionList.getValue().get(0);
-					file.format("\t%."+precision+"f", val/factor );
+					buffer.value(val/factor, precision);
 				}
 				else if (valuePrecisionList.getValue().size() > 1) {
 					int precision = valuePrecisionList.getValue().get(i);
-					file.format("\t%."+precision+"f", val/factor );
+					buffer.value(val/factor, precision);
 				}
 				else {
-					file.format("\t%s", val/factor);
+					buffer.value(val/factor);
 				}
 
 				// Update the last recorded values for the traced expressions
@@ -295,9 +299,29 @@ public class ExpressionLogger extends Logger implements StateEntityListener {
 		this.recordLogEntry(simTime);
 
 		// Wait for the next value change
+		valueChanged.setSources(this.getValueTraceSources());
 		EventManager.scheduleUntil(doValueTrace, valueChanged, null);
 	}
 
+	/**
+	 * Returns the sources that notify a change in the traced values, or null if any
+	 * of the values can change without notice.
+	 */
+	private ArrayList<ConditionalSource> getValueTraceSources() {
+		ArrayList<ConditionalSource> ret = new ArrayList<>();
+		for (SampleProvider samp : valueTraceList.getValue()) {
+			ArrayList<ConditionalSource> sources = SampleExpression.getConditionalSources(samp);
+			if (sources == null)
+				return null;
+
+			for (ConditionalSource src : sources) {
+				if (!ret.contains(src))
+					ret.add(src);
+			}
+		}
+		return ret;
+	}
+
 	static class ValueChangedConditional extends Conditional {
 		private final ExpressionLogger ent;
 
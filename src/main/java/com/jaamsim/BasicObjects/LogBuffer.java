@@ -0,0 +1,286 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.BasicObjects;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+import com.jaamsim.basicsim.ErrorException;
+import com.jaamsim.basicsim.FileEntity;
+import com.jaamsim.ui.LogBox;
+
+/**
+ * Collects the entries for a log file and writes them to the file on a background thread.
+ * <p>
+ * The values for each entry are held in a block of pre-allocated arrays without being
+ * converted to text. When a block is full it is passed to the writer thread, which
+ * formats the values and writes them to the file, and another block is used for the
+ * following entries. The text written to the file is the same as if each value had been
+ * formatted with "%s", with "%.nf" for a value with a precision of n, or with the format
+ * string given for the value.
+ * <p>
+ * The file must not be written to directly unless flush() has been called since the last
+ * entry was added.
+ * <p>
+ * If a block cannot be written, the first exception is recorded and is reported
+ * in the LogBox. An ErrorException is then thrown on the simulation thread by the next
+ * call that passes a block to the writer thread or that flushes the file.
+ */
+public class LogBuffer {
+	private static final int BLOCK_SIZE = 4096;  // number of items in each block
+	private static final int NUM_BLOCKS = 3;
+
+	// Types of item
+	private static final byte NEW_LINE = 0;
+	private static final byte TAB = 1;
+	private static final byte TEXT = 2;
+	private static final byte VALUE = 3;
+	private static final byte FIXED = 4;
+	private static final byte FORMAT = 5;
+
+	private final FileEntity file;
+	private Block current;
+	private final ArrayList<Block> free = new ArrayList<>();  // blocks that can be filled
+	private int numPending;  // number of blocks waiting to be written
+	private RuntimeException error;  // first exception thrown while writing a block
+
+	private static final WriterThread writer = new WriterThread();
+
+	private static class Block {
+		final LogBuffer owner;
+		final byte[] types = new byte[BLOCK_SIZE];
+		final double[] values = new double[BLOCK_SIZE];
+		final int[] precisions = new int[BLOCK_SIZE];
+		final String[] text = new String[BLOCK_SIZE];
+		int size;
+
+		Block(LogBuffer owner) {
+			this.owner = owner;
+		}
+
+		void write(FileEntity file) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < size; i++) {
+				switch (types[i]) {
+				case NEW_LINE:
+					sb.append(System.lineSeparator());
+					break;
+				case TAB:
+					sb.append('\t');
+					break;
+				case TEXT:
+					sb.append(text[i]);
+					break;
+				case VALUE:
+					sb.append(Double.toString(values[i]));
+					break;
+				case FIXED:
+					sb.append(String.format("%." + precisions[i] + "f", values[i]));
+					break;
+				case FORMAT:
+					sb.append(String.format(text[i], values[i]));
+					break;
+				}
+			}
+			file.write(sb.toString());
+		}
+
+		/**
+		 * Empties the block, whether or not it has been written.
+		 */
+		void clear() {
+			for (int i = 0; i < size; i++) {
+				text[i] = null;
+			}
+			size = 0;
+		}
+	}
+
+	public LogBuffer(FileEntity file) {
+		this.file = file;
+		current = new Block(this);
+		for (int i = 1; i < NUM_BLOCKS; i++) {
+			free.add(new Block(this));
+		}
+	}
+
+	/**
+	 * Starts a new line in the log file.
+	 */
+	public void newLine() {
+		this.add(NEW_LINE);
+	}
+
+	/**
+	 * Adds a tab character that separates two columns.
+	 */
+	public void tab() {
+		this.add(TAB);
+	}
+
+	/**
+	 * Adds the given text. A null value is written as "null".
+	 */
+	public void text(String str) {
+		current.text[current.size] = str == null ? "null" : str;
+		this.add(TEXT);
+	}
+
+	/**
+	 * Adds a number in the format given by Double.toString.
+	 */
+	public void value(double val) {
+		current.values[current.size] = val;
+		this.add(VALUE);
+	}
+
+	/**
+	 * Adds a number with the given number of decimal places.
+	 */
+	public void value(double val, int precision) {
+		current.values[current.size] = val;
+		current.precisions[current.size] = precision;
+		this.add(FIXED);
+	}
+
+	/**
+	 * Adds a number formatted with the given format string, for example "%g".
+	 */
+	public void value(double val, String format) {
+		current.values[current.size] = val;
+		current.text[current.size] = format;
+		this.add(FORMAT);
+	}
+
+	private void add(byte type) {
+		current.types[current.size] = type;
+		current.size++;
+		if (current.size == BLOCK_SIZE)
+			this.submit();
+	}
+
+	/**
+	 * Passes the present block to the writer thread and waits for an empty one.
+	 */
+	private void submit() {
+		Block block = current;
+		synchronized (this) {
+			if (error != null) {
+				block.clear();
+				this.throwError();
+			}
+			numPending++;
+			while (free.isEmpty()) {
+				this.waitUninterruptibly();
+			}
+			current = free.remove(free.size() - 1);
+		}
+		writer.add(block);
+	}
+
+	synchronized void release(Block block, RuntimeException e) {
+		if (e != null && error == null) {
+			error = e;
+			LogBox.logException(e);
+		}
+		block.clear();
+		free.add(block);
+		numPending--;
+		this.notifyAll();
+	}
+
+	/**
+	 * Writes the entries that have been added to the log file and flushes the file.
+	 */
+	public void flush() {
+		if (current.size > 0)
+			this.submit();
+
+		synchronized (this) {
+			while (numPending > 0) {
+				this.waitUninterruptibly();
+			}
+			if (error != null)
+				this.throwError();
+		}
+		file.flush();
+	}
+
+	private void throwError() {
+		ErrorException e = new ErrorException("Unable to write to the log file: %s", error);
+		e.initCause(error);
+		throw e;
+	}
+
+	private void waitUninterruptibly() {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				this.wait();
+				break;
+			}
+			catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Writes the blocks for all the log files in the order that they were received.
+	 */
+	private static class WriterThread implements Runnable {
+		private final ArrayDeque<Block> queue = new ArrayDeque<>();
+		private Thread thread;
+
+		synchronized void add(Block block) {
+			queue.add(block);
+			if (thread == null) {
+				thread = new Thread(this, "LogWriterThread");
+				thread.setDaemon(true);
+				thread.start();
+			}
+			this.notifyAll();
+		}
+
+		private synchronized Block take() {
+			while (queue.isEmpty()) {
+				try {
+					this.wait();
+				}
+				catch (InterruptedException e) {}
+			}
+			return queue.poll();
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				Block block = this.take();
+				RuntimeException error = null;
+				try {
+					block.write(block.owner.file);
+				}
+				catch (RuntimeException e) {
+					error = e;
+				}
+				block.owner.release(block, error);
+			}
+		}
+	}
+}
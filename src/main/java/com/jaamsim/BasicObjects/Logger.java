@@ -20,11 +20,14 @@ package com.jaamsim.BasicObjects;
 import java.util.ArrayList;
 
 import com.jaamsim.Graphics.DisplayEntity;
+import com.jaamsim.StringProviders.StringProvExpression;
 import com.jaamsim.StringProviders.StringProvListInput;
+import com.jaamsim.StringProviders.StringProvSample;
 import com.jaamsim.StringProviders.StringProvider;
 import com.jaamsim.basicsim.FileEntity;
 import com.jaamsim.basicsim.Simulation;
 import com.jaamsim.input.BooleanInput;
+import com.jaamsim.input.ExpResult;
 import com.jaamsim.input.Input;
 import com.jaamsim.input.InputAgent;
 import com.jaamsim.input.Keyword;
@@ -65,6 +68,7 @@ public abstract class Logger extends DisplayEntity {
 	private final ValueInput endTime;
 
 	private FileEntity file;
+	private LogBuffer buffer;  // entries waiting to be written to the file
 	private double logTime;
 
 	{
@@ -112,9 +116,11 @@ public abstract class Logger extends DisplayEntity {
 		logTime = 0.0d;
 
 		// Close the file if it is already open
-		if (file != null && Simulation.isFirstRun()) {
+		if (file != null && (Simulation.isFirstRun() || InputAgent.isReplicationWorker())) {
+			buffer.flush();
 			file.close();
 			file = null;
+			buffer = null;
 		}
 
 		// Create the report file
@@ -122,7 +128,8 @@ public abstract class Logger extends DisplayEntity {
 			StringBuilder tmp = new StringBuilder(InputAgent.getReportFileName(InputAgent.getRunName()));
 			tmp.append("-").append(this.getName());
 			tmp.append(".log");
-			file = new FileEntity(tmp.toString());
+			file = new FileEntity(InputAgent.getRunFileName(tmp.toString()));
+			buffer = new LogBuffer(file);
 		}
 	}
 
@@ -130,6 +137,9 @@ public abstract class Logger extends DisplayEntity {
 	public void startUp() {
 		super.startUp();
 
+		// Write the entries from the previous run before writing to the file directly
+		buffer.flush();
+
 		// Print the detailed run information to the file
 		if (Simulation.isFirstRun())
 			Simulation.getInstance().printReport(file, 0.0d);
@@ -186,7 +196,7 @@ public abstract class Logger extends DisplayEntity {
 			return;
 
 		// Skip the log entry if the run is still initializing
-		if (!includeInitialization.getValue() && simTime < Simulation.getInitializationTime())
+		if (!includeInitialization.getValue() && simTime < getSimulation().getInitializationTime())
 			return;
 
 		// Skip the log entry if it is outside the time range
@@ -198,28 +208,61 @@ public abstract class Logger extends DisplayEntity {
 
 		// Write the time for the log entry
 		double factor = Unit.getDisplayedUnitFactor(TimeUnit.class);
-		file.format("%n%s", simTime/factor);
+		buffer.newLine();
+		buffer.value(simTime/factor);
 
 		// Write any additional columns for the log entry
-		this.recordEntry(file, simTime);
+		this.recordEntry(buffer, simTime);
 
 		// Write the expression values
 		for (int i=0; i<dataSource.getListSize(); i++) {
-			String str;
+			buffer.tab();
 			try {
 				StringProvider samp = dataSource.getValue().get(i);
 				factor = Unit.getDisplayedUnitFactor(dataSource.getUnitType(i));
-				str = samp.getNextString(simTime, "%s", factor);
+				recordValue(buffer, samp, simTime, factor);
 			}
 			catch (Exception e) {
-				str = e.getMessage();
+				buffer.text(e.getMessage());
 			}
-			file.format("\t%s", str);
 		}
 
 		// If running in real time mode, empty the file buffer after each entity is logged
-		if (!InputAgent.getBatch() && Simulation.isRealTime())
-			file.flush();
+		if (!InputAgent.getBatch() && getSimulation().isRealTime())
+			buffer.flush();
+	}
+
+	/**
+	 * Adds the value of the given StringProvider to the log entry without converting a
+	 * number to text.
+	 */
+	private static void recordValue(LogBuffer buffer, StringProvider samp, double simTime, double factor) {
+		if (samp instanceof StringProvSample) {
+			buffer.value(((StringProvSample) samp).getSampleProvider().getNextSample(simTime)/factor);
+			return;
+		}
+
+		if (samp instanceof StringProvExpression) {
+			ExpResult result = ((StringProvExpression) samp).getNextResult(simTime);
+			switch (result.type) {
+			case STRING:
+				buffer.text(result.stringVal);
+				return;
+			case ENTITY:
+				buffer.text(result.entVal.getName());
+				return;
+			case NUMBER:
+				buffer.value(result.value/factor);
+				return;
+			case COLLECTION:
+				buffer.text(result.colVal.getOutputString());
+				return;
+			default:
+				break;
+			}
+		}
+
+		buffer.text(samp.getNextString(simTime, "%s", factor));
 	}
 
 	protected double getStartTime() {
@@ -234,17 +277,22 @@ public abstract class Logger extends DisplayEntity {
 
 	protected abstract void printColumnUnits(FileEntity file);
 
-	protected abstract void recordEntry(FileEntity file, double simTime);
+	/**
+	 * Adds the values for any additional columns to the log entry. Each value is preceded
+	 * by a tab.
+	 */
+	protected abstract void recordEntry(LogBuffer buffer, double simTime);
 
 	@Override
 	public void doEnd() {
 		super.doEnd();
-		file.flush();
+		buffer.flush();
 
 		// Close the report file
-		if (Simulation.isLastRun()) {
+		if (Simulation.isLastRun() || InputAgent.isReplicationWorker()) {
 			file.close();
 			file = null;
+			buffer = null;
 		}
 	}
 
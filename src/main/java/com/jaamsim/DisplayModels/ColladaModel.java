@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2013 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,9 +19,9 @@ package com.jaamsim.DisplayModels;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.HashMap;
 
 import javax.swing.JFileChooser;
 import javax.swing.filechooser.FileNameExtensionFilter;
@@ -29,11 +30,12 @@ import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.MeshFiles.BlockWriter;
 import com.jaamsim.MeshFiles.DataBlock;
 import com.jaamsim.MeshFiles.MeshData;
+import com.jaamsim.MeshFiles.MeshFileCache;
 import com.jaamsim.basicsim.Entity;
-import com.jaamsim.collada.ColParser;
 import com.jaamsim.controllers.RenderManager;
 import com.jaamsim.input.ActionListInput;
 import com.jaamsim.input.FileInput;
+import com.jaamsim.input.Input;
 import com.jaamsim.input.InputErrorException;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
@@ -48,7 +50,6 @@ import com.jaamsim.render.MeshDataCache;
 import com.jaamsim.render.MeshProtoKey;
 import com.jaamsim.render.MeshProxy;
 import com.jaamsim.render.RenderProxy;
-import com.jaamsim.render.RenderUtils;
 import com.jaamsim.render.VisibilityInfo;
 import com.jaamsim.ui.ContextMenu;
 import com.jaamsim.ui.ContextMenuItem;
@@ -66,8 +67,6 @@ public class ColladaModel extends DisplayModel {
 	         exampleList = { "{ ContentAction Contents } { BoomAngleAction BoomAngle }" })
 	private final ActionListInput actions;
 
-	private static HashMap<URI, MeshProtoKey> _cachedKeys = new HashMap<>();
-
 	private static final String[] validFileExtensions;
 	private static final String[] validFileDescriptions;
 	static {
@@ -100,6 +99,18 @@ public class ColladaModel extends DisplayModel {
 
 	public ColladaModel() {}
 
+	@Override
+	public void updateForInput(Input<?> in) {
+		super.updateForInput(in);
+
+		// Start loading the 3D file in the background so that the files for all the models
+		// in a configuration are loaded in parallel
+		if (in == colladaFile && colladaFile.getValue() != null && RenderManager.isGood()) {
+			MeshDataCache.loadMesh(getCachedMeshKey(colladaFile.getValue()));
+			return;
+		}
+	}
+
 	@Override
 	public DisplayModelBinding getBinding(Entity ent) {
 		return new Binding(ent, this);
@@ -138,18 +149,11 @@ public class ColladaModel extends DisplayModel {
 		return FileInput.getFileNameExtensionFilters("3D", validFileExtensions, validFileDescriptions);
 	}
 
-	public static MeshProtoKey getCachedMeshKey(URI shapeURI) {
-
-		MeshProtoKey meshKey = _cachedKeys.get(shapeURI);
-
-		if (meshKey == null) {
-			// This has not been cached yet
-			meshKey = RenderUtils.FileNameToMeshProtoKey(shapeURI);
-			assert(meshKey != null);
-			_cachedKeys.put(shapeURI, meshKey);
-		}
-
-		return _cachedKeys.get(shapeURI);
+	/**
+	 * Returns the key for the 3D mesh held by the given file.
+	 */
+	public MeshProtoKey getCachedMeshKey(URI shapeURI) {
+		return getJaamSimModel().getMeshKey(shapeURI);
 	}
 
 	private class Binding extends DisplayModelBinding {
@@ -278,7 +282,7 @@ public class ColladaModel extends DisplayModel {
 	}
 
 	private MeshData getMeshData() {
-		MeshProtoKey key = _cachedKeys.get(colladaFile.getValue());
+		MeshProtoKey key = getJaamSimModel().findMeshKey(colladaFile.getValue());
 		if (key == null) return null;
 
 		return MeshDataCache.getMeshData(key);
@@ -370,12 +374,12 @@ public class ColladaModel extends DisplayModel {
 		MeshProtoKey meshKey = getCachedMeshKey(colladaFile.getValue());
 
 		try {
-			ColParser.setKeepData(true);
-			MeshData data = ColParser.parse(meshKey.getURI());
+			MeshData data = MeshFileCache.parse(meshKey.getURI(), true);
 			DataBlock block = data.getDataAsBlock();
 			File outFile = new File(outputName);
-			FileOutputStream outStream = new FileOutputStream(outFile);
-			BlockWriter.writeBlock(outStream, block);
+			try (OutputStream outStream = new FileOutputStream(outFile)) {
+				BlockWriter.writeBlock(outStream, block);
+			}
 
 			LogBox.formatRenderLog("Successfully exported: %s\n", outputName);
 		} catch (Exception ex) {
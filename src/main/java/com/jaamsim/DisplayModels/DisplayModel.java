@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2013 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +17,8 @@
  */
 package com.jaamsim.DisplayModels;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import com.jaamsim.basicsim.Entity;
 import com.jaamsim.datatypes.DoubleVector;
 import com.jaamsim.input.EntityListInput;
@@ -34,6 +37,7 @@ public abstract class DisplayModel extends Entity {
 	public static final Vec3d ONES = new Vec3d(1.0d, 1.0d, 1.0d);
 
 	private VisibilityInfo visInfo = ALWAYS;
+	private static final AtomicLong inputVersion = new AtomicLong();
 
 	@Keyword(description = "The view objects this model will be visible on. If this is empty the entity is visible on all views.",
 	         example = "ShipModel VisibleViews { TitleView DefaultView }")
@@ -93,6 +97,15 @@ public abstract class DisplayModel extends Entity {
 			visInfo = new VisibilityInfo(visibleViews.getValue(), minDist, maxDist);
 		}
 
+		inputVersion.incrementAndGet();
+	}
+
+	/**
+	 * Returns a number that changes whenever an input to any DisplayModel is changed.
+	 * @return version number for the DisplayModel inputs.
+	 */
+	public static long getInputVersion() {
+		return inputVersion.get();
 	}
 
 	public VisibilityInfo getVisibilityInfo() {
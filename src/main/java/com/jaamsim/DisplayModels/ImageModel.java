@@ -198,6 +198,11 @@ public class ImageModel extends DisplayModel {
 
 		}
 
+		@Override
+		protected boolean isStatic() {
+			return true;
+		}
+
 		@Override
 		public void collectProxies(double simTime, ArrayList<RenderProxy> out) {
 			// This is slightly quirky behaviour, as a null entity will be shown because we use that for previews
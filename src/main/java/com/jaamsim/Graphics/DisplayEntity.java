@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2002-2011 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +19,7 @@ package com.jaamsim.Graphics;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.jaamsim.DisplayModels.ArrowModel;
 import com.jaamsim.DisplayModels.DisplayModel;
@@ -126,6 +128,7 @@ public class DisplayEntity extends Entity {
 
 	private final Vec3d position = new Vec3d();
 	private final Vec3d size = new Vec3d(1.0d, 1.0d, 1.0d);
+	private volatile boolean culled;  // true if the object holding this entity has hidden it
 	private final Vec3d orient = new Vec3d();
 	private final Vec3d align = new Vec3d();
 	private final ArrayList<DisplayModel> displayModelList = new ArrayList<>();
@@ -136,6 +139,10 @@ public class DisplayEntity extends Entity {
 
 	private final HashMap<String, Tag> tagMap = new HashMap<>();
 
+	// Changes whenever the graphics for the entity need to be updated
+	private volatile long graphicsVersion;
+	private static final AtomicLong graphicsCounter = new AtomicLong();
+
 	{
 		positionInput = new Vec3dInput("Position", "Graphics", new Vec3d());
 		positionInput.setUnitType(DistanceUnit.class);
@@ -215,6 +222,7 @@ public class DisplayEntity extends Entity {
 	public void earlyInit() {
 		super.earlyInit();
 		this.resetGraphics();
+		this.setCulled(false);
 	}
 
 	/**
@@ -340,6 +348,7 @@ public class DisplayEntity extends Entity {
 	 */
 	public void setRegion( Region newRegion ) {
 		currentRegion = newRegion;
+		this.setGraphicsChanged();
 	}
 
 	/**
@@ -413,12 +422,14 @@ public class DisplayEntity extends Entity {
 	public void setOrientation(Vec3d orientation) {
 		synchronized (position) {
 			orient.set3(orientation);
+			graphicsVersion = graphicsCounter.incrementAndGet();
 		}
 	}
 
 	public void setSize(Vec3d size) {
 		synchronized (position) {
 			this.size.set3(size);
+			graphicsVersion = graphicsCounter.incrementAndGet();
 		}
 	}
 
@@ -618,12 +629,14 @@ public class DisplayEntity extends Entity {
 	public void setAlignment(Vec3d align) {
 		synchronized (position) {
 			this.align.set3(align);
+			graphicsVersion = graphicsCounter.incrementAndGet();
 		}
 	}
 
 	public void setPosition(Vec3d pos) {
 		synchronized (position) {
 			position.set3(pos);
+			graphicsVersion = graphicsCounter.incrementAndGet();
 		}
 	}
 
@@ -739,6 +752,7 @@ public class DisplayEntity extends Entity {
 			displayModelList.add(dm);
 		}
 		clearBindings(); // Clear this on any change, and build it lazily later
+		this.setGraphicsChanged();
 	}
 
 	public final void clearBindings() {
@@ -786,7 +800,46 @@ public class DisplayEntity extends Entity {
 	}
 
 	public boolean getShow() {
-		return show.getValue();
+		return show.getValue() && !culled;
+	}
+
+	/**
+	 * Hides or re-displays the entity independently of its Show input. Used by an
+	 * object such as a Queue that holds more entities than it can display.
+	 * @param bool - true if the entity is to be hidden.
+	 */
+	public void setCulled(boolean bool) {
+		if (culled == bool)
+			return;
+		culled = bool;
+		this.setGraphicsChanged();
+	}
+
+	/**
+	 * Records that the graphics for the entity have changed.
+	 */
+	protected final void setGraphicsChanged() {
+		synchronized (position) {
+			graphicsVersion = graphicsCounter.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Returns a number that changes whenever the position, size, orientation, alignment,
+	 * region, tags, display models or inputs for the entity are changed, or when those for
+	 * its relative entity or region are changed. Used by the renderer to re-use the graphics
+	 * for an entity that has not changed.
+	 * @return version number for the entity's graphics.
+	 */
+	public long getGraphicsVersion() {
+		long ret = graphicsVersion;
+		DisplayEntity ent = this.getRelativeEntity();
+		if (ent != null && ent != this)
+			ret = Math.max(ret, ent.getGraphicsVersion());
+		Region region = currentRegion;
+		if (region != null && region != this)
+			ret = Math.max(ret, region.getGraphicsVersion());
+		return ret;
 	}
 
 	public boolean isMovable() {
@@ -862,6 +915,7 @@ public class DisplayEntity extends Entity {
 	@Override
 	public void updateForInput( Input<?> in ) {
 		super.updateForInput( in );
+		this.setGraphicsChanged();
 
 		if( in == positionInput ) {
 			this.setPosition(  positionInput.getValue() );
@@ -976,13 +1030,14 @@ public class DisplayEntity extends Entity {
 		if (t == null) {
 			t = new Tag(cas, null, true);
 			tagMap.put(tagName, t);
+			this.setGraphicsChanged();
 			return;
 		}
 
 		if (t.colorsMatch(cas))
 			return;
-		else
-			tagMap.put(tagName, new Tag(cas, t.sizes, t.visible));
+		tagMap.put(tagName, new Tag(cas, t.sizes, t.visible));
+		this.setGraphicsChanged();
 	}
 
 	public final void setTagSize(String tagName, double size) {
@@ -996,13 +1051,14 @@ public class DisplayEntity extends Entity {
 		if (t == null) {
 			t = new Tag(null, sizes, true);
 			tagMap.put(tagName, t);
+			this.setGraphicsChanged();
 			return;
 		}
 
 		if (t.sizesMatch(sizes))
 			return;
-		else
-			tagMap.put(tagName, new Tag(t.colors, sizes, t.visible));
+		tagMap.put(tagName, new Tag(t.colors, sizes, t.visible));
+		this.setGraphicsChanged();
 	}
 
 	public final void setTagVisibility(String tagName, boolean isVisible) {
@@ -1010,13 +1066,14 @@ public class DisplayEntity extends Entity {
 		if (t == null) {
 			t = new Tag(null, null, isVisible);
 			tagMap.put(tagName, t);
+			this.setGraphicsChanged();
 			return;
 		}
 
 		if (t.visMatch(isVisible))
 			return;
-		else
-			tagMap.put(tagName, new Tag(t.colors, t.sizes, isVisible));
+		tagMap.put(tagName, new Tag(t.colors, t.sizes, isVisible));
+		this.setGraphicsChanged();
 	}
 
 	/**
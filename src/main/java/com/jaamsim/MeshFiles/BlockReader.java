@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2013 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,124 +17,216 @@
  */
 package com.jaamsim.MeshFiles;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.zip.CRC32;
 
+/**
+ * Reads DataBlocks from a buffer holding the contents of a block file. Blocks in both the
+ * original format and the aligned format written by BlockWriter can be read.
+ * <p>
+ * The data of each block is a view of the buffer rather than a copy, and the child blocks are
+ * only read when they are first needed. Local files are memory mapped, so the block data is
+ * read from disk by the operating system as it is used.
+ */
 public class BlockReader {
 
 	private static final boolean CHECK_PAYLOAD_CRC = false;
 
 	public static final MeshData parse(URI asset) throws Exception {
-		InputStream inStream = asset.toURL().openStream();
-		DataBlock block = readBlock(inStream);
+		ByteBuffer buffer = readBuffer(asset);
+		DataBlock block = readBlock(buffer, 0);
 		return new MeshData(false, block, asset.toURL());
 	}
 
+	/**
+	 * Returns the contents of the asset. Local files are memory mapped, other assets are read
+	 * into a direct buffer.
+	 */
+	public static ByteBuffer readBuffer(URI asset) throws IOException {
+		if ("file".equals(asset.getScheme())) {
+			try (FileChannel channel = FileChannel.open(Paths.get(asset), StandardOpenOption.READ)) {
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+		}
+
+		try (InputStream in = asset.toURL().openStream()) {
+			return readBuffer(in);
+		}
+	}
+
+	private static ByteBuffer readBuffer(InputStream in) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] readBuffer = new byte[64*1024];
+		while (true) {
+			int bytesRead = in.read(readBuffer);
+			if (bytesRead == -1)
+				break;
+			bytes.write(readBuffer, 0, bytesRead);
+		}
+
+		ByteBuffer ret = ByteBuffer.allocateDirect(bytes.size());
+		ret.put(bytes.toByteArray());
+		ret.flip();
+		return ret;
+	}
+
+	/**
+	 * Reads the rest of the input stream and returns the block at the start of it
+	 */
 	public static DataBlock readBlock(InputStream in) {
 		try {
-			byte[] readBuffer = new byte[128];
+			return readBlock(readBuffer(in), 0);
+		} catch (IOException e) {
+			throw new DataBlock.Error(e.getMessage());
+		}
+	}
 
-			// Read the header
-			readLoop(in, readBuffer, 0, 4);
-			for (int i = 0; i < 4; ++i) {
-				if (readBuffer[i] != BlockUtils.header[i])
-					throw new DataBlock.Error("Missing block header");
-			}
+	/**
+	 * Returns the block that starts at the given position in the buffer
+	 */
+	public static DataBlock readBlock(ByteBuffer buffer, int pos) {
+		try {
+			ByteBuffer buf = buffer.duplicate();
+			buf.order(ByteOrder.BIG_ENDIAN);
+
+			boolean aligned = isAligned(buf, pos);
 
 			// Read the header CRC
-			readLoop(in, readBuffer, 0, 4);
-			int headerValue = BlockUtils.intFromBytes(readBuffer, 0);
+			int headerValue = buf.getInt(pos + 4);
 
 			CRC32 headerCRC = new CRC32();
 
 			// Read until a null byte, or max 128
-			int stringSize = 0;
-			while (stringSize < 128) {
-				byte b = (byte)in.read();
-				headerCRC.update(b);
-				readBuffer[stringSize] = b;
-				if (b == 0)
-					break;
-				++stringSize;
-			}
-			if (stringSize == 128) {
-				throw new DataBlock.Error("No null terminator for block name");
-			}
+			int namePos = pos + 8;
+			int stringSize = getNameSize(buf, namePos);
 
-			String blockName = new String(readBuffer, 0, stringSize, "UTF-8");
+			byte[] nameBytes = new byte[stringSize];
+			for (int i = 0; i < stringSize; ++i) {
+				nameBytes[i] = buf.get(namePos + i);
+			}
+			headerCRC.update(nameBytes);
+			headerCRC.update(0);
+			String blockName = new String(nameBytes, "UTF-8");
 
-			// Read the number of children
-			readLoop(in, readBuffer, 0, 4);
+			int sizePos = namePos + stringSize + 1;
+			if (aligned) {
+				sizePos += BlockUtils.getPadding(sizePos - pos + 12);
+			}
 
+			// Read the number of children and the block size
+			byte[] readBuffer = new byte[12];
+			for (int i = 0; i < 12; ++i) {
+				readBuffer[i] = buf.get(sizePos + i);
+			}
 			int numChildren = BlockUtils.intFromBytes(readBuffer, 0);
-			headerCRC.update(readBuffer, 0, 4);
-
-			// Read the block size
-			readLoop(in, readBuffer, 0, 8);
-
-			long payloadSize = BlockUtils.longFromBytes(readBuffer, 0);
-			headerCRC.update(readBuffer, 0, 8);
+			long payloadSize = BlockUtils.longFromBytes(readBuffer, 4);
+			headerCRC.update(readBuffer, 0, 12);
 
 			// check the header Adds up
 			if ((int)headerCRC.getValue() != headerValue) {
 				throw new DataBlock.Error("Header CRC mismatch");
 			}
 
-			ArrayList<DataBlock> children = new ArrayList<>();
-
-			BlockUtils.CRCInputStream wrappedIn = new BlockUtils.CRCInputStream(in, CHECK_PAYLOAD_CRC);
+			int payloadPos = sizePos + 12;
+			if (payloadSize > Integer.MAX_VALUE - payloadPos) throw new DataBlock.Error("Block is too big and broke java");
+			int payloadEnd = payloadPos + (int)payloadSize;
 
+			// Find the children, without reading them yet
+			int[] childOffsets = new int[numChildren];
+			int dataPos = payloadPos;
 			for (int i = 0; i < numChildren; ++i) {
-				children.add(readBlock(wrappedIn));
+				childOffsets[i] = dataPos;
+				dataPos += getBlockSize(buf, dataPos);
+			}
+			if (dataPos > payloadEnd) {
+				throw new DataBlock.Error("Child blocks are larger than the block payload");
 			}
-			// Now read the remainder of the payload
-			long remainingBytes = payloadSize - wrappedIn.getBytesRead();
-			if (remainingBytes > Integer.MAX_VALUE) throw new DataBlock.Error("Block is too big and broke java");
 
-			byte[] data = new byte[(int)remainingBytes];
-			readLoop(in, data, 0, (int)remainingBytes);
+			int crcPos = payloadEnd;
+			if (aligned) {
+				crcPos += BlockUtils.getPadding(payloadSize);
+			}
 
 			// Check the CRC and footer
-			readLoop(in, readBuffer, 0, 4);
-
 			if (CHECK_PAYLOAD_CRC) {
-				int payloadValue = BlockUtils.intFromBytes(readBuffer, 0);
-				if (payloadValue != (int)wrappedIn.getCRC())
+				CRC32 payloadCRC = new CRC32();
+				for (int i = payloadPos; i < payloadEnd; ++i) {
+					payloadCRC.update(buf.get(i));
+				}
+				if (buf.getInt(crcPos) != (int)payloadCRC.getValue())
 					throw new DataBlock.Error("Block payload CRC mismatch");
 			}
 
 			// Finally read the footer
-			readLoop(in, readBuffer, 0, 4);
 			for (int i = 0; i < 4; ++i) {
-				if (readBuffer[i] != BlockUtils.footer[i])
-					throw new DataBlock.Error("Missing block header");
+				if (buf.get(crcPos + 4 + i) != BlockUtils.footer[i])
+					throw new DataBlock.Error("Missing block footer");
 			}
 
 			// Everything checks out here, return the block
-			return new DataBlock(blockName, data, children);
+			buf.limit(payloadEnd);
+			buf.position(dataPos);
+			return new DataBlock(blockName, buf.slice(), buffer, childOffsets);
 
+		} catch (DataBlock.Error e) {
+			throw e;
 		} catch (Exception e) {
 			throw new DataBlock.Error(e.getMessage());
 		}
 	}
 
 	/**
-	 * Wrapper around InputStream.read() that keeps reading until the requested amount is found, or EOF
-	 * Throws on error
+	 * Returns the total size of the block that starts at the given position
 	 */
-	private static void readLoop(InputStream in, byte[] buffer, int offset, int size) throws IOException {
-		int total = 0;
-		int bytesRead;
-		while (total < size) {
-			bytesRead = in.read(buffer, total, size - total);
+	private static long getBlockSize(ByteBuffer buf, int pos) {
+		boolean aligned = isAligned(buf, pos);
+		int headerSize = 8 + getNameSize(buf, pos + 8) + 1;
+		if (aligned) {
+			headerSize += BlockUtils.getPadding(headerSize + 12);
+		}
+		long payloadSize = buf.getLong(pos + headerSize + 4);
+		headerSize += 12;
 
-			if (bytesRead == -1)
-				throw new DataBlock.Error("Unexpected End of stream");
+		if (aligned) {
+			return headerSize + payloadSize + BlockUtils.getPadding(payloadSize) + 8;
+		}
+		return headerSize + payloadSize + 8;
+	}
+
+	/**
+	 * Checks the block header and returns true for a block in the aligned format
+	 */
+	private static boolean isAligned(ByteBuffer buf, int pos) {
+		if (matches(buf, pos, BlockUtils.header))
+			return false;
+		if (matches(buf, pos, BlockUtils.alignedHeader))
+			return true;
+		throw new DataBlock.Error("Missing block header");
+	}
+
+	private static boolean matches(ByteBuffer buf, int pos, byte[] bytes) {
+		for (int i = 0; i < bytes.length; ++i) {
+			if (buf.get(pos + i) != bytes[i])
+				return false;
+		}
+		return true;
+	}
 
-			total += bytesRead;
+	private static int getNameSize(ByteBuffer buf, int pos) {
+		int stringSize = 0;
+		while (stringSize < 128) {
+			if (buf.get(pos + stringSize) == 0)
+				return stringSize;
+			++stringSize;
 		}
+		throw new DataBlock.Error("No null terminator for block name");
 	}
 }
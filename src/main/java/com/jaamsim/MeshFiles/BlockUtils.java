@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2013 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,8 +25,15 @@ import java.util.zip.CRC32;
 public class BlockUtils {
 
 	public static final byte[] header;
+	public static final byte[] alignedHeader;
 	public static final byte[] footer;
 
+	/**
+	 * Blocks that start with the aligned header are padded so that each block, and the data
+	 * section of each block, starts on a multiple of this many bytes from the start of the file
+	 */
+	public static final int ALIGNMENT = 8;
+
 	static {
 		header = new byte[4];
 		header[0] = 'B';
@@ -33,6 +41,12 @@ public class BlockUtils {
 		header[2] = 'C';
 		header[3] = 'K';
 
+		alignedHeader = new byte[4];
+		alignedHeader[0] = 'B';
+		alignedHeader[1] = 'L';
+		alignedHeader[2] = 'K';
+		alignedHeader[3] = '8';
+
 		footer = new byte[4];
 		footer[0] = 'B';
 		footer[1] = 'E';
@@ -41,6 +55,13 @@ public class BlockUtils {
 	}
 
 
+	/**
+	 * Returns the number of bytes needed after 'size' bytes to reach the next aligned position
+	 */
+	public static int getPadding(long size) {
+		return (int)((ALIGNMENT - size % ALIGNMENT) % ALIGNMENT);
+	}
+
 	public static void intToBytes(int i, byte[] bytes, int offset) {
 		bytes[offset + 0] = (byte)((i & 0xFF000000) >> 24);
 		bytes[offset + 1] = (byte)((i & 0x00FF0000) >> 16);
@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2013 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +20,7 @@ package com.jaamsim.MeshFiles;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.util.zip.CRC32;
 
 public class BlockWriter {
@@ -35,14 +37,28 @@ public class BlockWriter {
 	private static long getBlockTotalSize(DataBlock b) {
 		try {
 			byte[] nameBytes = b.getName().getBytes("UTF-8");
-			return 29 + nameBytes.length + getBlockDataSize(b);
+			long payloadSize = getBlockDataSize(b);
+			return getHeaderSize(nameBytes.length) + payloadSize + BlockUtils.getPadding(payloadSize) + 8;
 		} catch (UnsupportedEncodingException e) {
 			throw new DataBlock.Error(e.getMessage());
 		}
 	}
 
+	/**
+	 * Returns the size of the block header including the padding after the block name
+	 */
+	private static int getHeaderSize(int nameSize) {
+		int size = 21 + nameSize;
+		return size + BlockUtils.getPadding(size);
+	}
+
 	/**
 	 * Write the block and sub blocks to the output stream
+	 * <p>
+	 * The blocks are written in the aligned format, where the block name is followed by zeros
+	 * so that the header size is a multiple of BlockUtils.ALIGNMENT and the data section is
+	 * followed by zeros so that the size of the whole block is too. If the first block starts at
+	 * the start of the file, every block and every data section starts at an aligned position.
 	 * Can throw a DataBlock.Error
 	 * @param out
 	 * @param d
@@ -70,10 +86,12 @@ public class BlockWriter {
 			BlockUtils.intToBytes((int)headerCRC.getValue(), crcBytes, 0);
 
 			// header is ready, so start writing
-			out.write(BlockUtils.header);
+			out.write(BlockUtils.alignedHeader);
 			out.write(crcBytes);
 			out.write(nameBytes);
 			out.write(0);
+			int namePadding = getHeaderSize(nameBytes.length) - 21 - nameBytes.length;
+			out.write(new byte[namePadding]);
 			out.write(numChildrenBytes);
 			out.write(sizeBytes);
 
@@ -83,7 +101,14 @@ public class BlockWriter {
 				writeBlock(crcStream, child);
 			}
 			// Write the data section
-			crcStream.write(b.getData(), 0, b.getDataSize());
+			ByteBuffer data = b.getDataBuffer();
+			byte[] temp = new byte[Math.min(data.remaining(), 64*1024)];
+			while (data.hasRemaining()) {
+				int size = Math.min(data.remaining(), temp.length);
+				data.get(temp, 0, size);
+				crcStream.write(temp, 0, size);
+			}
+			out.write(new byte[BlockUtils.getPadding(payloadSize)]);
 
 			// re-use the CRC bytes array
 			BlockUtils.intToBytes((int)crcStream.getCRC(), crcBytes, 0);
@@ -1,7 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2013 Ausenco Engineering Canada Inc.
- * Copyright (C) 2015 JaamSim Software Inc.
+ * Copyright (C) 2015-2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,10 @@
 package com.jaamsim.MeshFiles;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 
 import com.jaamsim.math.Mat4d;
@@ -38,17 +42,22 @@ public class DataBlock {
 	}
 
 	private final String name;
-	private final byte[] data;
+	private final ByteBuffer data;
 	private int dataSize = 0;
 	private int readPos = 0;
-	private final ArrayList<DataBlock> children;
+	private ArrayList<DataBlock> children;
+
+	// The file buffer and positions of the child blocks for a block that was read from a buffer,
+	// the children are only read when they are first needed
+	private ByteBuffer source;
+	private int[] childOffsets;
 
 	/** Create a new DataBlock with room for 'bufferSize' bytes of binary data
 	 *  this method is intended for data that is being dynamically generated, eg by an exporter
 	 */
 	public DataBlock(String name, int bufferSize) {
 		this.name = name;
-		data = new byte[bufferSize];
+		data = ByteBuffer.allocate(bufferSize);
 		children = new ArrayList<>();
 	}
 
@@ -60,11 +69,23 @@ public class DataBlock {
 	 */
 	public DataBlock(String name, byte[] data, ArrayList<DataBlock> children) {
 		this.name = name;
-		this.data = data;
+		this.data = ByteBuffer.wrap(data);
 		this.children = children;
 		dataSize = data.length;
 	}
 
+	/**
+	 * Create a DataBlock whose data is a view of part of a file buffer. The child blocks start
+	 * at the given positions in the buffer and are read by BlockReader when they are needed.
+	 */
+	DataBlock(String name, ByteBuffer data, ByteBuffer source, int[] childOffsets) {
+		this.name = name;
+		this.data = data;
+		this.source = source;
+		this.childOffsets = childOffsets;
+		dataSize = data.limit();
+	}
+
 	public int getDataSize() {
 		return dataSize;
 	}
@@ -84,16 +105,30 @@ public class DataBlock {
 		return readPos == dataSize;
 	}
 
-	public byte[] getData() {
-		return data;
+	/**
+	 * Returns a read-only view of the data in this block
+	 */
+	public ByteBuffer getDataBuffer() {
+		ByteBuffer ret = data.asReadOnlyBuffer();
+		ret.position(0);
+		ret.limit(dataSize);
+		return ret.slice();
 	}
 
 	public ArrayList<DataBlock> getChildren() {
+		if (children == null) {
+			children = new ArrayList<>(childOffsets.length);
+			for (int offset : childOffsets) {
+				children.add(BlockReader.readBlock(source, offset));
+			}
+			source = null;
+			childOffsets = null;
+		}
 		return children;
 	}
 
 	public void addChildBlock(DataBlock child) {
-		children.add(child);
+		getChildren().add(child);
 	}
 
 	public String getName() {
@@ -101,7 +136,7 @@ public class DataBlock {
 	}
 
 	private void checkWriteSize(int newSize) {
-		if (dataSize + newSize > data.length) {
+		if (dataSize + newSize > data.capacity()) {
 			throw new Error("DataBlock write too large");
 		}
 	}
@@ -116,13 +151,15 @@ public class DataBlock {
 	public void writeData(byte[] d) {
 		checkWriteSize(d.length);
 
-		System.arraycopy(d, 0, data, dataSize, d.length);
+		ByteBuffer bb = data.duplicate();
+		bb.position(dataSize);
+		bb.put(d);
 		dataSize += d.length;
 	}
 
 	public void writeByte(byte b) {
 		checkWriteSize(1);
-		data[dataSize++] = b;
+		data.put(dataSize++, b);
 	}
 
 	public void writeDouble(double d) {
@@ -131,7 +168,7 @@ public class DataBlock {
 	public void writeLong(long l) {
 		checkWriteSize(8);
 
-		BlockUtils.longToBytes(l, data, dataSize);
+		data.putLong(dataSize, l);
 		dataSize += 8;
 	}
 
@@ -142,18 +179,50 @@ public class DataBlock {
 	public void writeInt(int i) {
 		checkWriteSize(4);
 
-		BlockUtils.intToBytes(i, data, dataSize);
+		data.putInt(dataSize, i);
 		dataSize += 4;
 	}
 
+	/**
+	 * Adds the values in the buffer, from zero up to its limit, as little endian floats. Data
+	 * written this way can be returned by readFloats() without being copied.
+	 */
+	public void writeFloats(FloatBuffer vals) {
+		checkWriteSize(vals.limit() * 4);
+
+		FloatBuffer src = vals.duplicate();
+		src.position(0);
+		getWriteBuffer().asFloatBuffer().put(src);
+		dataSize += vals.limit() * 4;
+	}
+
+	/**
+	 * Adds the values in the buffer, from zero up to its limit, as little endian ints. Data
+	 * written this way can be returned by readInts() without being copied.
+	 */
+	public void writeInts(IntBuffer vals) {
+		checkWriteSize(vals.limit() * 4);
+
+		IntBuffer src = vals.duplicate();
+		src.position(0);
+		getWriteBuffer().asIntBuffer().put(src);
+		dataSize += vals.limit() * 4;
+	}
+
+	private ByteBuffer getWriteBuffer() {
+		ByteBuffer bb = data.duplicate();
+		bb.position(dataSize);
+		bb.order(ByteOrder.LITTLE_ENDIAN);
+		return bb;
+	}
+
 	public void writeString(String s) {
 		try {
 			byte[] utf8 = s.getBytes("UTF-8");
-			checkWriteSize(s.length() + 1); // Room for the string and null terminator
+			checkWriteSize(utf8.length + 1); // Room for the string and null terminator
 
-			System.arraycopy(utf8, 0, data, dataSize, utf8.length);
-			dataSize += utf8.length;
-			data[dataSize++] = 0; // Add the null terminator
+			writeData(utf8);
+			data.put(dataSize++, (byte)0); // Add the null terminator
 
 		} catch (UnsupportedEncodingException e) {
 			throw new Error(e.getMessage());
@@ -187,13 +256,13 @@ public class DataBlock {
 
 	public byte readByte() {
 		checkReadSize(1);
-		return data[readPos++];
+		return data.get(readPos++);
 	}
 
 	public int readInt() {
 		checkReadSize(4);
 
-		int ret = BlockUtils.intFromBytes(data, readPos);
+		int ret = data.getInt(readPos);
 		readPos += 4;
 		return ret;
 	}
@@ -206,7 +275,7 @@ public class DataBlock {
 	public long readLong() {
 		checkReadSize(8);
 
-		long ret = BlockUtils.longFromBytes(data, readPos);
+		long ret = data.getLong(readPos);
 		readPos += 8;
 		return ret;
 	}
@@ -219,9 +288,10 @@ public class DataBlock {
 	public String readString() {
 		// Find the next null terminator
 		int startPos = readPos;
-		while (readPos++ < dataSize) {
-			if (data[readPos] == 0)
+		while (readPos < dataSize) {
+			if (data.get(readPos) == 0)
 				break;
+			readPos++;
 		}
 		if (readPos == dataSize) {
 			throw new Error("Read string past end of block");
@@ -229,7 +299,9 @@ public class DataBlock {
 		int size = readPos - startPos;
 		readPos++; // Skip the null byte
 		byte[] bytes = new byte[size];
-		System.arraycopy(data, startPos, bytes, 0, size);
+		for (int i = 0; i < size; ++i) {
+			bytes[i] = data.get(startPos + i);
+		}
 
 		try {
 			return new String(bytes, "UTF-8");
@@ -238,6 +310,44 @@ public class DataBlock {
 		}
 	}
 
+	/**
+	 * Returns the rest of the block as little endian floats. The returned buffer is a view of
+	 * the block data unless the data has to be copied into a direct buffer in native order.
+	 */
+	public FloatBuffer readFloats() {
+		return readNativeBuffer().asFloatBuffer();
+	}
+
+	/**
+	 * Returns the rest of the block as little endian ints. The returned buffer is a view of
+	 * the block data unless the data has to be copied into a direct buffer in native order.
+	 */
+	public IntBuffer readInts() {
+		return readNativeBuffer().asIntBuffer();
+	}
+
+	private ByteBuffer readNativeBuffer() {
+		if ((dataSize - readPos) % 4 != 0) {
+			throw new Error("DataBlock size is not a multiple of 4");
+		}
+
+		ByteBuffer bb = data.duplicate();
+		bb.limit(dataSize);
+		bb.position(readPos);
+		bb = bb.slice();
+		bb.order(ByteOrder.LITTLE_ENDIAN);
+		readPos = dataSize;
+
+		// OpenGL needs the data in a direct buffer in the platform's byte order
+		if (bb.isDirect() && ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN) {
+			return bb;
+		}
+		ByteBuffer ret = ByteBuffer.allocateDirect(bb.limit());
+		ret.order(ByteOrder.nativeOrder());
+		ret.asIntBuffer().put(bb.asIntBuffer());
+		return ret;
+	}
+
 	public Mat4d readMat4d() {
 		Mat4d ret = new Mat4d();
 
@@ -269,7 +379,7 @@ public class DataBlock {
 	 * @return
 	 */
 	public DataBlock findChildByName(String name) {
-		for (DataBlock b : children) {
+		for (DataBlock b : getChildren()) {
 			if (b.name.equals(name)) {
 				return b;
 			}
@@ -1,7 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2013 Ausenco Engineering Canada Inc.
- * Copyright (C) 2015 JaamSim Software Inc.
+ * Copyright (C) 2015-2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,7 +22,10 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -82,24 +85,52 @@ public class MeshData {
 		}
 	}
 
+	/**
+	 * The vertex data for a sub mesh. The positions and normals hold three floats for each
+	 * vertex and the texture coordinates hold two.
+	 */
 	public static class SubMeshData {
 
-		public ArrayList<Vec3d> verts;
-		public ArrayList<Vec2d> texCoords;
-		public ArrayList<Vec3d> normals;
-		public int[] indices;
+		public FloatBuffer verts;
+		public FloatBuffer texCoords;
+		public FloatBuffer normals;
+		public IntBuffer indices;
 
 		public ConvexHull staticHull;
 		public AABB localBounds;
 
 		public boolean keepRuntimeData;
+
+		public int getNumVerts() {
+			return verts.limit() / 3;
+		}
+
+		public void getVert(int i, Vec3d out) {
+			out.set3(verts.get(i*3), verts.get(i*3 + 1), verts.get(i*3 + 2));
+		}
 	}
 
 	public static class SubLineData {
-		public ArrayList<Vec3d> verts = new ArrayList<>();
+		public FloatBuffer verts;
 		public Color4d diffuseColor;
 
 		public ConvexHull hull;
+
+		public int getNumVerts() {
+			return verts.limit() / 3;
+		}
+
+		public void getVert(int i, Vec3d out) {
+			out.set3(verts.get(i*3), verts.get(i*3 + 1), verts.get(i*3 + 2));
+		}
+	}
+
+	private static FloatBuffer toFloatBuffer(double[] vals) {
+		float[] ret = new float[vals.length];
+		for (int i = 0; i < vals.length; ++i) {
+			ret[i] = (float)vals[i];
+		}
+		return FloatBuffer.wrap(ret);
 	}
 
 	public static class StaticMeshInstance {
@@ -534,8 +565,14 @@ public class MeshData {
 		}
 	}
 
+	private static boolean samePosition(double[] positions, int ind0, int ind1) {
+		return positions[ind0*3 + 0] == positions[ind1*3 + 0] &&
+		       positions[ind0*3 + 1] == positions[ind1*3 + 1] &&
+		       positions[ind0*3 + 2] == positions[ind1*3 + 2];
+	}
+
 	// Returns a new index list with any zero area triangles removed
-	private int[] removeDegenerateTriangles(ArrayList<Vertex> vertices, int[] indices) {
+	private int[] removeDegenerateTriangles(double[] positions, int[] indices) {
 		assert(indices.length % 3 == 0);
 		int[] goodIndices = new int[indices.length];
 		int goodWritePos = 0;
@@ -544,14 +581,11 @@ public class MeshData {
 			int ind0 = indices[triInd * 3 + 0];
 			int ind1 = indices[triInd * 3 + 1];
 			int ind2 = indices[triInd * 3 + 2];
-			Vec3d pos0 = vertices.get(ind0).getPos();
-			Vec3d pos1 = vertices.get(ind1).getPos();
-			Vec3d pos2 = vertices.get(ind2).getPos();
 
 			if (ind0 == ind1 || ind1 == ind2 || ind2 == ind0) {
 				continue;
 			}
-			if (pos0.equals3(pos1) || pos1.equals3(pos2) || pos2.equals3(pos0)) {
+			if (samePosition(positions, ind0, ind1) || samePosition(positions, ind1, ind2) || samePosition(positions, ind2, ind0)) {
 				continue;
 			}
 			goodIndices[goodWritePos++] = ind0;
@@ -569,11 +603,22 @@ public class MeshData {
 		return ret;
 	}
 
-	public void addSubMesh(ArrayList<Vertex> vertices,
+	/**
+	 * Adds a sub mesh with the given vertex data.
+	 * @param positions - x, y, z coordinates for each vertex
+	 * @param normals - x, y, z components of the normal for each vertex
+	 * @param texCoords - u, v texture coordinates for each vertex, or null if there are none
+	 * @param indices - vertex indices for each triangle
+	 */
+	public void addSubMesh(double[] positions,
+	                       double[] normals,
+	                       double[] texCoords,
 	                       int[] indices) {
 
-		if (vertices.size() < 3) {
-			vertices = new ArrayList<>();
+		if (positions.length < 3 * 3) {
+			positions = new double[0];
+			normals = new double[0];
+			texCoords = null;
 			indices = new int[0];
 		}
 
@@ -581,29 +626,20 @@ public class MeshData {
 		sub.keepRuntimeData = keepRuntimeData;
 		_subMeshesData.add(sub);
 
-		int[] goodIndices = removeDegenerateTriangles(vertices, indices);
-		sub.indices = goodIndices;
-
-		assert((sub.indices.length % 3) == 0);
+		int[] goodIndices = removeDegenerateTriangles(positions, indices);
+		sub.indices = IntBuffer.wrap(goodIndices);
 
-		// Assume if there is one tex coordinate, there will be all of them
-		boolean hasTexCoords = vertices.size() > 0 && vertices.get(0).getTexCoord() != null;
+		assert((sub.indices.limit() % 3) == 0);
+		assert(normals.length == positions.length);
 
-		sub.verts = new ArrayList<>(vertices.size());
-		sub.normals = new ArrayList<>(vertices.size());
-
-		if (hasTexCoords) {
-			sub.texCoords = new ArrayList<>(vertices.size());
-		}
-		for (Vertex v : vertices) {
-			sub.verts.add(v3Interner.intern(v.getPos()));
-			sub.normals.add(v3Interner.intern(v.getNormal()));
-			if (hasTexCoords) {
-				sub.texCoords.add(v2Interner.intern(v.getTexCoord()));
-			}
+		sub.verts = toFloatBuffer(positions);
+		sub.normals = toFloatBuffer(normals);
+		if (texCoords != null) {
+			sub.texCoords = toFloatBuffer(texCoords);
 		}
 
-		sub.staticHull = ConvexHull.TryBuildHull(sub.verts, MAX_HULL_ATTEMPTS, MAX_HULL_POINTS, v3Interner);
+		// The hull is built from the original double precision coordinates
+		sub.staticHull = ConvexHull.TryBuildHull(positions, MAX_HULL_ATTEMPTS, MAX_HULL_POINTS, v3Interner);
 		sub.localBounds = sub.staticHull.getAABB(new Mat4d());
 	}
 
@@ -619,11 +655,13 @@ public class MeshData {
 
 		assert((vertices.length % 2) == 0);
 
+		sub.verts = FloatBuffer.allocate(vertices.length * 3);
 		for (Vec3d v : vertices) {
-			sub.verts.add(v3Interner.intern(v));
+			putVec3d(sub.verts, v);
 		}
+		sub.verts.flip();
 
-		sub.hull = ConvexHull.TryBuildHull(sub.verts, MAX_HULL_ATTEMPTS, MAX_HULL_POINTS, v3Interner);
+		sub.hull = ConvexHull.TryBuildHull(new ArrayList<>(Arrays.asList(vertices)), MAX_HULL_ATTEMPTS, MAX_HULL_POINTS, v3Interner);
 	}
 
 	public boolean hasTransparent() {
@@ -1012,11 +1050,11 @@ public class MeshData {
 		int numTriangles = 0;
 		for (StaticMeshInstance inst : _staticMeshInstances) {
 			SubMeshData data = _subMeshesData.get(inst.subMeshIndex);
-			numTriangles += data.indices.length / 3;
+			numTriangles += data.indices.limit() / 3;
 		}
 		for (AnimMeshInstance inst : _animMeshInstances) {
 			SubMeshData data = _subMeshesData.get(inst.meshIndex);
-			numTriangles += data.indices.length / 3;
+			numTriangles += data.indices.limit() / 3;
 		}
 		return numTriangles;
 	}
@@ -1024,7 +1062,7 @@ public class MeshData {
 	public int getNumVertices() {
 		int numVerts = 0;
 		for (SubMeshData data : _subMeshesData) {
-			numVerts += data.verts.size();
+			numVerts += data.getNumVerts();
 		}
 		return numVerts;
 	}
@@ -1104,36 +1142,52 @@ public class MeshData {
 			SubMeshData subData = new SubMeshData();
 			subData.keepRuntimeData = keepRuntimeData;
 
-			DataBlock vertBlock = subMeshBlock.findChildByName("Vertices");
-			if (vertBlock == null) throw new RenderException("Missing vertices in submesh");
-			subData.verts = new ArrayList<>(vertBlock.getDataSize() / 4);
-			for (int i = 0; i < vertBlock.getDataSize() / 4; ++i) {
-				int vertInd = vertBlock.readInt();
-				subData.verts.add(vec3ds[vertInd]);
-			}
+			// Newer files hold the vertex data as arrays of floats that are used without copying,
+			// older files hold indices into the vector library
+			DataBlock vertDataBlock = subMeshBlock.findChildByName("VertexData");
+			if (vertDataBlock != null) {
+				subData.verts = vertDataBlock.readFloats();
 
-			DataBlock normBlock = subMeshBlock.findChildByName("Normals");
-			if (normBlock == null) throw new RenderException("Missing normals in submesh");
-			subData.normals = new ArrayList<>(normBlock.getDataSize() / 4);
-			for (int i = 0; i < normBlock.getDataSize() / 4; ++i) {
-				int normInd = normBlock.readInt();
-				subData.normals.add(vec3ds[normInd]);
-			}
+				DataBlock normBlock = subMeshBlock.findChildByName("NormalData");
+				if (normBlock == null) throw new RenderException("Missing normals in submesh");
+				subData.normals = normBlock.readFloats();
 
-			DataBlock texCoordBlock = subMeshBlock.findChildByName("TexCoords");
-			if (texCoordBlock != null) {
-				subData.texCoords = new ArrayList<>(texCoordBlock.getDataSize() / 4);
-				for (int i = 0; i < texCoordBlock.getDataSize() / 4; ++i) {
-					int texInd = texCoordBlock.readInt();
-					subData.texCoords.add(vec2ds[texInd]);
+				DataBlock texCoordBlock = subMeshBlock.findChildByName("TexCoordData");
+				if (texCoordBlock != null) {
+					subData.texCoords = texCoordBlock.readFloats();
 				}
+
+				DataBlock indicesBlock = subMeshBlock.findChildByName("IndexData");
+				if (indicesBlock == null) throw new RenderException("Missing indices in submesh");
+				subData.indices = indicesBlock.readInts();
 			}
+			else {
+				DataBlock vertBlock = subMeshBlock.findChildByName("Vertices");
+				if (vertBlock == null) throw new RenderException("Missing vertices in submesh");
+				subData.verts = readVec3ds(vertBlock, vec3ds);
+
+				DataBlock normBlock = subMeshBlock.findChildByName("Normals");
+				if (normBlock == null) throw new RenderException("Missing normals in submesh");
+				subData.normals = readVec3ds(normBlock, vec3ds);
+
+				DataBlock texCoordBlock = subMeshBlock.findChildByName("TexCoords");
+				if (texCoordBlock != null) {
+					subData.texCoords = FloatBuffer.allocate(texCoordBlock.getDataSize() / 4 * 2);
+					for (int i = 0; i < texCoordBlock.getDataSize() / 4; ++i) {
+						int texInd = texCoordBlock.readInt();
+						subData.texCoords.put((float)vec2ds[texInd].x);
+						subData.texCoords.put((float)vec2ds[texInd].y);
+					}
+					subData.texCoords.flip();
+				}
 
-			DataBlock indicesBlock = subMeshBlock.findChildByName("Indices");
-			if (indicesBlock == null) throw new RenderException("Missing indices in submesh");
-			subData.indices = new int[indicesBlock.getDataSize() / 4];
-			for (int i = 0; i < indicesBlock.getDataSize() / 4; ++i) {
-				subData.indices[i] = indicesBlock.readInt();
+				DataBlock indicesBlock = subMeshBlock.findChildByName("Indices");
+				if (indicesBlock == null) throw new RenderException("Missing indices in submesh");
+				int[] indices = new int[indicesBlock.getDataSize() / 4];
+				for (int i = 0; i < indices.length; ++i) {
+					indices[i] = indicesBlock.readInt();
+				}
+				subData.indices = IntBuffer.wrap(indices);
 			}
 
 			DataBlock hullBlock = subMeshBlock.findChildByName("ConvexHull");
@@ -1151,19 +1205,34 @@ public class MeshData {
 			}
 			SubLineData subLine = new SubLineData();
 
-			DataBlock vertBlock = subLineBlock.findChildByName("Vertices");
-			if (vertBlock == null) throw new RenderException("Missing vertices in subline");
-			subLine.verts = new ArrayList<>(vertBlock.getDataSize() / 4);
-			for (int i = 0; i < vertBlock.getDataSize() / 4; ++i) {
-				int vertInd = vertBlock.readInt();
-				subLine.verts.add(vec3ds[vertInd]);
-			}
-
 			DataBlock colorBlock = subLineBlock.findChildByName("Color");
 			if (colorBlock == null) throw new RenderException("Missing color in subline");
 			subLine.diffuseColor = readColorFromBlock(colorBlock);
 
-			subLine.hull = ConvexHull.TryBuildHull(subLine.verts, MAX_HULL_ATTEMPTS, MAX_HULL_POINTS, v3Interner);
+			DataBlock vertDataBlock = subLineBlock.findChildByName("VertexData");
+			if (vertDataBlock != null) {
+				subLine.verts = vertDataBlock.readFloats();
+
+				DataBlock hullBlock = subLineBlock.findChildByName("ConvexHull");
+				if (hullBlock == null) throw new RenderException("Missing hull in subline");
+				subLine.hull = ConvexHull.fromDataBlock(hullBlock, vec3ds);
+			}
+			else {
+				DataBlock vertBlock = subLineBlock.findChildByName("Vertices");
+				if (vertBlock == null) throw new RenderException("Missing vertices in subline");
+				ArrayList<Vec3d> lineVerts = new ArrayList<>(vertBlock.getDataSize() / 4);
+				for (int i = 0; i < vertBlock.getDataSize() / 4; ++i) {
+					int vertInd = vertBlock.readInt();
+					lineVerts.add(vec3ds[vertInd]);
+				}
+				subLine.verts = FloatBuffer.allocate(lineVerts.size() * 3);
+				for (Vec3d v : lineVerts) {
+					putVec3d(subLine.verts, v);
+				}
+				subLine.verts.flip();
+
+				subLine.hull = ConvexHull.TryBuildHull(lineVerts, MAX_HULL_ATTEMPTS, MAX_HULL_POINTS, v3Interner);
+			}
 
 			_subLinesData.add(subLine);
 		}
@@ -1445,6 +1514,28 @@ public class MeshData {
 		return nodeBlock;
 	}
 
+	private static FloatBuffer readVec3ds(DataBlock block, Vec3d[] vec3ds) {
+		FloatBuffer ret = FloatBuffer.allocate(block.getDataSize() / 4 * 3);
+		for (int i = 0; i < block.getDataSize() / 4; ++i) {
+			int vecInd = block.readInt();
+			putVec3d(ret, vec3ds[vecInd]);
+		}
+		ret.flip();
+		return ret;
+	}
+
+	private static void putVec3d(FloatBuffer fb, Vec3d v) {
+		fb.put((float)v.x);
+		fb.put((float)v.y);
+		fb.put((float)v.z);
+	}
+
+	private void internHull(ConvexHull hull) {
+		for (Vec3d v : hull.getVertices()) {
+			v3Interner.intern(v);
+		}
+	}
+
 	/**
 	 * Build up a tree of 'DataBlock's and return it. This will return null if the runtime data needed as been discarded
 	 * @return
@@ -1454,6 +1545,15 @@ public class MeshData {
 			return null;
 		}
 
+		// Add the hull points to the vector library, the vertex data is written directly
+		for (SubMeshData subData : _subMeshesData) {
+			internHull(subData.staticHull);
+		}
+		for (SubLineData subData : _subLinesData) {
+			internHull(subData.hull);
+		}
+		internHull(_staticHull);
+
 		DataBlock topBlock = new DataBlock("MeshData", 0);
 		DataBlock vectorsBlock = new DataBlock("VectorLib", 0);
 		topBlock.addChildBlock(vectorsBlock);
@@ -1494,34 +1594,23 @@ public class MeshData {
 			DataBlock subDataBlock = new DataBlock("SubMeshData", 0);
 			subMeshes.addChildBlock(subDataBlock);
 
-			DataBlock subVertsBlock = new DataBlock("Vertices", subData.verts.size() * 4);
+			DataBlock subVertsBlock = new DataBlock("VertexData", subData.verts.limit() * 4);
 			subDataBlock.addChildBlock(subVertsBlock);
-			for (Vec3d v : subData.verts) {
-				int vecInd = v3Interner.getIndexForValue(v);
-				subVertsBlock.writeInt(vecInd);
-			}
+			subVertsBlock.writeFloats(subData.verts);
 
-			DataBlock subNormBlock = new DataBlock("Normals", subData.normals.size() * 4);
+			DataBlock subNormBlock = new DataBlock("NormalData", subData.normals.limit() * 4);
 			subDataBlock.addChildBlock(subNormBlock);
-			for (Vec3d v : subData.normals) {
-				int vecInd = v3Interner.getIndexForValue(v);
-				subNormBlock.writeInt(vecInd);
-			}
+			subNormBlock.writeFloats(subData.normals);
 
 			if (subData.texCoords != null) {
-				DataBlock subTexBlock = new DataBlock("TexCoords", subData.texCoords.size() * 4);
+				DataBlock subTexBlock = new DataBlock("TexCoordData", subData.texCoords.limit() * 4);
 				subDataBlock.addChildBlock(subTexBlock);
-				for (Vec2d v : subData.texCoords) {
-					int vecInd = v2Interner.getIndexForValue(v);
-					subTexBlock.writeInt(vecInd);
-				}
+				subTexBlock.writeFloats(subData.texCoords);
 			}
 
-			DataBlock indicesBlock = new DataBlock("Indices", subData.indices.length * 4);
+			DataBlock indicesBlock = new DataBlock("IndexData", subData.indices.limit() * 4);
 			subDataBlock.addChildBlock(indicesBlock);
-			for (int ind : subData.indices) {
-				indicesBlock.writeInt(ind);
-			}
+			indicesBlock.writeInts(subData.indices);
 
 			DataBlock hullBlock = subData.staticHull.toDataBlock(v3Interner);
 			subDataBlock.addChildBlock(hullBlock);
@@ -1535,16 +1624,16 @@ public class MeshData {
 			DataBlock subDataBlock = new DataBlock("SubLineData", 0);
 			subLines.addChildBlock(subDataBlock);
 
-			DataBlock subVertsBlock = new DataBlock("Vertices", subData.verts.size() * 4);
+			DataBlock subVertsBlock = new DataBlock("VertexData", subData.verts.limit() * 4);
 			subDataBlock.addChildBlock(subVertsBlock);
-			for (Vec3d v : subData.verts) {
-				int vecInd = v3Interner.getIndexForValue(v);
-				subVertsBlock.writeInt(vecInd);
-			}
+			subVertsBlock.writeFloats(subData.verts);
 
 			DataBlock colorBlock = new DataBlock("Color", 4);
 			subDataBlock.addChildBlock(colorBlock);
 			writeColorToBlock(subData.diffuseColor, colorBlock);
+
+			DataBlock hullBlock = subData.hull.toDataBlock(v3Interner);
+			subDataBlock.addChildBlock(hullBlock);
 		}
 
 		DataBlock subMInsts = new DataBlock("SubMeshInstances", 0);
@@ -0,0 +1,225 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.MeshFiles;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import com.jaamsim.collada.ColParser;
+import com.jaamsim.render.RenderException;
+import com.jaamsim.ui.LogBox;
+
+/**
+ * Loads Collada and OBJ assets through a cache of converted block files in the temporary
+ * directory, so that each asset is only parsed the first time it is used.
+ * <p>
+ * A cache file holds the URI of the asset, a hash of its contents and the mesh data written by
+ * BlockWriter. The cache file is replaced when the contents of the asset change or when the
+ * format of the mesh data changes.
+ * <p>
+ * The cache files are named jaamsim-*.jsb and are left in the temporary directory when the
+ * program exits. Nothing removes the file for an asset that is no longer used, so the files
+ * remain until the temporary directory is cleaned by the operating system or by the user.
+ */
+public class MeshFileCache {
+
+	// Increase this number when the layout of the MeshData blocks changes
+	private static final int CACHE_VERSION = 1;
+
+	private static final String ENTRY_BLOCK_NAME = "MeshCacheEntry";
+
+	/**
+	 * Returns the mesh data for the given Collada or OBJ asset, reading it from the cache if
+	 * possible and updating the cache otherwise.
+	 */
+	public static MeshData load(URI asset) throws Exception {
+		byte[] hash = getContentHash(asset);
+		File cache = getCacheFile(asset);
+
+		// Block file created previously from the same asset
+		MeshData ret = openCache(cache, asset, hash);
+		if (ret != null)
+			return ret;
+
+		MeshData data = parse(asset, true);
+
+		// Write a new block file and replace the old one, if possible
+		File temp = null;
+		try {
+			temp = File.createTempFile("jaamsim-", ".tmp", cache.getParentFile());
+			writeCacheFile(temp, asset, hash, data);
+			try {
+				Files.move(temp.toPath(), cache.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (IOException e) {
+				// The old block file may be in use by another model
+				temp.deleteOnExit();
+				return open(temp, asset);
+			}
+			return open(cache, asset);
+		}
+		catch (Exception e) {
+			LogBox.formatRenderLog("Could not cache 3D data file: %s\nError: %s\n", asset, e.getMessage());
+			if (temp != null)
+				temp.delete();
+			return data;
+		}
+	}
+
+	/**
+	 * Parses the asset directly.
+	 * @param keepData - true if the data needed to write the mesh to a block file is to be kept
+	 */
+	public static MeshData parse(URI asset, boolean keepData) throws Exception {
+		String ext = getExtension(asset);
+		if (ext.equals("DAE"))
+			return ColParser.parse(asset, keepData);
+		if (ext.equals("OBJ"))
+			return ObjReader.parse(asset, keepData);
+		throw new RenderException(String.format("Unknown 3D file type: %s", asset));
+	}
+
+	/**
+	 * Returns true if the given asset is converted by MeshFileCache
+	 */
+	public static boolean isCached(URI asset) {
+		String ext = getExtension(asset);
+		return ext.equals("DAE") || ext.equals("OBJ");
+	}
+
+	private static String getExtension(URI asset) {
+		String fileString = asset.toString();
+		return fileString.substring(fileString.length() - 3, fileString.length()).toUpperCase();
+	}
+
+	/**
+	 * Returns the block file in the temporary directory to be used for the mesh data read from
+	 * the specified asset.
+	 */
+	public static File getCacheFile(URI asset) {
+		String name = String.format("jaamsim-%016x.jsb", getURIHash(asset));
+		return new File(System.getProperty("java.io.tmpdir"), name);
+	}
+
+	/**
+	 * Returns a 64-bit hash code for the URI of the specified asset.
+	 */
+	private static long getURIHash(URI asset) {
+		String path = asset.toString();
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < path.length(); i++) {
+			hash ^= path.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * Returns the SHA-256 hash of the contents of the asset.
+	 */
+	static byte[] getContentHash(URI asset) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IOException(e.getMessage());
+		}
+
+		try (InputStream in = asset.toURL().openStream()) {
+			byte[] readBuffer = new byte[64*1024];
+			while (true) {
+				int bytesRead = in.read(readBuffer);
+				if (bytesRead == -1)
+					break;
+				digest.update(readBuffer, 0, bytesRead);
+			}
+		}
+		return digest.digest();
+	}
+
+	/**
+	 * Returns the mesh data in the specified cache file, or null if the file does not exist or
+	 * was not created from the present contents of the asset.
+	 */
+	static MeshData openCache(File file, URI asset, byte[] hash) {
+		if (!file.isFile())
+			return null;
+
+		try {
+			ByteBuffer buffer = BlockReader.readBuffer(file.toURI());
+			DataBlock entry = BlockReader.readBlock(buffer, 0);
+			if (!entry.getName().equals(ENTRY_BLOCK_NAME))
+				return null;
+
+			if (entry.readInt() != CACHE_VERSION || !entry.readString().equals(asset.toString()))
+				return null;
+
+			byte[] entryHash = new byte[entry.readInt()];
+			for (int i = 0; i < entryHash.length; i++) {
+				entryHash[i] = entry.readByte();
+			}
+			if (!Arrays.equals(entryHash, hash))
+				return null;
+
+			DataBlock meshBlock = entry.findChildByName("MeshData");
+			if (meshBlock == null)
+				return null;
+
+			return new MeshData(false, meshBlock, asset.toURL());
+		}
+		catch (Exception e) {
+			return null;
+		}
+	}
+
+	private static MeshData open(File file, URI asset) throws Exception {
+		DataBlock entry = BlockReader.readBlock(BlockReader.readBuffer(file.toURI()), 0);
+		return new MeshData(false, entry.findChildByName("MeshData"), asset.toURL());
+	}
+
+	private static void writeCacheFile(File file, URI asset, byte[] hash, MeshData data)
+	throws IOException {
+		DataBlock meshBlock = data.getDataAsBlock();
+		if (meshBlock == null)
+			throw new RenderException("Mesh data was discarded");
+
+		byte[] uriBytes = asset.toString().getBytes("UTF-8");
+		DataBlock entry = new DataBlock(ENTRY_BLOCK_NAME, 4 + uriBytes.length + 1 + 4 + hash.length);
+		entry.writeInt(CACHE_VERSION);
+		entry.writeString(asset.toString());
+		entry.writeInt(hash.length);
+		entry.writeData(hash);
+		entry.addChildBlock(meshBlock);
+
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+			BlockWriter.writeBlock(out, entry);
+		}
+	}
+}
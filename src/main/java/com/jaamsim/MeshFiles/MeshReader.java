@@ -202,20 +202,17 @@ public class MeshReader {
 
 		XmlNode texCoordNode = geoNode.findChildTag("TexCoords", false);
 		double[] texCoords = null;
-		boolean hasTex = false;
 		if (texCoordNode != null) {
 			parseAssert(texCoordNode.getAttrib("dims").equals("2"));
 
 			texCoords = (double[])texCoordNode.getContent();
 			parseAssert(texCoords.length == numVerts * 2);
-			hasTex = true;
 		}
 
 		XmlNode boneIndicesNode = geoNode.findChildTag("BoneIndices", false);
 		XmlNode boneWeightsNode = geoNode.findChildTag("BoneWeights", false);
 		double[] boneIndices = null;
 		double[] boneWeights = null;
-		boolean hasBoneInfo = false;
 		int numBoneWeights = 0;
 		if (boneIndicesNode != null) {
 			numBoneWeights = Integer.parseInt(boneIndicesNode.getAttrib("entriesPerVert"));
@@ -226,8 +223,6 @@ public class MeshReader {
 			boneWeights = (double[])boneWeightsNode.getContent();
 			parseAssert(boneIndices.length == numBoneWeights * numVerts);
 			parseAssert(boneWeights.length == numBoneWeights * numVerts);
-
-			hasBoneInfo = true;
 		}
 
 
@@ -240,43 +235,7 @@ public class MeshReader {
 		int[] indices = (int[])faceNode.getContent();
 		parseAssert(numTriangles*3 == indices.length);
 
-		ArrayList<Vertex> verts = new ArrayList<>(numVerts);
-
-		for (int i = 0; i < numVerts; ++i) {
-			Vec3d posVec = new Vec3d(positions[i*3+0], positions[i*3+1], positions[i*3+2]);
-			Vec3d normVec = new Vec3d(normals[i*3+0], normals[i*3+1], normals[i*3+2]);
-			Vec2d texCoordVec = null;
-			Vec4d boneIndicesVec = null;
-			Vec4d boneWeightsVec = null;
-			if (hasTex) {
-				texCoordVec = new Vec2d(texCoords[i*2+0], texCoords[i*2+1]);
-			}
-
-			if (hasBoneInfo) {
-				boneIndicesVec = new Vec4d(0, 0, 0, 0);
-				boneWeightsVec = new Vec4d(0, 0, 0, 0);
-				if (numBoneWeights >= 1) {
-					boneIndicesVec.x = boneIndices[i*numBoneWeights + 0];
-					boneWeightsVec.x = boneWeights[i*numBoneWeights + 0];
-				}
-				if (numBoneWeights >= 2) {
-					boneIndicesVec.y = boneIndices[i*numBoneWeights + 1];
-					boneWeightsVec.y = boneWeights[i*numBoneWeights + 1];
-				}
-				if (numBoneWeights >= 3) {
-					boneIndicesVec.z = boneIndices[i*numBoneWeights + 2];
-					boneWeightsVec.z = boneWeights[i*numBoneWeights + 2];
-				}
-				if (numBoneWeights >= 4) {
-					boneIndicesVec.w = boneIndices[i*numBoneWeights + 3];
-					boneWeightsVec.w = boneWeights[i*numBoneWeights + 3];
-				}
-			}
-
-			verts.add(new Vertex(posVec, normVec, texCoordVec, boneIndicesVec, boneWeightsVec));
-		}
-
-		finalData.addSubMesh(verts, indices);
+		finalData.addSubMesh(positions, normals, texCoords, indices);
 	}
 
 	private void parseMaterial(XmlNode matNode) {
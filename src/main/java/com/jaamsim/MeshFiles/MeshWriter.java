@@ -26,8 +26,6 @@ import java.net.URI;
 import java.nio.charset.Charset;
 
 import com.jaamsim.input.Input;
-import com.jaamsim.math.Vec2d;
-import com.jaamsim.math.Vec3d;
 import com.jaamsim.ui.LogBox;
 
 
@@ -113,39 +111,39 @@ public class MeshWriter {
 
 	private void writeSubMesh(MeshData.SubMeshData subMesh, int meshNumber) throws IOException {
 
-		startTag(String.format("<Geometry vertices='%d' ID='Mesh%d'>", subMesh.verts.size(), meshNumber));
+		startTag(String.format("<Geometry vertices='%d' ID='Mesh%d'>", subMesh.getNumVerts(), meshNumber));
 
 		startTag("<Positions dims='3'>");
 		indent();
-		for (Vec3d v : subMesh.verts) {
-			out.write(String.format("%f %f %f ", v.x, v.y, v.z));
+		for (int i = 0; i < subMesh.verts.limit(); i += 3) {
+			out.write(String.format("%f %f %f ", subMesh.verts.get(i), subMesh.verts.get(i + 1), subMesh.verts.get(i + 2)));
 		}
 		out.write("\n");
 		endTag("</Positions>");
 
 		startTag("<Normals dims='3'>");
 		indent();
-		for (Vec3d n : subMesh.normals) {
-			out.write(String.format("%f %f %f ", n.x, n.y, n.z));
+		for (int i = 0; i < subMesh.normals.limit(); i += 3) {
+			out.write(String.format("%f %f %f ", subMesh.normals.get(i), subMesh.normals.get(i + 1), subMesh.normals.get(i + 2)));
 		}
 		out.write("\n");
 		endTag("</Normals>");
 
-		if (subMesh.texCoords != null && subMesh.texCoords.size() != 0) {
+		if (subMesh.texCoords != null && subMesh.texCoords.limit() != 0) {
 			// This mesh has tex coordinates
 			startTag("<TexCoords index='0' dims='2'>");
 			indent();
-			for (Vec2d t : subMesh.texCoords) {
-				out.write(String.format("%f %f ", t.x, t.y));
+			for (int i = 0; i < subMesh.texCoords.limit(); i += 2) {
+				out.write(String.format("%f %f ", subMesh.texCoords.get(i), subMesh.texCoords.get(i + 1)));
 			}
 			out.write("\n");
 			endTag("</TexCoords>");
 		}
 		// Output the faces list
-		startTag(String.format("<Faces type='Triangles' count='%d'>", subMesh.indices.length/3));
+		startTag(String.format("<Faces type='Triangles' count='%d'>", subMesh.indices.limit()/3));
 		indent();
-		for (int i : subMesh.indices) {
-			out.write(String.format("%d ", i));
+		for (int i = 0; i < subMesh.indices.limit(); ++i) {
+			out.write(String.format("%d ", subMesh.indices.get(i)));
 		}
 		out.write("\n");
 		endTag("</Faces>");
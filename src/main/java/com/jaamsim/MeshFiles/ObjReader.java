@@ -38,9 +38,13 @@ import com.jaamsim.ui.LogBox;
 
 public class ObjReader {
 	public static MeshData parse(URI asset) throws RenderException {
+		return parse(asset, false);
+	}
+
+	public static MeshData parse(URI asset, boolean keepData) throws RenderException {
 
 		try {
-			ObjReader reader = new ObjReader(asset.toURL());
+			ObjReader reader = new ObjReader(asset.toURL(), keepData);
 			reader.processContent();
 
 			return reader.getMeshData();
@@ -58,6 +62,7 @@ public class ObjReader {
 	}
 
 	private final URL contentURL;
+	private final boolean keepRuntimeData;
 	private MeshData data;
 
 	private static class FaceVert {
@@ -94,14 +99,19 @@ public class ObjReader {
 	private final HashMap<String, Integer> loadedMaterials = new HashMap<>();
 
 	public ObjReader(URL asset) {
+		this(asset, false);
+	}
+
+	public ObjReader(URL asset, boolean keepData) {
 		contentURL = asset;
+		keepRuntimeData = keepData;
 	}
 
 	private void processContent() {
 		try {
 			BufferedReader br = new BufferedReader(new InputStreamReader(contentURL.openStream()));
 
-			data = new MeshData(false);
+			data = new MeshData(keepRuntimeData);
 			while(true) {
 				String line = br.readLine();
 				lineNum++;
@@ -190,7 +200,7 @@ public class ObjReader {
 
 		int matIndex = getMaterialIndex(activeMat);
 
-		data.addSubMesh(map.getVertList(), vertIndices);
+		data.addSubMesh(map.getPositions(), map.getNormals(), map.getTexCoords(), vertIndices);
 		data.addStaticMeshInstance(numLoadedMeshes++,  matIndex, new Mat4d());
 
 		faces.clear();
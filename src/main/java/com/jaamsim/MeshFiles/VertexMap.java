@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2013 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,21 +17,29 @@
  */
 package com.jaamsim.MeshFiles;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 
 import com.jaamsim.math.Vec2d;
 import com.jaamsim.math.Vec3d;
 
 /**
  * This map builds up a list of unique vertices, and can return the index of vertices at add time
+ * <p>
+ * The vertex data is packed into arrays of doubles, three values for each position and normal
+ * and two for each texture coordinate, and the vertices are found using an open addressing
+ * hash table of vertex indices.
  * @author matt.chudleigh
  *
  */
 public class VertexMap {
 
-	private HashMap<Vertex, Integer> vertMap = new HashMap<>();
-	private ArrayList<Vertex> verts = new ArrayList<>();
+	private double[] positions = new double[3 * 16];
+	private double[] normals = new double[3 * 16];
+	private double[] texCoords = new double[2 * 16];
+	private boolean[] hasTexCoord = new boolean[16];
+	private int numVerts = 0;
+
+	private int[] table = new int[32]; // vertex index + 1 for each slot, or zero if empty
 
 	/**
 	 * Checks if the current vertex is unique. Returns the existing index if present, or adds the vertex if unique
@@ -40,19 +49,127 @@ public class VertexMap {
 	 * @return
 	 */
 	public int getVertIndex(Vec3d pos, Vec3d normal, Vec2d texCoord) {
-		Vertex v = new Vertex(pos, normal, texCoord, null, null);
-		Integer index = vertMap.get(v);
-		if (index != null) {
-			return index.intValue();
+		if (texCoord == null)
+			return getVertIndex(pos.x, pos.y, pos.z, normal.x, normal.y, normal.z, false, 0.0d, 0.0d);
+		return getVertIndex(pos.x, pos.y, pos.z, normal.x, normal.y, normal.z, true, texCoord.x, texCoord.y);
+	}
+
+	/**
+	 * Checks if the given vertex is unique. Returns the existing index if present, or adds the vertex if unique
+	 */
+	public int getVertIndex(double px, double py, double pz,
+	                        double nx, double ny, double nz,
+	                        boolean hasTex, double tx, double ty) {
+		int hash = hashVec3d(px, py, pz);
+		hash ^= hashVec3d(nx, ny, nz) * 11;
+		if (hasTex)
+			hash ^= hashVec2d(tx, ty) * 19;
+
+		int mask = table.length - 1;
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while (table[slot] != 0) {
+			int ind = table[slot] - 1;
+			if (positions[ind*3 + 0] == px && positions[ind*3 + 1] == py && positions[ind*3 + 2] == pz &&
+			    normals[ind*3 + 0] == nx && normals[ind*3 + 1] == ny && normals[ind*3 + 2] == nz &&
+			    hasTexCoord[ind] == hasTex &&
+			    (!hasTex || (texCoords[ind*2 + 0] == tx && texCoords[ind*2 + 1] == ty))) {
+				return ind;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		int newIndex = numVerts;
+		if (newIndex == hasTexCoord.length) {
+			int cap = hasTexCoord.length * 2;
+			positions = Arrays.copyOf(positions, cap * 3);
+			normals = Arrays.copyOf(normals, cap * 3);
+			texCoords = Arrays.copyOf(texCoords, cap * 2);
+			hasTexCoord = Arrays.copyOf(hasTexCoord, cap);
 		}
+		positions[newIndex*3 + 0] = px;
+		positions[newIndex*3 + 1] = py;
+		positions[newIndex*3 + 2] = pz;
+		normals[newIndex*3 + 0] = nx;
+		normals[newIndex*3 + 1] = ny;
+		normals[newIndex*3 + 2] = nz;
+		texCoords[newIndex*2 + 0] = tx;
+		texCoords[newIndex*2 + 1] = ty;
+		hasTexCoord[newIndex] = hasTex;
+		numVerts++;
+
+		table[slot] = newIndex + 1;
+		if (numVerts * 2 > table.length)
+			rehash();
 
-		int newIndex = verts.size();
-		verts.add(v);
-		vertMap.put(v, newIndex);
 		return newIndex;
 	}
 
-	public ArrayList<Vertex> getVertList() {
-		return verts;
+	private void rehash() {
+		int[] oldTable = table;
+		table = new int[oldTable.length * 2];
+		int mask = table.length - 1;
+		for (int entry : oldTable) {
+			if (entry == 0)
+				continue;
+			int ind = entry - 1;
+			int hash = hashVec3d(positions[ind*3 + 0], positions[ind*3 + 1], positions[ind*3 + 2]);
+			hash ^= hashVec3d(normals[ind*3 + 0], normals[ind*3 + 1], normals[ind*3 + 2]) * 11;
+			if (hasTexCoord[ind])
+				hash ^= hashVec2d(texCoords[ind*2 + 0], texCoords[ind*2 + 1]) * 19;
+
+			int slot = (hash ^ (hash >>> 16)) & mask;
+			while (table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = entry;
+		}
+	}
+
+	private static int hashDouble(double d) {
+		long l = Double.doubleToLongBits(d);
+		return (int)(l ^ (l >>> 32));
+	}
+
+	private static int hashVec2d(double x, double y) {
+		int hash = 0;
+		hash ^= hashDouble(x);
+		hash ^= hashDouble(y) * 3;
+		return hash;
+	}
+
+	private static int hashVec3d(double x, double y, double z) {
+		int hash = 0;
+		hash ^= hashDouble(x);
+		hash ^= hashDouble(y) * 3;
+		hash ^= hashDouble(z) * 7;
+		return hash;
+	}
+
+	public int getNumVerts() {
+		return numVerts;
+	}
+
+	/**
+	 * Returns the x, y, z coordinates of the unique vertices.
+	 */
+	public double[] getPositions() {
+		return Arrays.copyOf(positions, numVerts * 3);
+	}
+
+	/**
+	 * Returns the x, y, z components of the normals for the unique vertices.
+	 */
+	public double[] getNormals() {
+		return Arrays.copyOf(normals, numVerts * 3);
+	}
+
+	/**
+	 * Returns the u, v texture coordinates for the unique vertices, or null if the first
+	 * vertex does not have a texture coordinate.
+	 */
+	public double[] getTexCoords() {
+		if (numVerts == 0 || !hasTexCoord[0])
+			return null;
+		return Arrays.copyOf(texCoords, numVerts * 2);
 	}
 }
@@ -77,7 +77,7 @@ public class BooleanSelector extends DisplayEntity {
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
-		rng.setSeedStream(getStreamNumber(), Distribution.getSubstreamNumber());
+		rng.setSeedStream(getStreamNumber(), Distribution.getSubstreamNumber(this));
 		lastValue = false;
 	}
 
@@ -69,6 +69,14 @@ implements SampleProvider {
 	         exampleList = {"200.0", "InputValue1", "'2 * [InputValue1].Value'"})
 	protected final SampleInput maxValueInput;
 
+	@Keyword(description = "Number of random numbers to generate at a time. "
+	                     + "Generating them in blocks is faster for a distribution that is "
+	                     + "sampled many times and gives exactly the same sequence of samples. "
+	                     + "The default value of zero generates each random number when it "
+	                     + "is needed.",
+	         exampleList = {"1024"})
+	protected final IntegerInput sampleBufferSizeInput;
+
 	private int sampleCount;
 	private double sampleSum;
 	private double sampleSquaredSum;
@@ -101,6 +109,10 @@ implements SampleProvider {
 		maxValueInput.setUnitType(UserSpecifiedUnit.class);
 		maxValueInput.setEntity(this);
 		this.addInput(maxValueInput);
+
+		// Added by the sub-classes that can generate their samples in blocks
+		sampleBufferSizeInput = new IntegerInput("SampleBufferSize", "Key Inputs", 0);
+		sampleBufferSizeInput.setValidRange(0, 1 << 20);
 	}
 
 	public Distribution() {}
@@ -181,8 +193,28 @@ implements SampleProvider {
 		return randomSeedInput.getValue();
 	}
 
-	public static int getSubstreamNumber() {
-		return Simulation.getSubstreamNumber();
+	/**
+	 * Returns the number of random numbers to be generated at a time, or zero if they are
+	 * to be generated one at a time.
+	 */
+	protected int getSampleBufferSize() {
+		return sampleBufferSizeInput.getValue();
+	}
+
+	protected final int getSubstreamNumber() {
+		return Distribution.getSubstreamNumber(this);
+	}
+
+	/**
+	 * Returns the substream number for the random number generators used by the given
+	 * entity, which is set by the Simulation entity for its model.
+	 */
+	public static int getSubstreamNumber(Entity ent) {
+		// A model without a Simulation entity uses the default global seed
+		Simulation sim = ent.getSimulation();
+		if (sim == null)
+			return 0;
+		return sim.getSubstreamNumber();
 	}
 
 	/**
@@ -35,6 +35,7 @@ public class ExponentialDistribution extends Distribution {
 	private final SampleInput meanInput;
 
 	private final MRG1999a rng = new MRG1999a();
+	private VariateBuffer buffer;  // pre-generated values of log(u), or null
 
 	{
 		minValueInput.setDefaultValue(new SampleConstant(0.0d));
@@ -44,6 +45,7 @@ public class ExponentialDistribution extends Distribution {
 		meanInput.setValidRange(0.0d, Double.POSITIVE_INFINITY);
 		meanInput.setEntity(this);
 		this.addInput(meanInput);
+		this.addInput(sampleBufferSizeInput);
 	}
 
 	public ExponentialDistribution() {}
@@ -52,6 +54,16 @@ public class ExponentialDistribution extends Distribution {
 	public void earlyInit() {
 		super.earlyInit();
 		rng.setSeedStream(getStreamNumber(), getSubstreamNumber());
+
+		buffer = null;
+		if (getSampleBufferSize() > 0) {
+			buffer = new VariateBuffer(rng, getSampleBufferSize()) {
+				@Override
+				double transform(double u) {
+					return Math.log(u);
+				}
+			};
+		}
 	}
 
 	@Override
@@ -65,7 +77,8 @@ public class ExponentialDistribution extends Distribution {
 
 		// Inverse transform method
 		double mean = meanInput.getValue().getNextSample(simTime);
-		return (-mean * Math.log(rng.nextUniform()));
+		double logU = (buffer == null) ? Math.log(rng.nextUniform()) : buffer.next();
+		return (-mean * logU);
 	}
 
 	@Override
@@ -40,6 +40,7 @@ public class LogLogisticDistribution extends Distribution {
 	private final SampleInput shapeInput;
 
 	private final MRG1999a rng = new MRG1999a();
+	private VariateBuffer buffer;  // pre-generated values of u/(1-u), or null
 
 	{
 		minValueInput.setDefaultValue(new SampleConstant(0.0d));
@@ -55,6 +56,7 @@ public class LogLogisticDistribution extends Distribution {
 		shapeInput.setUnitType(DimensionlessUnit.class);
 		shapeInput.setEntity(this);
 		this.addInput(shapeInput);
+		this.addInput(sampleBufferSizeInput);
 	}
 
 	public LogLogisticDistribution() {}
@@ -63,6 +65,16 @@ public class LogLogisticDistribution extends Distribution {
 	public void earlyInit() {
 		super.earlyInit();
 		rng.setSeedStream(getStreamNumber(), getSubstreamNumber());
+
+		buffer = null;
+		if (getSampleBufferSize() > 0) {
+			buffer = new VariateBuffer(rng, getSampleBufferSize()) {
+				@Override
+				double transform(double u) {
+					return u / (1 - u);
+				}
+			};
+		}
 	}
 
 	@Override
@@ -75,10 +87,17 @@ public class LogLogisticDistribution extends Distribution {
 	protected double getSample(double simTime) {
 
 		// Inverse transform method
-		double u = rng.nextUniform();
+		double ratio;
+		if (buffer == null) {
+			double u = rng.nextUniform();
+			ratio = u / (1 - u);
+		}
+		else {
+			ratio = buffer.next();
+		}
 		double scale = scaleInput.getValue().getNextSample(simTime);
 		double shape = shapeInput.getValue().getNextSample(simTime);
-		return scale * Math.pow( u / (1 - u), 1.0 / shape );
+		return scale * Math.pow( ratio, 1.0 / shape );
 	}
 
 	@Override
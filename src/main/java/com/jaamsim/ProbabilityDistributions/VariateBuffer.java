@@ -0,0 +1,59 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.ProbabilityDistributions;
+
+import com.jaamsim.rng.MRG1999a;
+
+/**
+ * Block of values generated in advance from a random number generator.
+ * <p>
+ * The uniform random numbers are generated in blocks and the part of the inverse transform
+ * that does not depend on the distribution's parameters is applied to each block at the
+ * same time. The remainder of the transform is applied to each value as it is used, so the
+ * samples are identical to those obtained by generating the random numbers one at a time,
+ * even when the parameters change during the simulation run.
+ */
+abstract class VariateBuffer {
+	private final MRG1999a rng;
+	private final double[] buf;
+	private int pos;
+
+	VariateBuffer(MRG1999a rng, int size) {
+		this.rng = rng;
+		buf = new double[size];
+		pos = size;
+	}
+
+	/**
+	 * Returns the transformed value for the next uniform random number.
+	 */
+	final double next() {
+		if (pos == buf.length) {
+			rng.nextUniforms(buf, 0, buf.length);
+			for (int i = 0; i < buf.length; i++) {
+				buf[i] = transform(buf[i]);
+			}
+			pos = 0;
+		}
+		return buf[pos++];
+	}
+
+	/**
+	 * Returns the value to be held in the buffer for the given uniform random number.
+	 */
+	abstract double transform(double u);
+}
@@ -45,6 +45,7 @@ public class WeibullDistribution extends Distribution {
 	private final SampleInput locationInput;
 
 	private final MRG1999a rng = new MRG1999a();
+	private VariateBuffer buffer;  // pre-generated values of -log(u), or null
 
 	{
 		minValueInput.setDefaultValue(new SampleConstant(0.0d));
@@ -65,6 +66,7 @@ public class WeibullDistribution extends Distribution {
 		shapeInput.setUnitType(DimensionlessUnit.class);
 		shapeInput.setEntity(this);
 		this.addInput(shapeInput);
+		this.addInput(sampleBufferSizeInput);
 	}
 
 	public WeibullDistribution() {}
@@ -73,6 +75,16 @@ public class WeibullDistribution extends Distribution {
 	public void earlyInit() {
 		super.earlyInit();
 		rng.setSeedStream(getStreamNumber(), getSubstreamNumber());
+
+		buffer = null;
+		if (getSampleBufferSize() > 0) {
+			buffer = new VariateBuffer(rng, getSampleBufferSize()) {
+				@Override
+				double transform(double u) {
+					return - Math.log(u);
+				}
+			};
+		}
 	}
 
 	@Override
@@ -90,7 +102,8 @@ public class WeibullDistribution extends Distribution {
 		double loc = locationInput.getValue().getNextSample(simTime);
 
 		// Inverse transform method
-		return  scale * Math.pow( - Math.log(rng.nextUniform()), 1.0/shape ) + loc;
+		double x = (buffer == null) ? - Math.log(rng.nextUniform()) : buffer.next();
+		return  scale * Math.pow( x, 1.0/shape ) + loc;
 	}
 
 	@Override
@@ -18,6 +18,7 @@
 package com.jaamsim.ProcessFlow;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import com.jaamsim.EntityProviders.EntityProvInput;
 import com.jaamsim.Graphics.DisplayEntity;
@@ -26,6 +27,8 @@ import com.jaamsim.Graphics.TextBasics;
 import com.jaamsim.Samples.SampleConstant;
 import com.jaamsim.Samples.SampleInput;
 import com.jaamsim.basicsim.Entity;
+import com.jaamsim.basicsim.EntityPool;
+import com.jaamsim.input.BooleanInput;
 import com.jaamsim.input.Input;
 import com.jaamsim.input.InputAgent;
 import com.jaamsim.input.Keyword;
@@ -60,8 +63,18 @@ public class EntityGenerator extends LinkedService {
 	         exampleList = {"3", "InputValue1", "[InputValue1].Value"})
 	private final SampleInput maxNumber;
 
+	@Keyword(description = "If TRUE, the generated entities that have been killed are used "
+	                     + "again in place of new entities. A re-used entity receives a new "
+	                     + "name and is re-initialised, but keeps the inputs that were copied "
+	                     + "from its prototype when it was first generated. This option should "
+	                     + "not be used if other objects can refer to an entity after it has "
+	                     + "been killed, such as through the 'obj' output for an EntitySink.",
+	         exampleList = {"TRUE"})
+	private final BooleanInput recycleEntities;
+
 	private int numberGenerated = 0;  // Number of entities generated so far
 	private double presentIAT;
+	private final HashMap<DisplayEntity, EntityPool<DisplayEntity>> poolMap = new HashMap<>();  // killed entities for each prototype
 
 	{
 		defaultEntity.setHidden(true);
@@ -103,6 +116,9 @@ public class EntityGenerator extends LinkedService {
 		maxNumber.setValidRange(1, Double.POSITIVE_INFINITY);
 		maxNumber.setDefaultText(Input.POSITIVE_INFINITY);
 		this.addInput(maxNumber);
+
+		recycleEntities = new BooleanInput("RecycleEntities", "Key Inputs", false);
+		this.addInput(recycleEntities);
 	}
 
 	public EntityGenerator() {}
@@ -112,6 +128,7 @@ public class EntityGenerator extends LinkedService {
 		super.earlyInit();
 		numberGenerated = 0;
 		presentIAT = 0.0d;
+		poolMap.clear();
 	}
 
 	@Override
@@ -159,8 +176,7 @@ public class EntityGenerator extends LinkedService {
 			DisplayEntity proto = prototypeEntity.getValue().getNextEntity(simTime);
 			StringBuilder sb = new StringBuilder();
 			sb.append(this.getName()).append("_").append(numberGenerated);
-			DisplayEntity ent = InputAgent.generateEntityWithName(proto.getClass(), sb.toString());
-			Entity.fastCopyInputs(proto, ent);
+			DisplayEntity ent = this.generateEntity(proto, sb.toString());
 			ent.earlyInit();
 
 
@@ -173,6 +189,30 @@ public class EntityGenerator extends LinkedService {
 		return true;
 	}
 
+	private DisplayEntity generateEntity(DisplayEntity proto, String name) {
+		if (!recycleEntities.getValue()) {
+			DisplayEntity ent = InputAgent.generateEntityWithName(proto.getClass(), name);
+			Entity.fastCopyInputs(proto, ent);
+			return ent;
+		}
+
+		EntityPool<DisplayEntity> pool = poolMap.get(proto);
+		if (pool == null) {
+			pool = new EntityPool<>();
+			poolMap.put(proto, pool);
+		}
+
+		// Re-use an entity that has been killed, if available
+		DisplayEntity ent = pool.getEntity(name);
+		if (ent != null)
+			return ent;
+
+		ent = InputAgent.generateEntityWithName(proto.getClass(), name);
+		Entity.fastCopyInputs(proto, ent);
+		pool.addEntity(ent);
+		return ent;
+	}
+
 	@Override
 	protected double getStepDuration(double simTime) {
 		return presentIAT;
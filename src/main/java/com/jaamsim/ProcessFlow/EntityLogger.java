@@ -19,6 +19,7 @@ package com.jaamsim.ProcessFlow;
 
 import java.util.ArrayList;
 
+import com.jaamsim.BasicObjects.LogBuffer;
 import com.jaamsim.BasicObjects.Logger;
 import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.Graphics.LinkDisplayable;
@@ -76,8 +77,9 @@ public class EntityLogger extends Logger implements Linkable, LinkDisplayable {
 	}
 
 	@Override
-	protected void recordEntry(FileEntity file, double simTime) {
-		file.format("\t%s", receivedEntity);
+	protected void recordEntry(LogBuffer buffer, double simTime) {
+		buffer.tab();
+		buffer.text(String.valueOf(receivedEntity));
 	}
 
 	@Override
@@ -22,7 +22,6 @@ import java.util.ArrayList;
 import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.Graphics.LinkDisplayable;
 import com.jaamsim.basicsim.Entity;
-import com.jaamsim.basicsim.Simulation;
 import com.jaamsim.input.EntityInput;
 import com.jaamsim.input.Input;
 import com.jaamsim.input.InputAgent;
@@ -288,7 +287,7 @@ public abstract class LinkedComponent extends StateEntity implements Linkable, L
 	    unitType = RateUnit.class,
 	    sequence = 4)
 	public double getProcessingRate(double simTime) {
-		double dur = simTime - Simulation.getInitializationTime();
+		double dur = simTime - getSimulation().getInitializationTime();
 		if (dur <= 0.0)
 			return 0.0;
 		return numberProcessed/dur;
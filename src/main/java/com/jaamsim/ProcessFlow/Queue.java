@@ -18,10 +18,10 @@
 package com.jaamsim.ProcessFlow;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map.Entry;
-import java.util.TreeSet;
 
 import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.Samples.SampleConstant;
@@ -29,7 +29,9 @@ import com.jaamsim.Samples.SampleInput;
 import com.jaamsim.basicsim.Entity;
 import com.jaamsim.basicsim.EntityTarget;
 import com.jaamsim.datatypes.DoubleVector;
+import com.jaamsim.datatypes.IndexedTreeSet;
 import com.jaamsim.datatypes.IntegerVector;
+import com.jaamsim.events.ConditionalSource;
 import com.jaamsim.events.EventHandle;
 import com.jaamsim.events.EventManager;
 import com.jaamsim.events.ProcessTarget;
@@ -96,13 +98,21 @@ public class Queue extends LinkedComponent {
 			exampleList = {"4"})
 	protected final IntegerInput maxPerLine; // maximum items per sub line-up of queue
 
-	private final TreeSet<QueueEntry> itemSet;  // contains all the entities in queue order
-	private final HashMap<Integer, TreeSet<QueueEntry>> matchMap; // each TreeSet contains the queued entities for a given match value
+	@Keyword(description = "The maximum number of queuing entities to display. Entities that "
+	                     + "are further back in the queue are hidden.",
+	         exampleList = {"100"})
+	protected final IntegerInput maxDisplayed;
 
+	private final IndexedTreeSet<QueueEntry> itemSet;  // contains all the entities in queue order
+	private final HashMap<Integer, IndexedTreeSet<QueueEntry>> matchMap; // each set contains the queued entities for a given match value
+	private final HashMap<DisplayEntity, QueueEntry> entryMap;  // entry for each entity in the queue
+
+	private int changeCount;  // number of times that an entity has been added or removed
 	private Integer matchForMaxCount;  // match value with the largest number of entities
 	private int maxCount;     // largest number of entities for a given match value
 
 	private final ArrayList<QueueUser> userList;  // other objects that use this queue
+	private final ConditionalSource contentsChanged;  // notifies a change to the entities in the queue
 
 	//	Statistics
 	protected double timeOfLastUpdate; // time at which the statistics were last updated
@@ -114,6 +124,23 @@ public class Queue extends LinkedComponent {
 	protected DoubleVector queueLengthDist;  // entry at position n is the total time the queue has had length n
 	protected long numberReneged;  // number of entities that reneged from the queue
 
+	// Changes to the entities to be displayed, guarded by the lock on itemSet
+	private ArrayList<LayoutChange> layoutChanges;  // changes not yet read by the graphics, or null if the entries must be copied
+
+	// Layout used only by the graphics thread
+	private final ArrayList<QueueEntry> layoutEntries = new ArrayList<>();  // entries to be displayed
+	private QueueEntry[] shownEntries = new QueueEntry[0];  // entries whose positions have been set
+	private double[] shownEndX = new double[0];  // distance along the row to the end of each entity
+	private double[] shownMaxWidth = new double[0];  // largest width for the entities up to each entry
+	private int shownCount;
+	private double shownRowWidth;
+	private double shownSpacing;
+	private int shownMaxPerLine;
+	private final Vec3d[] shownFrame = { new Vec3d(), new Vec3d(), new Vec3d() };  // positions of the FRAME_POINTS
+
+	private static final Vec3d[] FRAME_POINTS = { new Vec3d(), new Vec3d(1.0d, 0.0d, 0.0d), new Vec3d(0.0d, 1.0d, 0.0d) };
+	private static final int MAX_LAYOUT_CHANGES = 1000;  // changes recorded before the entries must be copied again
+
 	{
 		defaultEntity.setHidden(true);
 		nextComponent.setHidden(true);
@@ -155,13 +182,19 @@ public class Queue extends LinkedComponent {
 		maxPerLine = new IntegerInput("MaxPerLine", "Key Inputs", Integer.MAX_VALUE);
 		maxPerLine.setValidRange(1, Integer.MAX_VALUE);
 		this.addInput(maxPerLine);
+
+		maxDisplayed = new IntegerInput("MaxDisplayed", "Key Inputs", Integer.MAX_VALUE);
+		maxDisplayed.setValidRange(0, Integer.MAX_VALUE);
+		this.addInput(maxDisplayed);
 	}
 
 	public Queue() {
-		itemSet = new TreeSet<>();
+		itemSet = new IndexedTreeSet<>();
 		queueLengthDist = new DoubleVector(10,10);
 		userList = new ArrayList<>();
 		matchMap = new HashMap<>();
+		entryMap = new HashMap<>();
+		contentsChanged = new ConditionalSource();
 	}
 
 	@Override
@@ -173,6 +206,18 @@ public class Queue extends LinkedComponent {
 			renegeDestination.setRequired(bool);
 			return;
 		}
+
+		if (in == maxDisplayed) {
+			int i = 0;
+			for (QueueEntry entry : itemSet) {
+				entry.entity.setCulled(i >= maxDisplayed.getValue());
+				i++;
+			}
+			synchronized (itemSet) {
+				layoutChanges = null;
+			}
+			return;
+		}
 	}
 
 	@Override
@@ -180,8 +225,12 @@ public class Queue extends LinkedComponent {
 		super.earlyInit();
 
 		// Clear the entries in the queue
-		itemSet.clear();
+		synchronized (itemSet) {
+			itemSet.clear();
+			layoutChanges = null;
+		}
 		matchMap.clear();
+		entryMap.clear();
 
 		matchForMaxCount = null;
 		maxCount = -1;
@@ -195,6 +244,7 @@ public class Queue extends LinkedComponent {
 		squaredElementSeconds = 0.0;
 		queueLengthDist.clear();
 		numberReneged = 0;
+		contentsChanged.changed();
 
 		// Identify the objects that use this queue
 		userList.clear();
@@ -215,6 +265,7 @@ public class Queue extends LinkedComponent {
 		final double timeAdded;
 		final Vec3d orientation;
 		final EventHandle renegeHandle;
+		volatile boolean removed;  // true once the entity has left the queue
 
 		public QueueEntry(DisplayEntity ent, long n, int pri, Integer m, double t, Vec3d orient, EventHandle rh) {
 			entity = ent;
@@ -269,6 +320,9 @@ public class Queue extends LinkedComponent {
 
 	@Override
 	public void addEntity(DisplayEntity ent) {
+		if (entryMap.containsKey(ent))
+			error("Entity %s is already present in the queue.", ent);
+
 		super.addEntity(ent);
 
 		// Update the queue statistics
@@ -290,18 +344,29 @@ public class Queue extends LinkedComponent {
 
 		QueueEntry entry = new QueueEntry(ent, n, pri, m, getSimTime(), ent.getOrientation(), rh);
 
-		// Add the entity to the TreeSet of all the entities in the queue
-		boolean bool = itemSet.add(entry);
-		if (!bool)
+		// Add the entity to the set of all the entities in the queue
+		int rank = 0;
+		int maxNum = maxDisplayed.getValue();
+		boolean added;
+		synchronized (itemSet) {
+			added = itemSet.add(entry);
+			if (added && (itemSet.size() > maxNum || layoutChanges != null))
+				rank = itemSet.indexOf(entry);
+			if (added && rank < maxNum)
+				this.layoutChanged(rank, entry, null);
+		}
+		if (!added)
 			error("Entity %s is already present in the queue.", ent);
+		entryMap.put(ent, entry);
+		changeCount++;
 
 		// Does the entry have a match value?
 		if (entry.match != null) {
 
-			// Add the entity to the TreeSet of all the entities with this match value
-			TreeSet<QueueEntry> matchSet = matchMap.get(entry.match);
+			// Add the entity to the set of all the entities with this match value
+			IndexedTreeSet<QueueEntry> matchSet = matchMap.get(entry.match);
 			if (matchSet == null) {
-				matchSet = new TreeSet<>();
+				matchSet = new IndexedTreeSet<>();
 				matchSet.add(entry);
 				matchMap.put(entry.match, matchSet);
 			}
@@ -321,7 +386,16 @@ public class Queue extends LinkedComponent {
 			}
 		}
 
+		// Hide the entity beyond the maximum number that are displayed
+		if (itemSet.size() > maxNum) {
+			if (rank >= maxNum)
+				ent.setCulled(true);
+			else
+				itemSet.get(maxNum).entity.setCulled(true);
+		}
+
 		// Notify the users of this queue
+		contentsChanged.changed();
 		if (!userUpdateHandle.isScheduled())
 			EventManager.scheduleTicks(0, 2, false, userUpdate, userUpdateHandle);
 
@@ -369,7 +443,10 @@ public class Queue extends LinkedComponent {
 	}
 
 	public DisplayEntity removeEntity(DisplayEntity ent) {
-		return this.remove(getQueueEntry(ent));
+		QueueEntry entry = entryMap.get(ent);
+		if (entry == null)
+			error("Entity %s is not present in the queue.", ent);
+		return this.remove(entry);
 	}
 
 	/**
@@ -380,10 +457,31 @@ public class Queue extends LinkedComponent {
 		int queueSize = itemSet.size();  // present number of entities in the queue
 		this.updateStatistics(queueSize, queueSize-1);
 
-		// Remove the entity from the TreeSet of all entities in the queue
-		boolean found = itemSet.remove(entry);
+		// Remove the entity from the set of all entities in the queue
+		int rank = 0;
+		int maxNum = maxDisplayed.getValue();
+		QueueEntry shown = null;  // hidden entry that is displayed in place of the removed one
+		boolean found;
+		synchronized (itemSet) {
+			if (queueSize > maxNum || layoutChanges != null)
+				rank = itemSet.indexOf(entry);
+			found = itemSet.remove(entry);
+			if (found && rank < maxNum) {
+				if (queueSize > maxNum)
+					shown = itemSet.get(maxNum - 1);
+				this.layoutChanged(rank, null, shown);
+			}
+		}
 		if (!found)
 			error("Cannot find the entry in itemSet.");
+		entryMap.remove(entry.entity);
+		entry.removed = true;
+		changeCount++;
+
+		// Display the next entity that was hidden
+		if (shown != null)
+			shown.entity.setCulled(false);
+		entry.entity.setCulled(false);
 
 		// Kill the renege event
 		if (entry.renegeHandle != null)
@@ -392,8 +490,8 @@ public class Queue extends LinkedComponent {
 		// Does the entry have a match value?
 		if (entry.match != null) {
 
-			// Remove the entity from the TreeSet for that match value
-			TreeSet<QueueEntry> matchSet = matchMap.get(entry.match);
+			// Remove the entity from the set for that match value
+			IndexedTreeSet<QueueEntry> matchSet = matchMap.get(entry.match);
 			if (matchSet == null)
 				error("Cannot find an entry in matchMap for match value: %s", entry.match);
 			found = matchSet.remove(entry);
@@ -414,20 +512,12 @@ public class Queue extends LinkedComponent {
 		// Reset the entity's orientation to its original value
 		entry.entity.setOrientation(entry.orientation);
 
+		contentsChanged.changed();
+
 		this.incrementNumberProcessed();
 		return entry.entity;
 	}
 
-	private QueueEntry getQueueEntry(DisplayEntity ent) {
-		Iterator<QueueEntry> itr = itemSet.iterator();
-		while (itr.hasNext()) {
-			QueueEntry entry = itr.next();
-			if (entry.entity == ent)
-				return entry;
-		}
-		return null;
-	}
-
 	/**
 	 * Returns the position of the specified entity in the queue.
 	 * Returns -1 if the entity is not found.
@@ -435,15 +525,10 @@ public class Queue extends LinkedComponent {
 	 * @return index of the entity in the queue.
 	 */
 	public int getPosition(DisplayEntity ent) {
-		int ret = 0;
-		Iterator<QueueEntry> itr = itemSet.iterator();
-		while (itr.hasNext()) {
-			if (itr.next().entity == ent)
-				return ret;
-
-			ret++;
-		}
-		return -1;
+		QueueEntry entry = entryMap.get(ent);
+		if (entry == null)
+			return -1;
+		return itemSet.indexOf(entry);
 	}
 
 	/**
@@ -484,6 +569,14 @@ public class Queue extends LinkedComponent {
 		return this.getSimTime() - itemSet.first().timeAdded;
 	}
 
+	/**
+	 * Returns the number of times that an entity has been added to or removed from the
+	 * queue. The first entity in the queue can have changed only if this number has changed.
+	 */
+	int getChangeCount() {
+		return changeCount;
+	}
+
 	/**
 	 * Returns the priority value for the first object in the queue
 	 */
@@ -500,7 +593,7 @@ public class Queue extends LinkedComponent {
 	public int getMatchCount(Integer m) {
 		if (m == null)
 			return itemSet.size();
-		TreeSet<QueueEntry> matchSet = matchMap.get(m);
+		IndexedTreeSet<QueueEntry> matchSet = matchMap.get(m);
 		if (matchSet == null)
 			return 0;
 		return matchSet.size();
@@ -518,7 +611,7 @@ public class Queue extends LinkedComponent {
 		if (m == null)
 			return this.removeFirst();
 
-		TreeSet<QueueEntry> matchSet = matchMap.get(m);
+		IndexedTreeSet<QueueEntry> matchSet = matchMap.get(m);
 		if (matchSet == null)
 			return null;
 		return this.remove(matchSet.first());
@@ -558,7 +651,7 @@ public class Queue extends LinkedComponent {
 	 */
 	private void setMaxCount() {
 		maxCount = -1;
-		for (Entry<Integer, TreeSet<QueueEntry>> each : matchMap.entrySet()) {
+		for (Entry<Integer, IndexedTreeSet<QueueEntry>> each : matchMap.entrySet()) {
 			int count = each.getValue().size();
 			if (count > maxCount) {
 				maxCount = count;
@@ -638,57 +731,178 @@ public class Queue extends LinkedComponent {
 	}
 
 	/**
-	 * Update the position of all entities in the queue. ASSUME that entities
+	 * A change to the entities to be displayed, which is applied by the graphics thread to
+	 * its copy of the displayed entries.
+	 */
+	private static class LayoutChange {
+		final int rank;            // position of the entry that was added or removed
+		final QueueEntry added;    // entry added at the rank, or null if the entry was removed
+		final QueueEntry shown;    // hidden entry displayed at the end after a removal, or null
+		final int count;           // number of entries displayed after the change
+
+		LayoutChange(int rank, QueueEntry added, QueueEntry shown, int count) {
+			this.rank = rank;
+			this.added = added;
+			this.shown = shown;
+			this.count = count;
+		}
+	}
+
+	/**
+	 * Records a change to the entities to be displayed. The changes are recorded only after
+	 * the graphics have copied the entries, and are discarded in favour of a new copy if the
+	 * graphics do not read them before MAX_LAYOUT_CHANGES have accumulated.
+	 * Must be called while holding the lock on itemSet.
+	 */
+	private void layoutChanged(int rank, QueueEntry added, QueueEntry shown) {
+		if (layoutChanges == null)
+			return;
+
+		if (layoutChanges.size() >= MAX_LAYOUT_CHANGES) {
+			layoutChanges = null;
+			return;
+		}
+		int count = Math.min(itemSet.size(), maxDisplayed.getValue());
+		layoutChanges.add(new LayoutChange(rank, added, shown, count));
+	}
+
+	/**
+	 * Brings the entries to be displayed by the graphics up to date. The entries are copied
+	 * from the queue only when a copy is required. Otherwise, the changes recorded since the
+	 * last update are applied to the previous entries after the lock is released.
+	 */
+	private void updateLayoutEntries() {
+		ArrayList<LayoutChange> changes;
+		synchronized (itemSet) {
+			if (layoutChanges == null) {
+				int n = Math.min(itemSet.size(), maxDisplayed.getValue());
+				layoutEntries.clear();
+				Iterator<QueueEntry> itr = itemSet.iterator();
+				for (int i = 0; i < n; i++) {
+					layoutEntries.add(itr.next());
+				}
+				layoutChanges = new ArrayList<>();
+				return;
+			}
+
+			if (layoutChanges.isEmpty())
+				return;
+			changes = layoutChanges;
+			layoutChanges = new ArrayList<>();
+		}
+
+		for (LayoutChange change : changes) {
+			if (change.added != null)
+				layoutEntries.add(change.rank, change.added);
+			else
+				layoutEntries.remove(change.rank);
+
+			if (change.shown != null)
+				layoutEntries.add(change.shown);
+
+			for (int i = layoutEntries.size() - 1; i >= change.count; i--) {
+				layoutEntries.remove(i);
+			}
+		}
+	}
+
+	/**
+	 * Update the position of the displayed entities in the queue. ASSUME that entities
 	 * will line up according to the orientation of the queue.
+	 * <p>
+	 * Positions are calculated only for the entities whose place in the queue has changed
+	 * since the last update, unless the queue itself has been changed.
 	 */
 	@Override
 	public void updateGraphics(double simTime) {
+		this.updateLayoutEntries();
+		ArrayList<QueueEntry> entries = layoutEntries;
+		int n = entries.size();
 
-		Vec3d queueOrientation = getOrientation();
 		Vec3d qSize = this.getSize();
-		Vec3d tmp = new Vec3d();
-
-		double distanceX = 0.5d * qSize.x;
-		double distanceY = 0;
-		double maxWidth = 0;
+		double space = spacing.getValue();
+		int perLine = maxPerLine.getValue();
+
+		// Find the first entry that has changed
+		int first = 0;
+		if (this.updateFrame() && space == shownSpacing && perLine == shownMaxPerLine) {
+			int num = Math.min(n, shownCount);
+			while (first < num && entries.get(first) == shownEntries[first]) {
+				first++;
+			}
+		}
+		if (first == n && n == shownCount)
+			return;
 
-		// Copy the item set to avoid some concurrent modification exceptions
-		TreeSet<QueueEntry> itemSetCopy = new TreeSet<>(itemSet);
+		if (shownEntries.length < n) {
+			int len = Math.max(n, 2 * shownEntries.length);
+			shownEntries = Arrays.copyOf(shownEntries, len);
+			shownEndX = Arrays.copyOf(shownEndX, len);
+			shownMaxWidth = Arrays.copyOf(shownMaxWidth, len);
+		}
 
-		// find widest vessel
-		if (itemSetCopy.size() >  maxPerLine.getValue()){
-			Iterator<QueueEntry> itr = itemSetCopy.iterator();
-			while (itr.hasNext()) {
-				 maxWidth = Math.max(maxWidth, itr.next().entity.getSize().y);
-			 }
+		// Find the widest entity, which sets the spacing between rows
+		for (int i = first; i < n; i++) {
+			double width = entries.get(i).entity.getSize().y;
+			shownMaxWidth[i] = (i == 0) ? width : Math.max(shownMaxWidth[i - 1], width);
 		}
+		double maxWidth = (n > perLine) ? shownMaxWidth[n - 1] : 0.0d;
+		if (maxWidth != shownRowWidth)
+			first = Math.min(first, perLine);
 
-		// update item locations
-		int i = 0;
-		Iterator<QueueEntry> itr = itemSetCopy.iterator();
-		while (itr.hasNext()) {
-			DisplayEntity item = itr.next().entity;
+		// Update the item locations
+		Vec3d queueOrientation = getOrientation();
+		Vec3d tmp = new Vec3d();
+		for (int i = first; i < n; i++) {
+			QueueEntry entry = entries.get(i);
+			shownEntries[i] = entry;
+			DisplayEntity item = entry.entity;
 
-			// if new row is required, set reset distanceX and move distanceY up one row
-			if( i > 0 && i % maxPerLine.getValue() == 0 ){
-				 distanceX = 0.5d * qSize.x;
-				 distanceY += spacing.getValue() + maxWidth;
-			}
-			i++;
+			// Start a new row when required
+			double distanceX = (i % perLine == 0) ? 0.5d * qSize.x : shownEndX[i - 1];
+			double distanceY = (i / perLine) * (space + maxWidth);
 
-			// Rotate each transporter about its center so it points to the right direction
-			item.setOrientation(queueOrientation);
 			Vec3d itemSize = item.getSize();
-			distanceX += spacing.getValue() + 0.5d * itemSize.x;
-			tmp.set3(-distanceX / qSize.x, distanceY/qSize.y, 0.0d);
+			distanceX += space + 0.5d * itemSize.x;
+			tmp.set3(-distanceX / qSize.x, distanceY / qSize.y, 0.0d);
+			shownEndX[i] = distanceX + 0.5d * itemSize.x;
 
-			// increment total distance
-			distanceX += 0.5d * itemSize.x;
+			// The entity may have left the queue since the layout was published
+			if (entry.removed)
+				continue;
+
+			// Rotate each transporter about its center so it points to the right direction
+			item.setOrientation(queueOrientation);
 
 			// Set Position
 			Vec3d itemCenter = this.getGlobalPositionForAlignment(tmp);
 			item.setGlobalPositionForAlignment(item.getAlignment(), itemCenter);
 		}
+
+		// Release the entries that are no longer displayed
+		for (int i = n; i < shownCount; i++) {
+			shownEntries[i] = null;
+		}
+		shownCount = n;
+		shownRowWidth = maxWidth;
+		shownSpacing = space;
+		shownMaxPerLine = perLine;
+	}
+
+	/**
+	 * Records the global positions of reference points on the queue and returns true if
+	 * they are unchanged since the last update.
+	 */
+	private boolean updateFrame() {
+		boolean ret = true;
+		for (int i = 0; i < FRAME_POINTS.length; i++) {
+			Vec3d pos = this.getGlobalPositionForAlignment(FRAME_POINTS[i]);
+			if (!pos.equals3(shownFrame[i])) {
+				shownFrame[i].set3(pos);
+				ret = false;
+			}
+		}
+		return ret;
 	}
 
 	// *******************************************************************************************************
@@ -752,6 +966,13 @@ public class Queue extends LinkedComponent {
 		return ret;
 	}
 
+	@Override
+	public ConditionalSource getConditionalSource(String outputName) {
+		if ("QueueLength".equals(outputName) || "QueueList".equals(outputName))
+			return contentsChanged;
+		return super.getConditionalSource(outputName);
+	}
+
 	// ******************************************************************************************************
 	// OUTPUT METHODS
 	// ******************************************************************************************************
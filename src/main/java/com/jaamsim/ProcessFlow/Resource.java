@@ -18,14 +18,14 @@
 package com.jaamsim.ProcessFlow;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 
 import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.ProbabilityDistributions.Distribution;
 import com.jaamsim.Samples.SampleConstant;
+import com.jaamsim.Samples.SampleExpression;
 import com.jaamsim.Samples.SampleInput;
 import com.jaamsim.Samples.TimeSeries;
+import com.jaamsim.Samples.TimeSeriesCursor;
 import com.jaamsim.basicsim.Entity;
 import com.jaamsim.datatypes.DoubleVector;
 import com.jaamsim.events.Conditional;
@@ -63,6 +63,7 @@ public class Resource extends DisplayEntity {
 	private int unitsInUse;  // number of resource units that are being used at present
 	private ArrayList<Seize> seizeList;  // Seize objects that require this resource
 	private int lastCapacity; // capacity for the resource
+	private final TimeSeriesCursor capacityCursor = new TimeSeriesCursor();  // lookups for the next capacity change
 
 	//	Statistics
 	protected double timeOfLastUpdate; // time at which the statistics were last updated
@@ -176,23 +177,37 @@ public class Resource extends DisplayEntity {
 		if (cap <= unitsInUse)
 			return;
 
-		// Prepare a sorted list of the Seize objects that have a waiting entity
-		ArrayList<Seize> list = new ArrayList<>(seizeList.size());
-		for (Seize s : seizeList) {
-			if (!s.getQueue().isEmpty()) {
-				list.add(s);
-			}
+		// Prepare a heap of the Seize objects that have a waiting entity
+		// (a new heap is required if this method has been called recursively)
+		SeizeHeap heap = seizeHeap;
+		seizeHeap = null;
+		if (heap == null)
+			heap = new SeizeHeap();
+		heap.init(seizeList);
+
+		try {
+			this.selectSeizeObjects(heap, cap);
+		}
+		finally {
+			heap.clear();
+			seizeHeap = heap;
 		}
-		Collections.sort(list, seizeCompare);
+	}
+
+	/**
+	 * Allows the Seize objects to seize the Resource in order of the priority and waiting
+	 * time of their first entities until no more can do so.
+	 */
+	private void selectSeizeObjects(SeizeHeap heap, int cap) {
 
 		// Find the Seize object(s) that can use the released units
 		while (true) {
 
 			// Find the first Seize object that can seize the Resource
 			Seize selection = null;
-			for (Seize s : list) {
-				if (s.isReadyToStart()) {
-					selection = s;
+			while (!heap.isEmpty()) {
+				if (heap.peek().isReadyToStart()) {
+					selection = heap.take();
 					break;
 				}
 
@@ -200,6 +215,8 @@ public class Resource extends DisplayEntity {
 				// eligible to seize the Resource
 				if (strictOrder.getValue())
 					return;
+
+				heap.take();
 			}
 
 			// If none of the Seize objects can seize the Resource, then we are done
@@ -213,38 +230,12 @@ public class Resource extends DisplayEntity {
 			if (cap <= unitsInUse)
 				return;
 
-			// If the selected Seize object has no more entities, remove it from the list
-			if (selection.getQueue().isEmpty()) {
-				list.remove(selection);
-			}
-			// If it does have more entities, re-sort the list to account for the next entity
-			else {
-				Collections.sort(list, seizeCompare);
-			}
-		}
-	}
-
-	/**
-	 * Sorts the Seize objects by the priority and waiting time of the first entity in each queue
-	 */
-	private static class SeizeCompare implements Comparator<Seize> {
-		@Override
-		public int compare(Seize s1, Seize s2) {
-
-			// Chose the Seize object whose Queue contains the highest priority entity
-			// (lowest numerical value, i.e. 1 is higher priority than 2)
-			Queue que1 = s1.getQueue();
-			Queue que2 = s2.getQueue();
-			int ret = Integer.compare(que1.getFirstPriority(), que2.getFirstPriority());
-
-			// If the priorities are the same, choose the one with the longest waiting time
-			if (ret == 0) {
-				return Double.compare(que2.getQueueTime(), que1.getQueueTime());
-			}
-			return ret;
+			// Return the Seize objects to the heap, removing the selected one if it has no
+			// more entities or otherwise re-ordering it for its next entity
+			heap.restore();
 		}
 	}
-	private SeizeCompare seizeCompare = new SeizeCompare();
+	private SeizeHeap seizeHeap = new SeizeHeap();
 
 	/**
 	 * Returns true if the saved capacity differs from the present capacity
@@ -266,10 +257,11 @@ public class Resource extends DisplayEntity {
 		if (capacity.getValue() instanceof TimeSeries) {
 			TimeSeries ts = (TimeSeries)capacity.getValue();
 			long simTicks = getSimTicks();
-			long durTicks = ts.getNextChangeAfterTicks(simTicks) - simTicks;
+			long durTicks = ts.getNextChangeAfterTicks(simTicks, capacityCursor) - simTicks;
 			this.scheduleProcessTicks(durTicks, 10, true, updateForCapacityChangeTarget, null); // FIFO
 		}
 		else {
+			capacityChangeConditional.setSources(SampleExpression.getConditionalSources(capacity.getValue()));
 			EventManager.scheduleUntil(updateForCapacityChangeTarget, capacityChangeConditional, null);
 		}
 	}
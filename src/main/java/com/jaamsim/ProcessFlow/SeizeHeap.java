@@ -0,0 +1,282 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.ProcessFlow;
+
+import java.util.ArrayList;
+
+/**
+ * Binary heap of the Seize objects that are waiting for a Resource, ordered by the
+ * priority and the waiting time of the first entity in each queue.
+ * <p>
+ * The priority and waiting time are read once when a Seize object is added, and again
+ * only when an entity has been added to or removed from its queue. Seize objects with
+ * the same priority and waiting time are kept in the order that a stable sort would give
+ * them: initially in the order they were added, and afterwards a Seize object that is
+ * updated moves ahead of or behind the others with its new values according to whether
+ * its values were increased or decreased.
+ */
+class SeizeHeap {
+	private Entry[] heap = new Entry[0];
+	private Entry[] changed = new Entry[0];  // entries to be updated by restore()
+	private int size;      // number of entries in the heap
+	private int numTaken;  // number of entries removed by take() that have not been restored
+	private long lowSeq;   // lowest sequence number that has been assigned
+	private long highSeq;  // highest sequence number that has been assigned
+
+	private static class Entry {
+		Seize seize;
+		int priority;      // priority of the first entity in the queue
+		double queueTime;  // waiting time for the first entity in the queue
+		long seq;          // order for entries with the same priority and waiting time
+		int changeCount;   // change count for the queue when the values were read
+		int change;        // sign of the change in the values when they were last updated
+
+		boolean isBefore(Entry e) {
+			int ret = compare(priority, queueTime, e.priority, e.queueTime);
+			if (ret != 0)
+				return ret < 0;
+			return seq < e.seq;
+		}
+	}
+
+	/**
+	 * Compares the priority and then the waiting time for two entities. The highest
+	 * priority (lowest numerical value) and then the longest waiting time come first.
+	 */
+	private static int compare(int pri1, double time1, int pri2, double time2) {
+		int ret = Integer.compare(pri1, pri2);
+		if (ret == 0)
+			return Double.compare(time2, time1);
+		return ret;
+	}
+
+	/**
+	 * Fills the heap with the Seize objects from the given list that have an entity
+	 * waiting in their queues.
+	 */
+	void init(ArrayList<Seize> seizeList) {
+		if (heap.length < seizeList.size()) {
+			Entry[] tmp = new Entry[seizeList.size()];
+			System.arraycopy(heap, 0, tmp, 0, heap.length);
+			for (int i = heap.length; i < tmp.length; i++) {
+				tmp[i] = new Entry();
+			}
+			heap = tmp;
+			changed = new Entry[tmp.length];
+		}
+
+		size = 0;
+		numTaken = 0;
+		for (Seize s : seizeList) {
+			Queue que = s.getQueue();
+			if (que.isEmpty())
+				continue;
+
+			Entry e = heap[size];
+			e.seize = s;
+			e.priority = que.getFirstPriority();
+			e.queueTime = que.getQueueTime();
+			e.changeCount = que.getChangeCount();
+			e.seq = size;
+			size++;
+		}
+		lowSeq = 0;
+		highSeq = size - 1;
+
+		for (int i = size/2 - 1; i >= 0; i--) {
+			siftDown(i);
+		}
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the first Seize object in the heap without removing it.
+	 */
+	Seize peek() {
+		return heap[0].seize;
+	}
+
+	/**
+	 * Removes and returns the first Seize object in the heap. It is held outside the heap
+	 * until restore() is called.
+	 */
+	Seize take() {
+		Entry e = heap[0];
+		size--;
+		heap[0] = heap[size];
+		heap[size] = e;
+		numTaken++;
+		if (size > 0)
+			siftDown(0);
+		return e.seize;
+	}
+
+	/**
+	 * Returns the Seize objects removed by take() to the heap. The last one to be taken
+	 * is discarded if its queue is empty, in which case the others keep their present
+	 * order. Otherwise, the priority and waiting time are updated for each Seize object
+	 * whose queue has changed, and any whose queue is empty are discarded.
+	 */
+	void restore() {
+		if (numTaken == 0)
+			return;
+
+		// Discard the last entry to be taken if its queue is empty
+		Entry last = heap[size];
+		if (last.seize.getQueue().isEmpty()) {
+			last.seize = null;
+			this.returnTaken();
+			return;
+		}
+
+		// Find the entries whose queues have changed
+		int n = size + numTaken;
+		int numChanged = 0;
+		boolean heapChanged = false;  // true if an entry that was not taken has changed
+		for (int i = 0; i < n; i++) {
+			Entry e = heap[i];
+			if (e.seize.getQueue().getChangeCount() == e.changeCount)
+				continue;
+			changed[numChanged] = e;
+			numChanged++;
+			if (i < size)
+				heapChanged = true;
+		}
+
+		// Sort the changed entries into their present order (usually only one or two)
+		for (int i = 1; i < numChanged; i++) {
+			Entry e = changed[i];
+			int j = i;
+			while (j > 0 && e.isBefore(changed[j - 1])) {
+				changed[j] = changed[j - 1];
+				j--;
+			}
+			changed[j] = e;
+		}
+
+		// Update the values for the changed entries
+		for (int i = 0; i < numChanged; i++) {
+			Entry e = changed[i];
+			Queue que = e.seize.getQueue();
+			e.changeCount = que.getChangeCount();
+			if (que.isEmpty()) {
+				e.seize = null;
+				continue;
+			}
+			int pri = que.getFirstPriority();
+			double time = que.getQueueTime();
+			e.change = compare(e.priority, e.queueTime, pri, time);
+			e.priority = pri;
+			e.queueTime = time;
+		}
+
+		// Entries whose values were increased are placed ahead of the others with the same
+		// values, and those whose values were decreased are placed behind them
+		for (int i = numChanged - 1; i >= 0; i--) {
+			Entry e = changed[i];
+			if (e.seize != null && e.change < 0)
+				e.seq = --lowSeq;
+		}
+		for (int i = 0; i < numChanged; i++) {
+			Entry e = changed[i];
+			if (e.seize != null && e.change > 0)
+				e.seq = ++highSeq;
+			changed[i] = null;
+		}
+
+		if (!heapChanged) {
+			this.returnTaken();
+			return;
+		}
+
+		// Discard the entries whose queues are empty and rebuild the heap
+		int k = 0;
+		for (int i = 0; i < n; i++) {
+			Entry e = heap[i];
+			if (e.seize == null)
+				continue;
+			heap[i] = heap[k];
+			heap[k] = e;
+			k++;
+		}
+		size = k;
+		numTaken = 0;
+		for (int i = size/2 - 1; i >= 0; i--) {
+			siftDown(i);
+		}
+	}
+
+	/**
+	 * Returns the entries removed by take() to the heap, discarding any whose queues are
+	 * empty.
+	 */
+	private void returnTaken() {
+		int n = size + numTaken;
+		for (int i = size; i < n; i++) {
+			Entry e = heap[i];
+			if (e.seize == null)
+				continue;
+			heap[i] = heap[size];
+			heap[size] = e;
+			size++;
+			siftUp(size - 1);
+		}
+		numTaken = 0;
+	}
+
+	/**
+	 * Releases the references to the Seize objects.
+	 */
+	void clear() {
+		for (int i = 0; i < heap.length; i++) {
+			heap[i].seize = null;
+		}
+		size = 0;
+		numTaken = 0;
+	}
+
+	private void siftUp(int i) {
+		Entry e = heap[i];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (!e.isBefore(heap[parent]))
+				break;
+			heap[i] = heap[parent];
+			i = parent;
+		}
+		heap[i] = e;
+	}
+
+	private void siftDown(int i) {
+		Entry e = heap[i];
+		while (true) {
+			int child = 2*i + 1;
+			if (child >= size)
+				break;
+			if (child + 1 < size && heap[child + 1].isBefore(heap[child]))
+				child++;
+			if (!heap[child].isBefore(e))
+				break;
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = e;
+	}
+}
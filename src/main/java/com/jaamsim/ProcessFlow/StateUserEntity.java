@@ -21,7 +21,6 @@ import java.util.ArrayList;
 import com.jaamsim.BasicObjects.DowntimeEntity;
 import com.jaamsim.Thresholds.Threshold;
 import com.jaamsim.Thresholds.ThresholdUser;
-import com.jaamsim.basicsim.Simulation;
 import com.jaamsim.input.EntityListInput;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
@@ -88,6 +87,10 @@ public abstract class StateUserEntity extends StateEntity implements ThresholdUs
 
 	private boolean busy;  // indicates that work is being performed
 
+	protected final int stateStopped = getStateIndex("Stopped");
+	protected final int stateMaintenance = getStateIndex("Maintenance");
+	protected final int stateBreakdown = getStateIndex("Breakdown");
+
 	{
 		immediateThresholdList = new EntityListInput<>(Threshold.class, "ImmediateThresholdList", "Thresholds", new ArrayList<Threshold>());
 		this.addInput(immediateThresholdList);
@@ -131,11 +134,11 @@ public abstract class StateUserEntity extends StateEntity implements ThresholdUs
 
 		busy = false;
 
-		this.addState("Idle");
-		this.addState("Working");
-		this.addState("Stopped");
-		this.addState("Maintenance");
-		this.addState("Breakdown");
+		this.addState(STATE_IDLE);
+		this.addState(STATE_WORKING);
+		this.addState(stateStopped);
+		this.addState(stateMaintenance);
+		this.addState(stateBreakdown);
 	}
 
 	@Override
@@ -266,26 +269,26 @@ public abstract class StateUserEntity extends StateEntity implements ThresholdUs
 
 		// Working (Busy)
 		if (this.isBusy()) {
-			this.setPresentState("Working");
+			this.setPresentState(STATE_WORKING);
 			return;
 		}
 
 		// Not working because of maintenance or a closure (UnableToWork)
 		if (this.isMaintenance()) {
-			this.setPresentState("Maintenance");
+			this.setPresentState(stateMaintenance);
 			return;
 		}
 		if (this.isBreakdown()) {
-			this.setPresentState("Breakdown");
+			this.setPresentState(stateBreakdown);
 			return;
 		}
 		if (!this.isOpen()) {
-			this.setPresentState("Stopped");
+			this.setPresentState(stateStopped);
 			return;
 		}
 
 		// Not working because there is nothing to do (Idle)
-		this.setPresentState("Idle");
+		this.setPresentState(STATE_IDLE);
 		return;
 	}
 
@@ -358,8 +361,8 @@ public abstract class StateUserEntity extends StateEntity implements ThresholdUs
 	    sequence = 5)
 	public double getUtilisation(double simTime) {
 		double total = simTime;
-		if (simTime > Simulation.getInitializationTime())
-			total -= Simulation.getInitializationTime();
+		if (simTime > getSimulation().getInitializationTime())
+			total -= getSimulation().getInitializationTime();
 		double working = this.getTimeInState(simTime, "Working");
 		return working/total;
 	}
@@ -371,8 +374,8 @@ public abstract class StateUserEntity extends StateEntity implements ThresholdUs
 	    sequence = 6)
 	public double getCommitment(double simTime) {
 		double total = simTime;
-		if (simTime > Simulation.getInitializationTime())
-			total -= Simulation.getInitializationTime();
+		if (simTime > getSimulation().getInitializationTime())
+			total -= getSimulation().getInitializationTime();
 		double idle = this.getTimeInState(simTime, "Idle");
 		return 1.0d - idle/total;
 	}
@@ -384,8 +387,8 @@ public abstract class StateUserEntity extends StateEntity implements ThresholdUs
 	    sequence = 7)
 	public double getAvailability(double simTime) {
 		double total = simTime;
-		if (simTime > Simulation.getInitializationTime())
-			total -= Simulation.getInitializationTime();
+		if (simTime > getSimulation().getInitializationTime())
+			total -= getSimulation().getInitializationTime();
 		double maintenance = this.getTimeInState(simTime, "Maintenance");
 		double breakdown = this.getTimeInState(simTime, "Breakdown");
 		return 1.0d - (maintenance + breakdown)/total;
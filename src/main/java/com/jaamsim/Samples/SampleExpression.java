@@ -17,9 +17,12 @@
  */
 package com.jaamsim.Samples;
 
+import java.util.ArrayList;
+
 import com.jaamsim.basicsim.Entity;
 import com.jaamsim.basicsim.ErrorException;
 import com.jaamsim.basicsim.ObjectType;
+import com.jaamsim.events.ConditionalSource;
 import com.jaamsim.input.ExpError;
 import com.jaamsim.input.ExpEvaluator;
 import com.jaamsim.input.ExpParser;
@@ -66,8 +69,11 @@ public class SampleExpression implements SampleProvider {
 
 	@Override
 	public double getNextSample(double simTime) {
-		double ret = 0.0;
 		try {
+			// A compiled expression is evaluated without creating an ExpResult
+			if (exp.isCompiledFor(unitType))
+				return ExpEvaluator.evaluateDouble(exp, simTime, unitType);
+
 			ExpResult res = ExpEvaluator.evaluateExpression(exp, simTime);
 			if (res.unitType != unitType)
 				thisEnt.error("Invalid unit returned by an expression: '%s'%n"
@@ -75,12 +81,11 @@ public class SampleExpression implements SampleProvider {
 						exp, ObjectType.getObjectTypeForClass(res.unitType),
 						ObjectType.getObjectTypeForClass(unitType));
 
-			ret = res.value;
+			return res.value;
 		}
 		catch(ExpError e) {
 			throw new ErrorException(thisEnt, e);
 		}
-		return ret;
 	}
 
 	@Override
@@ -102,6 +107,20 @@ public class SampleExpression implements SampleProvider {
 		return parseContext.getUpdatedSource();
 	}
 
+	/**
+	 * Returns the ConditionalSources that notify a change in the value returned by the
+	 * given SampleProvider, or null if the value can change without notice.
+	 */
+	public static ArrayList<ConditionalSource> getConditionalSources(SampleProvider samp) {
+		if (samp instanceof SampleConstant)
+			return new ArrayList<>();
+
+		if (samp instanceof SampleExpression)
+			return ExpEvaluator.getConditionalSources(((SampleExpression) samp).exp);
+
+		return null;
+	}
+
 	@Override
 	public String toString() {
 		return getExpressionString();
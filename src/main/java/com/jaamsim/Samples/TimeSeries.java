@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2013 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,11 +17,8 @@
  */
 package com.jaamsim.Samples;
 
-import java.util.Arrays;
-
 import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.basicsim.EntityTarget;
-import com.jaamsim.basicsim.Simulation;
 import com.jaamsim.events.EventManager;
 import com.jaamsim.events.ProcessTarget;
 import com.jaamsim.input.Input;
@@ -28,6 +26,7 @@ import com.jaamsim.input.InputErrorException;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
 import com.jaamsim.input.TimeSeriesDataInput;
+import com.jaamsim.input.TimeSeriesFileInput;
 import com.jaamsim.input.UnitTypeInput;
 import com.jaamsim.input.ValueInput;
 import com.jaamsim.units.TimeUnit;
@@ -56,10 +55,28 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	                        "{ '2010-01-01 00:00:00' 0.5 m } { '2010-01-01 03:00:00' 1.5 m }"} )
 	private final TimeSeriesDataInput value;
 
+	@Keyword(description = "A file containing the time series records, which can be used "
+	                     + "instead of the Value input for a time series with a large number of "
+	                     + "records. Each line of the file contains a time and a value separated "
+	                     + "by a comma, tab, or space. The time is either a number of seconds or a "
+	                     + "date and time in RFC8601 format, such as 'yyyy-MM-dd', "
+	                     + "'yyyy-MM-dd HH:mm:ss' or 'yyyy-MM-ddTHH:mm:ss.SSS', and the value is in "
+	                     + "SI units. The times must be in increasing order and the first time "
+	                     + "follows the same rule as for the Value input. A first line that does "
+	                     + "not contain a record, such as column headings, and lines that start "
+	                     + "with '#' are ignored.\n\n"
+	                     + "The records are copied to a binary file in the temporary directory "
+	                     + "that is read only as required during the simulation run.",
+	         exampleList = {"'c:/test/demand.csv'"})
+	private final TimeSeriesFileInput dataFile;
+
 	@Keyword(description = "The time at which the time series will repeat from the start.",
 	         exampleList = {"8760.0 h"})
 	private final ValueInput cycleTime;
 
+	private final TimeSeriesCursor presentCursor = new TimeSeriesCursor();  // lookups for the present value
+	private final TimeSeriesCursor nextValueCursor = new TimeSeriesCursor();  // lookups for the next change in value
+
 	{
 		unitType = new UnitTypeInput("UnitType", "Key Inputs", UserSpecifiedUnit.class);
 		unitType.setRequired(true);
@@ -67,9 +84,11 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 
 		value = new TimeSeriesDataInput("Value", "Key Inputs", null);
 		value.setUnitType(UserSpecifiedUnit.class);
-		value.setRequired(true);
 		this.addInput(value);
 
+		dataFile = new TimeSeriesFileInput("DataFile", "Key Inputs");
+		this.addInput(dataFile);
+
 		cycleTime = new ValueInput("CycleTime", "Key Inputs", Double.POSITIVE_INFINITY);
 		cycleTime.setUnitType(TimeUnit.class);
 		this.addInput(cycleTime);
@@ -81,13 +100,20 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	public void validate() {
 		super.validate();
 
-		if (value.getTickLength() != Simulation.getTickLength())
+		if (value.getValue() == null && dataFile.getValue() == null)
+			throw new InputErrorException("Either the Value or the DataFile keyword must be set.");
+
+		if (value.getValue() != null && dataFile.getValue() != null)
+			throw new InputErrorException("The Value and DataFile keywords cannot both be set.");
+
+		double tickLength = (dataFile.getValue() != null) ? dataFile.getTickLength() : value.getTickLength();
+		if (tickLength != getSimulation().getTickLength())
 			throw new InputErrorException("A new value was entered for the Simulation keyword TickLength " +
 					"after the TimeSeries data had been loaded.%n" +
 					"The configuration file must be saved and reloaded before the simulation can be executed.");
 
-		long[] ticksList = value.getValue().ticksList;
-		if (getTicks(cycleTime.getValue()) < ticksList[ticksList.length - 1])
+		TimeSeriesData data = getData();
+		if (getTicks(cycleTime.getValue()) < data.getTicks(data.size() - 1))
 			throw new InputErrorException( "CycleTime must be larger than the last time in the series" );
 	}
 
@@ -112,7 +138,7 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	 */
 	final void waitForNextValue() {
 		long ticks = this.getSimTicks();
-		long durTicks = getNextChangeAfterTicks(ticks) - ticks;
+		long durTicks = getNextChangeAfterTicks(ticks, nextValueCursor) - ticks;
 		if (isTraceFlag())
 			trace(0, "waitForNextValue - dur=%.6f", EventManager.ticksToSecs(durTicks));
 		if (durTicks == 0L)
@@ -135,6 +161,15 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	}
 	private final ProcessTarget waitForNextValueTarget = new WaitForNextValueTarget(this);
 
+	/**
+	 * Returns the time series records from either the Value or the DataFile input.
+	 */
+	private TimeSeriesData getData() {
+		if (dataFile.getValue() != null)
+			return dataFile.getData();
+		return value.getValue();
+	}
+
 	@Override
 	public Class<? extends Unit> getUserUnitType() {
 		return unitType.getUnitType();
@@ -156,7 +191,20 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	 */
 	@Override
 	public double getValueForTicks(long ticks) {
-		return getValue(getTSPointForTicks(ticks));
+		return getValueForTicks(ticks, null);
+	}
+
+	/**
+	 * Returns the value for time series at the given simulation time.
+	 * @param ticks - simulation time in clock ticks.
+	 * @param cursor - position found by the previous lookup, or null.
+	 */
+	@Override
+	public double getValueForTicks(long ticks, TimeSeriesCursor cursor) {
+		TimeSeriesData data = getData();
+		if (ticks == Long.MAX_VALUE)
+			return data.getValue(data.size() - 1);
+		return data.getValue(getIndexForTicks(ticks, cursor));
 	}
 
 	/**
@@ -167,7 +215,37 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	 */
 	@Override
 	public long getNextChangeAfterTicks(long ticks) {
-		return getTicks(getTSPointAfter(getTSPointForTicks(ticks)));
+		return getNextChangeAfterTicks(ticks, null);
+	}
+
+	/**
+	 * Return the first time that the value will be updated, after the given
+	 * simulation time.
+	 * @param ticks - simulation time in clock ticks.
+	 * @param cursor - position found by the previous lookup, or null.
+	 * @return simulation time in clock ticks at which the time series value will change.
+	 */
+	@Override
+	public long getNextChangeAfterTicks(long ticks, TimeSeriesCursor cursor) {
+		if (ticks == Long.MAX_VALUE)
+			return Long.MAX_VALUE;
+
+		TimeSeriesData data = getData();
+		int last = data.size() - 1;
+		int k = getIndexForTicks(ticks, cursor);
+
+		if (cycleTime.getValue() == Double.POSITIVE_INFINITY) {
+			if (k == last)
+				return Long.MAX_VALUE;
+			return data.getTicks(k + 1);
+		}
+
+		// After the last point, the next change is at the first point in the next cycle
+		long cycleTicks = getTicks(cycleTime.getValue());
+		long startOfCycle = ticks - ticks % cycleTicks;
+		if (k == last)
+			return startOfCycle + cycleTicks + data.getTicks(0);
+		return startOfCycle + data.getTicks(k + 1);
 	}
 
 	@Override
@@ -180,8 +258,8 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 		if (cycleTime.getValue() < Double.POSITIVE_INFINITY)
 			return getTicks(cycleTime.getValue());
 
-		long[] ticksList = value.getValue().ticksList;
-		return ticksList[ ticksList.length-1 ];
+		TimeSeriesData data = getData();
+		return data.getTicks(data.size() - 1);
 	}
 
 	@Override
@@ -191,12 +269,12 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 
 	@Override
 	public double getMaxValue() {
-		return value.getValue().getMaxValue();
+		return getData().getMaxValue();
 	}
 
 	@Override
 	public double getMinValue() {
-		return value.getValue().getMinValue();
+		return getData().getMinValue();
 	}
 
 	@Override
@@ -215,37 +293,90 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	 */
 	private TSPoint getTSPointForTicks(long ticks) {
 
-		long[] ticksList = value.getValue().ticksList;
+		int last = getData().size() - 1;
 		if (ticks == Long.MAX_VALUE) {
 			if (cycleTime.getValue() == Double.POSITIVE_INFINITY)
-				return new TSPoint(ticksList.length - 1, 0);
-			return new TSPoint(ticksList.length - 1, Long.MAX_VALUE);
+				return new TSPoint(last, 0);
+			return new TSPoint(last, Long.MAX_VALUE);
 		}
 
+		long numberOfCycles = ticks / getTicks(cycleTime.getValue());
+		return new TSPoint(getIndexForTicks(ticks, null), numberOfCycles);
+	}
+
+	/**
+	 * Returns the index in the time series that corresponds to the specified
+	 * time in simulation clock ticks.
+	 * <p>
+	 * The index returned is the largest one whose ticks value is less than or
+	 * equal to the specified ticks within the present cycle. If a cursor is
+	 * provided, its position and the one that follows it are tried before
+	 * searching the time series, and the cursor is set to the index returned.
+	 * @param ticks - simulation time in clock ticks.
+	 * @param cursor - position found by the previous lookup, or null.
+	 * @return index in the TimeSeries.
+	 */
+	private int getIndexForTicks(long ticks, TimeSeriesCursor cursor) {
+
 		// Find the time within the present cycle
-		final long cycleTicks = getTicks(cycleTime.getValue());
-		long numberOfCycles = ticks / cycleTicks;
-		long ticksInCycle = ticks % cycleTicks;
+		TimeSeriesData data = getData();
+		long ticksInCycle = ticks % getTicks(cycleTime.getValue());
+		int last = data.size() - 1;
+
+		// If the time in the cycle is greater than the last time, return the last index
+		if (ticksInCycle >= data.getTicks(last)) {
+			if (cursor != null)
+				cursor.index = last;
+			return last;
+		}
+
+		if (cursor == null)
+			return findIndexForTicks(data, ticksInCycle, ticks);
 
-		// If the time in the cycle is greater than the last time, return the last value
-		if (ticksInCycle >= ticksList[ticksList.length - 1]) {
-			return new TSPoint(ticksList.length - 1, numberOfCycles);
+		// Try the cursor position and the one that follows it, which is the first
+		// position when the cursor is at the end of the previous cycle
+		int k = cursor.index;
+		if (!isIndexForTicks(data, k, ticksInCycle)) {
+			k = (k + 1 < last) ? k + 1 : 0;
+			if (!isIndexForTicks(data, k, ticksInCycle))
+				k = findIndexForTicks(data, ticksInCycle, ticks);
 		}
+		cursor.index = k;
+		return k;
+	}
+
+	/**
+	 * Returns true if the specified time within the cycle lies between the
+	 * ticks values for the specified index and the one that follows it.
+	 */
+	private static boolean isIndexForTicks(TimeSeriesData data, int k, long ticksInCycle) {
+		return k >= 0 && k < data.size() - 1
+				&& data.getTicks(k) <= ticksInCycle && ticksInCycle < data.getTicks(k + 1);
+	}
+
+	/**
+	 * Returns the index in the time series that corresponds to the specified
+	 * time within the cycle, using a binary search.
+	 * @param ticksInCycle - time within the present cycle in clock ticks.
+	 * @param ticks - simulation time in clock ticks.
+	 * @return index in the TimeSeries.
+	 */
+	private int findIndexForTicks(TimeSeriesData data, long ticksInCycle, long ticks) {
 
 		// Find the index by binary search
-		int k = Arrays.binarySearch(ticksList, ticksInCycle);
+		int k = data.binarySearch(ticksInCycle);
 
 		// If the returned index is greater or equal to zero,
 		// then an exact match was found
 		if (k >= 0)
-			return new TSPoint(k, numberOfCycles);
+			return k;
 
 		if (k == -1)
 			error("No value found at time: %f", getSimTime(ticks));
 
 		// If the returned index is negative, then (insertion index) = -k-1
 		// Return the index before the insertion index
-		return new TSPoint(-k - 2, numberOfCycles);
+		return -k - 2;
 	}
 
 	/**
@@ -258,20 +389,21 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	 */
 	private TSPoint getTSPointForValue(double val) {
 
-		double[] valueList = value.getValue().valueList;
+		TimeSeriesData data = getData();
+		int last = data.size() - 1;
 		if (val > getMaxValue() && cycleTime.getValue() == Double.POSITIVE_INFINITY)
-			return new TSPoint(valueList.length - 1, 0);
+			return new TSPoint(last, 0);
 
 		// Find the value within the present cycle
 		double valInCycle = val % getMaxValue();
 		long numberOfCycles = Math.round((val - valInCycle) / getMaxValue());
 
 		// If the value in the cycle is greater than or equal to the last value, return the last index
-		if (valInCycle >= valueList[valueList.length - 1])
-			return new TSPoint(valueList.length - 1, numberOfCycles);
+		if (valInCycle >= data.getValue(last))
+			return new TSPoint(last, numberOfCycles);
 
 		// Find the index by binary search
-		int k = Arrays.binarySearch(valueList, valInCycle);
+		int k = data.binarySearchValue(valInCycle);
 
 		// If the returned index is greater or equal to zero,
 		// then an exact match was found
@@ -296,8 +428,8 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 		if (pt.index == -1)
 			return Long.MAX_VALUE;
 		if (cycleTime.getValue() == Double.POSITIVE_INFINITY)
-			return value.getValue().ticksList[pt.index];
-		return value.getValue().ticksList[pt.index] + pt.numberOfCycles*getTicks(cycleTime.getValue());
+			return getData().getTicks(pt.index);
+		return getData().getTicks(pt.index) + pt.numberOfCycles*getTicks(cycleTime.getValue());
 	}
 
 	/**
@@ -307,10 +439,10 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	 * @return value for the time series.
 	 */
 	private double getValue(TSPoint pt) {
-		double valueList[] = value.getValue().valueList;
+		TimeSeriesData data = getData();
 		if (pt.index == -1)
-			return valueList[ valueList.length - 1 ];
-		return valueList[pt.index];
+			return data.getValue(data.size() - 1);
+		return data.getValue(pt.index);
 	}
 
 	/**
@@ -340,7 +472,7 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 		if (pt.index == -1)
 			return new TSPoint(pt.index, pt.numberOfCycles);
 
-		if (pt.index == value.getValue().ticksList.length - 1) {
+		if (pt.index == getData().size() - 1) {
 			if (cycleTime.getValue() == Double.POSITIVE_INFINITY)
 				return new TSPoint(-1, pt.numberOfCycles);
 
@@ -379,8 +511,8 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 		TSPoint low = getTSPointForTicks(ticks);
 		TSPoint high = getTSPointAfter(low);
 		if (high.index == -1) {
-			double valueList[] = value.getValue().valueList;
-			return valueList[ valueList.length - 1 ];
+			TimeSeriesData data = getData();
+			return data.getValue(data.size() - 1);
 		}
 
 		long ticksLow = getTicks(low);
@@ -400,7 +532,7 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 
 	@Override
 	public final double getNextSample(double simTime) {
-		return getValue(getTSPointForTicks(getTicks(simTime)));
+		return getValueForTicks(getTicks(simTime), presentCursor);
 	}
 
 	// ******************************************************************************************************
@@ -411,7 +543,7 @@ public class TimeSeries extends DisplayEntity implements TimeSeriesProvider {
 	        description = "The time series value for the present time.",
 	        unitType = UserSpecifiedUnit.class)
 	public final double getPresentValue(double simTime) {
-		if (value.getValue() == null)
+		if (getData() == null)
 			return Double.NaN;
 		return this.getNextSample(simTime);
 	}
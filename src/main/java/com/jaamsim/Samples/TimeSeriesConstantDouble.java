@@ -52,6 +52,11 @@ public class TimeSeriesConstantDouble implements TimeSeriesProvider {
 		return val;
 	}
 
+	@Override
+	public double getValueForTicks(long ticks, TimeSeriesCursor cursor) {
+		return val;
+	}
+
 	@Override
 	public double getNextTimeAfter(double simTime) {
 		return Double.POSITIVE_INFINITY;
@@ -62,6 +67,11 @@ public class TimeSeriesConstantDouble implements TimeSeriesProvider {
 		return Long.MAX_VALUE;
 	}
 
+	@Override
+	public long getNextChangeAfterTicks(long ticks, TimeSeriesCursor cursor) {
+		return Long.MAX_VALUE;
+	}
+
 	@Override
 	public double getMaxValue() {
 		return val;
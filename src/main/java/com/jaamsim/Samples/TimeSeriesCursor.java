@@ -0,0 +1,31 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.Samples;
+
+/**
+ * Records the position found by the last lookup in a time series so that a lookup at the
+ * same or a slightly later time can be made without searching the time series data.
+ * <p>
+ * Each object that looks up values in a time series should use its own cursor. The
+ * position is only used as a starting point for the lookup, so the cursor remains valid
+ * if the time series data is changed or if the cursor is used with another time series.
+ */
+public class TimeSeriesCursor {
+	int index;  // index of the time series point found by the last lookup
+
+	public TimeSeriesCursor() {}
+}
@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2013 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,35 +17,82 @@
  */
 package com.jaamsim.Samples;
 
-import com.jaamsim.datatypes.DoubleVector;
+/**
+ * The records for a time series: a time in simulation clock ticks and a value for each
+ * record, in order of increasing time.
+ */
+public abstract class TimeSeriesData {
 
-public class TimeSeriesData {
-	final long[] ticksList;   // time in clock ticks corresponding to each value
-	final double[] valueList;
-	private double maxValue;  // The maximum value that occurs in valueList
-	private double minValue;  // The minimum value that occurs in valueList
+	/**
+	 * Returns the number of records in the time series.
+	 */
+	public abstract int size();
 
-	public TimeSeriesData( DoubleVector times, DoubleVector values ) {
-		ticksList = new long[times.size()];
-		for (int i = 0; i < times.size(); i++) {
-			ticksList[i] = Math.round(times.get(i));
-		}
+	/**
+	 * Returns the time in clock ticks for the specified record.
+	 */
+	public abstract long getTicks(int index);
 
-		valueList = new double[values.size()];
-		maxValue = Double.NEGATIVE_INFINITY;
-		minValue = Double.POSITIVE_INFINITY;
-		for (int i = 0; i < values.size(); i++) {
-			valueList[i] = values.get(i);
-			maxValue = Math.max(maxValue, valueList[i]);
-			minValue = Math.min(minValue, valueList[i]);
-		}
-	}
+	/**
+	 * Returns the value for the specified record.
+	 */
+	public abstract double getValue(int index);
 
-	public double getMaxValue() {
-		return maxValue;
+	/**
+	 * Returns the maximum value that occurs in the time series.
+	 */
+	public abstract double getMaxValue();
+
+	/**
+	 * Returns the minimum value that occurs in the time series.
+	 */
+	public abstract double getMinValue();
+
+	/**
+	 * Searches the record times for the specified time, with the same result as
+	 * Arrays.binarySearch.
+	 * @param ticks - simulation time in clock ticks.
+	 * @return index of the record with the specified time, if there is one; otherwise,
+	 * (-(insertion point) - 1), where the insertion point is the index of the first record
+	 * with a later time.
+	 */
+	public int binarySearch(long ticks) {
+		int low = 0;
+		int high = size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long midVal = getTicks(mid);
+			if (midVal < ticks)
+				low = mid + 1;
+			else if (midVal > ticks)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -(low + 1);
 	}
 
-	public double getMinValue() {
-		return minValue;
+	/**
+	 * Searches the record values for the specified value, with the same result as
+	 * Arrays.binarySearch. The values must increase monotonically.
+	 * @param val - specified value.
+	 * @return index of a record with the specified value, if there is one; otherwise,
+	 * (-(insertion point) - 1), where the insertion point is the index of the first record
+	 * with a larger value.
+	 */
+	public int binarySearchValue(double val) {
+		int low = 0;
+		int high = size() - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			double midVal = getValue(mid);
+			if (midVal < val)
+				low = mid + 1;
+			else if (midVal > val)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -(low + 1);
 	}
 }
@@ -0,0 +1,339 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.Samples;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Time series data that is held in a memory-mapped file instead of on the heap.
+ * <p>
+ * The file contains a fixed length header followed by a column of record times in clock
+ * ticks and a column of record values. The operating system reads the pages of the file
+ * as they are used. Every 1024th record time is held on the heap as a sparse index, so
+ * a binary search only touches the pages for a single block of records.
+ * <p>
+ * Files in this format are created by the Writer class.
+ */
+public class TimeSeriesFileData extends TimeSeriesData {
+	private static final long MAGIC = 0x4A53544944415441L;  // "JSTIDATA"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 64;
+
+	private static final int SEGMENT_BITS = 27;  // records in each mapped segment (1 GB per column)
+	private static final int SEGMENT_MASK = (1 << SEGMENT_BITS) - 1;
+	private static final int SPARSE_BITS = 10;  // records in each block of the sparse index
+
+	private final int size;
+	private final double tickLength;
+	private final double maxValue;
+	private final double minValue;
+	private final long sourceLength;    // length of the file from which the data was read
+	private final long sourceModified;  // time at which that file was last modified
+	private final long sourceHash;      // hash code for the path to that file
+
+	private final LongBuffer[] ticksSegments;
+	private final DoubleBuffer[] valueSegments;
+	private final long[] sparseTicks;  // time for the first record in each block
+
+	private TimeSeriesFileData(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			if (raf.length() < HEADER_SIZE || raf.readLong() != MAGIC)
+				throw new IOException("Not a time series data file: " + file);
+			if (raf.readInt() != VERSION)
+				throw new IOException("Unsupported version for time series data file: " + file);
+
+			size = raf.readInt();
+			tickLength = raf.readDouble();
+			maxValue = raf.readDouble();
+			minValue = raf.readDouble();
+			sourceLength = raf.readLong();
+			sourceModified = raf.readLong();
+			sourceHash = raf.readLong();
+			if (size <= 0 || raf.length() != HEADER_SIZE + 16L*size)
+				throw new IOException("Time series data file is incomplete: " + file);
+
+			// Map each column in segments of up to 2^27 records
+			int numSegments = ((size - 1) >>> SEGMENT_BITS) + 1;
+			ticksSegments = new LongBuffer[numSegments];
+			valueSegments = new DoubleBuffer[numSegments];
+			FileChannel ch = raf.getChannel();
+			for (int i = 0; i < numSegments; i++) {
+				long start = (long)i << SEGMENT_BITS;
+				long len = Math.min(size - start, 1L << SEGMENT_BITS);
+				ticksSegments[i] = ch.map(FileChannel.MapMode.READ_ONLY,
+						HEADER_SIZE + 8L*start, 8L*len).asLongBuffer();
+				valueSegments[i] = ch.map(FileChannel.MapMode.READ_ONLY,
+						HEADER_SIZE + 8L*size + 8L*start, 8L*len).asDoubleBuffer();
+			}
+		}
+
+		sparseTicks = new long[((size - 1) >>> SPARSE_BITS) + 1];
+		for (int i = 0; i < sparseTicks.length; i++) {
+			sparseTicks[i] = getTicks(i << SPARSE_BITS);
+		}
+	}
+
+	/**
+	 * Returns true if the specified file is a time series data file.
+	 */
+	public static boolean isDataFile(File file) throws IOException {
+		if (file.length() < HEADER_SIZE)
+			return false;
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			return in.readLong() == MAGIC;
+		}
+	}
+
+	/**
+	 * Opens the specified time series data file.
+	 * @param file - time series data file.
+	 * @return time series data held in the file.
+	 * @throws IOException if the file cannot be read or is not a time series data file.
+	 */
+	public static TimeSeriesFileData open(File file) throws IOException {
+		return new TimeSeriesFileData(file);
+	}
+
+	/**
+	 * Opens the specified time series data file if it was created from the present contents
+	 * of the source file using the specified clock tick length.
+	 * @param file - time series data file.
+	 * @param source - file from which the data was read.
+	 * @param tickLength - simulation clock tick length.
+	 * @return time series data held in the file, or null if it is missing or out of date.
+	 */
+	public static TimeSeriesFileData openCache(File file, File source, double tickLength) {
+		if (!file.isFile())
+			return null;
+
+		try {
+			TimeSeriesFileData ret = new TimeSeriesFileData(file);
+			if (ret.tickLength != tickLength || ret.sourceLength != source.length()
+					|| ret.sourceModified != source.lastModified()
+					|| ret.sourceHash != getPathHash(source))
+				return null;
+			return ret;
+		}
+		catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the time series data file in the temporary directory to be used for the
+	 * data read from the specified file.
+	 */
+	public static File getCacheFile(File source) {
+		String name = String.format("jaamsim-%016x.jts", getPathHash(source));
+		return new File(System.getProperty("java.io.tmpdir"), name);
+	}
+
+	/**
+	 * Returns a 64-bit hash code for the absolute path to the specified file.
+	 */
+	private static long getPathHash(File file) {
+		String path = file.getAbsolutePath();
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < path.length(); i++) {
+			hash ^= path.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * Returns the simulation clock tick length that was used to convert the record times
+	 * into clock ticks.
+	 */
+	public double getTickLength() {
+		return tickLength;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public long getTicks(int index) {
+		return ticksSegments[index >>> SEGMENT_BITS].get(index & SEGMENT_MASK);
+	}
+
+	@Override
+	public double getValue(int index) {
+		return valueSegments[index >>> SEGMENT_BITS].get(index & SEGMENT_MASK);
+	}
+
+	@Override
+	public double getMaxValue() {
+		return maxValue;
+	}
+
+	@Override
+	public double getMinValue() {
+		return minValue;
+	}
+
+	@Override
+	public int binarySearch(long ticks) {
+
+		// Find the block that contains the time from the sparse index
+		int k = Arrays.binarySearch(sparseTicks, ticks);
+		if (k >= 0)
+			return k << SPARSE_BITS;
+		int block = -k - 2;
+		if (block < 0)
+			return -1;
+
+		// Search the records in the block
+		int low = block << SPARSE_BITS;
+		int high = (int) Math.min(low + (1L << SPARSE_BITS), size) - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long midVal = getTicks(mid);
+			if (midVal < ticks)
+				low = mid + 1;
+			else if (midVal > ticks)
+				high = mid - 1;
+			else
+				return mid;
+		}
+		return -(low + 1);
+	}
+
+	/**
+	 * Writes a time series data file one record at a time.
+	 * <p>
+	 * The record times are written directly to the data file and the values to a temporary
+	 * file, which is appended to the data file when it is finished.
+	 */
+	public static class Writer {
+		private final File file;
+		private final File valueFile;
+		private final DataOutputStream ticksOut;
+		private final DataOutputStream valueOut;
+		private final double tickLength;
+		private long size;
+		private long lastTicks = Long.MIN_VALUE;
+		private double maxValue = Double.NEGATIVE_INFINITY;
+		private double minValue = Double.POSITIVE_INFINITY;
+
+		/**
+		 * Starts a new time series data file.
+		 * @param file - time series data file to be written.
+		 * @param tickLength - simulation clock tick length used for the record times.
+		 */
+		public Writer(File file, double tickLength) throws IOException {
+			this.file = file;
+			this.tickLength = tickLength;
+			valueFile = new File(file.getPath() + ".values");
+
+			ticksOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+			valueOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(valueFile), 1 << 16));
+			ticksOut.write(new byte[HEADER_SIZE]);
+		}
+
+		/**
+		 * Returns the number of records that have been written.
+		 */
+		public long size() {
+			return size;
+		}
+
+		/**
+		 * Adds a record to the file.
+		 * @param ticks - time for the record in clock ticks.
+		 * @param val - value for the record.
+		 * @throws IllegalArgumentException if the time is not later than the previous one.
+		 */
+		public void add(long ticks, double val) throws IOException {
+			if (ticks <= lastTicks)
+				throw new IllegalArgumentException("The times must be given in increasing order");
+			if (size == Integer.MAX_VALUE)
+				throw new IllegalArgumentException("Too many records in the time series");
+
+			ticksOut.writeLong(ticks);
+			valueOut.writeDouble(val);
+			lastTicks = ticks;
+			maxValue = Math.max(maxValue, val);
+			minValue = Math.min(minValue, val);
+			size++;
+		}
+
+		/**
+		 * Completes the file.
+		 * @param source - file from which the records were read, or null.
+		 */
+		public void finish(File source) throws IOException {
+			ticksOut.close();
+			valueOut.close();
+
+			try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			     FileInputStream in = new FileInputStream(valueFile)) {
+
+				// Append the values to the record times
+				FileChannel ch = raf.getChannel();
+				FileChannel valueCh = in.getChannel();
+				long pos = HEADER_SIZE + 8L*size;
+				long count = valueCh.size();
+				long n = 0;
+				while (n < count) {
+					n += ch.transferFrom(valueCh, pos + n, count - n);
+				}
+
+				// Write the header
+				raf.seek(0);
+				raf.writeLong(MAGIC);
+				raf.writeInt(VERSION);
+				raf.writeInt((int) size);
+				raf.writeDouble(tickLength);
+				raf.writeDouble(maxValue);
+				raf.writeDouble(minValue);
+				raf.writeLong(source == null ? 0L : source.length());
+				raf.writeLong(source == null ? 0L : source.lastModified());
+				raf.writeLong(source == null ? 0L : getPathHash(source));
+			}
+			finally {
+				valueFile.delete();
+			}
+		}
+
+		/**
+		 * Abandons the file.
+		 */
+		public void abort() {
+			try {
+				ticksOut.close();
+				valueOut.close();
+			}
+			catch (IOException e) {}
+			valueFile.delete();
+			file.delete();
+		}
+	}
+}
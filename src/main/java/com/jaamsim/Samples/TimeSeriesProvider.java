@@ -21,6 +21,31 @@ public interface TimeSeriesProvider extends SampleProvider {
 	public double getNextTimeAfter(double simTime);
 	public double getValueForTicks(long ticks);
 	public long getNextChangeAfterTicks(long ticks);
+
+	/**
+	 * Returns the value for the specified simulation time in clock ticks.
+	 * <p>
+	 * The cursor records the position found in the time series so that the
+	 * next lookup at the same or a later time can usually be made without a
+	 * search.
+	 * @param ticks - simulation time in clock ticks.
+	 * @param cursor - position found by the previous lookup, or null.
+	 * @return value for the time series.
+	 */
+	public double getValueForTicks(long ticks, TimeSeriesCursor cursor);
+
+	/**
+	 * Returns the first time after the specified simulation time at which the
+	 * value will change.
+	 * <p>
+	 * The cursor records the position found in the time series so that the
+	 * next lookup at the same or a later time can usually be made without a
+	 * search.
+	 * @param ticks - simulation time in clock ticks.
+	 * @param cursor - position found by the previous lookup, or null.
+	 * @return simulation time in clock ticks at which the value will change.
+	 */
+	public long getNextChangeAfterTicks(long ticks, TimeSeriesCursor cursor);
 	public long getMaxTicksValue();
 
 	/**
@@ -62,39 +62,47 @@ public class StringProvExpression implements StringProvider {
 		}
 	}
 
-	@Override
-	public String getNextString(double simTime, String fmt, double siFactor) {
-		String ret = "";
+	/**
+	 * Returns the result of evaluating the expression at the given simulation time.
+	 */
+	public ExpResult getNextResult(double simTime) {
 		try {
 			ExpResult result = ExpEvaluator.evaluateExpression(exp, simTime);
-			switch (result.type) {
-			case STRING:
-				ret = String.format(fmt, result.stringVal);
-				break;
-			case ENTITY:
-				ret = String.format(fmt, result.entVal.getName());
-				break;
-			case NUMBER:
-				if (result.unitType != unitType) {
-					thisEnt.error("Invalid unit returned by an expression: '%s'%n"
-							+ "Received: %s, expected: %s",
-							exp, ObjectType.getObjectTypeForClass(result.unitType),
-							ObjectType.getObjectTypeForClass(unitType));
-				}
-				ret = String.format(fmt, result.value/siFactor);
-				break;
-			case COLLECTION:
-				ret = String.format(fmt, result.colVal.getOutputString());
-				break;
-			default:
-				assert(false);
-				ret = String.format(fmt, "???");
-				break;
+			if (result.type == ExpResType.NUMBER && result.unitType != unitType) {
+				thisEnt.error("Invalid unit returned by an expression: '%s'%n"
+						+ "Received: %s, expected: %s",
+						exp, ObjectType.getObjectTypeForClass(result.unitType),
+						ObjectType.getObjectTypeForClass(unitType));
 			}
+			return result;
 		}
 		catch(ExpError e) {
 			throw new ErrorException(thisEnt, e);
 		}
+	}
+
+	@Override
+	public String getNextString(double simTime, String fmt, double siFactor) {
+		String ret = "";
+		ExpResult result = getNextResult(simTime);
+		switch (result.type) {
+		case STRING:
+			ret = String.format(fmt, result.stringVal);
+			break;
+		case ENTITY:
+			ret = String.format(fmt, result.entVal.getName());
+			break;
+		case NUMBER:
+			ret = String.format(fmt, result.value/siFactor);
+			break;
+		case COLLECTION:
+			ret = String.format(fmt, result.colVal.getOutputString());
+			break;
+		default:
+			assert(false);
+			ret = String.format(fmt, "???");
+			break;
+		}
 		return ret;
 	}
 
@@ -17,10 +17,13 @@
  */
 package com.jaamsim.Thresholds;
 
+import java.util.ArrayList;
+
 import com.jaamsim.DisplayModels.ShapeModel;
 import com.jaamsim.basicsim.EntityTarget;
 import com.jaamsim.basicsim.ErrorException;
 import com.jaamsim.events.Conditional;
+import com.jaamsim.events.ConditionalSource;
 import com.jaamsim.events.EventManager;
 import com.jaamsim.events.ProcessTarget;
 import com.jaamsim.input.BooleanInput;
@@ -135,9 +138,33 @@ public class ExpressionThreshold extends Threshold {
 		setOpen(this.getOpenConditionValue(this.getSimTime()));
 
 		// Wait until the state is ready to change
+		openChanged.setSources(this.getConditionSources());
 		EventManager.scheduleUntil(doOpenClose, openChanged, null);
 	}
 
+	/**
+	 * Returns the sources that notify a change in the values of the OpenCondition and
+	 * CloseCondition expressions, or null if either value can change without notice.
+	 */
+	private ArrayList<ConditionalSource> getConditionSources() {
+		if (openCondition.getValue() == null)
+			return new ArrayList<>();
+
+		ArrayList<ConditionalSource> ret = ExpEvaluator.getConditionalSources(openCondition.getValue());
+		if (ret == null || closeCondition.getValue() == null)
+			return ret;
+
+		ArrayList<ConditionalSource> closeSources = ExpEvaluator.getConditionalSources(closeCondition.getValue());
+		if (closeSources == null)
+			return null;
+
+		for (ConditionalSource src : closeSources) {
+			if (!ret.contains(src))
+				ret.add(src);
+		}
+		return ret;
+	}
+
 	/**
 	 * Returns true if the saved state differs from the state implied by the OpenCondition
 	 * and CloseCondition
@@ -159,8 +186,8 @@ public class ExpressionThreshold extends Threshold {
 				return super.isOpen();
 
 			// Evaluate the open condition (0 = false, non-zero = true)
-			boolean openCond = ExpEvaluator.evaluateExpression(openCondition.getValue(),
-					simTime).value != 0;
+			boolean openCond = ExpEvaluator.evaluateDouble(openCondition.getValue(),
+					simTime, null) != 0;
 
 			// If the open condition is satisfied or there is no close condition, then we are done
 			boolean ret;
@@ -172,8 +199,8 @@ public class ExpressionThreshold extends Threshold {
 			else {
 
 				// If the close condition is satisfied, then the threshold is closed
-				boolean closeCond = ExpEvaluator.evaluateExpression(closeCondition.getValue(),
-						simTime).value != 0;
+				boolean closeCond = ExpEvaluator.evaluateDouble(closeCondition.getValue(),
+						simTime, null) != 0;
 				if (closeCond) {
 					ret = false;
 				}
@@ -20,9 +20,7 @@ import java.util.ArrayList;
 
 import com.jaamsim.DisplayModels.ShapeModel;
 import com.jaamsim.basicsim.Entity;
-import com.jaamsim.events.EventHandle;
 import com.jaamsim.events.EventManager;
-import com.jaamsim.events.ProcessTarget;
 import com.jaamsim.input.BooleanInput;
 import com.jaamsim.input.ColourInput;
 import com.jaamsim.input.Keyword;
@@ -55,6 +53,9 @@ public class Threshold extends StateEntity {
 	private long openCount;
 	private long closedCount;
 
+	private final int stateOpen = getStateIndex("Open");
+	private final int stateClosed = getStateIndex("Closed");
+
 	{
 		workingStateListInput.setHidden(true);
 
@@ -82,7 +83,7 @@ public class Threshold extends StateEntity {
 	@Override
 	public void earlyInit() {
 		super.earlyInit();
-		thresholdChangedTarget.users.clear();
+		getJaamSimModel().getThresholdChangedTarget().users.clear();
 		open = initialOpenValue;
 		openCount = 0L;
 		closedCount = 0L;
@@ -119,28 +120,6 @@ public class Threshold extends StateEntity {
 		return "Open".equals(state);
 	}
 
-	private static final EventHandle thresholdChangedHandle = new EventHandle();
-	private static final ThresholdChangedTarget thresholdChangedTarget = new ThresholdChangedTarget();
-
-	private static class ThresholdChangedTarget extends ProcessTarget {
-		public final ArrayList<ThresholdUser> users = new ArrayList<>();
-
-		public ThresholdChangedTarget() {}
-
-		@Override
-		public void process() {
-			for( int i = 0; i < users.size(); i++ )
-				users.get( i ).thresholdChanged();
-
-			users.clear();
-		}
-
-		@Override
-		public String getDescription() {
-			return "UpdateAllThresholdUsers";
-		}
-	}
-
 	public boolean isOpen() {
 		return open;
 	}
@@ -154,20 +133,21 @@ public class Threshold extends StateEntity {
 
 		open = bool;
 		if (open) {
-			setPresentState("Open");
+			setPresentState(stateOpen);
 			openCount++;
 		}
 		else {
-			setPresentState("Closed");
+			setPresentState(stateClosed);
 			closedCount++;
 		}
 
+		ThresholdChangedTarget target = getJaamSimModel().getThresholdChangedTarget();
 		for (ThresholdUser user : this.userList) {
-			if (!thresholdChangedTarget.users.contains(user))
-				thresholdChangedTarget.users.add(user);
+			if (!target.users.contains(user))
+				target.users.add(user);
 		}
-		if (!thresholdChangedTarget.users.isEmpty() && !thresholdChangedHandle.isScheduled())
-			this.scheduleProcessTicks(0, 2, false, thresholdChangedTarget, thresholdChangedHandle);
+		if (!target.users.isEmpty() && !target.handle.isScheduled())
+			this.scheduleProcessTicks(0, 2, false, target, target.handle);
 	}
 
 	@Override
@@ -213,8 +193,8 @@ public class Threshold extends StateEntity {
 	    sequence = 1)
 	public double getOpenFraction(double simTime) {
 		long simTicks = EventManager.secsToNearestTick(simTime);
-		long openTicks = this.getTicksInState(simTicks, getState("Open"));
-		long closedTicks = this.getTicksInState(simTicks, getState("Closed"));
+		long openTicks = this.getTicksInState(simTicks, getState(stateOpen));
+		long closedTicks = this.getTicksInState(simTicks, getState(stateClosed));
 		long totTicks = openTicks + closedTicks;
 
 		return (double)openTicks / totTicks;
@@ -226,8 +206,8 @@ public class Threshold extends StateEntity {
 	    sequence = 2)
 	public double getClosedFraction(double simTime) {
 		long simTicks = EventManager.secsToNearestTick(simTime);
-		long openTicks = this.getTicksInState(simTicks, getState("Open"));
-		long closedTicks = this.getTicksInState(simTicks, getState("Closed"));
+		long openTicks = this.getTicksInState(simTicks, getState(stateOpen));
+		long closedTicks = this.getTicksInState(simTicks, getState(stateClosed));
 		long totTicks = openTicks + closedTicks;
 
 		return (double)closedTicks / totTicks;
@@ -0,0 +1,47 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.Thresholds;
+
+import java.util.ArrayList;
+
+import com.jaamsim.events.EventHandle;
+import com.jaamsim.events.ProcessTarget;
+
+/**
+ * Notifies the ThresholdUsers in a model after one or more of its Thresholds have
+ * opened or closed. Each model has one target, so that a user is notified only once
+ * when several of its Thresholds change at the same time.
+ */
+public class ThresholdChangedTarget extends ProcessTarget {
+	final EventHandle handle = new EventHandle();
+	final ArrayList<ThresholdUser> users = new ArrayList<>();
+
+	public ThresholdChangedTarget() {}
+
+	@Override
+	public void process() {
+		for( int i = 0; i < users.size(); i++ )
+			users.get( i ).thresholdChanged();
+
+		users.clear();
+	}
+
+	@Override
+	public String getDescription() {
+		return "UpdateAllThresholdUsers";
+	}
+}
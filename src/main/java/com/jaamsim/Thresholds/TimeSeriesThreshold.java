@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +19,7 @@ package com.jaamsim.Thresholds;
 
 import com.jaamsim.Samples.TimeSeries;
 import com.jaamsim.Samples.TimeSeriesConstantDouble;
+import com.jaamsim.Samples.TimeSeriesCursor;
 import com.jaamsim.basicsim.EntityTarget;
 import com.jaamsim.events.EventManager;
 import com.jaamsim.events.ProcessTarget;
@@ -71,6 +73,11 @@ public class TimeSeriesThreshold extends Threshold {
 	         exampleList = {"DistanceUnit"})
 	private final UnitTypeInput unitType;
 
+	// Positions of the last lookups in each time series
+	private final TimeSeriesCursor timeSeriesCursor = new TimeSeriesCursor();
+	private final TimeSeriesCursor maxOpenLimitCursor = new TimeSeriesCursor();
+	private final TimeSeriesCursor minOpenLimitCursor = new TimeSeriesCursor();
+
 	{
 		unitType = new UnitTypeInput("UnitType", "Key Inputs", UserSpecifiedUnit.class);
 		unitType.setRequired(true);
@@ -420,9 +427,9 @@ public class TimeSeriesThreshold extends Threshold {
 	 * @return the next time in clock ticks that a change will occur
 	 */
 	private long getNextChangeAfterTicks(long ticks) {
-		long firstChange = timeSeries.getValue().getNextChangeAfterTicks(ticks);
-		firstChange = Math.min(firstChange, maxOpenLimit.getValue().getNextChangeAfterTicks(ticks));
-		firstChange = Math.min(firstChange, minOpenLimit.getValue().getNextChangeAfterTicks(ticks));
+		long firstChange = timeSeries.getValue().getNextChangeAfterTicks(ticks, timeSeriesCursor);
+		firstChange = Math.min(firstChange, maxOpenLimit.getValue().getNextChangeAfterTicks(ticks, maxOpenLimitCursor));
+		firstChange = Math.min(firstChange, minOpenLimit.getValue().getNextChangeAfterTicks(ticks, minOpenLimitCursor));
 		return firstChange;
 	}
 
@@ -446,9 +453,9 @@ public class TimeSeriesThreshold extends Threshold {
 	 */
 	private boolean isPointOpenAtTicks(long ticks) {
 
-		double value = timeSeries.getValue().getValueForTicks(ticks);
-		double minOpenLimitVal = minOpenLimit.getValue().getValueForTicks(ticks);
-		double maxOpenLimitVal = maxOpenLimit.getValue().getValueForTicks(ticks);
+		double value = timeSeries.getValue().getValueForTicks(ticks, timeSeriesCursor);
+		double minOpenLimitVal = minOpenLimit.getValue().getValueForTicks(ticks, minOpenLimitCursor);
+		double maxOpenLimitVal = maxOpenLimit.getValue().getValueForTicks(ticks, maxOpenLimitCursor);
 
 		// Error check that threshold limits remain consistent
 		if (minOpenLimitVal > maxOpenLimitVal)
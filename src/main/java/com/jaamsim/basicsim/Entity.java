@@ -25,6 +25,7 @@ import java.util.Map.Entry;
 import com.jaamsim.Samples.SampleInput;
 import com.jaamsim.datatypes.DoubleVector;
 import com.jaamsim.events.Conditional;
+import com.jaamsim.events.ConditionalSource;
 import com.jaamsim.events.EventHandle;
 import com.jaamsim.events.EventManager;
 import com.jaamsim.events.ProcessTarget;
@@ -50,7 +51,6 @@ import com.jaamsim.ui.FrameBox;
 import com.jaamsim.units.DimensionlessUnit;
 import com.jaamsim.units.TimeUnit;
 import com.jaamsim.units.Unit;
-import com.jaamsim.units.UserSpecifiedUnit;
 
 /**
  * Abstract class that encapsulates the methods and data needed to create a
@@ -58,10 +58,10 @@ import com.jaamsim.units.UserSpecifiedUnit;
  * event execution.
  */
 public class Entity {
-	private static final JaamSimModel sim = new JaamSimModel();
+	private final JaamSimModel simModel;
 
 	String entityName;
-	private final long entityNumber;
+	private long entityNumber;
 
 	private static final int FLAG_TRACE = 0x01;
 	//public static final int FLAG_TRACEREQUIRED = 0x02;
@@ -78,6 +78,9 @@ public class Entity {
 
 	private final HashMap<String, AttributeHandle> attributeMap = new LinkedHashMap<>();
 	private final HashMap<String, ExpressionHandle> customOutputMap = new LinkedHashMap<>();
+	private ConditionalSource attributeSource; // notifies a change to any attribute value
+	private OutputHandle[] outputHandles;      // handles for the class's outputs, created on first use
+	private EntityPool<?> pool;                // receives the entity when it is killed
 
 	@Keyword(description = "Provides the programmer with a detailed trace of the logic executed "
 	                     + "by the entity. Trace information is sent to standard out.",
@@ -125,13 +128,28 @@ public class Entity {
 	 * Constructor for entity initializing members.
 	 */
 	public Entity() {
-		entityNumber = sim.getNextEntityID();
-		sim.addInstance(this);
+		simModel = JaamSimModel.getCurrent();
+		entityNumber = simModel.getNextEntityID();
+		simModel.addInstance(this);
 		flags = 0;
 	}
 
+	/**
+	 * Returns the model to which this entity belongs.
+	 */
+	public final JaamSimModel getJaamSimModel() {
+		return simModel;
+	}
+
+	/**
+	 * Returns the Simulation entity for the model to which this entity belongs.
+	 */
+	public final Simulation getSimulation() {
+		return simModel.getSimulation();
+	}
+
 	public static ArrayList<? extends Entity> getAll() {
-		return sim.getEntities();
+		return JaamSimModel.getCurrent().getEntities();
 	}
 
 	public static <T extends Entity> InstanceIterable<T> getInstanceIterator(Class<T> proto){
@@ -152,7 +170,7 @@ public class Entity {
 	}
 
 	public static Entity idToEntity(long id) {
-		return sim.idToEntity(id);
+		return JaamSimModel.getCurrent().idToEntity(id);
 	}
 
 	public void validate() throws InputErrorException {
@@ -173,6 +191,8 @@ public class Entity {
 		for (AttributeHandle h : attributeMap.values()) {
 			h.setValue(h.getInitialValue());
 		}
+		if (attributeSource != null)
+			attributeSource.changed();
 	}
 
 	/**
@@ -203,7 +223,8 @@ public class Entity {
 
 
 	public void kill() {
-		sim.removeInstance(this);
+		boolean recycle = (pool != null && !testFlag(FLAG_DEAD));
+		simModel.removeInstance(this);
 		if (!testFlag(FLAG_GENERATED)) {
 			// Remove any references to the deleted entity from the inputs to other entities
 			for (Entity ent : Entity.getClonesOfIterator(Entity.class)) {
@@ -212,6 +233,24 @@ public class Entity {
 				}
 			}
 		}
+
+		if (recycle)
+			pool.release(this);
+	}
+
+	final void setPool(EntityPool<?> p) {
+		pool = p;
+	}
+
+	/**
+	 * Returns a killed entity to the model with a new entity number and name.
+	 * @param name - new name for the entity.
+	 */
+	final void recycle(String name) {
+		entityNumber = simModel.getNextEntityID();
+		clearFlag(FLAG_DEAD);
+		simModel.addInstance(this);
+		setName(name);
 	}
 
 	/**
@@ -220,7 +259,7 @@ public class Entity {
 	public void doEnd() {}
 
 	public static long getEntitySequence() {
-		return sim.getEntitySequence();
+		return JaamSimModel.getCurrent().getEntitySequence();
 	}
 
 	/**
@@ -364,14 +403,14 @@ public class Entity {
 	}
 
 	public static Entity getNamedEntity(String name) {
-		return sim.getNamedEntity(name);
+		return JaamSimModel.getCurrent().getNamedEntity(name);
 	}
 
 	/**
 	 * Method to set the input name of the entity.
 	 */
 	public void setName(String newName) {
-		sim.renameEntity(this, newName);
+		simModel.renameEntity(this, newName);
 	}
 
 	/**
@@ -393,6 +432,8 @@ public class Entity {
 			for (AttributeHandle h : attributeDefinitionList.getValue()) {
 				this.addAttribute(h.getName(), h);
 			}
+			if (attributeSource != null)
+				attributeSource.changed();
 
 			// Update the OutputBox
 			FrameBox.reSelectEntity();
@@ -560,19 +601,17 @@ public class Entity {
 
 
 	public final OutputHandle getOutputHandle(String outputName) {
-		if (hasAttribute(outputName))
-			return attributeMap.get(outputName);
-
-		if (customOutputMap.containsKey(outputName))
-			return customOutputMap.get(outputName);
-
-		if (hasOutput(outputName)) {
-			OutputHandle ret = new OutputHandle(this, outputName);
-			if (ret.getUnitType() == UserSpecifiedUnit.class)
-				ret.setUnitType(getUserUnitType());
+		OutputHandle ret = attributeMap.get(outputName);
+		if (ret != null)
+			return ret;
 
+		ret = customOutputMap.get(outputName);
+		if (ret != null)
 			return ret;
-		}
+
+		int index = OutputHandle.getOutputIndex(this.getClass(), outputName);
+		if (index >= 0)
+			return getClassOutputHandle(index);
 
 		return null;
 	}
@@ -583,21 +622,34 @@ public class Entity {
 	 * @return
 	 */
 	public final OutputHandle getOutputHandleInterned(String outputName) {
-		if (hasAttribute(outputName))
-			return attributeMap.get(outputName);
-
-		if (customOutputMap.containsKey(outputName))
-			return customOutputMap.get(outputName);
+		// The output index is keyed by interned names, so no further optimization is needed
+		return getOutputHandle(outputName);
+	}
 
-		if (OutputHandle.hasOutputInterned(this.getClass(), outputName)) {
-			OutputHandle ret = new OutputHandle(this, outputName);
-			if (ret.getUnitType() == UserSpecifiedUnit.class)
-				ret.setUnitType(getUserUnitType());
+	/**
+	 * Returns the handle for the output with the given index for this entity's class.
+	 * The handle is created on first use and is re-used by later calls.
+	 */
+	private OutputHandle getClassOutputHandle(int index) {
+		// Duplicate handles created by concurrent callers are equivalent, so the
+		// cache is not synchronized
+		OutputHandle[] handles = outputHandles;
+		if (handles == null) {
+			handles = new OutputHandle[OutputHandle.getOutputCount(this.getClass())];
+			outputHandles = handles;
+		}
 
-			return ret;
+		OutputHandle ret = handles[index];
+		if (ret == null) {
+			ret = new OutputHandle(this, index);
+			handles[index] = ret;
 		}
 
-		return null;
+		// The unit type can change with the inputs to the entity
+		if (ret.isUserSpecifiedUnitType())
+			ret.setUnitType(getUserUnitType());
+
+		return ret;
 	}
 
 	public boolean hasOutput(String outputName) {
@@ -752,6 +804,8 @@ public class Entity {
 			} catch (ExpError err) {
 				this.error("Error during assignment: %s", err.getMessage());
 			}
+			if (attributeSource != null)
+				attributeSource.changed();
 			return;
 		}
 
@@ -760,6 +814,24 @@ public class Entity {
 					value.unitType.getSimpleName(), h.getUnitType().getSimpleName(), "");
 
 		h.setValue(value.getCopy());
+		if (attributeSource != null)
+			attributeSource.changed();
+	}
+
+	/**
+	 * Returns the ConditionalSource that notifies a change in the value of the
+	 * specified output, or null if the output can change without notice.
+	 * Subclasses that post notices for their own outputs override this method.
+	 * @param outputName - name of the output
+	 * @return source for changes to the output's value, or null.
+	 */
+	public ConditionalSource getConditionalSource(String outputName) {
+		if (!hasAttribute(outputName))
+			return null;
+
+		if (attributeSource == null)
+			attributeSource = new ConditionalSource();
+		return attributeSource;
 	}
 
 	public ArrayList<String> getAttributeNames(){
@@ -780,7 +852,7 @@ public class Entity {
 
 
 	public ObjectType getObjectType() {
-		return ObjectType.getObjectTypeForClass(this.getClass());
+		return simModel.getObjectTypeForClass(this.getClass());
 	}
 
 	@Output(name = "Name",
@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,55 +21,136 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
-
+/**
+ * Iterates over the entities in the model whose classes match a given criterion, in
+ * order of entity number.
+ * <p>
+ * The entities are taken from the lists that the model keeps for each class, so that
+ * only the entities of the matching classes are visited. If the matching classes hold
+ * most of the entities in the model, the list of all entities is scanned instead.
+ * <p>
+ * Entities can be created and killed while the iteration is in progress. A killed
+ * entity is not returned, and an entity created during the iteration is returned if
+ * its class matches.
+ */
 public abstract class EntityIterator<T extends Entity> implements Iterable<T>, Iterator<T> {
-	private final ArrayList<? extends Entity> allInstances = Entity.getAll();
+	private static final int MAX_MERGED_LISTS = 8;
+
+	private final JaamSimModel model = JaamSimModel.getCurrent();
 	protected final Class<T> entClass;
-	private int curPos;
-	private int nextPos;
+
+	private EntityList[] lists;  // lists that contain the matching entities
+	private int[] pos;           // index of the next entry to be tested in each list
+	private int[] moveCounts;    // move count for each list when its position was set
+	private boolean scan;        // true if the entries must be tested for a matching class
+	private int numClasses;      // number of classes in the model when the lists were chosen
+	private long lastNumber;     // entity number for the last entity that was found
+	private T nextEnt;           // next entity to be returned
 
 	public EntityIterator(Class<T> aClass) {
 		entClass = aClass;
-		curPos = -1;
-		nextPos = -1;
+		lastNumber = -1L;
 	}
 
 	abstract boolean matches(Class<?> entklass);
 
-	private void updatePos() {
-		if (nextPos >= allInstances.size())
-			return;
+	/**
+	 * Selects the lists that contain the entities whose classes match.
+	 */
+	private void setLists() {
+		EntityList all = model.getEntityList();
+		ArrayList<EntityList> classLists = model.getClassLists();
+		numClasses = classLists.size();
+
+		ArrayList<EntityList> matchLists = new ArrayList<>();
+		int count = 0;
+		for (int i = 0; i < classLists.size(); i++) {
+			EntityList list = classLists.get(i);
+			if (!matches(list.klass))
+				continue;
+			matchLists.add(list);
+			count += list.getCount();
+		}
 
-		while (++nextPos < allInstances.size()) {
-			// If we find a match, break out
-			if (matches(allInstances.get(nextPos).getClass()))
-				break;
+		// Merging a large number of lists is slower than testing every entity
+		scan = matchLists.size() > 1
+				&& (matchLists.size() > MAX_MERGED_LISTS || 2 * count > all.getCount());
+		if (scan) {
+			lists = new EntityList[] { all };
+		}
+		else {
+			lists = matchLists.toArray(new EntityList[matchLists.size()]);
+		}
+
+		// The starting positions are found from the last entity number
+		pos = new int[lists.length];
+		moveCounts = new int[lists.length];
+		for (int i = 0; i < lists.length; i++) {
+			moveCounts[i] = lists[i].getMoveCount() - 1;
+		}
+	}
+
+	private T findNext() {
+		synchronized (model.getEntityLock()) {
+			if (lists == null || (!scan && numClasses != model.getClassLists().size()))
+				setLists();
+
+			// Find the entity with the lowest number from the next entries in each list
+			Entity ret = null;
+			int retList = -1;
+			long retNumber = 0L;
+			for (int i = 0; i < lists.length; i++) {
+				EntityList list = lists[i];
+				if (moveCounts[i] != list.getMoveCount()) {
+					pos[i] = list.higherIndex(lastNumber);
+					moveCounts[i] = list.getMoveCount();
+				}
+
+				// Skip the killed entities and any others that do not match
+				while (pos[i] < list.size()) {
+					Entity ent = list.get(pos[i]);
+					if (ent != null && (!scan || matches(ent.getClass())))
+						break;
+					pos[i]++;
+				}
+				if (pos[i] >= list.size())
+					continue;
+
+				long num = list.getNumber(pos[i]);
+				if (ret == null || num < retNumber) {
+					ret = list.get(pos[i]);
+					retList = i;
+					retNumber = num;
+				}
+			}
+			if (ret == null)
+				return null;
+
+			pos[retList]++;
+			lastNumber = retNumber;
+			return entClass.cast(ret);
 		}
 	}
 
 	@Override
 	public boolean hasNext() {
-		if (curPos == nextPos)
-			updatePos();
+		if (nextEnt == null)
+			nextEnt = findNext();
 
-		if (nextPos < allInstances.size())
-			return true;
-		else
-			return false;
+		return nextEnt != null;
 	}
 
 	@Override
 	public T next() {
-		if (curPos == nextPos)
-			updatePos();
+		if (nextEnt == null)
+			nextEnt = findNext();
 
-		if (nextPos < allInstances.size()) {
-			curPos = nextPos;
-			return entClass.cast(allInstances.get(curPos));
-		}
-		else {
+		if (nextEnt == null)
 			throw new NoSuchElementException();
-		}
+
+		T ret = nextEnt;
+		nextEnt = null;
+		return ret;
 	}
 
 	@Override
@@ -0,0 +1,149 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * List of entities in order of entity number.
+ * <p>
+ * A killed entity leaves a null entry in the list instead of shifting the remainder
+ * of the list. The null entries are removed once they occupy half of the list. The
+ * move count is incremented whenever entries are removed so that an iterator can find
+ * its position again from the last entity number it returned.
+ */
+class EntityList {
+	final Class<? extends Entity> klass;         // class of the entities, or null for every class
+	final ArrayList<Entity> list = new ArrayList<>();
+	private long[] numbers = new long[16];     // entity numbers, including those for killed entities
+	private int numKilled;                     // number of null entries
+	private int moveCount;                     // number of times that entries have been removed
+
+	EntityList(Class<? extends Entity> klass) {
+		this.klass = klass;
+	}
+
+	final int size() {
+		return list.size();
+	}
+
+	final Entity get(int index) {
+		return list.get(index);
+	}
+
+	final long getNumber(int index) {
+		return numbers[index];
+	}
+
+	/**
+	 * Returns the number of entities in the list that have not been killed.
+	 */
+	final int getCount() {
+		return list.size() - numKilled;
+	}
+
+	final int getMoveCount() {
+		return moveCount;
+	}
+
+	final void add(Entity ent) {
+		int size = list.size();
+		if (size == numbers.length)
+			numbers = Arrays.copyOf(numbers, 2 * size);
+
+		numbers[size] = ent.getEntityNumber();
+		list.add(ent);
+	}
+
+	final void remove(Entity ent) {
+		int index = indexOf(ent.getEntityNumber());
+		if (index < 0)
+			return;
+
+		// A null entry is an entity that has already been removed
+		Entity e = list.get(index);
+		if (e == null)
+			return;
+
+		if (ent != e)
+			throw new ErrorException("Internal Consistency Error - Entity List");
+
+		// Leave a null entry instead of shifting the remainder of the list
+		list.set(index, null);
+		numKilled++;
+
+		// Entries at the end of the list can be removed without a shift
+		int last = list.size() - 1;
+		if (last == index) {
+			while (last >= 0 && list.get(last) == null) {
+				list.remove(last);
+				numKilled--;
+				last--;
+			}
+			moveCount++;
+		}
+
+		// Remove the remaining null entries once they occupy half of the list
+		if (numKilled > list.size() / 2)
+			removeKilledEntries();
+	}
+
+	/**
+	 * Returns the index of the entry with the given entity number, or -1 if there is none.
+	 */
+	final int indexOf(long num) {
+		int index = higherIndex(num - 1);
+		if (index < list.size() && numbers[index] == num)
+			return index;
+		return -1;
+	}
+
+	/**
+	 * Returns the index of the first entry whose entity number is greater than the given
+	 * number, or the size of the list if there is none.
+	 */
+	final int higherIndex(long num) {
+		int lowIdx = 0;
+		int highIdx = list.size();
+		while (lowIdx < highIdx) {
+			int testIdx = (lowIdx + highIdx) >>> 1; // Avoid sign extension
+			if (numbers[testIdx] <= num)
+				lowIdx = testIdx + 1;
+			else
+				highIdx = testIdx;
+		}
+		return lowIdx;
+	}
+
+	private void removeKilledEntries() {
+		int size = list.size();
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			Entity ent = list.get(i);
+			if (ent == null)
+				continue;
+
+			list.set(n, ent);
+			numbers[n] = numbers[i];
+			n++;
+		}
+		list.subList(n, size).clear();
+		numKilled = 0;
+		moveCount++;
+	}
+}
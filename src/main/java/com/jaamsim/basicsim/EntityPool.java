@@ -0,0 +1,70 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import java.util.ArrayList;
+
+/**
+ * EntityPool holds generated entities that have been killed so that they can be used
+ * again in place of new entities.
+ * <p>
+ * An entity is returned to its pool when it is killed. When it is taken from the pool
+ * it receives a new entity number and name, but otherwise it is unchanged and must be
+ * re-initialised by the caller.
+ */
+public class EntityPool<T extends Entity> {
+	private final ArrayList<T> freeList = new ArrayList<>();
+
+	public EntityPool() {}
+
+	/**
+	 * Returns a killed entity with the given name, or null if the pool is empty.
+	 * @param name - name for the entity.
+	 * @return entity from the pool.
+	 */
+	public T getEntity(String name) {
+		if (freeList.isEmpty())
+			return null;
+
+		T ent = freeList.remove(freeList.size() - 1);
+		ent.recycle(name);
+		return ent;
+	}
+
+	/**
+	 * Adds a generated entity to the pool, which will receive it when it is killed.
+	 * @param ent - generated entity.
+	 */
+	public void addEntity(T ent) {
+		if (!ent.testFlag(Entity.FLAG_GENERATED))
+			throw new ErrorException("Only generated entities can be recycled: %s", ent);
+
+		ent.setPool(this);
+	}
+
+	@SuppressWarnings("unchecked")
+	void release(Entity ent) {
+		freeList.add((T)ent);
+	}
+
+	/**
+	 * Returns the number of killed entities held by the pool.
+	 */
+	public int getFreeCount() {
+		return freeList.size();
+	}
+}
@@ -27,6 +27,10 @@ public abstract class EntityTarget<T extends Entity> extends ProcessTarget {
 		this.desc = method;
 	}
 
+	String getMethod() {
+		return desc;
+	}
+
 	@Override
 	public String getDescription() {
 		return ent.getName() + "." + desc;
@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,29 +17,76 @@
  */
 package com.jaamsim.basicsim;
 
-import java.io.BufferedWriter;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import com.jaamsim.events.EventManager;
 import com.jaamsim.events.EventTraceListener;
 import com.jaamsim.events.ProcessTarget;
-import com.jaamsim.input.Input;
+import com.jaamsim.input.InputAgent;
 import com.jaamsim.input.InputErrorException;
 
+/**
+ * Writes the event trace for a simulation run to a file in a binary format.
+ * <p>
+ * Each trace record holds the times in clock ticks, the priority, and numbers that
+ * identify the EventManager and the ProcessTarget, written as variable length integers.
+ * The names and descriptions are written only once, the first time they are used. An
+ * EntityTarget is identified by the entity number and its method, so its description does
+ * not have to be built for each event.
+ * <p>
+ * The records are placed in a ring buffer by the simulation thread and written to the
+ * file by a separate thread. The simulation thread waits for the writer when the ring
+ * buffer is full. The file can be converted to the text format, or compared with another
+ * trace, by EventTraceReader.
+ */
 public class EventRecorder implements EventTraceListener {
-	private BufferedWriter outputStream;
-	private int traceLevel;
-	private final ArrayList<String> traces = new ArrayList<>();
+	static final long MAGIC = 0x4A53455654524143L;  // "JSEVTRAC"
+	static final int VERSION = 1;
+
+	// Record types that are used in the file in addition to the trace record types
+	static final int DEFINE_STRING = 100;
+	static final int DEFINE_ENTITY = 101;
+	static final int ENTITY_TARGET = 0x80;  // flag for a trace record whose target is an EntityTarget
+
+	private static final int RING_BITS = 14;  // number of records in the ring buffer
+	private static final int RING_SIZE = 1 << RING_BITS;
+	private static final int RECORD_LENGTH = 5;  // number of longs for each record
+
+	private final DataOutputStream outputStream;
+	private final long[] ring = new long[RING_SIZE * RECORD_LENGTH];
+	private final AtomicLong head = new AtomicLong();  // number of records added to the ring
+	private final AtomicLong tail = new AtomicLong();  // number of records written to the file
+	private final ConcurrentLinkedQueue<String> definitions = new ConcurrentLinkedQueue<>();
+	private final Thread writerThread;
+	private final Thread shutdownHook;
+	private volatile boolean closed;
+	private final Object ringLock = new Object();  // used to wait for space in the ring buffer
+	private volatile boolean ringFull;  // true if the simulation thread is waiting for space
+
+	// Used only by the simulation thread
+	private long nextRecord;
+	private int depth;  // number of events and processes that have started but not ended
+	private boolean closeAtEnd;  // true if the file is to be closed once depth returns to zero
+	private final HashMap<String, Integer> stringIDs = new HashMap<>();
+	private final WeakHashMap<Entity, String> entityNames = new WeakHashMap<>();  // names as last written
 
 	public EventRecorder(String fileName) {
-		traceLevel = 0;
 		try {
 			File backingFileObject = new File(fileName);
 			backingFileObject.createNewFile();
-			outputStream = new BufferedWriter(new FileWriter(backingFileObject, false));
+			outputStream = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(backingFileObject, false), 1 << 16));
+			outputStream.writeLong(MAGIC);
+			outputStream.writeInt(VERSION);
 		}
 		catch (IOException e) {
 			throw new InputErrorException("IOException thrown trying to open FileEntity: " + e);
@@ -49,47 +97,256 @@ public class EventRecorder implements EventTraceListener {
 		catch (SecurityException e) {
 			throw new InputErrorException("SecurityException thrown trying to open File: " + e);
 		}
-	}
 
-	private void append(String record) {
-		StringBuilder rec = new StringBuilder();
+		writerThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				writeRecords();
+			}
+		}, "EventTraceWriter");
+		writerThread.setDaemon(true);
+		writerThread.start();
+
+		// Write the remaining records if the program exits without closing the file
+		shutdownHook = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				finishWriting();
+			}
+		});
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+	}
 
-		for (int i = 0; i < traceLevel; i++) {
-			rec.append(Input.SEPARATOR);
+	/**
+	 * Writes the records that remain in the ring buffer and closes the file.
+	 */
+	public void close() {
+		finishWriting();
+		try {
+			Runtime.getRuntime().removeShutdownHook(shutdownHook);
 		}
-		rec.append(record);
-		traces.add(rec.toString());
+		catch (IllegalStateException e) {}
 	}
 
-	private void addHeader(String name, long internalTime) {
-		// Don't write anything if not at level 0
-		if (traceLevel != 0)
+	/**
+	 * Closes the file once the records for the event that is being executed are complete.
+	 * Used at the end of the last simulation run, which is called from within an event.
+	 */
+	public synchronized void closeAtEnd() {
+		if (depth == 0) {
+			this.close();
 			return;
+		}
+		closeAtEnd = true;
+	}
+
+	private void finishWriting() {
+		closed = true;
+		LockSupport.unpark(writerThread);
+		try {
+			writerThread.join();
+		}
+		catch (InterruptedException e) {}
+	}
+
+	/**
+	 * Returns the number for the given string, adding its definition to the file if it
+	 * has not been used before.
+	 */
+	private int getStringID(String str) {
+		Integer id = stringIDs.get(str);
+		if (id != null)
+			return id;
+
+		int ret = stringIDs.size();
+		stringIDs.put(str, ret);
+		definitions.add(str);
+		this.put(DEFINE_STRING, 0, 0, 0, 0, -1, ret);
+		return ret;
+	}
+
+	/**
+	 * Returns the entity number for the given entity, adding its name to the file if it has
+	 * not been used before or if it has changed.
+	 */
+	private long getEntityID(Entity ent) {
+		String name = ent.getName();
+		if (name == null)
+			name = "null";
+		if (entityNames.get(ent) != name) {
+			entityNames.put(ent, name);
+			definitions.add(name);
+			this.put(DEFINE_ENTITY, 0, 0, 0, 0, ent.getEntityNumber(), 0);
+		}
+		return ent.getEntityNumber();
+	}
 
-		StringBuilder header = new StringBuilder(name).append("\t").append(internalTime);
-		traces.add(header.toString());
-		traceLevel++;
+	/**
+	 * Adds a trace record for the given ProcessTarget.
+	 */
+	private void putTarget(int type, EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
+		int mgr = this.getStringID(e.name);
+		if (t instanceof EntityTarget) {
+			EntityTarget<?> et = (EntityTarget<?>) t;
+			long ent = this.getEntityID(et.ent);
+			this.put(type, mgr, curTick, tick, priority, ent, this.getStringID(et.getMethod()));
+			return;
+		}
+		this.put(type, mgr, curTick, tick, priority, -1, this.getStringID(t.getDescription()));
 	}
 
-	private void finish(EventManager e) {
-		if(traceLevel != 1)
+	/**
+	 * Adds a record to the ring buffer, waiting for space if it is full.
+	 * @param type - type of record.
+	 * @param mgr - number for the name of the EventManager.
+	 * @param curTick - present simulation time in clock ticks.
+	 * @param tick - time for the event in clock ticks.
+	 * @param priority - priority for the event.
+	 * @param ent - entity number for an EntityTarget, or -1.
+	 * @param desc - number for the description or for the method of an EntityTarget.
+	 */
+	private void put(int type, int mgr, long curTick, long tick, int priority, long ent, int desc) {
+		if (closed)
 			return;
 
-		traces.add("");
-		for (String each : traces) {
-			try {
-				outputStream.write( each );
-				outputStream.newLine();
+		if (nextRecord - tail.get() >= RING_SIZE)
+			this.waitForSpace();
+
+		int i = (int)(nextRecord & (RING_SIZE - 1)) * RECORD_LENGTH;
+		ring[i] = ((long)type << 32) | (priority & 0xffffffffL);
+		ring[i + 1] = curTick;
+		ring[i + 2] = tick;
+		ring[i + 3] = ent;
+		ring[i + 4] = ((long)mgr << 32) | (desc & 0xffffffffL);
+		nextRecord++;
+		head.lazySet(nextRecord);
+	}
+
+	/**
+	 * Waits until the writer thread has made space in the ring buffer.
+	 */
+	private void waitForSpace() {
+		synchronized (ringLock) {
+			ringFull = true;
+			LockSupport.unpark(writerThread);
+			while (nextRecord - tail.get() >= RING_SIZE) {
+				try {
+					ringLock.wait();
+				}
+				catch (InterruptedException e) {}
 			}
-			catch( IOException ioe ) {}
+			ringFull = false;
 		}
+	}
+
+	/**
+	 * Records the start or end of an event or process, and closes the file if it was
+	 * waiting for the records for the present event to be completed.
+	 */
+	private void updateDepth(int change) {
+		depth += change;
+		if (closeAtEnd && depth == 0) {
+			closeAtEnd = false;
+			this.close();
+		}
+	}
+
+	/**
+	 * Writes the records from the ring buffer to the file until the file is closed. Runs
+	 * on the writer thread.
+	 */
+	private void writeRecords() {
+		long pos = 0;
+		boolean failed = false;
+		while (true) {
+			long end = head.get();
+			if (pos == end) {
+				try {
+					outputStream.flush();
+				}
+				catch (IOException e) {}
+
+				if (closed && pos == head.get())
+					break;
+				LockSupport.parkNanos(1000000L);
+				continue;
+			}
+
+			for (; pos < end; pos++) {
+				int i = (int)(pos & (RING_SIZE - 1)) * RECORD_LENGTH;
+				try {
+					if (!failed)
+						this.writeRecord(i);
+				}
+				catch (IOException e) {
+					failed = true;
+					InputAgent.logMessage("Unable to write the event trace: %s", e.getMessage());
+				}
+				tail.lazySet(pos + 1);
+			}
+
+			// Wake the simulation thread if it is waiting for space
+			tail.set(pos);
+			if (ringFull) {
+				synchronized (ringLock) {
+					ringLock.notifyAll();
+				}
+			}
+		}
+
 		try {
-			outputStream.flush();
+			outputStream.close();
 		}
-		catch( IOException ioe ) {}
+		catch (IOException e) {}
+	}
+
+	private void writeRecord(int i) throws IOException {
+		int type = (int)(ring[i] >>> 32);
+		switch (type) {
+		case DEFINE_STRING:
+			outputStream.writeByte(type);
+			writeVarLong(outputStream, (int)ring[i + 4]);
+			outputStream.writeUTF(definitions.poll());
+			return;
 
-		traces.clear();
-		traceLevel--;
+		case DEFINE_ENTITY:
+			outputStream.writeByte(type);
+			writeVarLong(outputStream, ring[i + 3]);
+			outputStream.writeUTF(definitions.poll());
+			return;
+		}
+
+		// Trace record
+		long curTick = ring[i + 1];
+		long ent = ring[i + 3];
+		outputStream.writeByte(ent == -1 ? type : type | ENTITY_TARGET);
+		writeVarLong(outputStream, (int)(ring[i + 4] >>> 32));
+		writeVarLong(outputStream, curTick);
+		writeVarLong(outputStream, zigzag(ring[i + 2] - curTick));
+		writeVarLong(outputStream, zigzag((int)ring[i]));
+		if (ent != -1)
+			writeVarLong(outputStream, ent);
+		writeVarLong(outputStream, (int)ring[i + 4] + 1L);
+	}
+
+	/**
+	 * Writes a non-negative number using seven bits in each byte, with the high bit set
+	 * in all but the last byte.
+	 */
+	static void writeVarLong(DataOutputStream out, long val) throws IOException {
+		while ((val & ~0x7FL) != 0) {
+			out.writeByte((int)(val & 0x7F) | 0x80);
+			val >>>= 7;
+		}
+		out.writeByte((int)val);
+	}
+
+	/**
+	 * Returns a number whose magnitude is small when the magnitude of the given value is
+	 * small, so that it can be written by writeVarLong.
+	 */
+	static long zigzag(long val) {
+		return (val << 1) ^ (val >> 63);
 	}
 
 	private static final String entClassName = Entity.class.getName();
@@ -131,72 +388,53 @@ public class EventRecorder implements EventTraceListener {
 
 	@Override
 	public synchronized void traceWait(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		traceLevel--;
-
-		this.append(String.format("Wait\t%d\t%d\t%s", tick, priority, getWaitDescription()));
-
-		this.finish(e);
+		int desc = this.getStringID(getWaitDescription());
+		this.put(EventTraceRecord.TRACE_WAIT, this.getStringID(e.name), curTick, tick, priority, -1, desc);
+		this.updateDepth(-1);
 	}
 
 	@Override
 	public synchronized void traceEvent(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		this.append(String.format("Event\t%d\t%d\t%s", tick, priority, t.getDescription()));
-		traceLevel++;
-		this.finish(e);
+		this.putTarget(EventTraceRecord.TRACE_EVENT, e, curTick, tick, priority, t);
+		this.updateDepth(1);
 	}
 
 	@Override
 	public synchronized void traceInterrupt(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		this.append(String.format("Int\t%d\t%d\t%s", tick, priority, t.getDescription()));
-		traceLevel++;
-		this.finish(e);
+		this.putTarget(EventTraceRecord.TRACE_INTERRUPT, e, curTick, tick, priority, t);
+		this.updateDepth(1);
 	}
 
 	@Override
 	public synchronized void traceKill(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		this.append(String.format("Kill\t%d\t%d\t%s", tick, priority, t.getDescription()));
-		this.finish(e);
+		this.putTarget(EventTraceRecord.TRACE_KILL, e, curTick, tick, priority, t);
 	}
 
 	@Override
 	public synchronized void traceWaitUntil(EventManager e, long tick) {
-		this.addHeader(e.name, tick);
-		traceLevel--;
-		this.append("WaitUntil");
-		this.finish(e);
+		this.put(EventTraceRecord.TRACE_WAIT_UNTIL, this.getStringID(e.name), tick, -1, -1, -1, -1);
+		this.updateDepth(-1);
 	}
 
 	@Override
 	public synchronized void traceWaitUntilEnded(EventManager e, long curTick, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		this.append(String.format("WaitUntilEnded\t%s", t.getDescription()));
-		this.finish(e);
+		this.putTarget(EventTraceRecord.TRACE_WAIT_UNTIL_ENDED, e, curTick, -1, -1, t);
 	}
 
 	@Override
 	public synchronized void traceProcessStart(EventManager e, ProcessTarget t, long tick) {
-		this.addHeader(e.name, tick);
-		this.append(String.format("StartProcess\t%s", t.getDescription()));
-		traceLevel++;
-		this.finish(e);
+		this.putTarget(EventTraceRecord.TRACE_PROCESS_START, e, tick, -1, -1, t);
+		this.updateDepth(1);
 	}
 
 	@Override
 	public synchronized void traceProcessEnd(EventManager e, long tick) {
-		this.addHeader(e.name, tick);
-		traceLevel--;
-		this.append("Exit");
-		this.finish(e);
+		this.put(EventTraceRecord.TRACE_PROCESS_END, this.getStringID(e.name), tick, -1, -1, -1, -1);
+		this.updateDepth(-1);
 	}
 
 	@Override
 	public synchronized void traceSchedProcess(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		this.append(String.format("SchedProcess\t%d\t%d\t%s", tick, priority, t.getDescription()));
-		this.finish(e);
+		this.putTarget(EventTraceRecord.TRACE_SCHED_PROCESS, e, curTick, tick, priority, t);
 	}
 }
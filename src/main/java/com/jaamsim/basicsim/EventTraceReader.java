@@ -0,0 +1,264 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Reads an event trace file written by EventRecorder.
+ * <p>
+ * The trace records are returned in groups that start at the top level of an
+ * EventManager, in the same form as the text format for event traces. A file in the text
+ * format, written before the binary format was introduced, is also accepted so that it
+ * can still be used as an event verification file. The class can also
+ * be run from the command line to convert a trace file to text or to compare two trace
+ * files:
+ * <pre>
+ * EventTraceReader &lt;trace file&gt;
+ * EventTraceReader &lt;trace file&gt; &lt;trace file&gt;
+ * </pre>
+ */
+public class EventTraceReader implements Closeable {
+	private final DataInputStream in;
+	private final BufferedReader textIn;  // reader for a file in the text format, or null
+	private final ArrayList<String> strings = new ArrayList<>();
+	private final HashMap<Long, String> entityNames = new HashMap<>();
+	private EventTraceRecord record = new EventTraceRecord();
+
+	public EventTraceReader(File file) throws IOException {
+		in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+		try {
+			// A file without the binary header is read as text
+			in.mark(8);
+			long magic = 0;
+			try {
+				magic = in.readLong();
+			}
+			catch (EOFException e) {}
+			if (magic != EventRecorder.MAGIC) {
+				in.reset();
+				textIn = new BufferedReader(new InputStreamReader(in));
+				return;
+			}
+			textIn = null;
+
+			if (in.readInt() != EventRecorder.VERSION)
+				throw new IOException("Unsupported version for event trace file: " + file);
+		}
+		catch (IOException e) {
+			in.close();
+			if (e instanceof EOFException)
+				throw new IOException("Not an event trace file: " + file);
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the lines of text for the next complete group of trace records, or null if
+	 * there are no more complete groups in the file.
+	 */
+	EventTraceRecord nextRecord() throws IOException {
+		if (textIn != null)
+			return this.nextTextRecord();
+
+		while (true) {
+			int type = in.read();
+			if (type == -1)
+				return null;
+
+			switch (type) {
+			case EventRecorder.DEFINE_STRING:
+				long id = readVarLong(in);
+				if (id != strings.size())
+					throw new IOException("Invalid string number in event trace file: " + id);
+				strings.add(in.readUTF());
+				continue;
+
+			case EventRecorder.DEFINE_ENTITY:
+				long num = readVarLong(in);
+				entityNames.put(num, in.readUTF());
+				continue;
+			}
+
+			boolean isEntityTarget = (type & EventRecorder.ENTITY_TARGET) != 0;
+			type &= ~EventRecorder.ENTITY_TARGET;
+			String name = this.getString(readVarLong(in));
+			long curTick = readVarLong(in);
+			long tick = curTick + unzigzag(readVarLong(in));
+			int priority = (int)unzigzag(readVarLong(in));
+			long ent = isEntityTarget ? readVarLong(in) : -1;
+			long desc = readVarLong(in) - 1;  // -1 if there is no description
+
+			// The description for an EntityTarget is its entity name and method
+			String descStr = null;
+			if (ent != -1)
+				descStr = entityNames.get(ent) + "." + this.getString(desc);
+			else if (desc != -1)
+				descStr = this.getString(desc);
+
+			record.add(type, name, curTick, tick, priority, descStr);
+			if (!record.finish())
+				continue;
+
+			EventTraceRecord ret = record;
+			record = new EventTraceRecord();
+			ret.parse();
+			return ret;
+		}
+	}
+
+	/**
+	 * Returns the lines for the next group of trace records from a file in the text format,
+	 * where each group is terminated by a blank line.
+	 */
+	private EventTraceRecord nextTextRecord() throws IOException {
+		EventTraceRecord ret = new EventTraceRecord();
+		while (true) {
+			String line = textIn.readLine();
+			if (line == null)
+				break;
+
+			ret.add(line);
+			if (line.isEmpty())
+				break;
+		}
+
+		if (ret.isEmpty())
+			return null;
+
+		ret.parse();
+		return ret;
+	}
+
+	private String getString(long id) throws IOException {
+		if (id < 0 || id >= strings.size())
+			throw new IOException("Invalid string number in event trace file: " + id);
+		return strings.get((int)id);
+	}
+
+	private static long readVarLong(DataInputStream in) throws IOException {
+		long ret = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+			ret |= (long)(b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return ret;
+		}
+		throw new IOException("Invalid number in event trace file");
+	}
+
+	private static long unzigzag(long val) {
+		return (val >>> 1) ^ -(val & 1);
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/**
+	 * Writes the specified event trace file in the text format.
+	 * @param file - event trace file.
+	 * @param out - destination for the text.
+	 */
+	public static void convertToText(File file, Writer out) throws IOException {
+		try (EventTraceReader reader = new EventTraceReader(file)) {
+			while (true) {
+				EventTraceRecord rec = reader.nextRecord();
+				if (rec == null)
+					break;
+				for (String line : rec) {
+					out.write(line);
+					out.write(System.lineSeparator());
+				}
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Compares two event trace files and prints the first difference.
+	 * @param file1 - first event trace file.
+	 * @param file2 - second event trace file.
+	 * @param out - destination for the description of the first difference.
+	 * @return true if the traces are the same.
+	 */
+	public static boolean compare(File file1, File file2, PrintStream out) throws IOException {
+		try (EventTraceReader reader1 = new EventTraceReader(file1);
+		     EventTraceReader reader2 = new EventTraceReader(file2)) {
+			int n = 0;
+			while (true) {
+				EventTraceRecord rec1 = reader1.nextRecord();
+				EventTraceRecord rec2 = reader2.nextRecord();
+				if (rec1 == null && rec2 == null)
+					return true;
+
+				if (rec1 == null || rec2 == null || !rec1.equals(rec2)) {
+					out.format("Difference in event stream detected at record %d%n", n);
+					printRecord(out, file1, rec1);
+					printRecord(out, file2, rec2);
+					return false;
+				}
+				n++;
+			}
+		}
+	}
+
+	private static void printRecord(PrintStream out, File file, EventTraceRecord rec) {
+		out.format("%s:%n", file);
+		if (rec == null) {
+			out.println("<end of trace>");
+			return;
+		}
+		for (String line : rec) {
+			out.println(line);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 1) {
+			Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+			EventTraceReader.convertToText(new File(args[0]), out);
+			return;
+		}
+
+		if (args.length == 2) {
+			boolean same = EventTraceReader.compare(new File(args[0]), new File(args[1]), System.out);
+			if (same)
+				System.out.println("The event traces are the same");
+			System.exit(same ? 0 : 1);
+		}
+
+		System.out.println("Usage: EventTraceReader <trace file> [<trace file to compare>]");
+		System.exit(2);
+	}
+}
@@ -24,6 +24,17 @@ import com.jaamsim.events.ProcessTarget;
 import com.jaamsim.input.Input;
 
 class EventTraceRecord extends ArrayList<String> implements EventTraceListener {
+	// Types of trace record
+	static final int TRACE_EVENT = 1;
+	static final int TRACE_WAIT = 2;
+	static final int TRACE_SCHED_PROCESS = 3;
+	static final int TRACE_PROCESS_START = 4;
+	static final int TRACE_PROCESS_END = 5;
+	static final int TRACE_INTERRUPT = 6;
+	static final int TRACE_KILL = 7;
+	static final int TRACE_WAIT_UNTIL = 8;
+	static final int TRACE_WAIT_UNTIL_ENDED = 9;
+
 	private String eventManagerName;
 	private long internalTime;
 	private String targetName;
@@ -86,66 +97,129 @@ class EventTraceRecord extends ArrayList<String> implements EventTraceListener {
 		traceLevel++;
 	}
 
-	@Override
-	public void traceWait(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
+	/**
+	 * Adds the text for a trace record to the lines for this record.
+	 * @param type - type of trace record.
+	 * @param name - name of the EventManager.
+	 * @param curTick - present simulation time in clock ticks.
+	 * @param tick - time for the event in clock ticks, or -1.
+	 * @param priority - priority for the event, or -1.
+	 * @param desc - description of the ProcessTarget or of the method that is waiting.
+	 */
+	void add(int type, String name, long curTick, long tick, int priority, String desc) {
+		switch (type) {
+		case TRACE_WAIT:
+			this.addHeader(name, curTick);
+			traceLevel--;
+			this.append(String.format("Wait\t%d\t%d\t%s", tick, priority, desc));
+			break;
+
+		case TRACE_EVENT:
+			this.addHeader(name, curTick);
+			this.append(String.format("Event\t%d\t%d\t%s", tick, priority, desc));
+			traceLevel++;
+			break;
+
+		case TRACE_INTERRUPT:
+			this.addHeader(name, curTick);
+			this.append(String.format("Int\t%d\t%d\t%s", tick, priority, desc));
+			traceLevel++;
+			break;
+
+		case TRACE_KILL:
+			this.addHeader(name, curTick);
+			this.append(String.format("Kill\t%d\t%d\t%s", tick, priority, desc));
+			break;
+
+		case TRACE_WAIT_UNTIL:
+			this.addHeader(name, curTick);
+			traceLevel--;
+			this.append("WaitUntil");
+			break;
+
+		case TRACE_WAIT_UNTIL_ENDED:
+			this.addHeader(name, curTick);
+			this.append(String.format("WaitUntilEnded\t%s", desc));
+			break;
+
+		case TRACE_PROCESS_START:
+			this.addHeader(name, curTick);
+			this.append(String.format("StartProcess\t%s", desc));
+			traceLevel++;
+			break;
+
+		case TRACE_PROCESS_END:
+			this.addHeader(name, curTick);
+			traceLevel--;
+			this.append("Exit");
+			break;
+
+		case TRACE_SCHED_PROCESS:
+			this.addHeader(name, curTick);
+			this.append(String.format("SchedProcess\t%d\t%d\t%s", tick, priority, desc));
+			break;
+
+		default:
+			throw new IllegalArgumentException("Unknown trace record type: " + type);
+		}
+	}
+
+	/**
+	 * Returns true if the lines for this record are complete. A blank line is added to the
+	 * end of a complete record.
+	 */
+	boolean finish() {
+		if (traceLevel != 1)
+			return false;
+
+		this.add("");
 		traceLevel--;
+		return true;
+	}
 
-		this.append(String.format("Wait\t%d\t%d\t%s", tick, priority, EventRecorder.getWaitDescription()));
+	@Override
+	public void traceWait(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
+		this.add(TRACE_WAIT, e.name, curTick, tick, priority, EventRecorder.getWaitDescription());
 	}
 
 	@Override
 	public void traceEvent(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		this.append(String.format("Event\t%d\t%d\t%s", tick, priority, t.getDescription()));
-
-		traceLevel++;
+		this.add(TRACE_EVENT, e.name, curTick, tick, priority, t.getDescription());
 	}
 
 	@Override
 	public void traceInterrupt(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		this.append(String.format("Int\t%d\t%d\t%s", tick, priority, t.getDescription()));
-		traceLevel++;
+		this.add(TRACE_INTERRUPT, e.name, curTick, tick, priority, t.getDescription());
 	}
 
 	@Override
 	public void traceKill(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		this.append(String.format("Kill\t%d\t%d\t%s", tick, priority, t.getDescription()));
+		this.add(TRACE_KILL, e.name, curTick, tick, priority, t.getDescription());
 	}
 
 	@Override
 	public void traceWaitUntil(EventManager e, long tick) {
-		this.addHeader(e.name, tick);
-		traceLevel--;
-		this.append("WaitUntil");
+		this.add(TRACE_WAIT_UNTIL, e.name, tick, -1, -1, null);
 	}
 
 	@Override
 	public void traceWaitUntilEnded(EventManager e, long curTick, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		this.append(String.format("WaitUntilEnded\t%s", t.getDescription()));
+		this.add(TRACE_WAIT_UNTIL_ENDED, e.name, curTick, -1, -1, t.getDescription());
 	}
 
 	@Override
 	public void traceProcessStart(EventManager e, ProcessTarget t, long tick) {
-		this.addHeader(e.name, tick);
-		this.append(String.format("StartProcess\t%s", t.getDescription()));
-		traceLevel++;
+		this.add(TRACE_PROCESS_START, e.name, tick, -1, -1, t.getDescription());
 	}
 
 	@Override
 	public void traceProcessEnd(EventManager e, long tick) {
-		this.addHeader(e.name, tick);
-		traceLevel--;
-		this.append("Exit");
+		this.add(TRACE_PROCESS_END, e.name, tick, -1, -1, null);
 	}
 
 	@Override
 	public void traceSchedProcess(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
-		this.addHeader(e.name, curTick);
-		this.append(String.format("SchedProcess\t%d\t%d\t%s", tick, priority, t.getDescription()));
+		this.add(TRACE_SCHED_PROCESS, e.name, curTick, tick, priority, t.getDescription());
 	}
 
 	boolean isDefaultEventManager() {
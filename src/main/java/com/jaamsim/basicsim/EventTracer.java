@@ -16,10 +16,7 @@
  */
 package com.jaamsim.basicsim;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 
@@ -29,7 +26,7 @@ import com.jaamsim.events.ProcessTarget;
 import com.jaamsim.input.InputAgent;
 
 class EventTracer implements EventTraceListener {
-	private BufferedReader eventVerifyReader;
+	private EventTraceReader eventVerifyReader;
 	private EventTraceRecord reader;
 	private long bufferTime; // Internal sim time buffer has been filled to
 	private final ArrayList<EventTraceRecord> eventBuffer;
@@ -39,9 +36,9 @@ class EventTracer implements EventTraceListener {
 		bufferTime = 0;
 		File evtFile = new File(evtName);
 		try {
-			eventVerifyReader = new BufferedReader(new FileReader(evtFile));
+			eventVerifyReader = new EventTraceReader(evtFile);
 		}
-		catch (FileNotFoundException e) {}
+		catch (IOException e) {}
 		if (eventVerifyReader == null)
 			InputAgent.logMessage("Unable to open an event verification file.");
 
@@ -49,30 +46,17 @@ class EventTracer implements EventTraceListener {
 	}
 
 	private void fillBufferUntil(long internalTime) {
-		while (bufferTime <= internalTime) {
-			// Read a full trace record form the file, terminated at a blank line
-			EventTraceRecord temp = new EventTraceRecord();
-			while (true) {
-				String line = null;
-				try {
-					line = eventVerifyReader.readLine();
-				}
-				catch (IOException e) {}
-
-				if (line == null)
-					break;
-
-				temp.add(line);
-
-				if (line.length() == 0)
-					break;
+		while (eventVerifyReader != null && bufferTime <= internalTime) {
+			// Read a full trace record from the file
+			EventTraceRecord temp = null;
+			try {
+				temp = eventVerifyReader.nextRecord();
 			}
+			catch (IOException e) {}
 
-			if (temp.size() == 0)
+			if (temp == null)
 				break;
 
-			// Parse the key information from the record
-			temp.parse();
 			if (temp.isDefaultEventManager() && temp.getInternalTime() > bufferTime) {
 				bufferTime = temp.getInternalTime();
 			}
@@ -134,14 +118,12 @@ class EventTracer implements EventTraceListener {
 	}
 
 	private void finish(EventManager e) {
-		if (reader.traceLevel != 1)
+		if (!reader.finish())
 			return;
 
-		reader.add("");
 		reader.parse();
 		findEventInBuffer(e, reader);
 		reader.clear();
-		reader.traceLevel--;
 	}
 
 	@Override
@@ -47,8 +47,8 @@ public class InitModelTarget extends ProcessTarget {
 		}
 
 		// Schedule the initialisation period
-		if (Simulation.getInitializationTime() > 0.0) {
-			double clearTime = startTime + Simulation.getInitializationTime();
+		if (Simulation.getInstance().getInitializationTime() > 0.0) {
+			double clearTime = startTime + Simulation.getInstance().getInitializationTime();
 			EventManager.scheduleSeconds(clearTime, 5, false, new ClearStatisticsTarget(), null);
 		}
 
@@ -16,60 +16,188 @@
  */
 package com.jaamsim.basicsim;
 
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
+import com.jaamsim.Thresholds.ThresholdChangedTarget;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.input.InputAgent;
+import com.jaamsim.render.MeshProtoKey;
+import com.jaamsim.render.RenderUtils;
+import com.jaamsim.states.StateTable;
+import com.jaamsim.units.Unit;
+
+/**
+ * JaamSimModel holds the state for a single simulation model: its entities, the
+ * Simulation entity and run state, its object types and preferred units, and the
+ * InputAgent state for its configuration file. Several models can coexist and be
+ * executed at the same time in the same JVM and class loader.
+ * <p>
+ * The methods of Entity, Simulation and InputAgent that are not called on a
+ * specific entity act on the current model. This is the model that is attached to
+ * the EventManager executing the present Process, or otherwise the model that was
+ * set for the present thread, or otherwise the root model that is used by the GUI.
+ */
 public class JaamSimModel {
+	private static final JaamSimModel rootModel = new JaamSimModel();
+	private static final InheritableThreadLocal<JaamSimModel> threadModel = new InheritableThreadLocal<>();
+
 	private final AtomicLong entityCount = new AtomicLong(0);
-	private final ArrayList<Entity> allInstances = new ArrayList<>(100);
+	private final EntityList allInstances = new EntityList(null);
+	private final HashMap<Class<? extends Entity>, EntityList> classMap = new HashMap<>();
+	private final ArrayList<EntityList> classLists = new ArrayList<>();
 	private final HashMap<String, Entity> namedEntities = new HashMap<>(100);
 
+	private final ArrayList<ObjectType> objectTypes = new ArrayList<>();
+	private final HashMap<Class<? extends Entity>, ObjectType> objectTypeMap = new HashMap<>();
+	private final HashMap<Class<? extends Unit>, Unit> preferredUnits = new HashMap<>();
+	private final HashMap<URI, MeshProtoKey> meshKeys = new HashMap<>();
+	private final ThresholdChangedTarget thresholdChangedTarget = new ThresholdChangedTarget();
+	private final StateTable stateTable = new StateTable();
+
+	private Simulation simulation;
+	private ReplicationWorker replicationWorker;
+	private final InputAgent.Session inputSession = new InputAgent.Session();
+
 	public JaamSimModel() {
 	}
 
-	final long getNextEntityID() {
-		return entityCount.incrementAndGet();
+	/**
+	 * Creates a copy of the given model. An entity with the same class, name and inputs
+	 * is created for each of the entities in the given model, apart from the ones that
+	 * were generated during a simulation run.
+	 * <p>
+	 * The given model must not be changed while it is copied.
+	 * @param source - model to be copied.
+	 */
+	public JaamSimModel(JaamSimModel source) {
+		inputSession.copyFrom(source.inputSession);
+
+		JaamSimModel prev = threadModel.get();
+		setCurrent(this);
+		try {
+			ArrayList<Entity> sourceList = new ArrayList<>();
+			ArrayList<Entity> targetList = new ArrayList<>();
+			for (Entity ent : source.getEntities()) {
+				if (ent == null || ent.testFlag(Entity.FLAG_GENERATED))
+					continue;
+				Entity copy = InputAgent.defineEntityWithUniqueName(ent.getClass(), ent.getName(), "_", false);
+				if (ent.testFlag(Entity.FLAG_ADDED))
+					copy.setFlag(Entity.FLAG_ADDED);
+				sourceList.add(ent);
+				targetList.add(copy);
+			}
+			InputAgent.copyInputs(sourceList, targetList);
+		}
+		finally {
+			setCurrent(prev);
+		}
 	}
 
-	public final Entity getNamedEntity(String name) {
-		synchronized (allInstances) {
-			return namedEntities.get(name);
+	/**
+	 * Returns the model that is used by the present thread.
+	 */
+	public static JaamSimModel getCurrent() {
+		if (EventManager.hasCurrent()) {
+			EventManager evt = EventManager.current();
+			if (evt != null && evt.getContext() instanceof JaamSimModel)
+				return (JaamSimModel)evt.getContext();
 		}
+
+		JaamSimModel ret = threadModel.get();
+		if (ret != null)
+			return ret;
+
+		return rootModel;
 	}
 
-	public final long getEntitySequence() {
-		long seq = (long)allInstances.size() << 32;
-		seq += entityCount.get();
-		return seq;
+	/**
+	 * Sets the model to be used by the present thread and by any threads it creates
+	 * afterwards. A null model restores the root model.
+	 * @param model - model for the present thread.
+	 */
+	public static void setCurrent(JaamSimModel model) {
+		if (model == null || model == rootModel) {
+			threadModel.remove();
+			return;
+		}
+		threadModel.set(model);
 	}
 
-	private final int idToIndex(long id) {
-		int lowIdx = 0;
-		int highIdx = allInstances.size() - 1;
+	/**
+	 * Returns the model that is used when no other model has been set.
+	 */
+	public static JaamSimModel getRootModel() {
+		return rootModel;
+	}
 
-		while (lowIdx <= highIdx) {
-			int testIdx = (lowIdx + highIdx) >>> 1; // Avoid sign extension
-			long testNum = allInstances.get(testIdx).getEntityNumber();
+	/**
+	 * Attaches this model to the given EventManager so that the processes it
+	 * executes act on this model.
+	 * @param evt - EventManager that will execute the model.
+	 */
+	public final void attach(EventManager evt) {
+		evt.setContext(this);
+	}
 
-			if (testNum < id) {
-				lowIdx = testIdx + 1;
-				continue;
+	/**
+	 * Returns the Simulation entity for this model, or null if it has not been defined.
+	 */
+	public final Simulation getSimulation() {
+		if (simulation == null) {
+			synchronized (allInstances) {
+				for (Entity ent : allInstances.list) {
+					if (ent instanceof Simulation) {
+						simulation = (Simulation)ent;
+						break;
+					}
+				}
 			}
+		}
+		return simulation;
+	}
 
-			if (testNum > id) {
-				highIdx = testIdx - 1;
-				continue;
-			}
+	final void setSimulation(Simulation sim) {
+		simulation = sim;
+	}
+
+	/**
+	 * Returns the ReplicationWorker that executes this model on behalf of a
+	 * ParallelRunner, or null if the model is not executed by a worker.
+	 */
+	public final ReplicationWorker getReplicationWorker() {
+		return replicationWorker;
+	}
+
+	final void setReplicationWorker(ReplicationWorker worker) {
+		replicationWorker = worker;
+	}
+
+	public final InputAgent.Session getInputSession() {
+		return inputSession;
+	}
 
-			return testIdx;
+	final long getNextEntityID() {
+		return entityCount.incrementAndGet();
+	}
+
+	public final Entity getNamedEntity(String name) {
+		synchronized (allInstances) {
+			return namedEntities.get(name);
 		}
-		return -1;
+	}
+
+	public final long getEntitySequence() {
+		long seq = (long)allInstances.getCount() << 32;
+		seq += entityCount.get();
+		return seq;
 	}
 
 	public final Entity idToEntity(long id) {
 		synchronized (allInstances) {
-			int idx = this.idToIndex(id);
+			int idx = allInstances.indexOf(id);
 			if (idx == -1)
 				return null;
 
@@ -77,12 +205,36 @@ public class JaamSimModel {
 		}
 	}
 
+	/**
+	 * Returns the list of entities in the model in order of entity number.
+	 * <p>
+	 * The list can contain null entries in place of entities that have been killed.
+	 */
 	public final ArrayList<? extends Entity> getEntities() {
 		synchronized(allInstances) {
-			return allInstances;
+			return allInstances.list;
 		}
 	}
 
+	/**
+	 * Returns the object that must be locked when the entity lists are accessed.
+	 */
+	final Object getEntityLock() {
+		return allInstances;
+	}
+
+	final EntityList getEntityList() {
+		return allInstances;
+	}
+
+	/**
+	 * Returns the lists of entities for each class that has had an instance in the
+	 * model. The lists are in the order that the classes were first used.
+	 */
+	final ArrayList<EntityList> getClassLists() {
+		return classLists;
+	}
+
 	final void renameEntity(Entity e, String newName) {
 		synchronized (allInstances) {
 			// Generated Entities do not appear in the named entity hashmap, no consistency checks needed
@@ -106,15 +258,25 @@ public class JaamSimModel {
 	final void addInstance(Entity e) {
 		synchronized(allInstances) {
 			allInstances.add(e);
+
+			EntityList classList = classMap.get(e.getClass());
+			if (classList == null) {
+				classList = new EntityList(e.getClass());
+				classMap.put(e.getClass(), classList);
+				classLists.add(classList);
+			}
+			classList.add(e);
 		}
 	}
 
 	final void removeInstance(Entity e) {
 		synchronized (allInstances) {
-			int index = idToIndex(e.getEntityNumber());
-			if (index >= 0)
-				if (e != allInstances.remove(index))
-					throw new ErrorException("Internal Consistency Error - Entity List");
+			// An entity that has already been killed has nothing left to remove
+			if (e.testFlag(Entity.FLAG_DEAD))
+				return;
+
+			allInstances.remove(e);
+			classMap.get(e.getClass()).remove(e);
 
 			if (!e.testFlag(Entity.FLAG_GENERATED)) {
 				if (namedEntities.get(e.entityName) != e)
@@ -127,4 +289,90 @@ public class JaamSimModel {
 			e.setFlag(Entity.FLAG_DEAD);
 		}
 	}
+
+	final void addObjectType(ObjectType ot) {
+		synchronized (objectTypes) {
+			objectTypes.add(ot);
+		}
+	}
+
+	final void setObjectTypeClass(ObjectType ot, Class<? extends Entity> klass) {
+		synchronized (objectTypes) {
+			objectTypeMap.put(klass, ot);
+		}
+	}
+
+	final void removeObjectType(ObjectType ot) {
+		synchronized (objectTypes) {
+			objectTypes.remove(ot);
+			objectTypeMap.remove(ot.getJavaClass());
+		}
+	}
+
+	/**
+	 * Returns the object types that have been defined for this model.
+	 */
+	public final ArrayList<ObjectType> getObjectTypes() {
+		synchronized (objectTypes) {
+			return objectTypes;
+		}
+	}
+
+	public final ObjectType getObjectTypeForClass(Class<? extends Entity> klass) {
+		synchronized (objectTypes) {
+			return objectTypeMap.get(klass);
+		}
+	}
+
+	/**
+	 * Returns the units in which the values for each unit type are displayed, for the
+	 * unit types that are not displayed in SI units.
+	 */
+	public final HashMap<Class<? extends Unit>, Unit> getPreferredUnits() {
+		return preferredUnits;
+	}
+
+	/**
+	 * Returns the key for the 3D mesh held by the given file.
+	 */
+	public final MeshProtoKey getMeshKey(URI shapeURI) {
+		synchronized (meshKeys) {
+			MeshProtoKey meshKey = meshKeys.get(shapeURI);
+
+			if (meshKey == null) {
+				// This has not been cached yet
+				meshKey = RenderUtils.FileNameToMeshProtoKey(shapeURI);
+				assert(meshKey != null);
+				meshKeys.put(shapeURI, meshKey);
+			}
+
+			return meshKey;
+		}
+	}
+
+	/**
+	 * Returns the key for the 3D mesh held by the given file, or null if a key has not
+	 * been created for the file.
+	 */
+	public final MeshProtoKey findMeshKey(URI shapeURI) {
+		synchronized (meshKeys) {
+			return meshKeys.get(shapeURI);
+		}
+	}
+
+	/**
+	 * Returns the target that notifies the ThresholdUsers in this model after a
+	 * Threshold has opened or closed.
+	 */
+	public final ThresholdChangedTarget getThresholdChangedTarget() {
+		return thresholdChangedTarget;
+	}
+
+	/**
+	 * Returns the table of index numbers for the state names used by the StateEntities
+	 * in this model.
+	 */
+	public final StateTable getStateTable() {
+		return stateTable;
+	}
 }
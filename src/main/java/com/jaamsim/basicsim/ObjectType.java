@@ -18,7 +18,6 @@ package com.jaamsim.basicsim;
 
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
-import java.util.HashMap;
 
 import com.jaamsim.DisplayModels.DisplayModel;
 import com.jaamsim.input.BooleanInput;
@@ -33,9 +32,6 @@ import com.jaamsim.math.Vec3d;
 import com.jaamsim.units.DistanceUnit;
 
 public class ObjectType extends Entity {
-	private static final ArrayList<ObjectType> allInstances;
-	private static final HashMap<Class<? extends Entity>, ObjectType> objectTypeMap;
-
 	@Keyword(description = "The java class of the object type",
 	         example = "This is placeholder example text")
 	private final ClassInput javaClass;
@@ -67,11 +63,6 @@ public class ObjectType extends Entity {
 
 	private final ArrayList<DisplayModel> displayEntityDefault = new ArrayList<>(1);
 
-	static {
-		allInstances = new ArrayList<>();
-		objectTypeMap = new HashMap<>();
-	}
-
 	{
 		javaClass = new ClassInput( "JavaClass", "Key Inputs", null );
 		this.addInput( javaClass );
@@ -97,9 +88,7 @@ public class ObjectType extends Entity {
 	}
 
 	public ObjectType() {
-		synchronized (allInstances) {
-			allInstances.add(this);
-		}
+		getJaamSimModel().addObjectType(this);
 	}
 
 	@Override
@@ -113,31 +102,30 @@ public class ObjectType extends Entity {
 		}
 
 		if (in == javaClass) {
-			synchronized (objectTypeMap) {
-				objectTypeMap.put(javaClass.getValue(), this);
-			}
+			getJaamSimModel().setObjectTypeClass(this, javaClass.getValue());
 		}
 
 		super.updateForInput(in);
 	}
 
+	/**
+	 * Returns the object types for the current model.
+	 */
 	public static ArrayList<ObjectType> getAll() {
-		synchronized (allInstances) {
-			return allInstances;
-		}
+		return JaamSimModel.getCurrent().getObjectTypes();
 	}
 
+	/**
+	 * Returns the object type for the given class in the current model.
+	 */
 	public static ObjectType getObjectTypeForClass(Class<? extends Entity> klass) {
-		synchronized (objectTypeMap) {
-			return objectTypeMap.get(klass);
-		}
+		return JaamSimModel.getCurrent().getObjectTypeForClass(klass);
 	}
 
 	@Override
 	public void kill() {
 		super.kill();
-		allInstances.remove(this);
-		objectTypeMap.remove(javaClass.getValue());
+		getJaamSimModel().removeObjectType(this);
 	}
 
 	public Class<? extends Entity> getJavaClass() {
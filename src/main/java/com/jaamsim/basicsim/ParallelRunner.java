@@ -0,0 +1,162 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import com.jaamsim.input.InputAgent;
+
+/**
+ * Executes the simulation runs from StartingRunNumber to EndingRunNumber using a
+ * number of ReplicationWorkers in parallel.
+ * <p>
+ * Each worker executes a separate copy of the loaded model on its own thread, and
+ * executes every n-th run. Each run produces the same results as it would in a
+ * sequential batch run, since it uses the same run number and therefore the same
+ * random number substreams. The selected outputs and the files written for each run
+ * are combined in run number order once all the runs are complete.
+ */
+public class ParallelRunner {
+
+	private ParallelRunner() {}
+
+	/**
+	 * Returns true if the runs for the loaded model can be executed in parallel.
+	 */
+	public static boolean isParallel() {
+		return Simulation.getParallelRuns() > 1 && Simulation.isMultipleRuns()
+				&& !InputAgent.isScriptMode() && InputAgent.getConfigFile() != null;
+	}
+
+	/**
+	 * Executes the runs for the loaded model and returns once they are complete.
+	 * @throws Throwable - the first error found by any of the workers.
+	 */
+	public static void executeRuns() throws Throwable {
+		int firstRun = Simulation.getStartingRunNumber();
+		int lastRun = Simulation.getEndingRunNumber();
+		int numRuns = lastRun - firstRun + 1;
+		int numWorkers = Math.min(Simulation.getParallelRuns(), numRuns);
+
+		// Assign the runs to the workers in rotation to balance the load
+		int[][] runs = new int[numWorkers][];
+		for (int i = 0; i < numWorkers; i++) {
+			runs[i] = new int[(numRuns - i + numWorkers - 1) / numWorkers];
+			for (int j = 0; j < runs[i].length; j++) {
+				runs[i][j] = firstRun + i + j * numWorkers;
+			}
+		}
+
+		// Execute the runs
+		String[][][] results = executeWorkers(JaamSimModel.getCurrent(), runs);
+
+		// Write the selected outputs in run order
+		if (Simulation.getRunOutputList().getValue() != null) {
+			PrintStream outStream = new PrintStream(InputAgent.getRunOutputFileName());
+			for (String line : InputAgent.getRunOutputHeader()) {
+				outStream.println(line);
+			}
+			for (int run = firstRun; run <= lastRun; run++) {
+				int i = run - firstRun;
+				outStream.println(results[i % numWorkers][1][i / numWorkers]);
+			}
+			outStream.close();
+		}
+
+		// Join the files written for each run in run order
+		ArrayList<String> fileNames = new ArrayList<>();
+		for (String[][] res : results) {
+			for (String fileName : res[0]) {
+				if (!fileNames.contains(fileName))
+					fileNames.add(fileName);
+			}
+		}
+		for (String fileName : fileNames) {
+			joinRunFiles(fileName, firstRun, lastRun);
+		}
+	}
+
+	/**
+	 * Executes a separate copy of the given model for each of the given lists of runs,
+	 * with the copies executed in parallel.
+	 * <p>
+	 * The copies are made before any of the runs are started, since the given model
+	 * must not be changed while it is copied.
+	 * @param model - model whose runs are to be executed.
+	 * @param runs - run numbers to be executed by each worker.
+	 * @return the results returned by each worker.
+	 * @throws Throwable - the first error found by any of the workers.
+	 */
+	static String[][][] executeWorkers(JaamSimModel model, final int[][] runs) throws Throwable {
+		int numWorkers = runs.length;
+		final ReplicationWorker[] workers = new ReplicationWorker[numWorkers];
+		for (int i = 0; i < numWorkers; i++) {
+			workers[i] = new ReplicationWorker(new JaamSimModel(model));
+		}
+
+		final String[][][] results = new String[numWorkers][][];
+		final Throwable[] errors = new Throwable[numWorkers];
+		Thread[] threads = new Thread[numWorkers];
+		for (int i = 0; i < numWorkers; i++) {
+			final int index = i;
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						results[index] = workers[index].executeRuns(runs[index]);
+					}
+					catch (Throwable t) {
+						errors[index] = t;
+					}
+				}
+			}, "ReplicationWorker-" + i);
+			threads[i].start();
+		}
+		for (Thread each : threads) {
+			each.join();
+		}
+
+		for (Throwable each : errors) {
+			if (each != null)
+				throw each;
+		}
+		return results;
+	}
+
+	private static void joinRunFiles(String fileName, int firstRun, int lastRun) throws IOException {
+		try (OutputStream out = new FileOutputStream(fileName)) {
+			for (int run = firstRun; run <= lastRun; run++) {
+				File part = new File(InputAgent.getRunPartFileName(fileName, run));
+				if (!part.exists())
+					continue;
+
+				Files.copy(part.toPath(), out);
+				part.delete();
+			}
+		}
+		catch (FileNotFoundException e) {
+			throw new ErrorException("Unable to write file: %s", fileName);
+		}
+	}
+}
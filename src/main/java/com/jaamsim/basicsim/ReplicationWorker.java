@@ -0,0 +1,117 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+
+import com.jaamsim.datatypes.IntegerVector;
+import com.jaamsim.events.EventErrorListener;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.input.InputAgent;
+
+/**
+ * Executes a share of the simulation runs for a ParallelRunner.
+ * <p>
+ * Each worker executes its own copy of the model with its own EventManager. The
+ * workers share the class loader and the model classes with the ParallelRunner.
+ */
+public class ReplicationWorker {
+	private final JaamSimModel model;
+	private final HashMap<Integer, String> runOutputs = new HashMap<>();
+	private final CountDownLatch done = new CountDownLatch(1);
+	private volatile Throwable error = null;
+
+	/**
+	 * Creates a worker that executes the given model.
+	 * @param model - copy of the model to be executed by this worker.
+	 */
+	ReplicationWorker(JaamSimModel model) {
+		this.model = model;
+	}
+
+	/**
+	 * Executes the given simulation runs and returns once they are complete.
+	 * <p>
+	 * The first of the returned arrays lists the files that were written in parts,
+	 * one for each run. The second holds the selected outputs for each run, in the
+	 * order of the given run numbers.
+	 * @param runs - run numbers to be executed, in ascending order.
+	 * @return files written in parts and the selected outputs for each run.
+	 * @throws Throwable - any error found executing the runs.
+	 */
+	String[][] executeRuns(int[] runs) throws Throwable {
+		JaamSimModel.setCurrent(model);
+		try {
+			model.setReplicationWorker(this);
+			InputAgent.setBatch(true);
+
+			EventManager evt = new EventManager("ReplicationWorker");
+			evt.setErrorListener(new WorkerErrorListener());
+
+			// Execute the runs
+			IntegerVector runList = new IntegerVector(runs.length);
+			for (int run : runs) {
+				runList.add(run);
+			}
+			Simulation.setAssignedRuns(runList);
+			Simulation.start(evt);
+			done.await();
+
+			if (error != null)
+				throw error;
+
+			String[][] ret = new String[2][];
+			ret[0] = InputAgent.getRunFileNames().toArray(new String[0]);
+			ret[1] = new String[runs.length];
+			synchronized (runOutputs) {
+				for (int i = 0; i < runs.length; i++) {
+					ret[1][i] = runOutputs.get(runs[i]);
+				}
+			}
+			return ret;
+		}
+		finally {
+			JaamSimModel.setCurrent(null);
+		}
+	}
+
+	/**
+	 * Saves the selected outputs for the given simulation run.
+	 */
+	void addRunOutputs(int runNumber, String line) {
+		synchronized (runOutputs) {
+			runOutputs.put(runNumber, line);
+		}
+	}
+
+	/**
+	 * Signals that the last of the worker's runs has been completed.
+	 */
+	void runsCompleted() {
+		done.countDown();
+	}
+
+	private class WorkerErrorListener implements EventErrorListener {
+		@Override
+		public void handleError(EventManager evt, Throwable t, long currentTick) {
+			InputAgent.logMessage("EXCEPTION AT TIME: %f s", evt.ticksToSeconds(currentTick));
+			error = t;
+			done.countDown();
+		}
+	}
+}
@@ -25,16 +25,20 @@ import java.util.Calendar;
 import javax.swing.JFrame;
 
 import com.jaamsim.Samples.SampleConstant;
+import com.jaamsim.Samples.SampleExpression;
 import com.jaamsim.Samples.SampleInput;
 import com.jaamsim.StringProviders.StringProvListInput;
 import com.jaamsim.datatypes.IntegerVector;
 import com.jaamsim.events.Conditional;
 import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventManager.EventSetType;
 import com.jaamsim.input.BooleanInput;
 import com.jaamsim.input.DirInput;
 import com.jaamsim.input.EntityListInput;
+import com.jaamsim.input.EnumInput;
 import com.jaamsim.input.Input;
 import com.jaamsim.input.InputAgent;
+import com.jaamsim.input.IntegerInput;
 import com.jaamsim.input.IntegerListInput;
 import com.jaamsim.input.Keyword;
 import com.jaamsim.input.Output;
@@ -68,7 +72,7 @@ public class Simulation extends Entity {
 	// Key Inputs tab
 	@Keyword(description = "The duration of the simulation run in which all statistics will be recorded.",
 	             example = "Simulation RunDuration { 8760 h }")
-	private static final ValueInput runDuration;
+	private final ValueInput runDuration;
 
 	@Keyword(description = "The initialization interval for the simulation run. The model will "
 	                     + "run for the InitializationDuration interval and then clear the "
@@ -76,11 +80,11 @@ public class Simulation extends Entity {
 	                     + "The total length of the simulation run will be the sum of the "
 	                     + "InitializationDuration and RunDuration inputs.",
 	             example = "Simulation InitializationDuration { 720 h }")
-	private static final ValueInput initializationTime;
+	private final ValueInput initializationTime;
 
 	@Keyword(description = "An optional expression that pauses the run when TRUE is returned.",
 	             example = "Simulation PauseCondition { '[Queue1].QueueLength > 20'}")
-	private static final SampleInput pauseConditionInput;
+	private final SampleInput pauseConditionInput;
 
 	@Keyword(description = "If TRUE, the simulation run will be terminated when the "
 	                     + "PauseCondition expression returns TRUE. If multiple runs have been "
@@ -88,12 +92,12 @@ public class Simulation extends Entity {
 	                     + "been specified, the simulation will be paused or terminated "
 	                     + "depending on the input to the ExitAtStop keyword.",
 	             example = "Simulation ExitAtPauseCondition { TRUE }")
-	private static final BooleanInput exitAtPauseCondition;
+	private final BooleanInput exitAtPauseCondition;
 
 	@Keyword(description = "If TRUE, the program will be closed on completion of the last "
 	                     + "simulation run. Otherwise, the last run will be paused.",
 	             example = "Simulation ExitAtStop { TRUE }")
-	private static final BooleanInput exitAtStop;
+	private final BooleanInput exitAtStop;
 
 	@Keyword(description = "Global seed that sets the substream for each probability "
 	                     + "distribution. Must be an integer >= 0. GlobalSubstreamSeed works "
@@ -106,22 +110,22 @@ public class Simulation extends Entity {
 	             example = "Simulation GlobalSubstreamSeed { 5 }\n"
 	                     + "Simulation GlobalSubstreamSeed { [Simulation].RunNumber }\n"
 	                     + "Simulation GlobalSubstreamSeed { [Simulation].RunIndex(3) }")
-	private static final SampleInput globalSeedInput;
+	private final SampleInput globalSeedInput;
 
 	@Keyword(description = "If TRUE, a full output report is printed to the file "
 	                     + "<configuration file name>.rep at the end of the simulation run.",
 	             example = "Simulation PrintReport { TRUE }")
-	private static final BooleanInput printReport;
+	private final BooleanInput printReport;
 
 	@Keyword(description = "The directory in which to place the output report. Defaults to the "
 	                     + "directory containing the configuration file for the run.",
 	             example = "Simulation ReportDirectory { 'c:\\reports\\' }")
-	private static final DirInput reportDirectory;
+	private final DirInput reportDirectory;
 
 	@Keyword(description = "The unit types for the selected outputs for the simulation run. "
 	                     + "Use DimensionlessUnit for a text output.",
 	             example = "Simulation UnitTypeList { DistanceUnit  SpeedUnit }")
-	private static final UnitTypeListInput unitTypeList;
+	private final UnitTypeListInput unitTypeList;
 
 	@Keyword(description = "One or more selected outputs to be printed at the end of each "
 	                     + "simulation run. Each output is specified by an expression. In script "
@@ -129,11 +133,18 @@ public class Simulation extends Entity {
 	                     + "(standard out). Otherwise, they are printed to the file "
 	                     + "<configuration file name>.dat.",
 	             example = "Simulation RunOutputList { { [Entity1].Out1 } { [Entity2].Out2 } }")
-	protected static final StringProvListInput runOutputList;
+	protected final StringProvListInput runOutputList;
 
 	@Keyword(description = "The length of time represented by one simulation tick.",
 	             example = "Simulation TickLength { 1e-6 s }")
-	private static final ValueInput tickLengthInput;
+	private final ValueInput tickLengthInput;
+
+	@Keyword(description = "The data structure used to hold the future events. "
+	                     + "RED_BLACK_TREE is suitable for most models. CALENDAR_QUEUE can be "
+	                     + "faster for models with a very large number of scheduled events. "
+	                     + "The events are executed in the same order by both structures.",
+	             example = "Simulation EventListType { CALENDAR_QUEUE }")
+	private final EnumInput<EventSetType> eventListType;
 
 	// Multiple Runs tab
 	@Keyword(description = "Defines the number of run indices and the maximum value N for each "
@@ -143,7 +154,7 @@ public class Simulation extends Entity {
 	                     + "indices are defined with ranges of 3, 5, and 10, then at total of "
 	                     + "3*5*10 = 150 runs will be executed.",
 	             example = "Simulation RunIndexDefinitionList { 3 5 10 }")
-	private static final IntegerListInput runIndexDefinitionList;
+	private final IntegerListInput runIndexDefinitionList;
 
 	@Keyword(description = "The first run number to be executed. The value can be entered as "
 	                     + "either an integer or as the equivalent combination of run indices. "
@@ -152,7 +163,7 @@ public class Simulation extends Entity {
 	                     + "22 = (1-1)*5*10 + (3-1)*10 + 2.",
 	             example = "Simulation StartingRunNumber { 22 }\n"
 	                     + "Simulation StartingRunNumber { 1-3-2 }")
-	private static final RunNumberInput startingRunNumber;
+	private final RunNumberInput startingRunNumber;
 
 	@Keyword(description = "The last run number to be executed. The value can be entered as "
 	                     + "either an integer or as the equivalent combination of run indices. "
@@ -161,36 +172,44 @@ public class Simulation extends Entity {
 	                     + "78 = (2-1)*5*10 + (3-1)*10 + 8.",
 	             example = "Simulation EndingRunNumber { 78 }\n"
 	                     + "Simulation EndingRunNumber { 2-3-8 }")
-	private static final RunNumberInput endingRunNumber;
+	private final RunNumberInput endingRunNumber;
+
+	@Keyword(description = "The maximum number of simulation runs to be executed at the same "
+	                     + "time when the model is run in batch mode. Each concurrent run uses "
+	                     + "a separate copy of the model. The selected outputs and the output "
+	                     + "reports are written in run number order, as for a single run at a "
+	                     + "time.",
+	             example = "Simulation ParallelRuns { 8 }")
+	private final IntegerInput parallelRuns;
 
 	// GUI tab
 	@Keyword(description = "An optional list of units to be used for displaying model outputs.",
 	             example = "Simulation DisplayedUnits { h kt }")
-	private static final EntityListInput<? extends Unit> displayedUnits;
+	private final EntityListInput<? extends Unit> displayedUnits;
 
 	@Keyword(description = "If TRUE, a dragged object will be positioned to the nearest grid "
 	                     + "point.",
 	             example = "Simulation SnapToGrid { TRUE }")
-	private static final BooleanInput snapToGrid;
+	private final BooleanInput snapToGrid;
 
 	@Keyword(description = "The distance between snap grid points.",
 	             example = "Simulation SnapGridSpacing { 1 m }")
-	private static final ValueInput snapGridSpacing;
+	private final ValueInput snapGridSpacing;
 
 	@Keyword(description = "The distance moved by the selected entity when the an arrow key is "
 	                     + "pressed.",
 	             example = "Simulation IncrementSize { 1 cm }")
-	private static final ValueInput incrementSize;
+	private final ValueInput incrementSize;
 
 	@Keyword(description = "If TRUE, the simulation is executed a constant multiple of real time. "
 	                     + "Otherwise, the run is executed as fast as possible, limited only by "
 	                     + "processor speed.",
 	             example = "Simulation RealTime { TRUE }")
-	private static final BooleanInput realTime;
+	private final BooleanInput realTime;
 
 	@Keyword(description = "The target ratio of elapsed simulation time to elapsed real time.",
 	             example = "Simulation RealTimeFactor { 1200 }")
-	private static final ValueInput realTimeFactor;
+	private final ValueInput realTimeFactor;
 
 	public static final double DEFAULT_REAL_TIME_FACTOR = 1;
 	public static final double MIN_REAL_TIME_FACTOR = 1e-6;
@@ -198,61 +217,61 @@ public class Simulation extends Entity {
 
 	@Keyword(description = "The time at which the simulation will be paused.",
 	             example = "Simulation PauseTime { 200 h }")
-	private static final ValueInput pauseTime;
+	private final ValueInput pauseTime;
 
 	@Keyword(description = "If TRUE, the Model Builder tool is shown on startup.",
 	             example = "Simulation ShowModelBuilder { TRUE }")
-	private static final BooleanInput showModelBuilder;
+	private final BooleanInput showModelBuilder;
 
 	@Keyword(description = "If TRUE, the Object Selector tool is shown on startup.",
 	             example = "Simulation ShowObjectSelector { TRUE }")
-	private static final BooleanInput showObjectSelector;
+	private final BooleanInput showObjectSelector;
 
 	@Keyword(description = "If TRUE, the Input Editor tool is shown on startup.",
 	             example = "Simulation ShowInputEditor { TRUE }")
-	private static final BooleanInput showInputEditor;
+	private final BooleanInput showInputEditor;
 
 	@Keyword(description = "If TRUE, the Output Viewer tool is shown on startup.",
 	             example = "Simulation ShowOutputViewer { TRUE }")
-	private static final BooleanInput showOutputViewer;
+	private final BooleanInput showOutputViewer;
 
 	@Keyword(description = "If TRUE, the Property Viewer tool is shown on startup.",
 	             example = "Simulation ShowPropertyViewer { TRUE }")
-	private static final BooleanInput showPropertyViewer;
+	private final BooleanInput showPropertyViewer;
 
 	@Keyword(description = "If TRUE, the Log Viewer tool is shown on startup.",
 	             example = "Simulation ShowLogViewer { TRUE }")
-	private static final BooleanInput showLogViewer;
+	private final BooleanInput showLogViewer;
 
 	@Keyword(description = "Time at which the simulation run is started (hh:mm).",
 	             example = "Simulation StartTime { 2160 h }")
-	private static final ValueInput startTimeInput;
+	private final ValueInput startTimeInput;
 
 	// Hidden keywords
 	@Keyword(description = "If TRUE, then the input report file will be printed after loading "
 	                     + "the configuration file.  The input report can always be generated "
 	                     + "when needed by selecting \"Print Input Report\" under the File menu.",
 	             example = "Simulation PrintInputReport { TRUE }")
-	private static final BooleanInput printInputReport;
+	private final BooleanInput printInputReport;
 
 	@Keyword(description = "This is placeholder description text",
 	             example = "This is placeholder example text")
-	private static final BooleanInput traceEventsInput;
+	private final BooleanInput traceEventsInput;
 
 	@Keyword(description = "This is placeholder description text",
 	             example = "This is placeholder example text")
-	private static final BooleanInput verifyEventsInput;
+	private final BooleanInput verifyEventsInput;
 
-	private static double startTime; // simulation time (seconds) for the start of the run (not necessarily zero)
-	private static double endTime;   // simulation time (seconds) for the end of the run
-	private static int runNumber;    // labels each run when multiple runs are being made
-	private static IntegerVector runIndexList;
-
-	private static Simulation myInstance;
+	private double startTime; // simulation time (seconds) for the start of the run (not necessarily zero)
+	private double endTime;   // simulation time (seconds) for the end of the run
+	private int runNumber;    // labels each run when multiple runs are being made
+	private IntegerVector runIndexList;
+	private IntegerVector assignedRuns; // runs to be executed by a replication worker
+	private EventRecorder eventRecorder; // writes the event trace when TraceEvents is set
 
 	private static String modelName = "JaamSim";
 
-	static {
+	{
 
 		// Key Inputs tab
 		runDuration = new ValueInput("RunDuration", "Key Inputs", 31536000.0d);
@@ -288,6 +307,8 @@ public class Simulation extends Entity {
 		tickLengthInput.setUnitType(TimeUnit.class);
 		tickLengthInput.setValidRange(1e-9d, 5.0d);
 
+		eventListType = new EnumInput<>(EventSetType.class, "EventListType", "Key Inputs", EventSetType.RED_BLACK_TREE);
+
 		// Multiple Runs tab
 		IntegerVector defRangeList = new IntegerVector();
 		defRangeList.add(1);
@@ -297,6 +318,9 @@ public class Simulation extends Entity {
 
 		endingRunNumber = new RunNumberInput("EndingRunNumber", "Multiple Runs", 1);
 
+		parallelRuns = new IntegerInput("ParallelRuns", "Multiple Runs", 1);
+		parallelRuns.setValidRange(1, Integer.MAX_VALUE);
+
 		// GUI tab
 		displayedUnits = new EntityListInput<>(Unit.class, "DisplayedUnits", "GUI", new ArrayList<Unit>());
 		displayedUnits.setDefaultText("SI Units");
@@ -361,9 +385,7 @@ public class Simulation extends Entity {
 		runNumber = 1;
 		runIndexList = new IntegerVector();
 		runIndexList.add(1);
-	}
 
-	{
 		// Key Inputs tab
 		this.addInput(runDuration);
 		this.addInput(initializationTime);
@@ -376,11 +398,13 @@ public class Simulation extends Entity {
 		this.addInput(unitTypeList);
 		this.addInput(runOutputList);
 		this.addInput(tickLengthInput);
+		this.addInput(eventListType);
 
 		// Multiple Runs tab
 		this.addInput(runIndexDefinitionList);
 		this.addInput(startingRunNumber);
 		this.addInput(endingRunNumber);
+		this.addInput(parallelRuns);
 
 		// GUI tab
 		this.addInput(displayedUnits);
@@ -410,9 +434,9 @@ public class Simulation extends Entity {
 		printInputReport.setHidden(true);
 
 		// Set the entity corresponding to "this" for keywords that can accept an expression
-		pauseConditionInput.setEntity(Simulation.getInstance());
-		globalSeedInput.setEntity(Simulation.getInstance());
-		runOutputList.setEntity(Simulation.getInstance());
+		pauseConditionInput.setEntity(this);
+		globalSeedInput.setEntity(this);
+		runOutputList.setEntity(this);
 
 		// Set the default unit type for the custom output report
 		ArrayList<Class<? extends Unit>> defList = new ArrayList<>();
@@ -422,16 +446,11 @@ public class Simulation extends Entity {
 
 	public Simulation() {}
 
+	/**
+	 * Returns the Simulation entity for the current model.
+	 */
 	public static Simulation getInstance() {
-		if (myInstance == null) {
-			for (Entity ent : Entity.getClonesOfIterator(Entity.class)) {
-				if (ent instanceof Simulation) {
-					myInstance = (Simulation)ent;
-					break;
-				}
-			}
-		}
-		return myInstance;
+		return JaamSimModel.getCurrent().getSimulation();
 	}
 
 	@Override
@@ -459,14 +478,14 @@ public class Simulation extends Entity {
 		}
 
 		if (in == runIndexDefinitionList) {
-			Simulation.setRunNumber(runNumber);
+			this.setRunNumber(runNumber);
 			startingRunNumber.setRunIndexRangeList(runIndexDefinitionList.getValue());
 			endingRunNumber.setRunIndexRangeList(runIndexDefinitionList.getValue());
 			return;
 		}
 
 		if (in == startingRunNumber) {
-			Simulation.setRunNumber(startingRunNumber.getValue());
+			this.setRunNumber(startingRunNumber.getValue());
 			return;
 		}
 
@@ -476,40 +495,40 @@ public class Simulation extends Entity {
 		}
 
 		if (in == showModelBuilder) {
-			if (GUIFrame.getInstance() != null)
+			if (this.isShownInGUI())
 				setWindowVisible(EntityPallet.getInstance(), showModelBuilder.getValue());
 			return;
 		}
 
 		if (in == showObjectSelector) {
-			if (GUIFrame.getInstance() != null)
+			if (this.isShownInGUI())
 				setWindowVisible(ObjectSelector.getInstance(), showObjectSelector.getValue());
 			return;
 		}
 
 		if (in == showInputEditor) {
-			if (GUIFrame.getInstance() != null)
+			if (this.isShownInGUI())
 				setWindowVisible(EditBox.getInstance(), showInputEditor.getValue());
 			FrameBox.reSelectEntity();
 			return;
 		}
 
 		if (in == showOutputViewer) {
-			if (GUIFrame.getInstance() != null)
+			if (this.isShownInGUI())
 				setWindowVisible(OutputBox.getInstance(), showOutputViewer.getValue());
 			FrameBox.reSelectEntity();
 			return;
 		}
 
 		if (in == showPropertyViewer) {
-			if (GUIFrame.getInstance() != null)
+			if (this.isShownInGUI())
 				setWindowVisible(PropertyBox.getInstance(), showPropertyViewer.getValue());
 			FrameBox.reSelectEntity();
 			return;
 		}
 
 		if (in == showLogViewer) {
-			if (GUIFrame.getInstance() != null)
+			if (this.isShownInGUI())
 				setWindowVisible(LogBox.getInstance(), showLogViewer.getValue());
 			FrameBox.reSelectEntity();
 			return;
@@ -542,10 +561,9 @@ public class Simulation extends Entity {
 
 		updateRealTime();
 
-		// Initialize basic model information
-		startTime = 0.0;
-		endTime = 8760.0*3600.0;
-		myInstance = null;
+		// The run number, run indices and start and end times are held by the
+		// Simulation entity and are initialized again when it is re-defined
+		JaamSimModel.getCurrent().setSimulation(null);
 
 		// close warning/error trace file
 		InputAgent.closeLogFile();
@@ -555,9 +573,6 @@ public class Simulation extends Entity {
 			Entity ent = Entity.getAll().get(Entity.getAll().size()-1);
 			ent.kill();
 		}
-
-		// Reset the run number and run indices
-		Simulation.setRunNumber(1);
 	}
 
 	/**
@@ -567,6 +582,8 @@ public class Simulation extends Entity {
 	 *		3) start EventManager processing events
 	 */
 	public static void start(EventManager evt) {
+		Simulation sim = getInstance();
+
 		// Validate each entity based on inputs only
 		for (Entity each : Entity.getClonesOfIterator(Entity.class)) {
 			try {
@@ -585,13 +602,21 @@ public class Simulation extends Entity {
 		}
 
 		InputAgent.prepareReportDirectory();
+		sim.getJaamSimModel().attach(evt);
 		evt.clear();
+		evt.setEventSetType(sim.eventListType.getValue());
 		evt.setTraceListener(null);
 
+		// Finish writing the trace for the previous simulation
+		if (sim.eventRecorder != null) {
+			sim.eventRecorder.close();
+			sim.eventRecorder = null;
+		}
+
 		if( Simulation.traceEvents() ) {
 			String evtName = InputAgent.getConfigFile().getParentFile() + File.separator + InputAgent.getRunName() + ".evt";
-			EventRecorder rec = new EventRecorder(evtName);
-			evt.setTraceListener(rec);
+			sim.eventRecorder = new EventRecorder(evtName);
+			evt.setTraceListener(sim.eventRecorder);
 		}
 		else if( Simulation.verifyEvents() ) {
 			String evtName = InputAgent.getConfigFile().getParentFile() + File.separator + InputAgent.getRunName() + ".evt";
@@ -599,12 +624,12 @@ public class Simulation extends Entity {
 			evt.setTraceListener(trc);
 		}
 
-		evt.setTickLength(tickLengthInput.getValue());
+		evt.setTickLength(sim.tickLengthInput.getValue());
 
-		startTime = startTimeInput.getValue();
-		endTime = startTime + Simulation.getInitializationTime() + Simulation.getRunDuration();
+		sim.startTime = sim.startTimeInput.getValue();
+		sim.endTime = sim.startTime + sim.getInitializationTime() + Simulation.getRunDuration();
 
-		Simulation.setRunNumber(startingRunNumber.getValue());
+		sim.setRunNumber(sim.getFirstRunNumber());
 		Simulation.startRun(evt);
 	}
 
@@ -621,6 +646,7 @@ public class Simulation extends Entity {
 	 * Ends a single simulation run and if appropriate restarts the model for the next run.
 	 */
 	public static void endRun() {
+		Simulation sim = getInstance();
 
 		// Execute the end of run method for each entity
 		for (Entity each : Entity.getClonesOfIterator(Entity.class)) {
@@ -628,12 +654,16 @@ public class Simulation extends Entity {
 		}
 
 		// Print the output report
-		if (printReport.getValue())
+		if (sim.printReport.getValue())
 			InputAgent.printReport(EventManager.simSeconds());
 
 		// Print the selected outputs
-		if (runOutputList.getValue() != null) {
-			InputAgent.printRunOutputs(EventManager.simSeconds());
+		if (sim.runOutputList.getValue() != null) {
+			ReplicationWorker worker = sim.getJaamSimModel().getReplicationWorker();
+			if (worker != null)
+				worker.addRunOutputs(sim.runNumber, InputAgent.getRunOutputLine(EventManager.simSeconds()));
+			else
+				InputAgent.printRunOutputs(EventManager.simSeconds());
 		}
 
 		// Increment the run number and check for last run
@@ -644,11 +674,13 @@ public class Simulation extends Entity {
 
 		// Start the next run
 		final EventManager currentEvt = EventManager.current();
-		Simulation.setRunNumber(runNumber + 1);
+		final JaamSimModel model = JaamSimModel.getCurrent();
+		sim.setRunNumber(sim.getNextRunNumber());
 		Simulation.stopRun(currentEvt);
 		new Thread(new Runnable() {
 			@Override
 			public void run() {
+				JaamSimModel.setCurrent(model);
 				Simulation.startRun(currentEvt);
 			}
 		}).start();
@@ -663,8 +695,23 @@ public class Simulation extends Entity {
 		LogBox.logLine("Made it to do end at");
 		InputAgent.closeLogFile();
 
+		// Close the event trace once the event that ended the run is complete
+		Simulation sim = getInstance();
+		if (sim.eventRecorder != null) {
+			sim.eventRecorder.closeAtEnd();
+			sim.eventRecorder = null;
+		}
+
+		// A replication worker returns control to its ParallelRunner
+		ReplicationWorker worker = sim.getJaamSimModel().getReplicationWorker();
+		if (worker != null) {
+			EventManager.current().pause();
+			worker.runsCompleted();
+			return;
+		}
+
 		// Always terminate the run when in batch mode
-		if (InputAgent.getBatch() || exitAtStop.getValue())
+		if (InputAgent.getBatch() || getInstance().exitAtStop.getValue())
 			GUIFrame.shutdown(0);
 
 		EventManager.current().pause();
@@ -680,7 +727,14 @@ public class Simulation extends Entity {
 		Simulation.stopRun(evt);
 
 		// Reset the run number and run indices
-		Simulation.setRunNumber(startingRunNumber.getValue());
+		Simulation sim = getInstance();
+		sim.setRunNumber(sim.startingRunNumber.getValue());
+
+		// Finish writing the event trace
+		if (sim.eventRecorder != null) {
+			sim.eventRecorder.close();
+			sim.eventRecorder = null;
+		}
 
 		// Close the output reports
 		InputAgent.stop();
@@ -697,12 +751,13 @@ public class Simulation extends Entity {
 		evt.clear();
 
 		// Destroy the entities that were generated during the run
-		for (int i = 0; i < Entity.getAll().size();) {
-			Entity ent = Entity.getAll().get(i);
+		ArrayList<Entity> generatedList = new ArrayList<>();
+		for (Entity ent : Entity.getClonesOfIterator(Entity.class)) {
 			if (ent.testFlag(Entity.FLAG_GENERATED))
-				ent.kill();
-			else
-				i++;
+				generatedList.add(ent);
+		}
+		for (Entity ent : generatedList) {
+			ent.kill();
 		}
 
 		// Re-initialise the model
@@ -722,28 +777,28 @@ public class Simulation extends Entity {
 		}
 	}
 
-	public static int getSubstreamNumber() {
+	public int getSubstreamNumber() {
 		return (int)globalSeedInput.getValue().getNextSample(0.0);
 	}
 
 	public static boolean getPrintReport() {
-		return printReport.getValue();
+		return getInstance().printReport.getValue();
 	}
 
 	public static boolean traceEvents() {
-		return traceEventsInput.getValue();
+		return getInstance().traceEventsInput.getValue();
 	}
 
 	public static boolean verifyEvents() {
-		return verifyEventsInput.getValue();
+		return getInstance().verifyEventsInput.getValue();
 	}
 
-	public static double getTickLength() {
+	public double getTickLength() {
 		return tickLengthInput.getValue();
 	}
 
 	public static double getPauseTime() {
-		return pauseTime.getValue();
+		return getInstance().pauseTime.getValue();
 	}
 
 	/**
@@ -751,7 +806,7 @@ public class Simulation extends Entity {
 	 * @return - simulation time in seconds for the start of the run.
 	 */
 	public static double getStartTime() {
-		return startTime;
+		return getInstance().startTime;
 	}
 
 	/**
@@ -759,51 +814,53 @@ public class Simulation extends Entity {
 	 * @return - simulation time in seconds when the current run will stop.
 	 */
 	public static double getEndTime() {
-		return endTime;
+		return getInstance().endTime;
 	}
 
 	/**
 	 * Returns the duration of the run (not including intialization)
 	 */
 	public static double getRunDuration() {
-		return runDuration.getValue();
+		return getInstance().runDuration.getValue();
 	}
 
 	/**
 	 * Returns the duration of the initialization period
 	 */
-	public static double getInitializationTime() {
+	public double getInitializationTime() {
 		return initializationTime.getValue();
 	}
 
 	public static StringProvListInput getRunOutputList() {
-		return runOutputList;
+		return getInstance().runOutputList;
 	}
 
 	public static double getIncrementSize() {
-		return incrementSize.getValue();
+		return getInstance().incrementSize.getValue();
 	}
 
 	public static boolean isSnapToGrid() {
-		return snapToGrid.getValue();
+		return getInstance().snapToGrid.getValue();
 	}
 
 	public static double getSnapGridSpacing() {
-		return snapGridSpacing.getValue();
+		return getInstance().snapGridSpacing.getValue();
 	}
 
 	public static boolean getExitAtPauseCondition() {
-		return exitAtPauseCondition.getValue();
+		return getInstance().exitAtPauseCondition.getValue();
 	}
 
 	public void doPauseCondition() {
-		if (pauseConditionInput.getValue() != null)
+		if (pauseConditionInput.getValue() != null) {
+			pauseCondition.setSources(SampleExpression.getConditionalSources(pauseConditionInput.getValue()));
 			EventManager.scheduleUntil(pauseModel, pauseCondition, null);
+		}
 	}
 
 	private final PauseModelTarget pauseModel = new PauseModelTarget();
 
-	static class PauseConditional extends Conditional {
+	class PauseConditional extends Conditional {
 		@Override
 		public boolean evaluate() {
 			if (pauseConditionInput.getValue() == null)
@@ -823,7 +880,7 @@ public class Simulation extends Entity {
 	 * @return newest snap grid point.
 	 */
 	public static Vec3d getSnapGridPosition(Vec3d newPos, Vec3d oldPos) {
-		double spacing = snapGridSpacing.getValue();
+		double spacing = getInstance().snapGridSpacing.getValue();
 		Vec3d ret = new Vec3d(newPos);
 		if (Math.abs(newPos.x - oldPos.x) < spacing)
 			ret.x = oldPos.x;
@@ -840,7 +897,7 @@ public class Simulation extends Entity {
 	 * @return nearest snap grid point.
 	 */
 	public static Vec3d getSnapGridPosition(Vec3d pos) {
-		double spacing = snapGridSpacing.getValue();
+		double spacing = getInstance().snapGridSpacing.getValue();
 		Vec3d ret = new Vec3d(pos);
 		ret.x = spacing*Math.rint(ret.x/spacing);
 		ret.y = spacing*Math.rint(ret.y/spacing);
@@ -861,11 +918,12 @@ public class Simulation extends Entity {
 	}
 
 	static void updateRealTime() {
-		GUIFrame.updateForRealTime(realTime.getValue(), realTimeFactor.getValue());
+		Simulation sim = getInstance();
+		GUIFrame.updateForRealTime(sim.realTime.getValue(), sim.realTimeFactor.getValue());
 	}
 
 	static void updatePauseTime() {
-		GUIFrame.updateForPauseTime(pauseTime.getValueString());
+		GUIFrame.updateForPauseTime(getInstance().pauseTime.getValueString());
 	}
 
 	public static void setModelName(String newModelName) {
@@ -877,17 +935,24 @@ public class Simulation extends Entity {
 	}
 
 	public static boolean getExitAtStop() {
-		return exitAtStop.getValue();
+		return getInstance().exitAtStop.getValue();
 	}
 
 	public static boolean getPrintInputReport() {
-		return printInputReport.getValue();
+		return getInstance().printInputReport.getValue();
 	}
 
-	public static boolean isRealTime() {
+	public boolean isRealTime() {
 		return realTime.getValue();
 	}
 
+	/**
+	 * Returns true if this Simulation entity belongs to the model shown in the GUI.
+	 */
+	private boolean isShownInGUI() {
+		return GUIFrame.getInstance() != null && getJaamSimModel() == JaamSimModel.getRootModel();
+	}
+
 	public static void setWindowVisible(JFrame f, boolean visible) {
 		f.setVisible(visible);
 		if (visible)
@@ -898,12 +963,13 @@ public class Simulation extends Entity {
 	 * Re-open any Tools windows that have been closed temporarily.
 	 */
 	public static void showActiveTools() {
-		setWindowVisible(EntityPallet.getInstance(), showModelBuilder.getValue());
-		setWindowVisible(ObjectSelector.getInstance(), showObjectSelector.getValue());
-		setWindowVisible(EditBox.getInstance(), showInputEditor.getValue());
-		setWindowVisible(OutputBox.getInstance(), showOutputViewer.getValue());
-		setWindowVisible(PropertyBox.getInstance(), showPropertyViewer.getValue());
-		setWindowVisible(LogBox.getInstance(), showLogViewer.getValue());
+		Simulation sim = getInstance();
+		setWindowVisible(EntityPallet.getInstance(), sim.showModelBuilder.getValue());
+		setWindowVisible(ObjectSelector.getInstance(), sim.showObjectSelector.getValue());
+		setWindowVisible(EditBox.getInstance(), sim.showInputEditor.getValue());
+		setWindowVisible(OutputBox.getInstance(), sim.showOutputViewer.getValue());
+		setWindowVisible(PropertyBox.getInstance(), sim.showPropertyViewer.getValue());
+		setWindowVisible(LogBox.getInstance(), sim.showLogViewer.getValue());
 	}
 
 	/**
@@ -920,7 +986,7 @@ public class Simulation extends Entity {
 		setWindowVisible(LogBox.getInstance(), false);
 	}
 
-	private static void setRunNumber(int n) {
+	private void setRunNumber(int n) {
 		runNumber = n;
 		runIndexList = Simulation.getRunIndexList(n, runIndexDefinitionList.getValue());
 	}
@@ -973,7 +1039,7 @@ public class Simulation extends Entity {
 	}
 
 	public static String getRunCode() {
-		return Simulation.getRunCode(runIndexList);
+		return Simulation.getRunCode(getInstance().runIndexList);
 	}
 
 	public static String getRunHeader() {
@@ -981,15 +1047,62 @@ public class Simulation extends Entity {
 	}
 
 	public static boolean isMultipleRuns() {
-		return endingRunNumber.getValue() > startingRunNumber.getValue();
+		Simulation sim = getInstance();
+		return sim.endingRunNumber.getValue() > sim.startingRunNumber.getValue();
 	}
 
 	public static boolean isFirstRun() {
-		return runNumber == startingRunNumber.getValue();
+		Simulation sim = getInstance();
+		return sim.runNumber == sim.startingRunNumber.getValue();
 	}
 
 	public static boolean isLastRun() {
-		return runNumber >= endingRunNumber.getValue();
+		Simulation sim = getInstance();
+		if (sim.assignedRuns != null)
+			return sim.runNumber >= sim.assignedRuns.get(sim.assignedRuns.size() - 1);
+		return sim.runNumber >= sim.endingRunNumber.getValue();
+	}
+
+	public static int getRunNumber() {
+		return getInstance().runNumber;
+	}
+
+	public static int getStartingRunNumber() {
+		return getInstance().startingRunNumber.getValue();
+	}
+
+	public static int getEndingRunNumber() {
+		return getInstance().endingRunNumber.getValue();
+	}
+
+	public static int getParallelRuns() {
+		return getInstance().parallelRuns.getValue();
+	}
+
+	/**
+	 * Restricts the simulation runs to the given run numbers, which must be in
+	 * ascending order. Used by a replication worker to execute its share of the
+	 * runs. A null list restores the runs from StartingRunNumber to EndingRunNumber.
+	 * @param runs - run numbers to be executed.
+	 */
+	static void setAssignedRuns(IntegerVector runs) {
+		getInstance().assignedRuns = runs;
+	}
+
+	private int getFirstRunNumber() {
+		if (assignedRuns != null)
+			return assignedRuns.get(0);
+		return startingRunNumber.getValue();
+	}
+
+	private int getNextRunNumber() {
+		if (assignedRuns != null) {
+			for (int i = 0; i < assignedRuns.size(); i++) {
+				if (assignedRuns.get(i) > runNumber)
+					return assignedRuns.get(i);
+			}
+		}
+		return runNumber + 1;
 	}
 
 	@Output(name = "Software Name",
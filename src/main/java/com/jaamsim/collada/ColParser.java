@@ -68,9 +68,17 @@ public class ColParser {
 	}
 
 	public static MeshData parse(URI asset) throws RenderException {
+		return parse(asset, keepRuntimeData);
+	}
+
+	/**
+	 * Parses the given Collada file, keeping the runtime data needed to re-export the mesh if
+	 * 'keepData' is true.
+	 */
+	public static MeshData parse(URI asset, boolean keepData) throws RenderException {
 
 		try {
-			ColParser colParser = new ColParser(asset.toURL());
+			ColParser colParser = new ColParser(asset.toURL(), keepData);
 
 			colParser.processContent();
 
@@ -193,7 +201,7 @@ public class ColParser {
 
 	private final ArrayList<AnimChannel> _animChannels = new ArrayList<>();
 
-	private final MeshData _finalData = new MeshData(keepRuntimeData);
+	private final MeshData _finalData;
 
 	private final HashMap<String, Vec4d[]> _vec4dSources = new HashMap<>();
 	private final HashMap<String, double[][]> _dataSources = new HashMap<>();
@@ -203,7 +211,12 @@ public class ColParser {
 	private XmlParser _parser;
 
 	public ColParser(URL context) {
+		this(context, keepRuntimeData);
+	}
+
+	public ColParser(URL context, boolean keepData) {
 		_contextURL = context;
+		_finalData = new MeshData(keepData);
 	}
 
 	private XmlNode getNodeFromID(String fragID) {
@@ -436,7 +449,7 @@ public class ColParser {
 
 				// Finally bake the face geometry information into a runtime format
 				FaceSubGeo fsg = getFaceSubGeo(subGeo);
-				_finalData.addSubMesh(fsg.vMap.getVertList(), fsg.indices);
+				_finalData.addSubMesh(fsg.vMap.getPositions(), fsg.vMap.getNormals(), fsg.vMap.getTexCoords(), fsg.indices);
 			}
 
 			int matID;
@@ -1329,7 +1342,7 @@ public class ColParser {
 		}
 
 		for (int i = 0; i < numVerts; ++i) {
-			Vec3d pos = new Vec3d(posData[smd.posDesc.indices[i]]);
+			Vec4d pos = posData[smd.posDesc.indices[i]];
 
 			Vec3d normal = null;
 			if (hasNormal) {
@@ -1344,17 +1357,19 @@ public class ColParser {
 					normal = generateNormal(p0, p1, p2, t0, t1);
 				}
 				else {
-					normal = new Vec3d(normData[normInd]);
+					normal = normData[normInd];
 				}
 			} else {
 				normal = generatedNormals[i/3];
 			}
 
-			Vec2d texCoord = null;
 			if (hasTexCoords) {
-				texCoord = new Vec2d(texCoordData[texSetDesc.indices[i]]);
+				Vec4d texCoord = texCoordData[texSetDesc.indices[i]];
+				fsg.indices[i] = fsg.vMap.getVertIndex(pos.x, pos.y, pos.z, normal.x, normal.y, normal.z, true, texCoord.x, texCoord.y);
+			}
+			else {
+				fsg.indices[i] = fsg.vMap.getVertIndex(pos.x, pos.y, pos.z, normal.x, normal.y, normal.z, false, 0.0d, 0.0d);
 			}
-			fsg.indices[i] = fsg.vMap.getVertIndex(pos, normal, texCoord);
 		}
 
 		return fsg;
@@ -38,6 +38,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JMenuItem;
@@ -141,6 +143,13 @@ public class RenderManager implements DragSourceListener {
 	 */
 	private ArrayList<RenderProxy> cachedScene;
 
+	// Gathers the proxies for the entities
+	private final ForkJoinPool gatherPool = new ForkJoinPool();
+	private static final int GATHER_BATCH_SIZE = 64;  // number of entities gathered by each task
+
+	// Timing for the last scene gathered
+	private volatile FrameStats frameStats = new FrameStats(0, 0, 0, 0, 0, 0, 0);
+
 	private DisplayEntity selectedEntity = null;
 
 	private long simTick = 0;
@@ -365,6 +374,7 @@ public class RenderManager implements DragSourceListener {
 
 				// Update all graphical entities in the simulation
 				final ArrayList<? extends Entity> allEnts = Entity.getAll();
+				ArrayList<DisplayEntity> displayEnts = new ArrayList<>();
 				for (int i = 0; i < allEnts.size(); i++) {
 					DisplayEntity de;
 					try {
@@ -378,6 +388,7 @@ public class RenderManager implements DragSourceListener {
 						break;
 					}
 
+					displayEnts.add(de);
 					try {
 						de.updateGraphics(renderTime);
 					}
@@ -389,34 +400,43 @@ public class RenderManager implements DragSourceListener {
 
 				long updateNanos = System.nanoTime();
 
+				// Find the bindings for each entity
 				int totalBindings = 0;
-				for (int i = 0; i < allEnts.size(); i++) {
-					DisplayEntity de;
+				ArrayList<ArrayList<DisplayModelBinding>> entBindings = new ArrayList<>(displayEnts.size());
+				for (int i = 0; i < displayEnts.size(); i++) {
+					ArrayList<DisplayModelBinding> bindings = null;
 					try {
-						Entity e = allEnts.get(i);
-						if (e instanceof DisplayEntity)
-							de = (DisplayEntity)e;
-						else
-							continue;
-					}
-					catch (IndexOutOfBoundsException e) {
-						break;
+						bindings = displayEnts.get(i).getDisplayBindings();
+					} catch (Throwable t) {
+						logException(t);
 					}
+					entBindings.add(bindings);
+					if (bindings == null)
+						continue;
 
-					for (DisplayModelBinding binding : de.getDisplayBindings()) {
-						try {
-							totalBindings++;
-							binding.collectProxies(renderTime, cachedScene);
-							if (binding.isBoundTo(selectedEntity)) {
-								selectedBindings.add(binding);
-							}
-						} catch (Throwable t) {
-							// Log the exception in the exception list
-							logException(t);
+					for (DisplayModelBinding binding : bindings) {
+						totalBindings++;
+						if (binding.isBoundTo(selectedEntity)) {
+							selectedBindings.add(binding);
 						}
 					}
 				}
 
+				// Collect the proxies for the entities in parallel
+				// (each task sets the elements for its own range of entities)
+				ArrayList<ArrayList<RenderProxy>> entProxies = new ArrayList<>(entBindings.size());
+				for (int i = 0; i < entBindings.size(); i++) {
+					entProxies.add(null);
+				}
+				gatherPool.invoke(new GatherTask(entBindings, entProxies, renderTime, 0, entBindings.size()));
+
+				long gatherNanos = System.nanoTime();
+
+				// Assemble the scene in entity order
+				for (ArrayList<RenderProxy> proxies : entProxies) {
+					cachedScene.addAll(proxies);
+				}
+
 				// Collect selection proxies second so they always appear on top
 				for (DisplayModelBinding binding : selectedBindings) {
 					try {
@@ -436,13 +456,16 @@ public class RenderManager implements DragSourceListener {
 
 				renderer.setScene(cachedScene);
 
-				String cacheString = " Hits: " + DisplayModelBinding.getCacheHits() + " Misses: " + DisplayModelBinding.getCacheMisses() +
-				                     " Total: " + totalBindings;
+				FrameStats stats = new FrameStats(updateNanos - startNanos, gatherNanos - updateNanos,
+						endNanos - gatherNanos, totalBindings, DisplayModelBinding.getReuseCount(),
+						DisplayModelBinding.getCacheHits(), DisplayModelBinding.getCacheMisses());
+				frameStats = stats;
 
-				double gatherMS = (endNanos - updateNanos) / 1000000.0;
-				double updateMS = (updateNanos - startNanos) / 1000000.0;
+				String cacheString = " Hits: " + stats.getCacheHits() + " Misses: " + stats.getCacheMisses() +
+				                     " Reused: " + stats.getReusedBindings() + " Total: " + totalBindings;
 
-				String timeString = "Gather time (ms): " + gatherMS + " Update time (ms): " + updateMS;
+				String timeString = "Gather time (ms): " + stats.getGatherTime() + " Update time (ms): " + stats.getUpdateTime() +
+				                    " Assemble time (ms): " + stats.getAssembleTime();
 
 				// Do some picking debug
 				ArrayList<Integer> windowIDs = renderer.getOpenWindowIDs();
@@ -864,7 +887,135 @@ public class RenderManager implements DragSourceListener {
 		return getRenderedStringLength(fontKey, textHeight, sb.substring(0, i).toString());
 	}
 
-	private void logException(Throwable t) {
+	/**
+	 * Collects the proxies for a range of entities, splitting the range between several
+	 * tasks if it is large.
+	 */
+	private class GatherTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final ArrayList<ArrayList<DisplayModelBinding>> entBindings;
+		private final ArrayList<ArrayList<RenderProxy>> entProxies;
+		private final double renderTime;
+		private final int start;
+		private final int end;
+
+		GatherTask(ArrayList<ArrayList<DisplayModelBinding>> entBindings,
+				ArrayList<ArrayList<RenderProxy>> entProxies, double renderTime, int start, int end) {
+			this.entBindings = entBindings;
+			this.entProxies = entProxies;
+			this.renderTime = renderTime;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start > GATHER_BATCH_SIZE) {
+				int mid = (start + end) >>> 1;
+				invokeAll(new GatherTask(entBindings, entProxies, renderTime, start, mid),
+				          new GatherTask(entBindings, entProxies, renderTime, mid, end));
+				return;
+			}
+
+			for (int i = start; i < end; i++) {
+				ArrayList<RenderProxy> proxies = new ArrayList<>();
+				entProxies.set(i, proxies);
+				ArrayList<DisplayModelBinding> bindings = entBindings.get(i);
+				if (bindings == null)
+					continue;
+
+				for (DisplayModelBinding binding : bindings) {
+					try {
+						binding.collectFrameProxies(renderTime, proxies);
+					} catch (Throwable t) {
+						// Log the exception in the exception list
+						logException(t);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Timing and cache statistics for the gathering of a scene.
+	 */
+	public static final class FrameStats {
+		private final long updateNanos;
+		private final long gatherNanos;
+		private final long assembleNanos;
+		private final int totalBindings;
+		private final int reusedBindings;
+		private final int cacheHits;
+		private final int cacheMisses;
+
+		FrameStats(long updateNanos, long gatherNanos, long assembleNanos, int totalBindings,
+				int reusedBindings, int cacheHits, int cacheMisses) {
+			this.updateNanos = updateNanos;
+			this.gatherNanos = gatherNanos;
+			this.assembleNanos = assembleNanos;
+			this.totalBindings = totalBindings;
+			this.reusedBindings = reusedBindings;
+			this.cacheHits = cacheHits;
+			this.cacheMisses = cacheMisses;
+		}
+
+		/**
+		 * Returns the time in milliseconds taken to update the graphics for the entities.
+		 */
+		public double getUpdateTime() {
+			return updateNanos / 1000000.0;
+		}
+
+		/**
+		 * Returns the time in milliseconds taken to collect the proxies for the entities.
+		 */
+		public double getGatherTime() {
+			return gatherNanos / 1000000.0;
+		}
+
+		/**
+		 * Returns the time in milliseconds taken to assemble the scene from the proxies for
+		 * the entities, the selection and the links.
+		 */
+		public double getAssembleTime() {
+			return assembleNanos / 1000000.0;
+		}
+
+		public double getTotalTime() {
+			return (updateNanos + gatherNanos + assembleNanos) / 1000000.0;
+		}
+
+		public int getTotalBindings() {
+			return totalBindings;
+		}
+
+		/**
+		 * Returns the number of bindings whose proxies were re-used from the previous scene.
+		 */
+		public int getReusedBindings() {
+			return reusedBindings;
+		}
+
+		public int getCacheHits() {
+			return cacheHits;
+		}
+
+		public int getCacheMisses() {
+			return cacheMisses;
+		}
+	}
+
+	/**
+	 * Returns the timing and cache statistics for the last scene that was gathered.
+	 */
+	public static FrameStats getFrameStats() {
+		if (s_instance == null)
+			return null;
+		return s_instance.frameStats;
+	}
+
+	private synchronized void logException(Throwable t) {
 		exceptionLogger.logException(t);
 
 		numberOfExceptions++;
@@ -1700,6 +1851,7 @@ public class RenderManager implements DragSourceListener {
 
 	public void shutdown() {
 		finished.set(true);
+		gatherPool.shutdown();
 		if (renderer != null) {
 			renderer.shutdown();
 		}
@@ -0,0 +1,349 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.datatypes;
+
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * IndexedTreeSet is a sorted set that can also find the position of an element and the
+ * element at a given position.
+ * <p>
+ * The elements are stored in an AVL tree in which each node records the number of nodes
+ * in its sub-tree. Adding, removing and finding an element, finding the position of an
+ * element, and finding the element at a position all take O(log n) time.
+ * <p>
+ * The elements are ordered by their compareTo method, which must be consistent with
+ * equals. The iterator does not support the remove method.
+ */
+public class IndexedTreeSet<E extends Comparable<? super E>> extends AbstractSet<E> {
+
+	private Node<E> root;
+	private int modCount;
+
+	private static class Node<E> {
+		E val;
+		Node<E> left;
+		Node<E> right;
+		Node<E> parent;
+		int height;  // number of levels in the sub-tree
+		int size;    // number of nodes in the sub-tree
+
+		Node(E v, Node<E> p) {
+			val = v;
+			parent = p;
+			height = 1;
+			size = 1;
+		}
+	}
+
+	public IndexedTreeSet() {}
+
+	@Override
+	public int size() {
+		return size(root);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return root == null;
+	}
+
+	@Override
+	public void clear() {
+		root = null;
+		modCount++;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean contains(Object o) {
+		return getNode((E)o) != null;
+	}
+
+	@Override
+	public boolean add(E val) {
+		if (root == null) {
+			root = new Node<>(val, null);
+			modCount++;
+			return true;
+		}
+
+		Node<E> node = root;
+		while (true) {
+			int cmp = val.compareTo(node.val);
+			if (cmp == 0)
+				return false;
+
+			Node<E> next = (cmp < 0) ? node.left : node.right;
+			if (next != null) {
+				node = next;
+				continue;
+			}
+
+			Node<E> newNode = new Node<>(val, node);
+			if (cmp < 0)
+				node.left = newNode;
+			else
+				node.right = newNode;
+			break;
+		}
+
+		rebalance(node);
+		modCount++;
+		return true;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean remove(Object o) {
+		Node<E> node = getNode((E)o);
+		if (node == null)
+			return false;
+
+		// A node with two children is replaced by its successor, which has no left child
+		if (node.left != null && node.right != null) {
+			Node<E> next = node.right;
+			while (next.left != null)
+				next = next.left;
+			node.val = next.val;
+			node = next;
+		}
+
+		// Replace the node by its only child
+		Node<E> child = (node.left != null) ? node.left : node.right;
+		Node<E> parent = node.parent;
+		if (child != null)
+			child.parent = parent;
+		replaceChild(parent, node, child);
+
+		rebalance(parent);
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Returns the lowest element in the set.
+	 * @throws NoSuchElementException if the set is empty.
+	 */
+	public E first() {
+		if (root == null)
+			throw new NoSuchElementException();
+		return firstNode(root).val;
+	}
+
+	/**
+	 * Returns the highest element in the set.
+	 * @throws NoSuchElementException if the set is empty.
+	 */
+	public E last() {
+		if (root == null)
+			throw new NoSuchElementException();
+
+		Node<E> node = root;
+		while (node.right != null)
+			node = node.right;
+		return node.val;
+	}
+
+	/**
+	 * Returns the element at the given position in the set.
+	 * @param index - zero-based position of the element.
+	 * @throws IndexOutOfBoundsException if the index is outside the set.
+	 */
+	public E get(int index) {
+		if (index < 0 || index >= size())
+			throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size()));
+
+		Node<E> node = root;
+		while (true) {
+			int leftSize = size(node.left);
+			if (index == leftSize)
+				return node.val;
+
+			if (index < leftSize) {
+				node = node.left;
+			}
+			else {
+				index -= leftSize + 1;
+				node = node.right;
+			}
+		}
+	}
+
+	/**
+	 * Returns the zero-based position of the given element in the set, or -1 if the
+	 * element is not in the set.
+	 */
+	public int indexOf(E val) {
+		int ret = 0;
+		Node<E> node = root;
+		while (node != null) {
+			int cmp = val.compareTo(node.val);
+			if (cmp == 0)
+				return ret + size(node.left);
+
+			if (cmp < 0) {
+				node = node.left;
+			}
+			else {
+				ret += size(node.left) + 1;
+				node = node.right;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public Iterator<E> iterator() {
+		return new Itr();
+	}
+
+	private class Itr implements Iterator<E> {
+		private Node<E> next = (root == null) ? null : firstNode(root);
+		private final int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public E next() {
+			if (next == null)
+				throw new NoSuchElementException();
+			if (modCount != expectedModCount)
+				throw new ConcurrentModificationException();
+
+			E ret = next.val;
+			next = successor(next);
+			return ret;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private Node<E> getNode(E val) {
+		Node<E> node = root;
+		while (node != null) {
+			int cmp = val.compareTo(node.val);
+			if (cmp == 0)
+				return node;
+			node = (cmp < 0) ? node.left : node.right;
+		}
+		return null;
+	}
+
+	private static <E> Node<E> firstNode(Node<E> node) {
+		while (node.left != null)
+			node = node.left;
+		return node;
+	}
+
+	private static <E> Node<E> successor(Node<E> node) {
+		if (node.right != null)
+			return firstNode(node.right);
+
+		Node<E> parent = node.parent;
+		while (parent != null && node == parent.right) {
+			node = parent;
+			parent = parent.parent;
+		}
+		return parent;
+	}
+
+	private static int size(Node<?> node) {
+		return (node == null) ? 0 : node.size;
+	}
+
+	private static int height(Node<?> node) {
+		return (node == null) ? 0 : node.height;
+	}
+
+	private static void update(Node<?> node) {
+		node.height = Math.max(height(node.left), height(node.right)) + 1;
+		node.size = size(node.left) + size(node.right) + 1;
+	}
+
+	private void replaceChild(Node<E> parent, Node<E> oldChild, Node<E> newChild) {
+		if (parent == null)
+			root = newChild;
+		else if (parent.left == oldChild)
+			parent.left = newChild;
+		else
+			parent.right = newChild;
+	}
+
+	/**
+	 * Restores the balance of the tree and the sub-tree sizes from the given node up to
+	 * the root.
+	 */
+	private void rebalance(Node<E> node) {
+		while (node != null) {
+			update(node);
+			int balance = height(node.left) - height(node.right);
+			if (balance > 1) {
+				if (height(node.left.left) < height(node.left.right))
+					rotateLeft(node.left);
+				node = rotateRight(node);
+			}
+			else if (balance < -1) {
+				if (height(node.right.right) < height(node.right.left))
+					rotateRight(node.right);
+				node = rotateLeft(node);
+			}
+			node = node.parent;
+		}
+	}
+
+	private Node<E> rotateLeft(Node<E> node) {
+		Node<E> pivot = node.right;
+		node.right = pivot.left;
+		if (pivot.left != null)
+			pivot.left.parent = node;
+
+		pivot.parent = node.parent;
+		replaceChild(node.parent, node, pivot);
+
+		pivot.left = node;
+		node.parent = pivot;
+		update(node);
+		update(pivot);
+		return pivot;
+	}
+
+	private Node<E> rotateRight(Node<E> node) {
+		Node<E> pivot = node.left;
+		node.left = pivot.right;
+		if (pivot.right != null)
+			pivot.right.parent = node;
+
+		pivot.parent = node.parent;
+		replaceChild(node.parent, node, pivot);
+
+		pivot.right = node;
+		node.parent = pivot;
+		update(node);
+		update(pivot);
+		return pivot;
+	}
+}
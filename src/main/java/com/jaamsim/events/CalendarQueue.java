@@ -0,0 +1,373 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.events;
+
+/**
+ * CalendarQueue is an EventSet based on R. Brown's calendar queue (CACM, 1988).
+ * The nodes are hashed on schedTick into an array of buckets that each cover
+ * 'width' ticks, with each bucket holding a list of nodes sorted by time and
+ * priority. Provided that the bucket width is comparable to the spacing between
+ * pending events, inserting a node and finding the next node both take
+ * amortised constant time.
+ * <p>
+ * The number of buckets is doubled or halved to follow the number of nodes,
+ * and the bucket width is re-estimated from the spacing of the earliest nodes
+ * each time the buckets are resized.
+ * <p>
+ * The 'right' reference in each EventNode is used as the link to the next node
+ * in the same bucket.
+ */
+class CalendarQueue implements EventSet {
+	private static final int MIN_BUCKETS = 16;
+	private static final int WIDTH_SAMPLES = 25;
+
+	private EventNode[] buckets;
+	private long width;     // number of ticks covered by each bucket
+	private int numNodes;
+
+	private long scanTick;  // lower bound for the schedTick of every node in the set
+	private EventNode lowest;
+
+	CalendarQueue() {
+		reset();
+	}
+
+	@Override
+	public final void reset() {
+		buckets = new EventNode[MIN_BUCKETS];
+		width = 1;
+		numNodes = 0;
+		scanTick = 0;
+		lowest = null;
+		clearFreeList();
+	}
+
+	@Override
+	public EventNode getNextNode() {
+		if (lowest == null && numNodes > 0)
+			updateLowest();
+		return lowest;
+	}
+
+	private void updateLowest() {
+		// Scan a full year of buckets starting from the one holding scanTick. The
+		// first bucket whose head falls inside the bucket's range for this year
+		// holds the next node.
+		long bucketStart = floorDiv(scanTick, width) * width;
+		int idx = bucketIndex(scanTick);
+		for (int i = 0; i < buckets.length; i++) {
+			EventNode head = buckets[idx];
+			boolean lastBucket = bucketStart > Long.MAX_VALUE - width;
+			if (head != null && (lastBucket || head.schedTick < bucketStart + width)) {
+				lowest = head;
+				scanTick = head.schedTick;
+				return;
+			}
+
+			if (lastBucket)
+				break;
+			bucketStart += width;
+			idx = (idx + 1) & (buckets.length - 1);
+		}
+
+		// The next node is more than a year away, search the bucket heads directly
+		EventNode min = null;
+		for (EventNode head : buckets) {
+			if (head != null && (min == null || head.compareToNode(min) < 0))
+				min = head;
+		}
+		lowest = min;
+		scanTick = min.schedTick;
+	}
+
+	@Override
+	public final EventNode createOrFindNode(long schedTick, int priority) {
+		int idx = bucketIndex(schedTick);
+		EventNode prev = null;
+		EventNode curr = buckets[idx];
+		while (curr != null) {
+			int comp = curr.compare(schedTick, priority);
+			if (comp == 0)
+				return curr; // Found existing node
+			if (comp > 0)
+				break;
+			prev = curr;
+			curr = curr.right;
+		}
+
+		// There is no current node for this time/priority
+		EventNode newNode = getNewNode(schedTick, priority);
+		newNode.right = curr;
+		if (prev == null)
+			buckets[idx] = newNode;
+		else
+			prev.right = newNode;
+		numNodes++;
+
+		if (numNodes == 1) {
+			scanTick = schedTick;
+			lowest = newNode;
+		}
+		else {
+			if (schedTick < scanTick)
+				scanTick = schedTick;
+			if (lowest != null && newNode.compareToNode(lowest) < 0)
+				lowest = newNode;
+		}
+
+		if (numNodes > 2 * buckets.length)
+			resize(2 * buckets.length);
+
+		return newNode;
+	}
+
+	@Override
+	public final boolean removeNode(long schedTick, int priority) {
+		int idx = bucketIndex(schedTick);
+		EventNode prev = null;
+		EventNode curr = buckets[idx];
+		while (true) {
+			if (curr == null)
+				return false; // Node not found
+
+			int comp = curr.compare(schedTick, priority);
+			if (comp == 0)
+				break;
+			if (comp > 0)
+				return false; // Node not found
+			prev = curr;
+			curr = curr.right;
+		}
+
+		// Debugging
+		if (curr.head != null || curr.tail != null)
+			throw new RuntimeException("Removing non-empy node");
+
+		if (prev == null)
+			buckets[idx] = curr.right;
+		else
+			prev.right = curr.right;
+		numNodes--;
+
+		// scanTick is still a lower bound for the remaining nodes
+		if (curr == lowest)
+			lowest = null;
+
+		reuseNode(curr);
+
+		if (buckets.length > MIN_BUCKETS && numNodes < buckets.length / 2)
+			resize(buckets.length / 2);
+
+		return true;
+	}
+
+	@Override
+	public final EventNode find(long schedTick, int priority) {
+		EventNode curr = buckets[bucketIndex(schedTick)];
+		while (curr != null) {
+			int comp = curr.compare(schedTick, priority);
+			if (comp == 0)
+				return curr;
+			if (comp > 0)
+				return null;
+			curr = curr.right;
+		}
+		return null;
+	}
+
+	@Override
+	public final void runOnAllNodes(EventNode.Runner runner) {
+		for (EventNode head : buckets) {
+			EventNode curr = head;
+			while (curr != null) {
+				// Read the link first in case the runner modifies the node
+				EventNode next = curr.right;
+				runner.runOnNode(curr);
+				curr = next;
+			}
+		}
+	}
+
+	/**
+	 * Rebuilds the buckets with the given number of buckets and a new estimate
+	 * for the bucket width.
+	 */
+	private void resize(int newSize) {
+		EventNode[] oldBuckets = buckets;
+		width = estimateWidth(oldBuckets);
+		buckets = new EventNode[newSize];
+
+		for (EventNode head : oldBuckets) {
+			EventNode curr = head;
+			while (curr != null) {
+				EventNode next = curr.right;
+				insertNode(curr);
+				curr = next;
+			}
+		}
+	}
+
+	private void insertNode(EventNode n) {
+		int idx = bucketIndex(n.schedTick);
+		EventNode prev = null;
+		EventNode curr = buckets[idx];
+		while (curr != null && curr.compareToNode(n) < 0) {
+			prev = curr;
+			curr = curr.right;
+		}
+
+		n.right = curr;
+		if (prev == null)
+			buckets[idx] = n;
+		else
+			prev.right = n;
+	}
+
+	/**
+	 * Returns a bucket width of about three times the average separation between
+	 * the earliest distinct event times, ignoring separations more than twice the
+	 * average so that a few distant events do not dilute the estimate.
+	 */
+	private long estimateWidth(EventNode[] bkts) {
+		// Collect the earliest distinct times in ascending order
+		long[] samples = new long[WIDTH_SAMPLES];
+		int count = 0;
+		for (EventNode head : bkts) {
+			for (EventNode curr = head; curr != null; curr = curr.right) {
+				long tick = curr.schedTick;
+				if (count == WIDTH_SAMPLES && tick >= samples[count - 1])
+					continue;
+
+				int pos = count;
+				while (pos > 0 && samples[pos - 1] > tick)
+					pos--;
+				if (pos > 0 && samples[pos - 1] == tick)
+					continue;
+
+				int last = Math.min(count, WIDTH_SAMPLES - 1);
+				System.arraycopy(samples, pos, samples, pos + 1, last - pos);
+				samples[pos] = tick;
+				if (count < WIDTH_SAMPLES)
+					count++;
+			}
+		}
+
+		if (count < 2)
+			return width;
+
+		double avg = ((double)samples[count - 1] - samples[0]) / (count - 1);
+		double sum = 0.0d;
+		int num = 0;
+		for (int i = 1; i < count; i++) {
+			double sep = (double)samples[i] - samples[i - 1];
+			if (sep <= 2.0d * avg) {
+				sum += sep;
+				num++;
+			}
+		}
+
+		double ret = 3.0d * sum / num;
+		if (ret < 1.0d)
+			return 1;
+		if (ret > Long.MAX_VALUE / 4)
+			return Long.MAX_VALUE / 4;
+		return (long)ret;
+	}
+
+	private int bucketIndex(long tick) {
+		return (int)(floorDiv(tick, width) & (buckets.length - 1));
+	}
+
+	private static long floorDiv(long x, long y) {
+		long q = x / y;
+		if (x % y != 0 && x < 0)
+			q--;
+		return q;
+	}
+
+	// Verify the sorting structure and return the number of nodes
+	@Override
+	public final int verify() {
+		int count = 0;
+		EventNode min = null;
+		for (int i = 0; i < buckets.length; i++) {
+			EventNode prev = null;
+			for (EventNode curr = buckets[i]; curr != null; curr = curr.right) {
+				if (bucketIndex(curr.schedTick) != i)
+					throw new RuntimeException("Calendar queue bucket verify failed");
+				if (prev != null && prev.compareToNode(curr) != -1)
+					throw new RuntimeException("Calendar queue order verify failed");
+				if (curr.schedTick < scanTick)
+					throw new RuntimeException("Calendar queue scan time verify failed");
+				if (min == null || curr.compareToNode(min) < 0)
+					min = curr;
+				prev = curr;
+				count++;
+			}
+		}
+
+		if (count != numNodes)
+			throw new RuntimeException("Calendar queue node count verify failed");
+		if (lowest != null && lowest != min)
+			throw new RuntimeException("Calendar queue lowest node verify failed");
+		return count;
+	}
+
+	@Override
+	public final int verifyNodeCount() {
+		int count = 0;
+		for (EventNode head : buckets) {
+			for (EventNode curr = head; curr != null; curr = curr.right)
+				count++;
+		}
+		return count;
+	}
+
+	private EventNode freeList = null;
+
+	private EventNode getNewNode(long schedTick, int priority) {
+		if (freeList == null) {
+			EventNode ret = new EventNode(schedTick, priority);
+			ret.right = null;
+			return ret;
+		}
+
+		EventNode ret = freeList;
+		freeList = freeList.right;
+
+		ret.schedTick = schedTick;
+		ret.priority = priority;
+		ret.head = null;
+		ret.tail = null;
+		ret.right = null;
+
+		return ret;
+	}
+
+	private void reuseNode(EventNode node) {
+		// Clear the node
+		node.head = null;
+		node.tail = null;
+
+		node.right = freeList;
+		freeList = node;
+	}
+
+	private void clearFreeList() {
+		freeList = null;
+	}
+}
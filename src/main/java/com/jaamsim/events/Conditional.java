@@ -16,6 +16,97 @@
  */
 package com.jaamsim.events;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Conditional is tested by the EventManager before each advance of the
+ * simulation clock while it is the subject of a waitUntil or scheduleUntil.
+ * <p>
+ * By default, evaluate() is called on every test. A Conditional whose value
+ * depends only on state that posts a notice through a ConditionalSource can
+ * declare those sources with setSources(), in which case evaluate() is only
+ * called again once one of the sources has changed.
+ */
 public abstract class Conditional {
+	private ArrayList<ConditionalSource> sources = null; // null if the conditional is polled
+	private boolean dirty = true;
+
+	// Result of the last evaluation, re-used if the conditional is tested more than once in a pass
+	private long lastPass = -1;
+	private boolean lastResult = false;
+
 	public abstract boolean evaluate();
+
+	/**
+	 * Declares the complete list of sources for the state read by evaluate().
+	 * An empty list indicates that the value never changes, a null list
+	 * reverts to evaluating the conditional on every test.
+	 * @param list - sources that notify a change in the conditional's value
+	 */
+	public final void setSources(List<ConditionalSource> list) {
+		if (list == null) {
+			clearSources();
+			return;
+		}
+
+		if (sources != null && sources.equals(list))
+			return;
+
+		clearSources();
+		sources = new ArrayList<>(list);
+		for (ConditionalSource src : sources) {
+			src.addDependent(this);
+		}
+		dirty = true;
+	}
+
+	/**
+	 * Removes any declared sources so that the conditional is evaluated on
+	 * every test.
+	 */
+	public final void clearSources() {
+		if (sources == null)
+			return;
+
+		for (ConditionalSource src : sources) {
+			src.removeDependent(this);
+		}
+		sources = null;
+		dirty = true;
+	}
+
+	/**
+	 * Returns true if the conditional is only evaluated after one of its
+	 * sources has changed.
+	 */
+	public final boolean isTracked() {
+		return sources != null;
+	}
+
+	final void setDirty() {
+		dirty = true;
+	}
+
+	/**
+	 * Returns the value of the conditional for the given pass through the
+	 * list of conditional events, calling evaluate() only if the value could
+	 * have changed since it was last evaluated.
+	 */
+	final boolean evaluateForPass(long pass) {
+		if (sources == null)
+			return evaluate();
+
+		if (pass == lastPass)
+			return lastResult;
+
+		// A clean conditional returned false when it was last evaluated
+		if (!dirty)
+			return false;
+
+		dirty = false;
+		lastPass = pass;
+		lastResult = evaluate();
+		return lastResult;
+	}
 }
@@ -0,0 +1,49 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.events;
+
+import java.util.ArrayList;
+
+/**
+ * A ConditionalSource represents a piece of model state that is read by one or
+ * more Conditionals. The owner of the state calls changed() whenever its value
+ * changes so that the dependent Conditionals are evaluated again before the
+ * next advance of the simulation clock.
+ */
+public final class ConditionalSource {
+	private final ArrayList<Conditional> dependents = new ArrayList<>();
+
+	public ConditionalSource() {}
+
+	/**
+	 * Marks every Conditional that reads this source as requiring evaluation.
+	 */
+	public final void changed() {
+		for (int i = 0; i < dependents.size(); i++) {
+			dependents.get(i).setDirty();
+		}
+	}
+
+	void addDependent(Conditional c) {
+		if (!dependents.contains(c))
+			dependents.add(c);
+	}
+
+	void removeDependent(Conditional c) {
+		dependents.remove(c);
+	}
+}
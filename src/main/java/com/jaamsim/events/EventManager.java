@@ -41,12 +41,22 @@ public final class EventManager {
 
 	private final Object lockObject; // Object used as global lock for synchronization
 
-	private final EventTree eventTree;
+	/**
+	 * The data structures that can be used to hold the future events.
+	 */
+	public static enum EventSetType {
+		RED_BLACK_TREE,
+		CALENDAR_QUEUE,
+	}
+
+	private EventSet eventTree;
+	private EventSetType eventSetType;
 
 	private volatile boolean executeEvents;
 	private boolean processRunning;
 
 	private final ArrayList<ConditionalEvent> condEvents;
+	private long condPass;  // number of passes made through the conditional events
 
 	private long currentTick; // Master simulation time (long)
 	private long nextTick; // The next tick to execute events at
@@ -67,6 +77,8 @@ public final class EventManager {
 	private EventErrorListener errListener;
 	private EventTraceListener trcListener;
 
+	private volatile Object context; // model executed by this EventManager
+
 	/**
 	 * Allocates a new EventManager with the given parent and name
 	 *
@@ -82,9 +94,12 @@ public final class EventManager {
 		currentTick = 0;
 		nextTick = 0;
 
-		setTickLength(1e-6d);
+		// The default tick length does not change the one used outside of a Process context
+		secsPerTick = 1e-6d;
+		ticksPerSecond = Math.round(1e9d / secsPerTick) / 1e9d;
 
 		eventTree = new EventTree();
+		eventSetType = EventSetType.RED_BLACK_TREE;
 		condEvents = new ArrayList<>();
 
 		executeEvents = false;
@@ -96,6 +111,19 @@ public final class EventManager {
 		setErrorListener(null);
 	}
 
+	/**
+	 * Sets the model state that is executed by this EventManager. The context can
+	 * be recovered by any Process it executes using EventManager.current().
+	 * @param ctx - the model state, or null if there is none
+	 */
+	public final void setContext(Object ctx) {
+		context = ctx;
+	}
+
+	public final Object getContext() {
+		return context;
+	}
+
 	public final void setTimeListener(EventTimeListener l) {
 		synchronized (lockObject) {
 			if (l != null)
@@ -144,6 +172,31 @@ public final class EventManager {
 		}
 	}
 
+	/**
+	 * Selects the data structure used to hold the future events. The choice only
+	 * affects performance, events are executed in the same order by every type.
+	 * @throws ProcessError if there are events scheduled in this EventManager
+	 */
+	public final void setEventSetType(EventSetType type) {
+		synchronized (lockObject) {
+			if (type == eventSetType)
+				return;
+
+			if (eventTree.getNextNode() != null)
+				throw new ProcessError("Cannot change the event set while events are scheduled");
+
+			switch (type) {
+			case CALENDAR_QUEUE:
+				eventTree = new CalendarQueue();
+				break;
+			default:
+				eventTree = new EventTree();
+				break;
+			}
+			eventSetType = type;
+		}
+	}
+
 	private static class KillAllEvents implements EventNode.Runner {
 		@Override
 		public void runOnNode(EventNode node) {
@@ -304,9 +357,10 @@ public final class EventManager {
 		// Protecting the conditional evaluate() callbacks and the traceWaitUntilEnded callback
 		cur.beginCallbacks();
 		try {
+			condPass++;
 			for (int i = 0; i < condEvents.size();) {
 				ConditionalEvent c = condEvents.get(i);
-				if (c.c.evaluate()) {
+				if (c.c.evaluateForPass(condPass)) {
 					condEvents.remove(i);
 					EventNode node = getEventNode(currentTick, 0);
 					Event evt = getEvent();
@@ -497,6 +551,7 @@ public final class EventManager {
 			cur.checkCallback();
 			WaitTarget t = new WaitTarget(cur);
 			ConditionalEvent evt = new ConditionalEvent(cond, t, handle);
+			cond.setDirty();
 			if (handle != null) {
 				if (handle.isScheduled())
 					throw new ProcessError("Tried to waitUntil using a handle already in use");
@@ -521,6 +576,7 @@ public final class EventManager {
 		synchronized (lockObject) {
 			cur.checkCallback();
 			ConditionalEvent evt = new ConditionalEvent(cond, t, handle);
+			cond.setDirty();
 			if (handle != null) {
 				if (handle.isScheduled())
 					throw new ProcessError("Tried to scheduleUntil using a handle already in use");
@@ -861,6 +917,16 @@ public final class EventManager {
 		return (Thread.currentThread() instanceof Process);
 	}
 
+	/**
+	 * Sets the stack size requested for the threads backing new Processes. Models
+	 * that hold a large number of processes suspended at once can reduce the
+	 * per-process memory cost by requesting a smaller stack.
+	 * @param bytes the requested stack size in bytes, zero selects the JVM default
+	 */
+	public static final void setProcessStackSize(long bytes) {
+		Process.setStackSize(bytes);
+	}
+
 	/**
 	 * Returns the controlling EventManager for the current Process.
 	 * @throws ProcessError if called outside of a Process context
@@ -913,22 +979,29 @@ public final class EventManager {
 
 	/**
 	 * This whole block is a temporary crutch until we decide how access to time conversion
-	 * should be exposed.
+	 * should be exposed. The tick length last set for any EventManager is used outside of
+	 * a Process context.
 	 */
-	private static double globalsecsPerTick = 1e-6d;
-	private static double globalticksPerSecond = Math.round(globalsecsPerTick) / 1e9d;
+	private static volatile double globalsecsPerTick = 1e-6d;
+	private static volatile double globalticksPerSecond = Math.round(1e9d / globalsecsPerTick) / 1e9d;
 
 	/**
 	 * Convert the number of seconds rounded to the nearest tick. The same as EventManager.secondsToNearestTick()
+	 * for the EventManager of the current Process.
 	 */
 	public static final long secsToNearestTick(double seconds) {
+		if (hasCurrent())
+			return Math.round(seconds * current().ticksPerSecond);
 		return Math.round(seconds * globalticksPerSecond);
 	}
 
 	/**
 	 * Convert the number of ticks into a value in seconds. The same as EventManager.ticksToSeconds()
+	 * for the EventManager of the current Process.
 	 */
 	public static final double ticksToSecs(long ticks) {
+		if (hasCurrent())
+			return ticks * current().secsPerTick;
 		return ticks * globalsecsPerTick;
 	}
 }
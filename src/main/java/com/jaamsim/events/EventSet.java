@@ -0,0 +1,69 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.events;
+
+/**
+ * EventSet is the priority queue of EventNodes used by the EventManager to hold
+ * the future events. Each EventNode is unique for a given (schedTick, priority)
+ * pair and the events within a node are ordered by the node itself, so every
+ * implementation gives the same FIFO/LIFO tie-breaking.
+ */
+interface EventSet {
+
+	/**
+	 * Returns the node with the lowest (schedTick, priority), or null if the set is empty.
+	 */
+	public EventNode getNextNode();
+
+	/**
+	 * Removes all nodes from the set.
+	 */
+	public void reset();
+
+	/**
+	 * Returns the node for the given time and priority, inserting a new empty node
+	 * if one does not already exist.
+	 */
+	public EventNode createOrFindNode(long schedTick, int priority);
+
+	/**
+	 * Removes the empty node for the given time and priority.
+	 * @return false if the node could not be found
+	 */
+	public boolean removeNode(long schedTick, int priority);
+
+	/**
+	 * Returns the node for the given time and priority, or null if it does not exist.
+	 */
+	public EventNode find(long schedTick, int priority);
+
+	/**
+	 * Runs the given Runner on every node in the set.
+	 */
+	public void runOnAllNodes(EventNode.Runner runner);
+
+	/**
+	 * Verifies the internal structure of the set and throws a RuntimeException if it is
+	 * inconsistent.
+	 */
+	public int verify();
+
+	/**
+	 * Returns the number of nodes in the set by counting them.
+	 */
+	public int verifyNodeCount();
+}
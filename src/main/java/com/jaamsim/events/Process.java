@@ -25,7 +25,9 @@ import java.util.ArrayList;
  * This is the basis for all functionality required by startProcess and the
  * discrete event model. Each process creates its own thread to run in. These
  * threads are managed by the eventManager and when a Process has completed
- * running is pooled for reuse.
+ * running is pooled for reuse. Processes beyond the pool capacity are allowed
+ * to exit once they complete so that a burst of suspended processes does not
+ * leave a large number of idle threads behind.
  *
  * LOCKING: All state in the Process must be updated from a synchronized block
  * using the Process itself as the lock object. Care must be taken to never take
@@ -37,6 +39,7 @@ final class Process extends Thread {
 	private static final ArrayList<Process> pool; // storage for all available Processes
 	private static final int maxPoolSize = 100; // Maximum number of Processes allowed to be pooled at a given time
 	private static int numProcesses = 0; // Total of all created processes to date (used to name new Processes)
+	private static long stackSize = 0; // Requested stack size in bytes for new Processes (0 = JVM default)
 
 	private EventManager eventManager; // The EventManager that is currently managing this Process
 	private Process nextProcess; // The Process from which the present process was created
@@ -57,9 +60,9 @@ final class Process extends Thread {
 		pool = new ArrayList<>(maxPoolSize);
 	}
 
-	private Process(String name) {
-		// Construct a thread with the given name
-		super(name);
+	private Process(String name, long stack) {
+		// Construct a thread with the given name and requested stack size
+		super(null, null, name, stack);
 	}
 
 	/**
@@ -77,16 +80,21 @@ final class Process extends Thread {
 	/**
 	 * Run method invokes the method on the target with the given arguments.
 	 * A process loops endlessly after it is created executing the method on the
-	 * target set as the entry point.  After completion, it calls endProcess and
-	 * will return it to a process pool if space is available, otherwise the resources
-	 * including the backing thread will be released.
+	 * target set as the entry point.  After completion, it will return to the
+	 * process pool if space is available, otherwise the resources including the
+	 * backing thread will be released.
 	 *
 	 * This method is called by Process.getProcess()
 	 */
 	@Override
 	public void run() {
+		// A new Process is handed its first target directly, not through the pool
+		boolean pooled = false;
 		while (true) {
-			waitInPool();
+			if (!waitInPool(pooled))
+				return;
+
+			pooled = true;
 
 			// Process has been woken up, execute the method we have been assigned
 			ProcessTarget t;
@@ -116,10 +124,16 @@ final class Process extends Thread {
 	}
 
 	// Useful to filter pooled threads when staring at stack traces.
-	private void waitInPool() {
+	// Returns false if the pool is full and the backing thread should be released.
+	private boolean waitInPool(boolean addToPool) {
 		synchronized (pool) {
-			// Add ourselves to the pool and wait to be assigned work
-			pool.add(this);
+			if (addToPool) {
+				if (pool.size() >= maxPoolSize)
+					return false;
+
+				// Add ourselves to the pool and wait to be assigned work
+				pool.add(this);
+			}
 			// Set the present process to sleep, and release its lock
 			// (done by pool.wait();)
 			// Note: the try/while(true)/catch construct is needed to avoid
@@ -129,6 +143,7 @@ final class Process extends Thread {
 				while (true) { pool.wait(); }
 			} catch (InterruptedException e) {}
 		}
+		return true;
 	}
 
 	/*
@@ -161,25 +176,32 @@ final class Process extends Thread {
 
 	// Return a process from the pool or create a new one
 	private static Process getProcess() {
-		while (true) {
-			synchronized (pool) {
-				// If there is an available process in the pool, then use it
-				if (pool.size() > 0) {
-					return pool.remove(pool.size() - 1);
-				}
-				// If there are no process in the pool, then create a new one and add it to the pool
-				else {
-					numProcesses++;
-					Process temp = new Process("processthread-" + numProcesses);
-					temp.start(); // Note: Thread.start() calls Process.run which adds the new process to the pool
-				}
+		synchronized (pool) {
+			// If there is an available process in the pool, then use it
+			if (pool.size() > 0) {
+				return pool.remove(pool.size() - 1);
 			}
 
-			// Allow the Process.run method to execute so that it can add the
-			// new process to the pool
-			// Note: that the lock on the pool has been dropped, so that the
-			// Process.run method can grab it.
-			try { Thread.sleep(10); } catch (InterruptedException e) {}
+			// If there are no process in the pool, then create a new one and hand it out
+			// directly. The new thread is alive once start() returns, so the wake() that
+			// follows will be seen even if the thread has not reached pool.wait() yet.
+			numProcesses++;
+			Process temp = new Process("processthread-" + numProcesses, stackSize);
+			temp.start();
+			return temp;
+		}
+	}
+
+	/**
+	 * Sets the stack size requested for Process threads created from now on.
+	 * Threads that already exist, including pooled threads, are not affected.
+	 */
+	static void setStackSize(long bytes) {
+		if (bytes < 0)
+			throw new ProcessError("Negative process stack size is invalid, bytes = " + bytes);
+
+		synchronized (pool) {
+			stackSize = bytes;
 		}
 	}
 
@@ -0,0 +1,569 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import com.jaamsim.basicsim.Entity;
+import com.jaamsim.input.ExpParser.DirectOutputResolver;
+import com.jaamsim.input.ExpParser.EvalContext;
+import com.jaamsim.input.ExpParser.ExpNode;
+import com.jaamsim.input.ExpParser.OutputResolver;
+import com.jaamsim.units.Unit;
+
+/**
+ * Compiles the numerical parts of a validated expression tree into a tree of nodes that
+ * return unboxed double values.
+ * <p>
+ * The unit type returned by each compiled node is determined when it is compiled, using
+ * the validation methods for the operators and functions, so the compiled nodes do not
+ * perform any type or unit checks. An output whose unit type is only known at runtime is
+ * compiled using the unit type it returned when the expression was last interpreted, and
+ * is checked against that unit type each time it is evaluated.
+ * <p>
+ * Nodes that return lambdas, collections or strings are not compiled. If such a node is
+ * used by a numerical node, it is evaluated by the interpreter instead. Entities are
+ * compiled only where they are used to look up an output.
+ * <p>
+ * A compiled expression throws an ExpError for any error or unexpected value, in which
+ * case it is discarded and the expression is evaluated again by the interpreter.
+ */
+class ExpCompiler {
+
+	private ExpCompiler() {}
+
+	/**
+	 * A compiled expression node that returns a number.
+	 */
+	abstract static class DoubleNode {
+		final Class<? extends Unit> unitType;
+
+		DoubleNode(Class<? extends Unit> ut) {
+			unitType = ut;
+		}
+
+		abstract double evaluate(EvalContext ec) throws ExpError;
+
+		final ExpValResult getValResult() {
+			return ExpValResult.makeValidRes(ExpResType.NUMBER, unitType);
+		}
+	}
+
+	/**
+	 * A compiled expression node that returns an entity.
+	 */
+	abstract static class EntityNode {
+		abstract Entity evaluate(EvalContext ec) throws ExpError;
+	}
+
+	/**
+	 * Returns the compiled version of the expression tree with the given root node, or null
+	 * if the tree cannot be compiled.
+	 */
+	static DoubleNode compileExpression(ExpNode root) {
+		// There is no benefit if the root node can only be interpreted
+		return root.compile();
+	}
+
+	/**
+	 * Returns the compiled version of the given node, or null if it does not return a
+	 * number. A node that returns a number, but cannot be compiled, is evaluated by the
+	 * interpreter.
+	 */
+	static DoubleNode compile(ExpNode node) {
+		DoubleNode ret = node.compile();
+		if (ret != null)
+			return ret;
+
+		ExpValResult res = node.validate();
+		if (!isNumber(res))
+			return null;
+		return new Interpreted(node, res.unitType);
+	}
+
+	/**
+	 * Returns the compiled version of a node that is expected to return an entity. A node
+	 * that cannot be compiled is evaluated by the interpreter.
+	 */
+	static EntityNode compileEntity(ExpNode node) {
+		EntityNode ret = node.compileEntity();
+		if (ret != null)
+			return ret;
+
+		return new InterpretedEntity(node);
+	}
+
+	static boolean isNumber(ExpValResult res) {
+		return res.state == ExpValResult.State.VALID && res.type == ExpResType.NUMBER;
+	}
+
+	static DoubleNode constant(final double val, Class<? extends Unit> ut) {
+		return new DoubleNode(ut) {
+			@Override
+			double evaluate(EvalContext ec) {
+				return val;
+			}
+		};
+	}
+
+	static EntityNode constantEntity(final Entity ent) {
+		return new EntityNode() {
+			@Override
+			Entity evaluate(EvalContext ec) {
+				return ent;
+			}
+		};
+	}
+
+	/**
+	 * Returns the compiled version of a unary operator, or null if the operator is not known.
+	 */
+	static DoubleNode unaryOp(String name, final DoubleNode sub, Class<? extends Unit> ut) {
+		switch (name) {
+		case "-":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return -sub.evaluate(ec);
+				}
+			};
+		case "+":
+			return sub;
+		case "!":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return sub.evaluate(ec) == 0 ? 1 : 0;
+				}
+			};
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the compiled version of a binary operator, or null if the operator is not known.
+	 */
+	static DoubleNode binaryOp(String name, final DoubleNode l, final DoubleNode r, Class<? extends Unit> ut) {
+		switch (name) {
+		case "+":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return l.evaluate(ec) + r.evaluate(ec);
+				}
+			};
+		case "-":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return l.evaluate(ec) - r.evaluate(ec);
+				}
+			};
+		case "*":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return l.evaluate(ec) * r.evaluate(ec);
+				}
+			};
+		case "/":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return l.evaluate(ec) / r.evaluate(ec);
+				}
+			};
+		case "^":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.pow(l.evaluate(ec), r.evaluate(ec));
+				}
+			};
+		case "%":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return l.evaluate(ec) % r.evaluate(ec);
+				}
+			};
+		case "==":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return l.evaluate(ec) == r.evaluate(ec) ? 1 : 0;
+				}
+			};
+		case "!=":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return l.evaluate(ec) != r.evaluate(ec) ? 1 : 0;
+				}
+			};
+		case "<":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return l.evaluate(ec) < r.evaluate(ec) ? 1 : 0;
+				}
+			};
+		case "<=":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return l.evaluate(ec) <= r.evaluate(ec) ? 1 : 0;
+				}
+			};
+		case ">":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return l.evaluate(ec) > r.evaluate(ec) ? 1 : 0;
+				}
+			};
+		case ">=":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return l.evaluate(ec) >= r.evaluate(ec) ? 1 : 0;
+				}
+			};
+		case "&&":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					if (l.evaluate(ec) == 0)
+						return 0;
+					return r.evaluate(ec) != 0 ? 1 : 0;
+				}
+			};
+		case "||":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					if (l.evaluate(ec) != 0)
+						return 1;
+					return r.evaluate(ec) != 0 ? 1 : 0;
+				}
+			};
+		default:
+			return null;
+		}
+	}
+
+	static DoubleNode conditional(final DoubleNode cond, final DoubleNode t, final DoubleNode f) {
+		return new DoubleNode(t.unitType) {
+			@Override
+			double evaluate(EvalContext ec) throws ExpError {
+				if (cond.evaluate(ec) == 0)
+					return f.evaluate(ec);
+				else
+					return t.evaluate(ec);
+			}
+		};
+	}
+
+	/**
+	 * Returns the compiled version of a function call, or null if the function is not known.
+	 */
+	static DoubleNode function(String name, final DoubleNode[] args, Class<? extends Unit> ut) {
+		switch (name) {
+		case "max":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					double res = args[0].evaluate(ec);
+					for (int i = 1; i < args.length; i++) {
+						double val = args[i].evaluate(ec);
+						if (val > res)
+							res = val;
+					}
+					return res;
+				}
+			};
+		case "min":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					double res = args[0].evaluate(ec);
+					for (int i = 1; i < args.length; i++) {
+						double val = args[i].evaluate(ec);
+						if (val < res)
+							res = val;
+					}
+					return res;
+				}
+			};
+		case "indexOfMax":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					double res = args[0].evaluate(ec);
+					int index = 0;
+					for (int i = 1; i < args.length; i++) {
+						double val = args[i].evaluate(ec);
+						if (val > res) {
+							res = val;
+							index = i;
+						}
+					}
+					return index + 1;
+				}
+			};
+		case "indexOfMin":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					double res = args[0].evaluate(ec);
+					int index = 0;
+					for (int i = 1; i < args.length; i++) {
+						double val = args[i].evaluate(ec);
+						if (val < res) {
+							res = val;
+							index = i;
+						}
+					}
+					return index + 1;
+				}
+			};
+		case "choose":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					int k = (int) args[0].evaluate(ec);
+					if (k < 1 || k >= args.length)
+						throw new ExpError(null, 0, "Invalid index: %s", k);
+
+					// Every argument is evaluated, as it is by the interpreter
+					double res = 0;
+					for (int i = 1; i < args.length; i++) {
+						double val = args[i].evaluate(ec);
+						if (i == k)
+							res = val;
+					}
+					return res;
+				}
+			};
+		case "atan2":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.atan2(args[0].evaluate(ec), args[1].evaluate(ec));
+				}
+			};
+		}
+
+		if (args.length != 1)
+			return null;
+
+		final DoubleNode arg = args[0];
+		switch (name) {
+		case "abs":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.abs(arg.evaluate(ec));
+				}
+			};
+		case "ceil":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.ceil(arg.evaluate(ec));
+				}
+			};
+		case "floor":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.floor(arg.evaluate(ec));
+				}
+			};
+		case "signum":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.signum(arg.evaluate(ec));
+				}
+			};
+		case "sqrt":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.sqrt(arg.evaluate(ec));
+				}
+			};
+		case "cbrt":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.cbrt(arg.evaluate(ec));
+				}
+			};
+		case "sin":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.sin(arg.evaluate(ec));
+				}
+			};
+		case "cos":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.cos(arg.evaluate(ec));
+				}
+			};
+		case "tan":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.tan(arg.evaluate(ec));
+				}
+			};
+		case "asin":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.asin(arg.evaluate(ec));
+				}
+			};
+		case "acos":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.acos(arg.evaluate(ec));
+				}
+			};
+		case "atan":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.atan(arg.evaluate(ec));
+				}
+			};
+		case "exp":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.exp(arg.evaluate(ec));
+				}
+			};
+		case "ln":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.log(arg.evaluate(ec));
+				}
+			};
+		case "log":
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return Math.log10(arg.evaluate(ec));
+				}
+			};
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the compiled version of an output that is expected to return a number with
+	 * the given unit type.
+	 */
+	static DoubleNode output(ExpNode entNode, OutputResolver resolver, Class<? extends Unit> ut) {
+		if (resolver instanceof DirectOutputResolver) {
+			final DirectOutputResolver res = (DirectOutputResolver)resolver;
+			final EntityNode ent = compileEntity(entNode);
+			return new DoubleNode(ut) {
+				@Override
+				double evaluate(EvalContext ec) throws ExpError {
+					return res.resolveNumber(ec, ent.evaluate(ec), unitType);
+				}
+			};
+		}
+
+		// Other resolvers may accept values other than entities
+		final OutputResolver res = resolver;
+		final ExpNode ent = entNode;
+		return new DoubleNode(ut) {
+			@Override
+			double evaluate(EvalContext ec) throws ExpError {
+				ExpResult val = res.resolve(ec, ent.evaluate(ec));
+				if (val.type != ExpResType.NUMBER || val.unitType != unitType)
+					throw new ExpError(null, 0, "Output does not return a number with the expected unit type");
+				return val.value;
+			}
+		};
+	}
+
+	/**
+	 * Returns the compiled version of an output that is expected to return an entity, or
+	 * null if the output cannot be compiled.
+	 */
+	static EntityNode entityOutput(ExpNode entNode, OutputResolver resolver) {
+		if (!(resolver instanceof DirectOutputResolver))
+			return null;
+
+		final DirectOutputResolver res = (DirectOutputResolver)resolver;
+		final EntityNode ent = compileEntity(entNode);
+		return new EntityNode() {
+			@Override
+			Entity evaluate(EvalContext ec) throws ExpError {
+				return res.resolveEntity(ec, ent.evaluate(ec));
+			}
+		};
+	}
+
+	/**
+	 * A node that returns a number, but can only be evaluated by the interpreter.
+	 */
+	private static class Interpreted extends DoubleNode {
+		private final ExpNode node;
+
+		Interpreted(ExpNode node, Class<? extends Unit> ut) {
+			super(ut);
+			this.node = node;
+		}
+
+		@Override
+		double evaluate(EvalContext ec) throws ExpError {
+			return node.evaluate(ec).value;
+		}
+	}
+
+	/**
+	 * A node that is expected to return an entity, but can only be evaluated by the
+	 * interpreter.
+	 */
+	private static class InterpretedEntity extends EntityNode {
+		private final ExpNode node;
+
+		InterpretedEntity(ExpNode node) {
+			this.node = node;
+		}
+
+		@Override
+		Entity evaluate(EvalContext ec) throws ExpError {
+			ExpResult res = node.evaluate(ec);
+			if (res.type != ExpResType.ENTITY)
+				throw new ExpError(null, 0, "Can not look up output on non-entity type");
+			return res.entVal;
+		}
+	}
+}
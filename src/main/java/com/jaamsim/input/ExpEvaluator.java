@@ -17,10 +17,12 @@
  */
 package com.jaamsim.input;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
 import com.jaamsim.basicsim.Entity;
+import com.jaamsim.events.ConditionalSource;
 import com.jaamsim.input.ExpParser.Assigner;
 import com.jaamsim.input.ExpParser.EvalContext;
 import com.jaamsim.input.ExpParser.OutputResolver;
@@ -76,6 +78,45 @@ public class ExpEvaluator {
 		return null;
 	}
 
+	private static double getNumberFromOutput(OutputHandle oh, double simTime, Class<? extends Unit> unitType) throws ExpError {
+		Class<?> retType = oh.getReturnType();
+		if (retType == ExpResult.class) {
+			ExpResult res = oh.getValue(simTime, ExpResult.class);
+			if (res != null && res.type == ExpResType.NUMBER && res.unitType == unitType)
+				return res.value;
+		}
+		else if ((OutputHandle.isNumericType(retType) ||
+		          retType == boolean.class ||
+		          retType == Boolean.class) &&
+		         oh.getUnitType() == unitType) {
+			return oh.getValueAsDouble(simTime, 0);
+		}
+
+		throw new ExpError(null, 0, "Output '%s' on entity '%s' does not return a number with unit type %s",
+		                   oh.getName(), oh.ent.getName(), unitType.getSimpleName());
+	}
+
+	private static Entity getEntityFromOutput(OutputHandle oh, double simTime) throws ExpError {
+		Class<?> retType = oh.getReturnType();
+		if (retType == ExpResult.class) {
+			ExpResult res = oh.getValue(simTime, ExpResult.class);
+			if (res != null && res.type == ExpResType.ENTITY)
+				return res.entVal;
+		}
+		else if (Entity.class.isAssignableFrom(retType)) {
+			return oh.getValue(simTime, Entity.class);
+		}
+
+		throw new ExpError(null, 0, "Output '%s' on entity '%s' does not return an entity",
+		                   oh.getName(), oh.ent.getName());
+	}
+
+	private static double getSimTime(EvalContext ec) {
+		if (ec == null)
+			return 0;
+		return ((EntityEvalContext)ec).simTime;
+	}
+
 	public static ExpResult getResultFromObject(Object val, Class<? extends Unit> unitType) throws ExpError {
 		if (val == null)
 			return ExpResult.makeEntityResult(null);
@@ -215,7 +256,7 @@ public class ExpEvaluator {
 
 	}
 
-	private static class CachedResolver implements ExpParser.OutputResolver {
+	private static class CachedResolver implements ExpParser.DirectOutputResolver {
 
 		private final OutputHandle handle;
 		private final ExpResType type;
@@ -258,6 +299,17 @@ public class ExpEvaluator {
 			}
 		}
 
+		@Override
+		public double resolveNumber(EvalContext ec, Entity ent, Class<? extends Unit> unitType)
+				throws ExpError {
+			return getNumberFromOutput(handle, getSimTime(ec), unitType);
+		}
+
+		@Override
+		public Entity resolveEntity(EvalContext ec, Entity ent) throws ExpError {
+			return getEntityFromOutput(handle, getSimTime(ec));
+		}
+
 		@Override
 		public ExpValResult validate(ExpValResult entValRes) {
 			if (handle == null) {
@@ -275,7 +327,7 @@ public class ExpEvaluator {
 
 	}
 
-	private static class EntityResolver implements ExpParser.OutputResolver {
+	private static class EntityResolver implements ExpParser.DirectOutputResolver {
 
 		private final String outputName;
 
@@ -316,6 +368,29 @@ public class ExpEvaluator {
 
 		}
 
+		@Override
+		public double resolveNumber(EvalContext ec, Entity ent, Class<? extends Unit> unitType)
+				throws ExpError {
+			return getNumberFromOutput(getHandle(ent), getSimTime(ec), unitType);
+		}
+
+		@Override
+		public Entity resolveEntity(EvalContext ec, Entity ent) throws ExpError {
+			return getEntityFromOutput(getHandle(ent), getSimTime(ec));
+		}
+
+		private OutputHandle getHandle(Entity ent) throws ExpError {
+			if (ent == null) {
+				throw new ExpError(null, 0, "Trying to resolve output on null entity");
+			}
+
+			OutputHandle oh = ent.getOutputHandleInterned(outputName);
+			if (oh == null) {
+				throw new ExpError(null, 0, "Could not find output '%s' on entity '%s'", outputName, ent.getName());
+			}
+			return oh;
+		}
+
 		@Override
 		public ExpValResult validate(ExpValResult entValRes) {
 
@@ -352,7 +427,8 @@ public class ExpEvaluator {
 
 	private static class EntityEvalContext extends ExpParser.EvalContext {
 
-		private final double simTime;
+		private double simTime;
+		private boolean inUse;
 
 		public EntityEvalContext(double simTime) {
 			this.simTime = simTime;
@@ -360,6 +436,14 @@ public class ExpEvaluator {
 
 	}
 
+	// Context that is reused by each thread to evaluate numerical expressions
+	private static final ThreadLocal<EntityEvalContext> doubleContext = new ThreadLocal<EntityEvalContext>() {
+		@Override
+		protected EntityEvalContext initialValue() {
+			return new EntityEvalContext(0.0d);
+		}
+	};
+
 	public static EntityParseContext getParseContext(Entity thisEnt, String source) {
 		HashMap<String, ExpResult> constants = new HashMap<>();
 		constants.put("this", ExpResult.makeEntityResult(thisEnt));
@@ -372,4 +456,62 @@ public class ExpEvaluator {
 		EntityEvalContext evalContext = new EntityEvalContext(simTime);
 		return exp.evaluate(evalContext);
 	}
+
+	/**
+	 * Returns the value of an expression that returns a number, without creating an
+	 * ExpResult if the expression has been compiled.
+	 * @param exp - expression to evaluate.
+	 * @param simTime - present simulation time.
+	 * @param unitType - unit type expected for the result, or null if any result is acceptable.
+	 * @return value of the expression.
+	 * @throws ExpError if the expression does not return a number with the expected unit type.
+	 * @see ExpParser.Expression#evaluateDouble
+	 */
+	public static double evaluateDouble(ExpParser.Expression exp, double simTime, Class<? extends Unit> unitType) throws ExpError
+	{
+		// An expression can evaluate another expression from within one of its outputs
+		EntityEvalContext evalContext = doubleContext.get();
+		if (evalContext.inUse)
+			return exp.evaluateDouble(new EntityEvalContext(simTime), unitType);
+
+		evalContext.simTime = simTime;
+		evalContext.inUse = true;
+		boolean complete = false;
+		try {
+			double ret = exp.evaluateDouble(evalContext, unitType);
+			complete = true;
+			return ret;
+		}
+		finally {
+			// Discard the context after an error in case lambda closures were left on its stack
+			if (complete)
+				evalContext.inUse = false;
+			else
+				doubleContext.remove();
+		}
+	}
+
+	/**
+	 * Returns the ConditionalSources that notify a change in the value of the given
+	 * expression, or null if any of the outputs it reads can change without notice.
+	 */
+	public static ArrayList<ConditionalSource> getConditionalSources(ExpParser.Expression exp) {
+		ArrayList<ExpParser.OutputReference> refs = exp.getOutputReferences();
+		if (refs == null)
+			return null;
+
+		ArrayList<ConditionalSource> ret = new ArrayList<>(refs.size());
+		for (ExpParser.OutputReference ref : refs) {
+			if (ref.ent.type != ExpResType.ENTITY || ref.ent.entVal == null)
+				return null;
+
+			ConditionalSource src = ref.ent.entVal.getConditionalSource(ref.outputName);
+			if (src == null)
+				return null;
+
+			if (!ret.contains(src))
+				ret.add(src);
+		}
+		return ret;
+	}
 }
@@ -20,11 +20,23 @@ package com.jaamsim.input;
 import java.util.ArrayList;
 import java.util.HashMap;
 
+import com.jaamsim.basicsim.Entity;
 import com.jaamsim.units.DimensionlessUnit;
 import com.jaamsim.units.Unit;
 
 public class ExpParser {
 
+	private static final int MAX_COMPILE_ATTEMPTS = 5;
+	private static volatile boolean compileExpressions = true;
+
+	/**
+	 * Sets whether numerical expressions are to be compiled, or always evaluated by the
+	 * interpreter. Applies to expressions parsed after the call.
+	 */
+	public static void setCompileExpressions(boolean bool) {
+		compileExpressions = bool;
+	}
+
 	public interface UnOpFunc {
 		public void checkTypeAndUnits(ParseContext context, ExpResult val, String source, int pos) throws ExpError;
 		public ExpResult apply(ParseContext context, ExpResult val) throws ExpError;
@@ -57,6 +69,12 @@ public class ExpParser {
 		public ExpResult resolve(EvalContext ec, ExpResult ent) throws ExpError;
 		public ExpValResult validate(ExpValResult entValRes);
 	}
+	// An OutputResolver that can return numbers and entities without creating an ExpResult.
+	// An error is thrown if the output does not return the expected type and unit type.
+	public interface DirectOutputResolver extends OutputResolver {
+		public double resolveNumber(EvalContext ec, Entity ent, Class<? extends Unit> unitType) throws ExpError;
+		public Entity resolveEntity(EvalContext ec, Entity ent) throws ExpError;
+	}
 	public interface Assigner {
 		public void assign(ExpResult ent, ExpResult index, ExpResult val) throws ExpError;
 	}
@@ -159,20 +177,28 @@ public class ExpParser {
 	}
 
 	public static class EvalContext {
-		private final ArrayList<ArrayList<ExpResult> > closureStack = new ArrayList<>();
+		// Created when first required, since most expressions do not use lambdas
+		private ArrayList<ArrayList<ExpResult> > closureStack;
+
+		public EvalContext() {}
 
-		public EvalContext() {
-			closureStack.add(new ArrayList<ExpResult>());
+		private ArrayList<ArrayList<ExpResult> > getClosureStack() {
+			if (closureStack == null) {
+				closureStack = new ArrayList<>();
+				closureStack.add(new ArrayList<ExpResult>());
+			}
+			return closureStack;
 		}
 
 		public void pushClosure(ArrayList<ExpResult> closure) {
-			closureStack.add(closure);
+			getClosureStack().add(closure);
 		}
 		public void popClosure() {
 			closureStack.remove(closureStack.size()-1);
 		}
 		public ArrayList<ExpResult> getCurrentClosure() {
-			return closureStack.get(closureStack.size()-1);
+			ArrayList<ArrayList<ExpResult> > stack = getClosureStack();
+			return stack.get(stack.size()-1);
 		}
 	}
 
@@ -184,43 +210,170 @@ public class ExpParser {
 	////////////////////////////////////////////////////////////////////
 	// Expression types
 
+	// Expressions that are being evaluated by each thread, used to detect recursion
+	private static final ThreadLocal<ArrayList<Expression>> executingExpressions = new ThreadLocal<ArrayList<Expression>>() {
+		@Override
+		protected ArrayList<Expression> initialValue() {
+			return new ArrayList<>();
+		}
+	};
+
 	public static class Expression {
 		public final String source;
 
 		public ExpValResult validationResult;
 
-		protected final ArrayList<Thread> executingThreads = new ArrayList<>();
-
 		private ExpNode rootNode;
+
+		// Compiled version of the expression, or null if it is to be interpreted
+		private volatile ExpCompiler.DoubleNode compiledNode;
+		private int compileAttempts = compileExpressions ? 0 : MAX_COMPILE_ATTEMPTS;
+
 		public Expression(String source) {
 			this.source = source;
 		}
 		public ExpResult evaluate(EvalContext ec) throws ExpError {
-			synchronized(executingThreads) {
-				if (executingThreads.contains(Thread.currentThread())) {
-					throw new ExpError(null, 0, "Expression recursion detected for expression: %s", source);
-				}
-
-				executingThreads.add(Thread.currentThread());
-			}
+			enter();
 			ExpResult res = null;
 			try {
-				res = rootNode.evaluate(ec);
+				ExpCompiler.DoubleNode node = compiledNode;
+				if (node != null) {
+					try {
+						res = ExpResult.makeNumResult(node.evaluate(ec), node.unitType);
+					}
+					catch (ExpError e) {
+						// Discard the compiled version and let the interpreter report the error
+						compiledNode = null;
+					}
+				}
+				if (res == null) {
+					res = rootNode.evaluate(ec);
+					if (compiledNode == null)
+						compile();
+				}
 			}
 			catch (StackOverflowError e) {
 				throw new ExpError(null, 0, "Excessive recursion detected in expression: %s, source");
 			}
 			finally {
-				synchronized(executingThreads) {
-					executingThreads.remove(Thread.currentThread());
-				}
+				exit();
 			}
 			return res;
 		}
+
+		/**
+		 * Returns the value of an expression that returns a number. Unlike evaluate(), no
+		 * objects are created when the expression has been compiled.
+		 * <p>
+		 * If no unit type is given, the value of the result is returned whatever its type, as
+		 * for evaluate().value.
+		 * @param ec - context for the evaluation.
+		 * @param unitType - unit type expected for the result, or null if any result is acceptable.
+		 * @return value of the expression.
+		 * @throws ExpError if the expression does not return a number with the expected unit type.
+		 */
+		public double evaluateDouble(EvalContext ec, Class<? extends Unit> unitType) throws ExpError {
+			ExpCompiler.DoubleNode node = compiledNode;
+			if (node != null && (unitType == null || node.unitType == unitType)) {
+				enter();
+				try {
+					return node.evaluate(ec);
+				}
+				catch (ExpError e) {
+					// Discard the compiled version and let the interpreter report the error
+					compiledNode = null;
+				}
+				catch (StackOverflowError e) {
+					throw new ExpError(null, 0, "Excessive recursion detected in expression: %s", source);
+				}
+				finally {
+					exit();
+				}
+			}
+
+			ExpResult res = evaluate(ec);
+			if (unitType == null)
+				return res.value;
+
+			if (res.type != ExpResType.NUMBER) {
+				throw new ExpError(null, 0, "Expression does not return a number: %s", source);
+			}
+			if (res.unitType != unitType) {
+				throw new ExpError(null, 0, "Invalid unit returned by an expression: '%s'%nReceived: %s, expected: %s",
+						source, res.unitType.getSimpleName(), unitType.getSimpleName());
+			}
+			return res.value;
+		}
+
+		// Marks the start of an evaluation by the present thread
+		protected final void enter() throws ExpError {
+			ArrayList<Expression> executing = executingExpressions.get();
+			if (executing.contains(this)) {
+				throw new ExpError(null, 0, "Expression recursion detected for expression: %s", source);
+			}
+
+			executing.add(this);
+		}
+
+		// Marks the end of the evaluation started by the last call to enter()
+		protected final void exit() {
+			ArrayList<Expression> executing = executingExpressions.get();
+			executing.remove(executing.size() - 1);
+		}
 		void setRootNode(ExpNode node) {
 			rootNode = node;
 		}
 
+		/**
+		 * Replaces the interpreted version of a numerical expression with a compiled
+		 * version if possible. Compilation is attempted a limited number of times, since
+		 * outputs whose unit types are unknown must have been evaluated at least once.
+		 */
+		void compile() {
+			if (compileAttempts >= MAX_COMPILE_ATTEMPTS)
+				return;
+
+			compileAttempts++;
+			if (validationResult.state == ExpValResult.State.VALID && validationResult.type != ExpResType.NUMBER) {
+				compileAttempts = MAX_COMPILE_ATTEMPTS;
+				return;
+			}
+			compiledNode = ExpCompiler.compileExpression(rootNode);
+		}
+
+		boolean isCompiled() {
+			return compiledNode != null;
+		}
+
+		/**
+		 * Returns true if the expression has been compiled to return a number with the given
+		 * unit type.
+		 */
+		public boolean isCompiledFor(Class<? extends Unit> unitType) {
+			ExpCompiler.DoubleNode node = compiledNode;
+			return node != null && node.unitType == unitType;
+		}
+
+		/**
+		 * Returns the outputs that are read by this expression, or null if the expression
+		 * reads an output from an entity that is only known when it is evaluated.
+		 */
+		public ArrayList<OutputReference> getOutputReferences() {
+			if (rootNode == null)
+				return null;
+
+			OutputRefCollector collector = new OutputRefCollector();
+			try {
+				rootNode.walk(collector);
+			}
+			catch (ExpError e) {
+				return null;
+			}
+			if (collector.unknownEntity)
+				return null;
+			return collector.refs;
+		}
+
 		@Override
 		public String toString() {
 			return source;
@@ -237,13 +390,7 @@ public class ExpParser {
 		}
 		@Override
 		public ExpResult evaluate(EvalContext ec) throws ExpError {
-			synchronized(executingThreads) {
-				if (executingThreads.contains(Thread.currentThread())) {
-					throw new ExpError(null, 0, "Expression recursion detected for expression: %s", source);
-				}
-
-				executingThreads.add(Thread.currentThread());
-			}
+			enter();
 			try {
 				ExpResult ent = entExp.evaluate(ec);
 				ExpResult value = valueExp.evaluate(ec);
@@ -256,9 +403,7 @@ public class ExpParser {
 				return value;
 
 			} finally {
-				synchronized(executingThreads) {
-					executingThreads.remove(Thread.currentThread());
-				}
+				exit();
 			}
 		}
 	}
@@ -280,6 +425,16 @@ public class ExpParser {
 		public ExpNode getNoCheckVer() {
 			return null;
 		}
+		// Get a version of this node that returns an unboxed number if it is known to
+		// return a number, otherwise return null
+		ExpCompiler.DoubleNode compile() {
+			return null;
+		}
+		// Get a version of this node that returns an entity without creating an ExpResult,
+		// or null if this is not possible
+		ExpCompiler.EntityNode compileEntity() {
+			return null;
+		}
 	}
 
 	private static class Constant extends ExpNode {
@@ -298,6 +453,20 @@ public class ExpParser {
 			return ExpValResult.makeValidRes(val.type, val.unitType);
 		}
 
+		@Override
+		ExpCompiler.DoubleNode compile() {
+			if (val.type != ExpResType.NUMBER)
+				return null;
+			return ExpCompiler.constant(val.value, val.unitType);
+		}
+
+		@Override
+		ExpCompiler.EntityNode compileEntity() {
+			if (val.type != ExpResType.ENTITY)
+				return null;
+			return ExpCompiler.constantEntity(val.entVal);
+		}
+
 		@Override
 		void walk(ExpressionWalker w) throws ExpError {
 			w.visit(this);
@@ -409,6 +578,9 @@ public class ExpParser {
 
 		private final OutputResolver resolver;
 
+		// Unit type of the last numerical value returned by the output
+		private Class<? extends Unit> observedUnit;
+
 		public ResolveOutput(ParseContext context, String outputName, ExpNode entNode, Expression exp, int pos) throws ExpError {
 			super(context, exp, pos);
 
@@ -432,7 +604,10 @@ public class ExpParser {
 			try {
 				ExpResult ent = entNode.evaluate(ec);
 
-				return resolver.resolve(ec, ent);
+				ExpResult res = resolver.resolve(ec, ent);
+				if (res.type == ExpResType.NUMBER)
+					observedUnit = res.unitType;
+				return res;
 			} catch (ExpError ex) {
 				throw fixError(ex, exp.source, tokenPos);
 			}
@@ -452,6 +627,32 @@ public class ExpParser {
 			return res;
 		}
 
+		@Override
+		ExpCompiler.DoubleNode compile() {
+			ExpValResult res = validate();
+			Class<? extends Unit> ut;
+			if (res.state == ExpValResult.State.UNDECIDABLE && observedUnit != null) {
+				// Expect the output to return the same unit type as it did last time
+				ut = observedUnit;
+			}
+			else if (ExpCompiler.isNumber(res)) {
+				ut = res.unitType;
+			}
+			else {
+				return null;
+			}
+			return ExpCompiler.output(entNode, resolver, ut);
+		}
+
+		@Override
+		ExpCompiler.EntityNode compileEntity() {
+			ExpValResult res = validate();
+			if (res.state == ExpValResult.State.ERROR
+					|| res.state == ExpValResult.State.VALID && res.type != ExpResType.ENTITY)
+				return null;
+			return ExpCompiler.entityOutput(entNode, resolver);
+		}
+
 		@Override
 		void walk(ExpressionWalker w) throws ExpError {
 			entNode.walk(w);
@@ -628,6 +829,19 @@ public class ExpParser {
 
 		}
 
+		@Override
+		ExpCompiler.DoubleNode compile() {
+			ExpCompiler.DoubleNode sub = ExpCompiler.compile(subExp);
+			if (sub == null)
+				return null;
+
+			ExpValResult res = func.validate(context, sub.getValResult(), exp.source, tokenPos);
+			if (!ExpCompiler.isNumber(res))
+				return null;
+
+			return ExpCompiler.unaryOp(name, sub, res.unitType);
+		}
+
 		@Override
 		void walk(ExpressionWalker w) throws ExpError {
 			subExp.walk(w);
@@ -698,6 +912,24 @@ public class ExpParser {
 			return res;
 		}
 
+		@Override
+		ExpCompiler.DoubleNode compile() {
+			ExpCompiler.DoubleNode l = ExpCompiler.compile(lSubExp);
+			ExpCompiler.DoubleNode r = ExpCompiler.compile(rSubExp);
+			if (l == null || r == null)
+				return null;
+
+			ExpValResult res = validateCompiled(l.getValResult(), r.getValResult());
+			if (!ExpCompiler.isNumber(res))
+				return null;
+
+			return ExpCompiler.binaryOp(name, l, r, res.unitType);
+		}
+
+		ExpValResult validateCompiled(ExpValResult lRes, ExpValResult rRes) {
+			return func.validate(context, lRes, rRes, exp.source, tokenPos);
+		}
+
 		@Override
 		void walk(ExpressionWalker w) throws ExpError {
 			lSubExp.walk(w);
@@ -761,6 +993,11 @@ public class ExpParser {
 
 			return res;
 		}
+
+		@Override
+		ExpValResult validateCompiled(ExpValResult lRes, ExpValResult rRes) {
+			return lazyFunc.validate(context, lRes, rRes, exp.source, tokenPos);
+		}
 	}
 
 	private static class Conditional extends ExpNode {
@@ -829,6 +1066,17 @@ public class ExpParser {
 			return ExpValResult.makeValidRes(trueRes.type, trueRes.unitType);
 		}
 
+		@Override
+		ExpCompiler.DoubleNode compile() {
+			ExpCompiler.DoubleNode c = ExpCompiler.compile(condExp);
+			ExpCompiler.DoubleNode t = ExpCompiler.compile(trueExp);
+			ExpCompiler.DoubleNode f = ExpCompiler.compile(falseExp);
+			if (c == null || t == null || f == null || t.unitType != f.unitType)
+				return null;
+
+			return ExpCompiler.conditional(c, t, f);
+		}
+
 		@Override
 		void walk(ExpressionWalker w) throws ExpError {
 			condExp.walk(w);
@@ -881,6 +1129,23 @@ public class ExpParser {
 			return res;
 		}
 		@Override
+		ExpCompiler.DoubleNode compile() {
+			ExpCompiler.DoubleNode[] argNodes = new ExpCompiler.DoubleNode[args.size()];
+			ExpValResult[] argVals = new ExpValResult[args.size()];
+			for (int i = 0; i < args.size(); ++i) {
+				argNodes[i] = ExpCompiler.compile(args.get(i));
+				if (argNodes[i] == null)
+					return null;
+				argVals[i] = argNodes[i].getValResult();
+			}
+
+			ExpValResult res = function.validate(context, argVals, exp.source, tokenPos);
+			if (!ExpCompiler.isNumber(res))
+				return null;
+
+			return ExpCompiler.function(name, argNodes, res.unitType);
+		}
+		@Override
 		void walk(ExpressionWalker w) throws ExpError {
 			for (int i = 0; i < args.size(); ++i) {
 				args.get(i).walk(w);
@@ -1139,6 +1404,42 @@ public class ExpParser {
 
 	private static ConstOptimizer CONST_OP = new ConstOptimizer();
 
+	/**
+	 * An output that is read by an expression from an entity known at parse time.
+	 */
+	public static class OutputReference {
+		public final ExpResult ent;
+		public final String outputName;
+
+		OutputReference(ExpResult ent, String outputName) {
+			this.ent = ent;
+			this.outputName = outputName;
+		}
+	}
+
+	private static class OutputRefCollector implements ExpressionWalker {
+		final ArrayList<OutputReference> refs = new ArrayList<>();
+		boolean unknownEntity = false;
+
+		@Override
+		public void visit(ExpNode exp) throws ExpError {
+			if (!(exp instanceof ResolveOutput))
+				return;
+
+			ResolveOutput ro = (ResolveOutput)exp;
+			if (!(ro.entNode instanceof Constant)) {
+				unknownEntity = true;
+				return;
+			}
+			refs.add(new OutputReference(((Constant)ro.entNode).val, ro.outputName));
+		}
+
+		@Override
+		public ExpNode updateRef(ExpNode exp) throws ExpError {
+			return exp;
+		}
+	}
+
 	private static class RuntimeCheckOptimizer implements ExpressionWalker {
 
 		@Override
@@ -1204,6 +1505,7 @@ public class ExpParser {
 		expNode = optimizeAndValidateExpression(input, expNode, ret);
 
 		ret.setRootNode(expNode);
+		ret.compile();
 
 		return ret;
 	}
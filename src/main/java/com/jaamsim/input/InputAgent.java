@@ -41,6 +41,7 @@ import com.jaamsim.basicsim.Entity;
 import com.jaamsim.basicsim.ErrorException;
 import com.jaamsim.basicsim.FileEntity;
 import com.jaamsim.basicsim.Group;
+import com.jaamsim.basicsim.JaamSimModel;
 import com.jaamsim.basicsim.ObjectType;
 import com.jaamsim.basicsim.Simulation;
 import com.jaamsim.datatypes.DoubleVector;
@@ -54,51 +55,70 @@ import com.jaamsim.units.Unit;
 public class InputAgent {
 	private static final String recordEditsMarker = "RecordEdits";
 
-	private static int numErrors = 0;
-	private static int numWarnings = 0;
-	private static FileEntity logFile;
-
-	private static long lastTickForTrace;
-
-	private static File configFile;           // present configuration file
-	private static boolean batchRun;
 	private static boolean scriptMode;        // TRUE if script mode (command line) is specified
-	private static boolean sessionEdited;     // TRUE if any inputs have been changed after loading a configuration file
-	private static boolean recordEditsFound;  // TRUE if the "RecordEdits" marker is found in the configuration file
-	private static boolean recordEdits;       // TRUE if input changes are to be marked as edited.
 
 	private static final String INP_ERR_DEFINEUSED = "The name: %s has already been used and is a %s";
 	private static final String[] EARLY_KEYWORDS = {"UnitType", "UnitTypeList", "AttributeDefinitionList", "CustomOutputList"};
 
-	private static File reportDir;
-	private static FileEntity reportFile;     // file to which the output report will be written
-	private static PrintStream outStream;  // location where the selected outputs will be written
+	/**
+	 * Holds the input state for a single JaamSimModel: the configuration file, the
+	 * files written for the model and the counts of input errors and warnings.
+	 * The InputAgent methods operate on the state for the current model.
+	 */
+	public static final class Session {
+		private boolean batchRun;
 
-	private static long preDefinedEntityCount; // Number of Entities after loading autoload.cfg
+		private int numErrors = 0;
+		private int numWarnings = 0;
+		private FileEntity logFile;
 
-	static {
-		recordEditsFound = false;
-		sessionEdited = false;
-		batchRun = false;
-		configFile = null;
-		reportDir = null;
-		reportFile = null;
-		outStream = null;
-		lastTickForTrace = -1l;
+		private long lastTickForTrace = -1l;
+
+		private File configFile;           // present configuration file
+		private final ArrayList<String> runFileNames = new ArrayList<>(); // files written in parts by a replication worker
+		private boolean sessionEdited;     // TRUE if any inputs have been changed after loading a configuration file
+		private boolean recordEditsFound;  // TRUE if the "RecordEdits" marker is found in the configuration file
+		private boolean recordEdits;       // TRUE if input changes are to be marked as edited.
+
+		private File reportDir;
+		private FileEntity reportFile;     // file to which the output report will be written
+		private PrintStream outStream;     // location where the selected outputs will be written
+
+		private long preDefinedEntityCount; // Number of Entities after loading autoload.cfg
+
+		public Session() {}
+
+		/**
+		 * Copies the configuration file, report directory and run settings from the
+		 * given session.
+		 */
+		public void copyFrom(Session other) {
+			batchRun = other.batchRun;
+			configFile = other.configFile;
+			recordEditsFound = other.recordEditsFound;
+			recordEdits = other.recordEdits;
+			reportDir = other.reportDir;
+			preDefinedEntityCount = other.preDefinedEntityCount;
+		}
+	}
+
+	private static Session session() {
+		return JaamSimModel.getCurrent().getInputSession();
 	}
 
 	/**
 	 * Clears the InputAgent prior to loading a new model.
 	 */
 	public static void clear() {
-		logFile = null;
-		numErrors = 0;
-		numWarnings = 0;
-		recordEditsFound = false;
-		sessionEdited = false;
-		configFile = null;
-		reportDir = null;
-		lastTickForTrace = -1l;
+		Session session = session();
+		session.logFile = null;
+		session.numErrors = 0;
+		session.numWarnings = 0;
+		session.recordEditsFound = false;
+		session.sessionEdited = false;
+		session.configFile = null;
+		session.reportDir = null;
+		session.lastTickForTrace = -1l;
 		setReportDirectory(null);
 		stop();
 	}
@@ -107,27 +127,29 @@ public class InputAgent {
 	 * Resets the InputAgent when a run is stopped and reset to zero simulation time.
 	 */
 	public static void stop() {
+		Session session = session();
 
-		if (reportFile != null) {
-			reportFile.close();
-			reportFile = null;
+		if (session.reportFile != null) {
+			session.reportFile.close();
+			session.reportFile = null;
 		}
-		if (outStream != null) {
-			outStream.close();
-			outStream = null;
+		if (session.outStream != null) {
+			session.outStream.close();
+			session.outStream = null;
 		}
 	}
 
 	public static void setPreDefinedEntityCount(long count) {
-		preDefinedEntityCount = count;
+		session().preDefinedEntityCount = count;
 	}
 
 	private static String getReportDirectory() {
-		if (reportDir != null)
-			return reportDir.getPath() + File.separator;
+		Session session = session();
+		if (session.reportDir != null)
+			return session.reportDir.getPath() + File.separator;
 
-		if (configFile != null)
-			return configFile.getParentFile().getPath() + File.separator;
+		if (session.configFile != null)
+			return session.configFile.getParentFile().getPath() + File.separator;
 
 		return null;
 	}
@@ -137,15 +159,16 @@ public class InputAgent {
 	}
 
 	public static void setReportDirectory(File dir) {
-		reportDir = dir;
-		if (reportDir == null)
+		Session session = session();
+		session.reportDir = dir;
+		if (session.reportDir == null)
 			return;
-		if (!reportDir.exists() && !reportDir.mkdirs())
-			throw new InputErrorException("Was unable to create the Report Directory: %s", reportDir.toString());
+		if (!session.reportDir.exists() && !session.reportDir.mkdirs())
+			throw new InputErrorException("Was unable to create the Report Directory: %s", session.reportDir.toString());
 	}
 
 	public static void prepareReportDirectory() {
-		if (reportDir != null) reportDir.mkdirs();
+		if (session().reportDir != null) session().reportDir.mkdirs();
 	}
 
 	/**
@@ -154,7 +177,7 @@ public class InputAgent {
 	 * @param file - the present configuration file.
 	 */
 	public static void setConfigFile(File file) {
-		configFile = file;
+		session().configFile = file;
 	}
 
 	/**
@@ -165,7 +188,7 @@ public class InputAgent {
 	 * @return the present configuration file.
 	 */
 	public static File getConfigFile() {
-		return configFile;
+		return session().configFile;
 	}
 
 	/**
@@ -195,7 +218,7 @@ public class InputAgent {
 	 * @param bool - TRUE if a RecordEdits marker was found.
 	 */
 	public static void setRecordEditsFound(boolean bool) {
-		recordEditsFound = bool;
+		session().recordEditsFound = bool;
 	}
 
 	/**
@@ -204,7 +227,7 @@ public class InputAgent {
 	 * @return - TRUE if a RecordEdits marker was found.
 	 */
 	public static boolean getRecordEditsFound() {
-		return recordEditsFound;
+		return session().recordEditsFound;
 	}
 
 	/**
@@ -223,7 +246,7 @@ public class InputAgent {
 	 * @return the RecordEdits mode for the InputAgent.
 	 */
 	public static boolean recordEdits() {
-		return recordEdits;
+		return session().recordEdits;
 	}
 
 	/**
@@ -242,19 +265,28 @@ public class InputAgent {
 	 * @param b - boolean value for the RecordEdits mode
 	 */
 	public static void setRecordEdits(boolean b) {
-		recordEdits = b;
+		session().recordEdits = b;
 	}
 
 	public static boolean isSessionEdited() {
-		return sessionEdited;
+		return session().sessionEdited;
 	}
 
 	public static void setBatch(boolean batch) {
-		batchRun = batch;
+		session().batchRun = batch;
 	}
 
 	public static boolean getBatch() {
-		return batchRun;
+		return session().batchRun;
+	}
+
+	/**
+	 * Returns true if the current model executes a share of the simulation runs on
+	 * behalf of a ParallelRunner. A replication worker writes a separate output report
+	 * and separate files for each run.
+	 */
+	public static boolean isReplicationWorker() {
+		return JaamSimModel.getCurrent().getReplicationWorker() != null;
 	}
 
 	public static void setScriptMode(boolean bool) {
@@ -547,7 +579,7 @@ public class InputAgent {
 
 		if (addedEntity) {
 			ent.setFlag(Entity.FLAG_ADDED);
-			sessionEdited = true;
+			session().sessionEdited = true;
 		}
 
 		ent.setName(key);
@@ -635,6 +667,7 @@ public class InputAgent {
 
 	// Load the run file
 	public static void loadConfigurationFile( File file) throws URISyntaxException {
+		Session session = session();
 
 		String inputTraceFileName = InputAgent.getRunName() + ".log";
 		// Initializing the tracing for the model
@@ -646,7 +679,7 @@ public class InputAgent {
 			logURI = confURI.resolve(new URI(null, inputTraceFileName, null)); // The new URI here effectively escapes the file name
 
 			// Set and open the input trace file name
-			logFile = new FileEntity( logURI.getPath());
+			session.logFile = new FileEntity( logURI.getPath());
 		}
 		catch( Exception e ) {
 			InputAgent.logWarning("Could not create trace file");
@@ -656,21 +689,21 @@ public class InputAgent {
 		InputAgent.readStream("", dirURI, file.getName());
 
 		// The session is not considered to be edited after loading a configuration file
-		sessionEdited = false;
+		session.sessionEdited = false;
 
 		// Save and close the input trace file
-		if (logFile != null) {
-			if (InputAgent.numWarnings == 0 && InputAgent.numErrors == 0) {
-				logFile.close();
-				logFile.delete();
+		if (session.logFile != null) {
+			if (session.numWarnings == 0 && session.numErrors == 0) {
+				session.logFile.close();
+				session.logFile.delete();
 				if (logURI != null)
-					logFile = new FileEntity( logURI.getPath() );
+					session.logFile = new FileEntity( logURI.getPath() );
 			}
 		}
 
 		//  Check for found errors
-		if( InputAgent.numErrors > 0 )
-			throw new InputErrorException("%d input errors and %d warnings found", InputAgent.numErrors, InputAgent.numWarnings);
+		if( session.numErrors > 0 )
+			throw new InputErrorException("%d input errors and %d warnings found", session.numErrors, session.numWarnings);
 
 		if (Simulation.getPrintInputReport())
 			InputAgent.printInputFileKeywords();
@@ -720,7 +753,7 @@ public class InputAgent {
 			in.setEdited(true);
 			ent.setFlag(Entity.FLAG_EDITED);
 			if (!ent.testFlag(Entity.FLAG_GENERATED) && in.isPromptReqd())
-				sessionEdited = true;
+				session().sessionEdited = true;
 		}
 
 		ent.updateForInput(in);
@@ -807,7 +840,7 @@ public class InputAgent {
 			// Loop through the instances for this entity class
 			int count = 0;
 			for (Entity ent : Entity.getInstanceIterator(each)) {
-				if (ent.getEntityNumber() <= preDefinedEntityCount)
+				if (ent.getEntityNumber() <= session().preDefinedEntityCount)
 					continue;
 
 				count++;
@@ -846,7 +879,7 @@ public class InputAgent {
 			// sort the list alphabetically
 			ArrayList<Entity> cloneList = new ArrayList<>();
 			for (Entity ent : Entity.getInstanceIterator(each)) {
-				if (ent.getEntityNumber() <= preDefinedEntityCount) {
+				if (ent.getEntityNumber() <= session().preDefinedEntityCount) {
 					if (! (ent instanceof Simulation) ) {
 						continue;
 					}
@@ -969,16 +1002,17 @@ public class InputAgent {
 	}
 
 	public static void closeLogFile() {
-		if (logFile == null)
+		Session session = session();
+		if (session.logFile == null)
 			return;
 
-		logFile.flush();
-		logFile.close();
+		session.logFile.flush();
+		session.logFile.close();
 
-		if (numErrors ==0 && numWarnings == 0) {
-			logFile.delete();
+		if (session.numErrors ==0 && session.numWarnings == 0) {
+			session.logFile.delete();
 		}
-		logFile = null;
+		session.logFile = null;
 	}
 
 	private static final String errPrefix = "*** ERROR *** %s%n";
@@ -986,30 +1020,31 @@ public class InputAgent {
 	private static final String wrnPrefix = "***WARNING*** %s%n";
 
 	public static int numErrors() {
-		return numErrors;
+		return session().numErrors;
 	}
 
 	public static int numWarnings() {
-		return numWarnings;
+		return session().numWarnings;
 	}
 
 	private static void echoInputRecord(ArrayList<String> tokens) {
-		if (logFile == null)
+		Session session = session();
+		if (session.logFile == null)
 			return;
 
 		boolean beginLine = true;
 		for (int i = 0; i < tokens.size(); i++) {
 			if (!beginLine)
-				logFile.write(Input.SEPARATOR);
+				session.logFile.write(Input.SEPARATOR);
 			String tok = tokens.get(i);
-			logFile.write(tok);
+			session.logFile.write(tok);
 			beginLine = false;
 		}
 		// If there were any leftover string written out, make sure the line gets terminated
 		if (!beginLine)
-			logFile.newLine();
+			session.logFile.newLine();
 
-		logFile.flush();
+		session.logFile.flush();
 	}
 
 	private static void logBadInput(ArrayList<String> tokens, String msg) {
@@ -1023,16 +1058,17 @@ public class InputAgent {
 	 * @param args - objects to be printed in the message
 	 */
 	public static void logMessage(String fmt, Object... args) {
+		Session session = session();
 		String msg = String.format(fmt, args);
 		LogBox.logLine(msg);
 		System.err.println(msg);
 
-		if (logFile == null)
+		if (session.logFile == null)
 			return;
 
-		logFile.write(msg);
-		logFile.newLine();
-		logFile.flush();
+		session.logFile.write(msg);
+		session.logFile.newLine();
+		session.logFile.flush();
 	}
 
 	/**
@@ -1048,10 +1084,10 @@ public class InputAgent {
 	public static final void trace(int indent, Entity ent, String fmt, Object... args) {
 		// Print a TIME header every time time has advanced
 		long traceTick = EventManager.simTicks();
-		if (lastTickForTrace != traceTick) {
+		if (session().lastTickForTrace != traceTick) {
 			double unitFactor = Unit.getDisplayedUnitFactor(TimeUnit.class);
 			System.out.format(" \nTIME = %.6f\n", EventManager.current().ticksToSeconds(traceTick) / unitFactor);
-			lastTickForTrace = traceTick;
+			session().lastTickForTrace = traceTick;
 		}
 
 		// Create an indent string to space the lines
@@ -1074,7 +1110,7 @@ public class InputAgent {
 	 * @param args - objects used by the format string
 	 */
 	public static void logWarning(String fmt, Object... args) {
-		numWarnings++;
+		session().numWarnings++;
 		String msg = String.format(fmt, args);
 		InputAgent.logMessage(wrnPrefix, msg);
 	}
@@ -1085,7 +1121,7 @@ public class InputAgent {
 	 * @param args - objects used by the format string
 	 */
 	public static void logError(String fmt, Object... args) {
-		numErrors++;
+		session().numErrors++;
 		String msg = String.format(fmt, args);
 		InputAgent.logMessage(errPrefix, msg);
 	}
@@ -1096,7 +1132,7 @@ public class InputAgent {
 	 * @param args - objects used by the format string
 	 */
 	public static void logInpError(String fmt, Object... args) {
-		numErrors++;
+		session().numErrors++;
 		String msg = String.format(fmt, args);
 		InputAgent.logMessage(inpErrPrefix, msg);
 	}
@@ -1245,7 +1281,7 @@ public class InputAgent {
 		file.flush();
 		file.close();
 
-		sessionEdited = false;
+		session().sessionEdited = false;
 	}
 
 	private static boolean matchesKey(String key, String[] keys) {
@@ -1256,6 +1292,88 @@ public class InputAgent {
 		return false;
 	}
 
+	/**
+	 * Copies the inputs for each of the source entities to the target entity in the same
+	 * position in the target list. The inputs for the object types and units are applied
+	 * first, since the other inputs depend on them. The remaining inputs are applied in
+	 * the same order as they are written to a saved configuration file. The inputs are
+	 * marked as edited if they were edited for the source entity.
+	 * <p>
+	 * Entity names and file paths are resolved for the current model, which must hold
+	 * the target entities.
+	 * @param sourceList - entities whose inputs are to be copied.
+	 * @param targetList - entities to which the inputs are to be applied.
+	 */
+	public static void copyInputs(ArrayList<? extends Entity> sourceList, ArrayList<? extends Entity> targetList) {
+		Session session = session();
+		ParseContext context = null;
+		if (session.configFile != null)
+			context = new ParseContext(session.configFile.toURI(), null);
+
+		boolean record = session.recordEdits;
+		session.recordEdits = false;
+		try {
+			// Copy the inputs for the object types and units
+			ArrayList<Integer> others = new ArrayList<>(sourceList.size());
+			for (int i = 0; i < sourceList.size(); i++) {
+				Entity ent = sourceList.get(i);
+				if (!(ent instanceof ObjectType) && !(ent instanceof Unit)) {
+					others.add(i);
+					continue;
+				}
+				for (Input<?> in : ent.getEditableInputs()) {
+					copyInput(in, targetList.get(i), context);
+				}
+			}
+
+			// Copy the inputs for the special keywords that must come before the others
+			for (String key : EARLY_KEYWORDS) {
+				for (int i : others) {
+					Input<?> in = sourceList.get(i).getInput(key);
+					if (in != null)
+						copyInput(in, targetList.get(i), context);
+				}
+			}
+
+			// Copy the key inputs for each entity followed by its remaining inputs
+			for (int i : others) {
+				ArrayList<Input<?>> deferredInputs = new ArrayList<>();
+				for (Input<?> in : sourceList.get(i).getEditableInputs()) {
+					if (matchesKey(in.getKeyword(), EARLY_KEYWORDS))
+						continue;
+
+					if (!"Key Inputs".equals(in.getCategory())) {
+						deferredInputs.add(in);
+						continue;
+					}
+					copyInput(in, targetList.get(i), context);
+				}
+
+				for (Input<?> in : deferredInputs) {
+					copyInput(in, targetList.get(i), context);
+				}
+			}
+		}
+		finally {
+			session.recordEdits = record;
+		}
+	}
+
+	private static void copyInput(Input<?> sourceInput, Entity target, ParseContext context) {
+		if (sourceInput.isDefault() || sourceInput.isSynonym())
+			return;
+
+		ArrayList<String> tmp = new ArrayList<>();
+		sourceInput.getValueTokens(tmp);
+		Input<?> in = target.getInput(sourceInput.getKeyword());
+		InputAgent.apply(target, in, new KeywordIndex(sourceInput.getKeyword(), tmp, context));
+
+		if (sourceInput.isEdited()) {
+			in.setEdited(true);
+			target.setFlag(Entity.FLAG_EDITED);
+		}
+	}
+
 	static void writeInputOnFile_ForEntity(FileEntity file, Entity ent, Input<?> in) {
 		file.format("%s %s { %s }%n",
 		            ent.getName(), in.getKeyword(), in.getValueString());
@@ -1266,18 +1384,16 @@ public class InputAgent {
 	 * @param simTime - simulation time at which the outputs are printed.
 	 */
 	public static void printRunOutputs(double simTime) {
+		Session session = session();
 
 		// Set up the custom outputs
-		if (outStream == null) {
+		if (session.outStream == null) {
 
 			// Select either standard out or a file for the outputs
-			outStream = System.out;
+			session.outStream = System.out;
 			if (!InputAgent.isScriptMode()) {
-				StringBuilder sb = new StringBuilder();
-				sb.append(InputAgent.getReportFileName(InputAgent.getRunName()));
-				sb.append(".dat");
 				try {
-					outStream = new PrintStream(sb.toString());
+					session.outStream = new PrintStream(InputAgent.getRunOutputFileName());
 				}
 				catch (FileNotFoundException e) {
 					throw new InputErrorException(
@@ -1289,35 +1405,70 @@ public class InputAgent {
 				}
 			}
 
-			// Write the header line for the expressions
-			StringBuilder sb = new StringBuilder();
-			ArrayList<String> toks = new ArrayList<>();
-			Simulation.getRunOutputList().getValueTokens(toks);
-			boolean first = true;
-			for (String str : toks) {
-				if (str.equals("{") || str.equals("}"))
-					continue;
-				if (first)
-					first = false;
-				else
-					sb.append("\t");
-				sb.append(str);
-			}
-			outStream.println(sb.toString());
-
-			// Write the header line for the units
-			sb = new StringBuilder();
-			for (int i=0; i<Simulation.getRunOutputList().getListSize(); i++) {
-				Class<? extends Unit> ut = Simulation.getRunOutputList().getUnitType(i);
-				String unit = Unit.getDisplayedUnit(ut);
-				if (i > 0)
-					sb.append("\t");
-				sb.append(unit);
+			// Write the header lines for the expressions and their units
+			for (String line : InputAgent.getRunOutputHeader()) {
+				session.outStream.println(line);
 			}
-			outStream.println(sb.toString());
 		}
 
 		// Write the selected outputs
+		session.outStream.println(InputAgent.getRunOutputLine(simTime));
+
+		// Terminate the outputs
+		if (Simulation.isLastRun()) {
+			session.outStream.close();
+			session.outStream = null;
+		}
+	}
+
+	/**
+	 * Returns the name of the file to which the selected outputs are written.
+	 */
+	public static String getRunOutputFileName() {
+		return InputAgent.getReportFileName(InputAgent.getRunName()) + ".dat";
+	}
+
+	/**
+	 * Returns the header lines for the selected outputs: the first line lists the
+	 * output expressions and the second line their units.
+	 */
+	public static ArrayList<String> getRunOutputHeader() {
+		ArrayList<String> ret = new ArrayList<>(2);
+
+		// Write the header line for the expressions
+		StringBuilder sb = new StringBuilder();
+		ArrayList<String> toks = new ArrayList<>();
+		Simulation.getRunOutputList().getValueTokens(toks);
+		boolean first = true;
+		for (String str : toks) {
+			if (str.equals("{") || str.equals("}"))
+				continue;
+			if (first)
+				first = false;
+			else
+				sb.append("\t");
+			sb.append(str);
+		}
+		ret.add(sb.toString());
+
+		// Write the header line for the units
+		sb = new StringBuilder();
+		for (int i=0; i<Simulation.getRunOutputList().getListSize(); i++) {
+			Class<? extends Unit> ut = Simulation.getRunOutputList().getUnitType(i);
+			String unit = Unit.getDisplayedUnit(ut);
+			if (i > 0)
+				sb.append("\t");
+			sb.append(unit);
+		}
+		ret.add(sb.toString());
+		return ret;
+	}
+
+	/**
+	 * Returns the line of selected outputs for the present simulation run.
+	 * @param simTime - simulation time at which the outputs are evaluated.
+	 */
+	public static String getRunOutputLine(double simTime) {
 		StringBuilder sb = new StringBuilder();
 		for (int i=0; i<Simulation.getRunOutputList().getListSize(); i++) {
 			StringProvider samp = Simulation.getRunOutputList().getValue().get(i);
@@ -1333,13 +1484,7 @@ public class InputAgent {
 				sb.append("\t");
 			sb.append(str);
 		}
-		outStream.println(sb.toString());
-
-		// Terminate the outputs
-		if (Simulation.isLastRun()) {
-			outStream.close();
-			outStream = null;
-		}
+		return sb.toString();
 	}
 
 	/**
@@ -1347,18 +1492,19 @@ public class InputAgent {
 	 * @param simTime - simulation time at which the report is printed.
 	 */
 	public static void printReport(double simTime) {
+		Session session = session();
 
 		// Create the report file
-		if (reportFile == null) {
+		if (session.reportFile == null) {
 			StringBuilder tmp = new StringBuilder("");
 			tmp.append(InputAgent.getReportFileName(InputAgent.getRunName()));
 			tmp.append(".rep");
-			reportFile = new FileEntity(tmp.toString());
+			session.reportFile = new FileEntity(InputAgent.getRunFileName(tmp.toString()));
 		}
 
 		// Print run number header when multiple runs are to be performed
 		if (Simulation.isMultipleRuns())
-			reportFile.format("%s%n%n", Simulation.getRunHeader());
+			session.reportFile.format("%s%n%n", Simulation.getRunHeader());
 
 		// Identify the classes that were used in the model
 		ArrayList<Class<? extends Entity>> newClasses = new ArrayList<>();
@@ -1395,19 +1541,55 @@ public class InputAgent {
 
 			// Print a header for this class
 			if (newClass != Simulation.class)
-				reportFile.format("*** %s ***%n%n", ObjectType.getObjectTypeForClass(newClass));
+				session.reportFile.format("*** %s ***%n%n", ObjectType.getObjectTypeForClass(newClass));
 
 			// Print each entity to the output report
 			for (Entity ent : entList) {
-				ent.printReport(reportFile, simTime);
-				reportFile.format("%n");
+				ent.printReport(session.reportFile, simTime);
+				session.reportFile.format("%n");
 			}
 		}
 
 		// Close the report file
-		if (Simulation.isLastRun()) {
-			reportFile.close();
-			reportFile = null;
+		if (isReplicationWorker() || Simulation.isLastRun()) {
+			session.reportFile.close();
+			session.reportFile = null;
+		}
+	}
+
+	/**
+	 * Returns the name of the file to be written for the present simulation run.
+	 * A replication worker writes a separate part file for each run, which the
+	 * ParallelRunner joins in run number order once all the runs are complete.
+	 * @param fileName - name of the file written when the runs are executed in sequence.
+	 * @return name of the file to be written.
+	 */
+	public static String getRunFileName(String fileName) {
+		Session session = session();
+		if (!isReplicationWorker())
+			return fileName;
+
+		synchronized (session.runFileNames) {
+			if (!session.runFileNames.contains(fileName))
+				session.runFileNames.add(fileName);
+		}
+		return getRunPartFileName(fileName, Simulation.getRunNumber());
+	}
+
+	/**
+	 * Returns the name of the part file written by a replication worker for the
+	 * specified file and simulation run.
+	 */
+	public static String getRunPartFileName(String fileName, int runNumber) {
+		return fileName + "." + runNumber;
+	}
+
+	/**
+	 * Returns the files for which a replication worker has written part files.
+	 */
+	public static ArrayList<String> getRunFileNames() {
+		synchronized (session().runFileNames) {
+			return new ArrayList<>(session().runFileNames);
 		}
 	}
 
@@ -1637,7 +1819,14 @@ public class InputAgent {
 		String resString = resRoot.toString();
 		String inputString = uri.toString();
 		if (inputString.startsWith(resString)) {
-			return String.format("<res>/%s", inputString.substring(resString.length()));
+			try {
+				// Decode the relative path in the same way as for the configuration file
+				URI relURI = new URI(inputString.substring(resString.length()));
+				return String.format("<res>/%s", relURI.getPath());
+			}
+			catch (URISyntaxException ex) {
+				return String.format("<res>/%s", inputString.substring(resString.length()));
+			}
 		}
 
 		// Relativize the file path against the configuration file
@@ -1662,7 +1851,7 @@ public class InputAgent {
 		InputAgent.setRecordEditsFound(false);
 
 		// Set the model state to unedited
-		sessionEdited = false;
+		session().sessionEdited = false;
 	}
 
 	public static KeywordIndex formatPointsInputs(String keyword, ArrayList<Vec3d> points, Vec3d offset) {
@@ -16,16 +16,20 @@
  */
 package com.jaamsim.input;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.jaamsim.basicsim.Entity;
 import com.jaamsim.basicsim.ErrorException;
 import com.jaamsim.units.Unit;
+import com.jaamsim.units.UserSpecifiedUnit;
 
 /**
  * OutputHandle is a class that represents all the useful runtime information for an output,
@@ -39,10 +43,24 @@ public class OutputHandle {
 	public OutputStaticInfo outputInfo;
 	public Class<? extends Unit> unitType;
 
-	private static final HashMap<Class<? extends Entity>, ArrayList<OutputStaticInfo>> outputInfoCache;
+	// Output information depends only on the class and is shared by every model in the JVM
+	private static final ConcurrentHashMap<Class<? extends Entity>, ClassOutputInfo> outputInfoCache;
+
+	// Types for the method handles used to call the output methods
+	private static final MethodType OBJECT_TYPE = MethodType.methodType(Object.class, Entity.class, double.class);
+	private static final MethodType DOUBLE_TYPE = MethodType.methodType(double.class, Entity.class, double.class);
+	private static final MethodHandle BOOLEAN_TO_DOUBLE;
 
 	static {
-		outputInfoCache = new HashMap<>();
+		outputInfoCache = new ConcurrentHashMap<>();
+
+		try {
+			BOOLEAN_TO_DOUBLE = MethodHandles.lookup().findStatic(OutputHandle.class, "booleanToDouble",
+					MethodType.methodType(double.class, boolean.class));
+		}
+		catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new ExceptionInInitializerError(e);
+		}
 	}
 
 	public OutputHandle(Entity e, String outputName) {
@@ -51,6 +69,17 @@ public class OutputHandle {
 		unitType = outputInfo.unitType;
 	}
 
+	/**
+	 * Creates a handle for the output with the given index for the entity's class.
+	 * @param e - entity whose output is to be returned.
+	 * @param index - position of the output in the list for the entity's class.
+	 */
+	public OutputHandle(Entity e, int index) {
+		ent = e;
+		outputInfo = getOutputInfoImp(e.getClass()).list.get(index);
+		unitType = outputInfo.unitType;
+	}
+
 	protected OutputHandle(Entity e) {
 		ent = e;
 	}
@@ -59,21 +88,71 @@ public class OutputHandle {
 	 * A data class containing the 'static' (ie: class derived) information for a single output
 	 */
 	private static final class OutputStaticInfo {
+		public final int index;
 		public Method method;
+		public final MethodHandle handle;       // (Entity, double)Object
+		public final MethodHandle doubleHandle; // (Entity, double)double, null for a non-numeric output
 		public final String name;
 		public final String desc;
 		public final boolean reportable;
 		public final Class<? extends Unit> unitType;
 		public final int sequence;
 
-		public OutputStaticInfo(Method m, Output a) {
+		public OutputStaticInfo(int i, Method m, Output a) {
+			index = i;
 			method = m;
 			desc = a.description();
 			reportable = a.reportable();
 			name = a.name().intern();
 			unitType = a.unitType();
 			sequence = a.sequence();
+
+			// Adapt the output method to fixed signatures that can be called without
+			// reflection and, for a primitive number, without boxing
+			try {
+				m.setAccessible(true);
+				MethodHandle mh = MethodHandles.lookup().unreflect(m);
+				handle = mh.asType(OBJECT_TYPE);
+				doubleHandle = getDoubleHandle(mh);
+			}
+			catch (IllegalAccessException e) {
+				throw new ErrorException(e);
+			}
 		}
+
+		private static MethodHandle getDoubleHandle(MethodHandle mh) {
+			Class<?> rtype = mh.type().returnType();
+			if (rtype == boolean.class)
+				return MethodHandles.filterReturnValue(mh, BOOLEAN_TO_DOUBLE).asType(DOUBLE_TYPE);
+
+			if (rtype.isPrimitive() && rtype != void.class)
+				return mh.asType(DOUBLE_TYPE);
+
+			return null;
+		}
+	}
+
+	/**
+	 * The outputs for a single class, as a list and indexed by their interned names.
+	 */
+	private static final class ClassOutputInfo {
+		public final ArrayList<OutputStaticInfo> list;
+		public final HashMap<String, OutputStaticInfo> map;
+
+		public ClassOutputInfo(ArrayList<OutputStaticInfo> l) {
+			list = l;
+			map = new HashMap<>(l.size() * 2);
+			for (OutputStaticInfo p : l) {
+				// Keep the first of any outputs that share the same name
+				if (!map.containsKey(p.name))
+					map.put(p.name, p);
+			}
+		}
+	}
+
+	@SuppressWarnings("unused") // called through BOOLEAN_TO_DOUBLE
+	private static double booleanToDouble(boolean val) {
+		return val ? 1.0d : 0.0d;
 	}
 
 	// Note: this method will not include attributes in the list. For a complete list use
@@ -86,29 +165,43 @@ public class OutputHandle {
 		return OutputHandle.getOutputInfoInterned(klass, outputName) != null;
 	}
 
+	/**
+	 * Returns the index of the given output in the list of outputs for the class.
+	 * @param klass - class whose outputs are to be searched.
+	 * @param outputName - name of the output.
+	 * @return index of the output, or -1 if the class does not have the output.
+	 */
+	public static int getOutputIndex(Class<? extends Entity> klass, String outputName) {
+		OutputStaticInfo p = OutputHandle.getOutputInfo(klass, outputName);
+		if (p == null)
+			return -1;
+		return p.index;
+	}
+
+	/**
+	 * Returns the number of outputs for the class, not including attributes and
+	 * custom outputs.
+	 */
+	public static int getOutputCount(Class<? extends Entity> klass) {
+		return getOutputInfoImp(klass).list.size();
+	}
+
 	private static OutputStaticInfo getOutputInfo(Class<? extends Entity> klass, String outputName) {
-		for (OutputStaticInfo p : getOutputInfoImp(klass)) {
-			if( p.name.equals(outputName) )
-				return p;
-		}
-		return null;
+		return getOutputInfoImp(klass).map.get(outputName);
 	}
 
 	private static OutputStaticInfo getOutputInfoInterned(Class<? extends Entity> klass, String outputName) {
-		for (OutputStaticInfo p : getOutputInfoImp(klass)) {
-			if( p.name == outputName )
-				return p;
-		}
-		return null;
+		// The map keys are interned, so equals() returns at the identity test
+		return getOutputInfoImp(klass).map.get(outputName);
 	}
 
-	private static ArrayList<OutputStaticInfo> getOutputInfoImp(Class<? extends Entity> klass) {
-		ArrayList<OutputStaticInfo> ret = outputInfoCache.get(klass);
-		if (ret != null)
-			return ret;
+	private static ClassOutputInfo getOutputInfoImp(Class<? extends Entity> klass) {
+		ClassOutputInfo info = outputInfoCache.get(klass);
+		if (info != null)
+			return info;
 
 		// klass has not been cached yet, generate info
-		ret = new ArrayList<>();
+		ArrayList<OutputStaticInfo> ret = new ArrayList<>();
 		for (Method m : klass.getMethods()) {
 			Output a = m.getAnnotation(Output.class);
 			if (a == null)
@@ -121,10 +214,13 @@ public class OutputHandle {
 				continue;
 			}
 
-			ret.add(new OutputStaticInfo(m, a));
+			ret.add(new OutputStaticInfo(ret.size(), m, a));
 		}
-		outputInfoCache.put(klass, ret);
-		return ret;
+		info = new ClassOutputInfo(ret);
+		ClassOutputInfo prev = outputInfoCache.putIfAbsent(klass, info);
+		if (prev != null)
+			return prev;
+		return info;
 	}
 
 	/**
@@ -134,7 +230,7 @@ public class OutputHandle {
 	 */
 	public static ArrayList<OutputHandle> getOutputHandleList(Entity e) {
 		Class<? extends Entity> klass = e.getClass();
-		ArrayList<OutputStaticInfo> list = getOutputInfoImp(klass);
+		ArrayList<OutputStaticInfo> list = getOutputInfoImp(klass).list;
 		ArrayList<OutputHandle> ret = new ArrayList<>(list.size());
 		for( OutputStaticInfo p : list ) {
 			//ret.add( new OutputHandle(e, p) );
@@ -185,7 +281,7 @@ public class OutputHandle {
 	 * @return true if any of the outputs are reportable.
 	 */
 	public static boolean isReportable(Class<? extends Entity> klass) {
-		ArrayList<OutputStaticInfo> list = getOutputInfoImp(klass);
+		ArrayList<OutputStaticInfo> list = getOutputInfoImp(klass).list;
 		for( OutputStaticInfo p : list ) {
 			if (p.reportable)
 				return true;
@@ -203,12 +299,9 @@ public class OutputHandle {
 			if (!klass.isAssignableFrom(outputInfo.method.getReturnType()))
 				return null;
 
-			ret = (T)outputInfo.method.invoke(ent, simTime);
-		}
-		catch (InvocationTargetException ex) {
-			throw new ErrorException(ex.getTargetException());
+			ret = (T)(Object)outputInfo.handle.invokeExact(ent, simTime);
 		}
-		catch (IllegalAccessException | ClassCastException ex) {
+		catch (Throwable ex) {
 			throw new ErrorException(ex);
 		}
 		return ret;
@@ -282,6 +375,16 @@ public class OutputHandle {
 	 * @return
 	 */
 	public double getValueAsDouble(double simTime, double def) {
+		// Primitive numbers are returned without boxing
+		if (outputInfo != null && outputInfo.doubleHandle != null) {
+			try {
+				return (double)outputInfo.doubleHandle.invokeExact(ent, simTime);
+			}
+			catch (Throwable ex) {
+				throw new ErrorException(ex);
+			}
+		}
+
 		Class<?> retType = this.getReturnType();
 
 		if (retType == double.class)
@@ -362,6 +465,13 @@ public class OutputHandle {
 		return unitType;
 	}
 
+	/**
+	 * Returns true if the unit type for the output is set by the entity's inputs.
+	 */
+	public boolean isUserSpecifiedUnitType() {
+		return outputInfo != null && outputInfo.unitType == UserSpecifiedUnit.class;
+	}
+
 	public String getDescription() {
 		return outputInfo.desc;
 	}
@@ -385,14 +495,11 @@ public class OutputHandle {
 		}
 
 		@SuppressWarnings("unchecked")
-		ArrayList<OutputStaticInfo> infos = getOutputInfoImp((Class<? extends Entity>)klass);
+		OutputStaticInfo info = getOutputInfo((Class<? extends Entity>)klass, outputName);
+		if (info == null)
+			return null;
 
-		for (OutputStaticInfo info : infos) {
-			if (info.name.equals(outputName)) {
-				 return info.method.getReturnType();
-			}
-		}
-		return null;
+		return info.method.getReturnType();
 	}
 
 	// Lookup an outputs return type from the unit type
@@ -402,14 +509,11 @@ public class OutputHandle {
 		}
 
 		@SuppressWarnings("unchecked")
-		ArrayList<OutputStaticInfo> infos = getOutputInfoImp((Class<? extends Entity>)klass);
+		OutputStaticInfo info = getOutputInfo((Class<? extends Entity>)klass, outputName);
+		if (info == null)
+			return null;
 
-		for (OutputStaticInfo info : infos) {
-			if (info.name.equals(outputName)) {
-				 return info.unitType;
-			}
-		}
-		return null;
+		return info.unitType;
 	}
 
 }
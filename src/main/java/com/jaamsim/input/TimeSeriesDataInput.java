@@ -18,6 +18,7 @@ package com.jaamsim.input;
 
 import java.util.ArrayList;
 
+import com.jaamsim.Samples.TimeSeriesArrayData;
 import com.jaamsim.Samples.TimeSeriesData;
 import com.jaamsim.basicsim.Simulation;
 import com.jaamsim.datatypes.DoubleVector;
@@ -43,7 +44,7 @@ public class TimeSeriesDataInput extends Input<TimeSeriesData> {
 		boolean braceOpened = false;
 
 		// Set the clock tick length
-		tickLength = Simulation.getTickLength();
+		tickLength = Simulation.getInstance().getTickLength();
 
 		if (unitType == UserSpecifiedUnit.class)
 			throw new InputErrorException(INP_ERR_UNITUNSPECIFIED);
@@ -129,7 +130,7 @@ public class TimeSeriesDataInput extends Input<TimeSeriesData> {
 			throw new InputErrorException("Final closing brace ( } ) is missing.");
 
 		// Set the value to a new time series data object
-		value = new TimeSeriesData( times, values );
+		value = new TimeSeriesArrayData( times, values );
 	}
 
 	public void setUnitType(Class<? extends Unit> u) {
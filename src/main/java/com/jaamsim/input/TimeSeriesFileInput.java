@@ -0,0 +1,233 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import com.jaamsim.Samples.TimeSeriesData;
+import com.jaamsim.Samples.TimeSeriesFileData;
+import com.jaamsim.basicsim.Simulation;
+
+/**
+ * File input for time series data that is too large to be entered as a keyword input.
+ * <p>
+ * A text file is read one line at a time and its records are written to a time series
+ * data file in the temporary directory, which is then memory-mapped. The data file is
+ * re-used for as long as the text file and the clock tick length are unchanged. A time
+ * series data file can also be specified directly.
+ * <p>
+ * Each line of a text file contains a time and a value separated by a comma, tab, or
+ * space. The time is either a date and time in RFC8601 format or a number of seconds, and
+ * the value is in SI units. An initial line that cannot be read, such as a line of column
+ * headings, and lines that start with '#' are ignored.
+ */
+public class TimeSeriesFileInput extends FileInput {
+	private TimeSeriesData data;
+	private double tickLength;  // simulation clock tick length used to convert times into ticks
+
+	public TimeSeriesFileInput(String key, String cat) {
+		super(key, cat, null);
+	}
+
+	@Override
+	public void parse(KeywordIndex kw) throws InputErrorException {
+		URI oldValue = value;
+		super.parse(kw);
+		try {
+			tickLength = Simulation.getInstance().getTickLength();
+			data = loadData(value, tickLength);
+		}
+		catch (InputErrorException e) {
+			value = oldValue;
+			throw e;
+		}
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		data = null;
+	}
+
+	@Override
+	public void copyFrom(Input<?> in) {
+		super.copyFrom(in);
+		TimeSeriesFileInput inp = (TimeSeriesFileInput) in;
+		data = inp.data;
+		tickLength = inp.tickLength;
+	}
+
+	/**
+	 * Returns the time series data read from the file, or null if no file has been specified.
+	 */
+	public TimeSeriesData getData() {
+		return data;
+	}
+
+	public double getTickLength() {
+		return tickLength;
+	}
+
+	private static TimeSeriesData loadData(URI uri, double tickLength) throws InputErrorException {
+		File source;
+		try {
+			source = new File(uri);
+		}
+		catch (IllegalArgumentException e) {
+			throw new InputErrorException("The time series data must be in a local file: %s", uri);
+		}
+
+		try {
+			// Time series data file
+			if (TimeSeriesFileData.isDataFile(source)) {
+				TimeSeriesFileData ret = TimeSeriesFileData.open(source);
+				if (ret.getTickLength() != tickLength)
+					throw new InputErrorException("The time series data file was created for a " +
+							"clock tick length of %s seconds.", ret.getTickLength());
+				return ret;
+			}
+
+			// Data file created previously from the same text file
+			File cache = TimeSeriesFileData.getCacheFile(source);
+			TimeSeriesFileData ret = TimeSeriesFileData.openCache(cache, source, tickLength);
+			if (ret != null)
+				return ret;
+
+			// Write a new data file and replace the old one, if possible
+			File temp = File.createTempFile("jaamsim-", ".tmp", cache.getParentFile());
+			writeDataFile(source, temp, tickLength);
+			try {
+				Files.move(temp.toPath(), cache.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (IOException e) {
+				// The old data file may be in use by another model
+				temp.deleteOnExit();
+				return TimeSeriesFileData.open(temp);
+			}
+			return TimeSeriesFileData.open(cache);
+		}
+		catch (IOException e) {
+			throw new InputErrorException("Unable to read the time series data from %s:%n%s",
+					source, e.getMessage());
+		}
+	}
+
+	private static void writeDataFile(File source, File file, double tickLength)
+	throws IOException, InputErrorException {
+
+		TimeSeriesFileData.Writer writer = new TimeSeriesFileData.Writer(file, tickLength);
+		boolean done = false;
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(
+				new FileInputStream(source), StandardCharsets.UTF_8), 1 << 16)) {
+
+			long startingYearOffset = -1;
+			long lastTime = -1;
+			long lastTicks = -1;
+			boolean headingsAllowed = true;
+			int lineNum = 0;
+			while (true) {
+				String line = in.readLine();
+				if (line == null)
+					break;
+				lineNum++;
+
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#"))
+					continue;
+
+				// The value is the last field on the line and the time is the remainder
+				int sep = lastSeparator(line);
+				String timeStr = line.substring(0, Math.max(sep, 0)).trim();
+				while (timeStr.endsWith(",")) {
+					timeStr = timeStr.substring(0, timeStr.length() - 1).trim();
+				}
+
+				long recordus;
+				double val;
+				try {
+					val = Double.parseDouble(line.substring(sep + 1));
+					if (Input.isRFC8601DateTime(timeStr))
+						recordus = Input.parseRFC8601DateTime(timeStr);
+					else
+						recordus = (long) (Double.parseDouble(timeStr)*1e6);
+				}
+				catch (NumberFormatException e) {
+					if (headingsAllowed) {
+						headingsAllowed = false;
+						continue;
+					}
+					throw new InputErrorException("Invalid record on line %d: %s", lineNum, line);
+				}
+				headingsAllowed = false;
+
+				// Make sure the times are in increasing order
+				if (recordus < 0 || recordus <= lastTime)
+					throw new InputErrorException("The times must be given in increasing order on line %d: %s",
+							lineNum, line);
+				lastTime = recordus;
+
+				// set the offset to the number of whole years from the first record
+				if (startingYearOffset == -1) {
+					startingYearOffset = recordus / Input.usPerYr;
+					startingYearOffset *= Input.usPerYr;
+				}
+
+				long usOffset = recordus - startingYearOffset;
+				long ticks = Math.round(usOffset/(1.0e6*tickLength));
+				if (ticks <= lastTicks)
+					throw new InputErrorException("The time on line %d is the same as the previous " +
+							"time when rounded to the clock tick length.", lineNum);
+				lastTicks = ticks;
+
+				if (writer.size() == Integer.MAX_VALUE)
+					throw new InputErrorException("The file contains too many time series records.");
+				writer.add(ticks, val);
+			}
+
+			if (writer.size() == 0)
+				throw new InputErrorException("The file does not contain any time series records.");
+
+			writer.finish(source);
+			done = true;
+		}
+		finally {
+			if (!done)
+				writer.abort();
+		}
+	}
+
+	/**
+	 * Returns the index of the last comma, tab, or space in the line, or -1 if there is none.
+	 */
+	private static int lastSeparator(String line) {
+		for (int i = line.length() - 1; i >= 0; i--) {
+			char c = line.charAt(i);
+			if (c == ',' || c == '\t' || c == ' ')
+				return i;
+		}
+		return -1;
+	}
+}
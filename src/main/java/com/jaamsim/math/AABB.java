@@ -59,6 +59,19 @@ public class AABB {
 		updateCenterAndRadius();
 	}
 
+	/**
+	 * Set the bounds to the box between the two points, re-using this AABB
+	 * @param posPoint
+	 * @param negPoint
+	 */
+	public void set(Vec3d posPoint, Vec3d negPoint) {
+		_isEmpty = false;
+		maxPt.set3(posPoint);
+		minPt.set3(negPoint);
+
+		updateCenterAndRadius();
+	}
+
 	/**
 	 * Build an AABB with an expanded area
 	 * @param points
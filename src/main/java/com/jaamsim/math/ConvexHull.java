@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2012 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -41,6 +42,20 @@ public class ConvexHull {
 	public static ConvexHull TryBuildHull(ArrayList<Vec3d> verts, int numAttempts, int maxNumPoints, Vec3dInterner interner) {
 
 		ArrayList<Vec3d> baseVerts = removeDoubles(verts);
+		return buildHull(baseVerts, numAttempts, maxNumPoints, interner);
+	}
+
+	/**
+	 * Builds a hull from an array of packed x, y, z coordinates. Only the unique points are
+	 * converted to Vec3d objects.
+	 */
+	public static ConvexHull TryBuildHull(double[] coords, int numAttempts, int maxNumPoints, Vec3dInterner interner) {
+
+		ArrayList<Vec3d> baseVerts = removeDoubles(coords);
+		return buildHull(baseVerts, numAttempts, maxNumPoints, interner);
+	}
+
+	private static ConvexHull buildHull(ArrayList<Vec3d> baseVerts, int numAttempts, int maxNumPoints, Vec3dInterner interner) {
 
 		assert(numAttempts > 0);
 
@@ -346,6 +361,105 @@ public class ConvexHull {
 		return ret;
 	}
 
+	/**
+	 * Remove any doubles from an array of packed coordinates and return the remaining points
+	 * in the same order as removeDoubles(List)
+	 */
+	private static ArrayList<Vec3d> removeDoubles(double[] coords) {
+		ArrayList<Vec3d> ret = new ArrayList<>();
+		int numPoints = coords.length / 3;
+		if (numPoints == 0) {
+			return ret;
+		}
+
+		int[] order = new int[numPoints];
+		for (int i = 0; i < numPoints; ++i) {
+			order[i] = i;
+		}
+		sortPoints(coords, order, 0, numPoints - 1);
+
+		Vec3d last = new Vec3d(coords[order[0]*3], coords[order[0]*3 + 1], coords[order[0]*3 + 2]);
+		ret.add(last);
+		Vec3d temp = new Vec3d();
+		for (int index = 1; index < numPoints; ++index) {
+			int i = order[index];
+			temp.set3(coords[i*3], coords[i*3 + 1], coords[i*3 + 2]);
+			if (!temp.near3(last)) {
+				// We have not seen this vector before
+				last = new Vec3d(temp);
+				ret.add(last);
+			}
+		}
+
+		return ret;
+	}
+
+	private static int comparePoints(double[] coords, int i, int j) {
+		int comp;
+		comp = Double.compare(coords[i*3], coords[j*3]);
+		if (comp != 0)
+			return comp;
+
+		comp = Double.compare(coords[i*3 + 1], coords[j*3 + 1]);
+		if (comp != 0)
+			return comp;
+
+		return Double.compare(coords[i*3 + 2], coords[j*3 + 2]);
+	}
+
+	/**
+	 * Sorts the point indices in 'order' between lo and hi inclusive into the same order as COMP
+	 */
+	private static void sortPoints(double[] coords, int[] order, int lo, int hi) {
+		while (hi - lo > 16) {
+			// Partition around the median of three points
+			int mid = (lo + hi) >>> 1;
+			if (comparePoints(coords, order[mid], order[lo]) < 0) swap(order, mid, lo);
+			if (comparePoints(coords, order[hi], order[lo]) < 0) swap(order, hi, lo);
+			if (comparePoints(coords, order[hi], order[mid]) < 0) swap(order, hi, mid);
+			int pivot = order[mid];
+
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (comparePoints(coords, order[i], pivot) < 0) i++;
+				while (comparePoints(coords, order[j], pivot) > 0) j--;
+				if (i <= j) {
+					swap(order, i, j);
+					i++;
+					j--;
+				}
+			}
+
+			// Recurse on the smaller part to limit the stack depth
+			if (j - lo < hi - i) {
+				sortPoints(coords, order, lo, j);
+				lo = i;
+			}
+			else {
+				sortPoints(coords, order, i, hi);
+				hi = j;
+			}
+		}
+
+		// Insertion sort for the small ranges
+		for (int i = lo + 1; i <= hi; ++i) {
+			int val = order[i];
+			int j = i - 1;
+			while (j >= lo && comparePoints(coords, order[j], val) > 0) {
+				order[j + 1] = order[j];
+				j--;
+			}
+			order[j + 1] = val;
+		}
+	}
+
+	private static void swap(int[] order, int i, int j) {
+		int temp = order[i];
+		order[i] = order[j];
+		order[j] = temp;
+	}
+
 	// Remove any edge that is back tracked over, alter 'edges' in place
 	private void pruneEdges(ArrayList<HullEdge> edges) {
 		for (int i = 0; i < edges.size(); ) {
@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2012 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +22,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.jaamsim.DisplayModels.DisplayModel;
 import com.jaamsim.Graphics.DisplayEntity;
@@ -59,8 +61,14 @@ public abstract class DisplayModelBinding {
 	private final static ArrayList<Vec4d> HANDLE_POINTS;
 	private final static ArrayList<Vec4d> ROTATE_POINTS;
 
-	private static int cacheHits = 0;
-	private static int cacheMisses = 0;
+	private static final AtomicInteger cacheHits = new AtomicInteger();
+	private static final AtomicInteger cacheMisses = new AtomicInteger();
+	private static final AtomicInteger reuseCount = new AtomicInteger();
+
+	// Proxies from the last frame for a static binding
+	private ArrayList<RenderProxy> reusableProxies;
+	private long entityVersion;
+	private long modelVersion;
 
 	static {
 		// NOTE: the order of the points corresponds to the list of static picking IDs in RenderManager,
@@ -91,6 +99,47 @@ public abstract class DisplayModelBinding {
 
 	public abstract void collectProxies(double simTime, ArrayList<RenderProxy> out);
 
+	/**
+	 * Returns true if the proxies for this binding depend only on the position, size,
+	 * orientation, alignment, region, tags and inputs for its DisplayEntity and on the inputs
+	 * for its DisplayModel. The proxies for a static binding are re-used from the last frame
+	 * until one of these changes.
+	 */
+	protected boolean isStatic() {
+		return false;
+	}
+
+	/**
+	 * Collects the proxies for this binding, re-using those from the last frame if the
+	 * binding is static and its entity and model have not changed.
+	 * <p>
+	 * Different bindings can be gathered concurrently, but each binding must only be used by
+	 * one thread at a time.
+	 */
+	public final void collectFrameProxies(double simTime, ArrayList<RenderProxy> out) {
+		if (!isStatic() || !(observee instanceof DisplayEntity)) {
+			collectProxies(simTime, out);
+			return;
+		}
+
+		// Read the versions first so that a change made while the proxies are being
+		// collected is picked up in the next frame
+		long entVer = ((DisplayEntity)observee).getGraphicsVersion();
+		long modelVer = DisplayModel.getInputVersion();
+		if (reusableProxies != null && entVer == entityVersion && modelVer == modelVersion) {
+			reuseCount.incrementAndGet();
+			out.addAll(reusableProxies);
+			return;
+		}
+
+		ArrayList<RenderProxy> proxies = new ArrayList<>();
+		collectProxies(simTime, proxies);
+		reusableProxies = proxies;
+		entityVersion = entVer;
+		modelVersion = modelVer;
+		out.addAll(proxies);
+	}
+
 	public boolean isBoundTo(Entity ent) {
 		return ent == observee;
 	}
@@ -168,15 +217,24 @@ public abstract class DisplayModelBinding {
 	}
 
 	public static int getCacheHits() {
-		return cacheHits;
+		return cacheHits.get();
 	}
 
 	public static int getCacheMisses() {
-		return cacheMisses;
+		return cacheMisses.get();
 	}
+
+	/**
+	 * Returns the number of static bindings whose proxies were re-used without being collected.
+	 */
+	public static int getReuseCount() {
+		return reuseCount.get();
+	}
+
 	public static void clearCacheCounters() {
-		cacheHits = 0;
-		cacheMisses = 0;
+		cacheHits.set(0);
+		cacheMisses.set(0);
+		reuseCount.set(0);
 	}
 
 	public static void clearCacheMissData() {
@@ -196,7 +254,7 @@ public abstract class DisplayModelBinding {
 	}
 
 	public static void registerCacheHit(String type) {
-		cacheHits++;
+		cacheHits.incrementAndGet();
 		if (!saveCacheMissData()) {
 			return;
 		}
@@ -218,7 +276,7 @@ public abstract class DisplayModelBinding {
 	}
 
 	public static void registerCacheMiss(String type) {
-		cacheMisses++;
+		cacheMisses.incrementAndGet();
 		if (!saveCacheMissData()) {
 			return;
 		}
@@ -193,13 +193,16 @@ private double collideSubMesh(MeshData.SubMeshData subData, Ray r, Mat4d modelMa
 
 	// We have hit both the AABB and the convex hull for this sub instance, now do individual triangle collision
 	Vec3d[] triVecs = new Vec3d[3];
+	triVecs[0] = new Vec3d();
+	triVecs[1] = new Vec3d();
+	triVecs[2] = new Vec3d();
 
 	double shortDist = Double.POSITIVE_INFINITY;
 
-	for (int triInd = 0; triInd < subData.indices.length / 3; ++triInd) {
-		triVecs[0] = subData.verts.get(subData.indices[triInd*3+0]);
-		triVecs[1] = subData.verts.get(subData.indices[triInd*3+1]);
-		triVecs[2] = subData.verts.get(subData.indices[triInd*3+2]);
+	for (int triInd = 0; triInd < subData.indices.limit() / 3; ++triInd) {
+		subData.getVert(subData.indices.get(triInd*3+0), triVecs[0]);
+		subData.getVert(subData.indices.get(triInd*3+1), triVecs[1]);
+		subData.getVert(subData.indices.get(triInd*3+2), triVecs[2]);
 		if ( triVecs[0].equals3(triVecs[1]) ||
 		     triVecs[1].equals3(triVecs[2]) ||
 		     triVecs[2].equals3(triVecs[0])) {
@@ -231,10 +234,12 @@ private double collideSubLine(MeshData.SubLineData subData, Ray r, Mat4d modelMa
 	}
 
 	Mat4d rayMat = MathUtils.RaySpace(r);
-	Vec4d[] lineVerts = new Vec4d[subData.verts.size()];
+	Vec4d[] lineVerts = new Vec4d[subData.getNumVerts()];
+	Vec3d temp = new Vec3d();
 	for (int i = 0; i < lineVerts.length; ++i) {
 		lineVerts[i] = new Vec4d();
-		lineVerts[i].multAndTrans3(modelMat, subData.verts.get(i));
+		subData.getVert(i, temp);
+		lineVerts[i].multAndTrans3(modelMat, temp);
 	}
 
 	return MathUtils.collisionDistLines(rayMat, lineVerts, 0.01309); // Angle is 0.75 deg in radians
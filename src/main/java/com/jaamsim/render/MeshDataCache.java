@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2013 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,13 +21,13 @@ import java.net.URISyntaxException;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.jaamsim.MeshFiles.BlockReader;
 import com.jaamsim.MeshFiles.MeshData;
+import com.jaamsim.MeshFiles.MeshFileCache;
 import com.jaamsim.MeshFiles.MeshReader;
-import com.jaamsim.MeshFiles.ObjReader;
-import com.jaamsim.collada.ColParser;
 import com.jaamsim.ui.GUIFrame;
 import com.jaamsim.ui.LogBox;
 
@@ -35,6 +36,9 @@ public class MeshDataCache {
 
 	private static final HashMap<MeshProtoKey, AtomicBoolean> loadingMap = new HashMap<>();
 
+	// Meshes are loaded in the background by a pool with one thread per processor
+	private static final ForkJoinPool loadPool = new ForkJoinPool();
+
 	private static final HashSet<MeshProtoKey> badMeshSet = new HashSet<>();
 	private static MeshData badMesh = null;
 
@@ -50,16 +54,9 @@ public class MeshDataCache {
 
 	// Fetch, or lazily initialize the mesh data
 	public static MeshData getMeshData(MeshProtoKey key) {
-		synchronized (dataMap) {
-			MeshData data = dataMap.get(key);
-			if (data != null) {
-				return data;
-			}
-		}
-		synchronized (badMeshSet) {
-			if (badMeshSet.contains(key)) {
-				return getBadMesh();
-			}
+		MeshData loaded = getLoadedMeshData(key);
+		if (loaded != null) {
+			return loaded;
 		}
 
 		AtomicBoolean loadingFlag = null;
@@ -76,25 +73,43 @@ public class MeshDataCache {
 					} catch (InterruptedException ex) {}
 				}
 			}
-			synchronized (dataMap) {
-				return dataMap.get(key);
+			loaded = getLoadedMeshData(key);
+			if (loaded != null) {
+				return loaded;
 			}
 		}
 
+		return loadMeshData(key);
+	}
+
+	private static MeshData getLoadedMeshData(MeshProtoKey key) {
+		synchronized (dataMap) {
+			MeshData data = dataMap.get(key);
+			if (data != null) {
+				return data;
+			}
+		}
+		synchronized (badMeshSet) {
+			if (badMeshSet.contains(key)) {
+				return getBadMesh();
+			}
+		}
+		return null;
+	}
+
+	private static MeshData loadMeshData(MeshProtoKey key) {
 		// Release the lock long enough to load the model
 		String fileString = key.getURI().toString();
 		String ext = fileString.substring(fileString.length() - 3, fileString.length());
 
 		MeshData data = null;
 		try {
-			if (ext.toUpperCase().equals("DAE")) {
-				data = ColParser.parse(key.getURI());
+			if (MeshFileCache.isCached(key.getURI())) {
+				data = MeshFileCache.load(key.getURI());
 			} else if (ext.toUpperCase().equals("JSM")) {
 				data = MeshReader.parse(key.getURI());
 			} else if (ext.toUpperCase().equals("JSB")) {
 				data = BlockReader.parse(key.getURI());
-			} else if (ext.toUpperCase().equals("OBJ")) {
-				data = ObjReader.parse(key.getURI());
 			} else {
 				assert(false);
 			}
@@ -123,29 +138,35 @@ public class MeshDataCache {
 	}
 
 	/**
-	 * Load the mesh in a new thread, then notify on 'notifier'
+	 * Load the mesh in the background, then notify on the loading flag. Does nothing if the
+	 * mesh is already being loaded.
 	 * @param key
-	 * @param notifier
 	 */
 	public static void loadMesh(final MeshProtoKey key) {
 		final AtomicBoolean notifier = new AtomicBoolean();
 		synchronized (loadingMap) {
+			if (loadingMap.containsKey(key))
+				return;
 			loadingMap.put(key, notifier);
 		}
 
-		new Thread() {
+		loadPool.execute(new Runnable() {
 			@Override
 			public void run() {
+				try {
+					// Load the mesh directly, getMeshData() would wait for this load to finish
+					if (getLoadedMeshData(key) == null)
+						loadMeshData(key);
+				}
+				finally {
+					notifier.set(true);
 
-				getMeshData(key); // Cause the lazy initializer to load the mesh (or return quickly if already loaded)
-
-				notifier.set(true);
-
-				synchronized(notifier) {
-					notifier.notifyAll();
+					synchronized(notifier) {
+						notifier.notifyAll();
+					}
 				}
 			}
-		}.start();
+		});
 	}
 
 	// Lazily load the bad mesh data
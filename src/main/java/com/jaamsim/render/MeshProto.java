@@ -1,7 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2012 Ausenco Engineering Canada Inc.
- * Copyright (C) 2015 JaamSim Software Inc.
+ * Copyright (C) 2015-2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -733,82 +733,52 @@ private void loadGPUSubMesh(GL2GL3 gl, Renderer renderer, MeshData.SubMeshData d
 
 	sub._center = data.staticHull.getAABBCenter();
 
-	sub._numVerts = data.indices.length;
+	sub._numVerts = data.indices.limit();
 
 	if (flattenBuffers) {
-		FloatBuffer fb = FloatBuffer.allocate(data.indices.length * 3); //
-		for (int ind : data.indices) {
-			RenderUtils.putPointXYZ(fb, data.verts.get(ind));
-		}
-		fb.flip();
+		FloatBuffer fb = flattenBuffer(data.verts, data.indices, 3);
 
 		gl.glBindBuffer(GL2GL3.GL_ARRAY_BUFFER, sub._vertexBuffer);
-		gl.glBufferData(GL2GL3.GL_ARRAY_BUFFER, data.indices.length * 3 * 4, fb, GL2GL3.GL_STATIC_DRAW);
-		renderer.usingVRAM(data.indices.length * 3 * 4);
+		gl.glBufferData(GL2GL3.GL_ARRAY_BUFFER, sub._numVerts * 3 * 4, fb, GL2GL3.GL_STATIC_DRAW);
+		renderer.usingVRAM(sub._numVerts * 3 * 4);
 	} else
 	{
 		// Init vertices
-		FloatBuffer fb = FloatBuffer.allocate(data.verts.size() * 3); //
-		for (Vec3d v : data.verts) {
-			RenderUtils.putPointXYZ(fb, v);
-		}
-		fb.flip();
-
 		gl.glBindBuffer(GL2GL3.GL_ARRAY_BUFFER, sub._vertexBuffer);
-		gl.glBufferData(GL2GL3.GL_ARRAY_BUFFER, data.verts.size() * 3 * 4, fb, GL2GL3.GL_STATIC_DRAW);
-		renderer.usingVRAM(data.verts.size() * 3 * 4);
+		gl.glBufferData(GL2GL3.GL_ARRAY_BUFFER, data.verts.limit() * 4, data.verts, GL2GL3.GL_STATIC_DRAW);
+		renderer.usingVRAM(data.verts.limit() * 4);
 	}
 
 	// Init textureCoords
 	if (hasTex) {
 
 		if (flattenBuffers) {
-			FloatBuffer fb = FloatBuffer.allocate(data.indices.length * 2); //
-			for (int ind : data.indices) {
-				RenderUtils.putPointXY(fb, data.texCoords.get(ind));
-			}
-			fb.flip();
+			FloatBuffer fb = flattenBuffer(data.texCoords, data.indices, 2);
 
 			gl.glBindBuffer(GL2GL3.GL_ARRAY_BUFFER, sub._texCoordBuffer);
-			gl.glBufferData(GL2GL3.GL_ARRAY_BUFFER, data.indices.length * 2 * 4, fb, GL2GL3.GL_STATIC_DRAW);
-			renderer.usingVRAM(data.indices.length * 2 * 4);
+			gl.glBufferData(GL2GL3.GL_ARRAY_BUFFER, sub._numVerts * 2 * 4, fb, GL2GL3.GL_STATIC_DRAW);
+			renderer.usingVRAM(sub._numVerts * 2 * 4);
 
 		} else
 		{
-			FloatBuffer fb = FloatBuffer.allocate(data.texCoords.size() * 2); //
-			for (Vec2d v : data.texCoords) {
-				RenderUtils.putPointXY(fb, v);
-			}
-			fb.flip();
-
 			gl.glBindBuffer(GL2GL3.GL_ARRAY_BUFFER, sub._texCoordBuffer);
-			gl.glBufferData(GL2GL3.GL_ARRAY_BUFFER, data.texCoords.size() * 2 * 4, fb, GL2GL3.GL_STATIC_DRAW);
-			renderer.usingVRAM(data.texCoords.size() * 2 * 4);
+			gl.glBufferData(GL2GL3.GL_ARRAY_BUFFER, data.texCoords.limit() * 4, data.texCoords, GL2GL3.GL_STATIC_DRAW);
+			renderer.usingVRAM(data.texCoords.limit() * 4);
 		}
 	}
 
 	if (flattenBuffers) {
-		FloatBuffer fb = FloatBuffer.allocate(data.indices.length * 3); //
-		for (int ind : data.indices) {
-			RenderUtils.putPointXYZ(fb, data.normals.get(ind));
-		}
-		fb.flip();
+		FloatBuffer fb = flattenBuffer(data.normals, data.indices, 3);
 
 		gl.glBindBuffer(GL2GL3.GL_ARRAY_BUFFER, sub._normalBuffer);
-		gl.glBufferData(GL2GL3.GL_ARRAY_BUFFER, data.indices.length * 3 * 4, fb, GL2GL3.GL_STATIC_DRAW);
-		renderer.usingVRAM(data.indices.length * 3 * 4);
+		gl.glBufferData(GL2GL3.GL_ARRAY_BUFFER, sub._numVerts * 3 * 4, fb, GL2GL3.GL_STATIC_DRAW);
+		renderer.usingVRAM(sub._numVerts * 3 * 4);
 	} else
 	{
 		// Init normals
-		FloatBuffer fb = FloatBuffer.allocate(data.normals.size() * 3);
-		for (Vec3d v : data.normals) {
-			RenderUtils.putPointXYZ(fb, v);
-		}
-		fb.flip();
-
 		gl.glBindBuffer(GL2GL3.GL_ARRAY_BUFFER, sub._normalBuffer);
-		gl.glBufferData(GL2GL3.GL_ARRAY_BUFFER, data.normals.size() * 3 * 4, fb, GL2GL3.GL_STATIC_DRAW);
-		renderer.usingVRAM(data.normals.size() * 3 * 4);
+		gl.glBufferData(GL2GL3.GL_ARRAY_BUFFER, data.normals.limit() * 4, data.normals, GL2GL3.GL_STATIC_DRAW);
+		renderer.usingVRAM(data.normals.limit() * 4);
 	}
 
 	if (flattenBuffers) {
@@ -817,9 +787,8 @@ private void loadGPUSubMesh(GL2GL3 gl, Renderer renderer, MeshData.SubMeshData d
 		gl.glDeleteBuffers(1, is, 0);
 	} else
 	{
-		IntBuffer indexBuffer = IntBuffer.wrap(data.indices);
 		gl.glBindBuffer(GL2GL3.GL_ELEMENT_ARRAY_BUFFER, sub._indexBuffer);
-		gl.glBufferData(GL2GL3.GL_ELEMENT_ARRAY_BUFFER, sub._numVerts * 4, indexBuffer, GL2GL3.GL_STATIC_DRAW);
+		gl.glBufferData(GL2GL3.GL_ELEMENT_ARRAY_BUFFER, sub._numVerts * 4, data.indices, GL2GL3.GL_STATIC_DRAW);
 		renderer.usingVRAM(sub._numVerts * 4);
 
 	}
@@ -832,12 +801,27 @@ private void loadGPUSubMesh(GL2GL3 gl, Renderer renderer, MeshData.SubMeshData d
 	// These will never be needed again, so let's just get rid of them
 	if (!data.keepRuntimeData) {
 		if (data.texCoords != null)
-			data.texCoords.clear();
+			data.texCoords = FloatBuffer.allocate(0);
 		if (data.normals != null)
-			data.normals.clear();
+			data.normals = FloatBuffer.allocate(0);
 	}
 }
 
+/**
+ * Returns a buffer with the values for each index in turn, where each vertex has 'size' values.
+ */
+private static FloatBuffer flattenBuffer(FloatBuffer vals, IntBuffer indices, int size) {
+	FloatBuffer fb = FloatBuffer.allocate(indices.limit() * size);
+	for (int j = 0; j < indices.limit(); ++j) {
+		int ind = indices.get(j);
+		for (int i = 0; i < size; ++i) {
+			fb.put(vals.get(ind*size + i));
+		}
+	}
+	fb.flip();
+	return fb;
+}
+
 private void loadGPUSubLine(GL2GL3 gl, Renderer renderer, MeshData.SubLineData data) {
 
 	Shader s = renderer.getShader(Renderer.ShaderHandle.DEBUG);
@@ -851,19 +835,13 @@ private void loadGPUSubLine(GL2GL3 gl, Renderer renderer, MeshData.SubLineData d
 	gl.glGenBuffers(1, is, 0);
 	sub._vertexBuffer = is[0];
 
-	sub._numVerts = data.verts.size();
+	sub._numVerts = data.getNumVerts();
 
 	sub._hull = data.hull;
 
 	// Init vertices
-	FloatBuffer fb = FloatBuffer.allocate(data.verts.size() * 3); //
-	for (Vec3d v : data.verts) {
-		RenderUtils.putPointXYZ(fb, v);
-	}
-	fb.flip();
-
 	gl.glBindBuffer(GL2GL3.GL_ARRAY_BUFFER, sub._vertexBuffer);
-	gl.glBufferData(GL2GL3.GL_ARRAY_BUFFER, sub._numVerts * 3 * 4, fb, GL2GL3.GL_STATIC_DRAW);
+	gl.glBufferData(GL2GL3.GL_ARRAY_BUFFER, sub._numVerts * 3 * 4, data.verts, GL2GL3.GL_STATIC_DRAW);
 
 	// Bind the shader variables
 	sub._modelViewMatVar = gl.glGetUniformLocation(sub._progHandle, "modelViewMat");
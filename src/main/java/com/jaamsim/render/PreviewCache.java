@@ -127,7 +127,7 @@ public class PreviewCache {
 			// For ColladaModels maintain the proportions of the imported model
 			if (dm instanceof ColladaModel) {
 				ColladaModel cm = (ColladaModel)dm;
-				MeshProtoKey key = ColladaModel.getCachedMeshKey(cm.getColladaFile());
+				MeshProtoKey key = cm.getCachedMeshKey(cm.getColladaFile());
 				Vec3d meshSize = new Vec3d(RenderManager.inst().getMeshBounds(key, true).radius);
 				double maxDim = Math.max(Math.max(meshSize.x, meshSize.y), meshSize.z);
 				meshSize.scale3(1/maxDim);
@@ -0,0 +1,411 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.render;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.jaamsim.math.AABB;
+import com.jaamsim.math.Ray;
+import com.jaamsim.math.Vec3d;
+import com.jaamsim.math.Vec4d;
+
+/**
+ * Bounding volume hierarchy over the AABBs of the renderables in a scene, used to find the
+ * renderables that may be hit by a pick ray or be visible to a camera without testing every
+ * renderable in the scene.
+ * <p>
+ * The tree is rebuilt by update() when the number of renderables changes. Otherwise the
+ * existing tree is refit to the new bounds, and only rebuilt when the refit tree has become
+ * much less efficient than a new one would be. Renderables with empty or infinite bounds are
+ * kept outside the tree and are always returned as candidates.
+ * <p>
+ * The candidates are returned in the same order as the scene, so that the results for the
+ * renderables that pass the exact tests are the same as for a search of the full scene.
+ */
+final class RenderableBVH {
+
+	private static final int MAX_LEAF_SIZE = 4;
+
+	// Pick margin as a fraction of each renderable's bounds radius. Allows for the collision
+	// fudge used by DebugLine.
+	private static final double PICK_FUDGE = 0.1d;
+	private static final double PICK_EPSILON = 1.0e-9d;
+
+	// Rebuild the tree when refitting has increased its cost by this factor
+	private static final double REBUILD_COST_RATIO = 1.5d;
+
+	private Renderable[] items = new Renderable[0];  // renderables in scene order
+	private int[] order = new int[0];        // scene indices for the tree, grouped by leaf
+	private int[] unbounded = new int[0];    // scene indices for renderables not in the tree
+	private int[] itemLeaf = new int[0];     // leaf for each scene index, or -1 if not in the tree
+
+	// Nodes in depth-first order. The left child of an internal node is the next node.
+	private int numNodes;
+	private AABB[] nodeBounds = new AABB[0];
+	private double[] nodeBox = new double[0];    // min x, y, z and max x, y, z for each node
+	private double[] nodeFudge = new double[0];  // largest pick margin in the sub-tree
+	private int[] nodeStart = new int[0];        // first entry in 'order' for the sub-tree
+	private int[] nodeCount = new int[0];        // number of entries in 'order' for the sub-tree
+	private int[] nodeRight = new int[0];        // right child, or -1 for a leaf
+
+	private double builtCost;  // cost of the tree when it was last rebuilt
+
+	private int[] results = new int[64];
+	private int numResults;
+
+	/**
+	 * Updates the tree for the given scene.
+	 */
+	void update(ArrayList<Renderable> scene) {
+		Renderable[] newItems = scene.toArray(new Renderable[scene.size()]);
+		if (newItems.length == items.length && numNodes > 0) {
+			items = newItems;
+			if (this.refit() <= builtCost * REBUILD_COST_RATIO)
+				return;
+		}
+		items = newItems;
+		this.rebuild();
+	}
+
+	/**
+	 * Removes all the renderables from the tree.
+	 */
+	void clear() {
+		items = new Renderable[0];
+		order = new int[0];
+		unbounded = new int[0];
+		itemLeaf = new int[0];
+		numNodes = 0;
+	}
+
+	int size() {
+		return items.length;
+	}
+
+	private static boolean isBounded(AABB bounds) {
+		if (bounds == null || bounds.isEmpty())
+			return false;
+		double sum = bounds.minPt.x + bounds.minPt.y + bounds.minPt.z
+		           + bounds.maxPt.x + bounds.maxPt.y + bounds.maxPt.z;
+		return !Double.isNaN(sum) && !Double.isInfinite(sum);
+	}
+
+	// Upper limit for the pick margin that avoids calculating the length of the radius
+	private static double getPickFudge(AABB bounds) {
+		Vec3d r = bounds.radius;
+		return (r.x + r.y + r.z) * PICK_FUDGE;
+	}
+
+	// Half the surface area of the box, used to estimate the cost of searching a node
+	private static double getArea(AABB bounds) {
+		Vec3d r = bounds.radius;
+		return r.x * r.y + r.y * r.z + r.z * r.x;
+	}
+
+	private void rebuild() {
+		int numBounded = 0;
+		for (Renderable r : items) {
+			if (isBounded(r.getBoundsRef()))
+				numBounded++;
+		}
+
+		order = new int[numBounded];
+		unbounded = new int[items.length - numBounded];
+		double[] centers = new double[3 * items.length];
+		int b = 0, u = 0;
+		for (int i = 0; i < items.length; i++) {
+			AABB bounds = items[i].getBoundsRef();
+			if (!isBounded(bounds)) {
+				unbounded[u++] = i;
+				continue;
+			}
+			order[b++] = i;
+			centers[3*i    ] = bounds.center.x;
+			centers[3*i + 1] = bounds.center.y;
+			centers[3*i + 2] = bounds.center.z;
+		}
+
+		// Every leaf below a split holds at least two entries, so there are fewer nodes than entries
+		int maxNodes = Math.max(1, numBounded);
+		if (nodeBounds.length < maxNodes) {
+			nodeBounds = new AABB[maxNodes];
+			nodeBox = new double[6*maxNodes];
+			nodeFudge = new double[maxNodes];
+			nodeStart = new int[maxNodes];
+			nodeCount = new int[maxNodes];
+			nodeRight = new int[maxNodes];
+		}
+		numNodes = 0;
+		if (numBounded > 0)
+			this.buildNode(0, numBounded, centers);
+
+		itemLeaf = new int[items.length];
+		Arrays.fill(itemLeaf, -1);
+		for (int node = 0; node < numNodes; node++) {
+			if (nodeRight[node] != -1)
+				continue;
+			for (int i = nodeStart[node]; i < nodeStart[node] + nodeCount[node]; i++) {
+				itemLeaf[order[i]] = node;
+			}
+		}
+
+		builtCost = this.refit();
+	}
+
+	private void buildNode(int start, int count, double[] centers) {
+		int node = numNodes++;
+		nodeStart[node] = start;
+		nodeCount[node] = count;
+		nodeRight[node] = -1;
+		if (count <= MAX_LEAF_SIZE)
+			return;
+
+		// Split at the median centre along the longest axis of the centres
+		double[] min = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY };
+		double[] max = { Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+		for (int i = start; i < start + count; i++) {
+			for (int axis = 0; axis < 3; axis++) {
+				double c = centers[3*order[i] + axis];
+				min[axis] = Math.min(min[axis], c);
+				max[axis] = Math.max(max[axis], c);
+			}
+		}
+		int axis = 0;
+		if (max[1] - min[1] > max[axis] - min[axis]) axis = 1;
+		if (max[2] - min[2] > max[axis] - min[axis]) axis = 2;
+
+		int mid = start + count/2;
+		this.select(start, start + count - 1, mid, axis, centers);
+
+		this.buildNode(start, mid - start, centers);
+		nodeRight[node] = numNodes;
+		this.buildNode(mid, start + count - mid, centers);
+	}
+
+	/**
+	 * Partially sorts the entries in 'order' between lo and hi so that the entry at index k
+	 * has the k-th smallest centre along the given axis.
+	 */
+	private void select(int lo, int hi, int k, int axis, double[] centers) {
+		while (hi > lo) {
+			double pivot = centers[3*order[(lo + hi) >>> 1] + axis];
+			int i = lo, j = hi;
+			while (i <= j) {
+				while (centers[3*order[i] + axis] < pivot) i++;
+				while (centers[3*order[j] + axis] > pivot) j--;
+				if (i <= j) {
+					int temp = order[i];
+					order[i] = order[j];
+					order[j] = temp;
+					i++;
+					j--;
+				}
+			}
+			if (k <= j)
+				hi = j;
+			else if (k >= i)
+				lo = i;
+			else
+				return;
+		}
+	}
+
+	/**
+	 * Recalculates the bounds for every node from the present bounds of the renderables.
+	 * @return the cost of the tree, or infinity if the tree must be rebuilt.
+	 */
+	private double refit() {
+		// Start with empty bounds for each leaf
+		for (int node = 0; node < numNodes; node++) {
+			if (nodeRight[node] != -1)
+				continue;
+			for (int i = 0; i < 3; i++) {
+				nodeBox[6*node + i] = Double.POSITIVE_INFINITY;
+				nodeBox[6*node + 3 + i] = Double.NEGATIVE_INFINITY;
+			}
+			nodeFudge[node] = 0.0d;
+		}
+
+		// Add the renderables to their leaves in scene order, which is faster than visiting
+		// them in tree order
+		for (int i = 0; i < items.length; i++) {
+			AABB bounds = items[i].getBoundsRef();
+			int node = itemLeaf[i];
+			if (node == -1) {
+				if (isBounded(bounds))
+					return Double.POSITIVE_INFINITY;
+				continue;
+			}
+			if (!isBounded(bounds))
+				return Double.POSITIVE_INFINITY;
+
+			int k = 6*node;
+			nodeBox[k    ] = Math.min(nodeBox[k    ], bounds.minPt.x);
+			nodeBox[k + 1] = Math.min(nodeBox[k + 1], bounds.minPt.y);
+			nodeBox[k + 2] = Math.min(nodeBox[k + 2], bounds.minPt.z);
+			nodeBox[k + 3] = Math.max(nodeBox[k + 3], bounds.maxPt.x);
+			nodeBox[k + 4] = Math.max(nodeBox[k + 4], bounds.maxPt.y);
+			nodeBox[k + 5] = Math.max(nodeBox[k + 5], bounds.maxPt.z);
+			nodeFudge[node] = Math.max(nodeFudge[node], getPickFudge(bounds));
+		}
+
+		// Children follow their parents, so the internal nodes can be refit in reverse order
+		Vec3d min = new Vec3d();
+		Vec3d max = new Vec3d();
+		double cost = 0.0d;
+		for (int node = numNodes - 1; node >= 0; node--) {
+			int k = 6*node;
+			int right = nodeRight[node];
+			if (right != -1) {
+				int l = 6*(node + 1);
+				int r = 6*right;
+				for (int i = 0; i < 3; i++) {
+					nodeBox[k + i] = Math.min(nodeBox[l + i], nodeBox[r + i]);
+					nodeBox[k + 3 + i] = Math.max(nodeBox[l + 3 + i], nodeBox[r + 3 + i]);
+				}
+				nodeFudge[node] = Math.max(nodeFudge[node + 1], nodeFudge[right]);
+			}
+
+			min.set3(nodeBox[k], nodeBox[k + 1], nodeBox[k + 2]);
+			max.set3(nodeBox[k + 3], nodeBox[k + 4], nodeBox[k + 5]);
+			if (nodeBounds[node] == null)
+				nodeBounds[node] = new AABB(max, min);
+			else
+				nodeBounds[node].set(max, min);
+			cost += getArea(nodeBounds[node]) * (right == -1 ? nodeCount[node] : 1);
+		}
+		return cost;
+	}
+
+	private void addResult(int index) {
+		if (numResults == results.length)
+			results = Arrays.copyOf(results, 2 * results.length);
+		results[numResults++] = index;
+	}
+
+	private void addSubtree(int node) {
+		int start = nodeStart[node];
+		for (int i = start; i < start + nodeCount[node]; i++) {
+			this.addResult(order[i]);
+		}
+	}
+
+	private ArrayList<Renderable> getResults() {
+		for (int i : unbounded) {
+			this.addResult(i);
+		}
+		Arrays.sort(results, 0, numResults);
+		ArrayList<Renderable> ret = new ArrayList<>(numResults);
+		for (int i = 0; i < numResults; i++) {
+			ret.add(items[results[i]]);
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns the renderables that may collide with the given ray, in scene order. The
+	 * renderables that are not returned are known to return a negative collision distance.
+	 */
+	ArrayList<Renderable> getRayCandidates(Ray ray) {
+		numResults = 0;
+		if (numNodes > 0)
+			this.collectRay(0, ray);
+		return this.getResults();
+	}
+
+	private void collectRay(int node, Ray ray) {
+		while (true) {
+			if (!rayHitsNode(node, ray))
+				return;
+
+			if (nodeRight[node] == -1) {
+				this.addSubtree(node);
+				return;
+			}
+
+			this.collectRay(node + 1, ray);
+			node = nodeRight[node];
+		}
+	}
+
+	/**
+	 * Returns true if the ray passes through the node's bounds expanded by its pick margin.
+	 * Any point at which a renderable in the sub-tree can report a collision is inside
+	 * these expanded bounds.
+	 */
+	private boolean rayHitsNode(int node, Ray ray) {
+		AABB bounds = nodeBounds[node];
+		double fudge = nodeFudge[node] + PICK_EPSILON;
+		Vec4d start = ray.getStartRef();
+		Vec4d dir = ray.getDirRef();
+		double tMin = 0.0d;
+		double tMax = Double.POSITIVE_INFINITY;
+		for (int axis = 0; axis < 3; axis++) {
+			double s = getComp(start, axis);
+			double d = getComp(dir, axis);
+			double lo = getComp(bounds.minPt, axis) - fudge;
+			double hi = getComp(bounds.maxPt, axis) + fudge;
+			if (d == 0.0d) {
+				if (s < lo || s > hi)
+					return false;
+				continue;
+			}
+			double t1 = (lo - s) / d;
+			double t2 = (hi - s) / d;
+			tMin = Math.max(tMin, Math.min(t1, t2));
+			tMax = Math.min(tMax, Math.max(t1, t2));
+			if (tMin > tMax)
+				return false;
+		}
+		return true;
+	}
+
+	private static double getComp(Vec3d v, int axis) {
+		if (axis == 0) return v.x;
+		if (axis == 1) return v.y;
+		return v.z;
+	}
+
+	/**
+	 * Returns the renderables whose bounds may collide with the view frustum for the given
+	 * camera, in scene order. The renderables that are not returned are known to be outside
+	 * the frustum.
+	 */
+	ArrayList<Renderable> getVisibleCandidates(Camera cam) {
+		numResults = 0;
+		if (numNodes > 0)
+			this.collectVisible(0, cam);
+		return this.getResults();
+	}
+
+	private void collectVisible(int node, Camera cam) {
+		while (true) {
+			AABB bounds = nodeBounds[node];
+			if (!cam.collides(bounds))
+				return;
+
+			if (nodeRight[node] == -1 || cam.contains(bounds)) {
+				this.addSubtree(node);
+				return;
+			}
+
+			this.collectVisible(node + 1, cam);
+			node = nodeRight[node];
+		}
+	}
+}
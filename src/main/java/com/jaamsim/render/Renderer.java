@@ -171,6 +171,7 @@ public class Renderer implements GLAnimatorControl {
 
 	// A cache of the current scene, needed by the individual windows to render
 	private ArrayList<Renderable> currentScene = new ArrayList<>();
+	private final RenderableBVH sceneTree = new RenderableBVH(); // Bounds hierarchy for currentScene
 	private ArrayList<OverlayRenderable> currentOverlay = new ArrayList<>();
 
 	public Renderer(boolean safeGraphics) throws RenderException {
@@ -289,9 +290,12 @@ public class Renderer implements GLAnimatorControl {
 
 						currentScene = null;
 						currentOverlay = null;
+						sceneTree.clear();
 						caps = null;
 
-						fontCache.clear();
+						synchronized (fontCache) {
+							fontCache.clear();
+						}
 						protoCache.clear();
 						shaders.clear();
 
@@ -400,11 +404,14 @@ public class Renderer implements GLAnimatorControl {
 	}
 
 	public TessFont getTessFont(TessFontKey key) {
-		if (!fontCache.containsKey(key)) {
-			loadTessFontImp(key); // Try lazy initialization for now
-		}
+		// The proxies for several entities may be gathered at the same time
+		synchronized (fontCache) {
+			if (!fontCache.containsKey(key)) {
+				loadTessFontImp(key); // Try lazy initialization for now
+			}
 
-		return fontCache.get(key);
+			return fontCache.get(key);
+		}
 	}
 
 	public void setScene(ArrayList<RenderProxy> scene) {
@@ -915,6 +922,7 @@ private void initCoreShaders(GL2GL3 gl, String version) throws RenderException {
 				proxy.collectRenderables(this, currentScene);
 				proxy.collectOverlayRenderables(this, currentOverlay);
 			}
+			sceneTree.update(currentScene);
 
 			sceneTimeNS = System.nanoTime() - sceneStart;
 		}
@@ -959,7 +967,7 @@ private void initCoreShaders(GL2GL3 gl, String version) throws RenderException {
 
 			// Do not update the scene while a pick is underway
 			synchronized (sceneLock) {
-				for (Renderable r : currentScene) {
+				for (Renderable r : sceneTree.getRayCandidates(pickRay)) {
 					double rayDist = r.getCollisionDist(pickRay, precise);
 					if (rayDist >= 0.0) {
 
@@ -1186,11 +1194,13 @@ private void initCoreShaders(GL2GL3 gl, String version) throws RenderException {
 
 				allowDelayedTextures = true;
 
-				// Cache the current scene. This way we don't need to lock it for the full render
-				ArrayList<Renderable> scene = new ArrayList<>(currentScene.size());
+				// Cache the part of the current scene that may be in view. This way we don't need
+				// to lock it for the full render
+				ArrayList<Renderable> scene;
 				ArrayList<OverlayRenderable> overlay = new ArrayList<>(currentOverlay.size());
 				synchronized(sceneLock) {
-					scene.addAll(currentScene);
+					scene = sceneTree.getVisibleCandidates(cam);
+					pi.objectsCulled += sceneTree.size() - scene.size();
 					overlay.addAll(currentOverlay);
 				}
 
@@ -1541,7 +1551,7 @@ private void initCoreShaders(GL2GL3 gl, String version) throws RenderException {
 			} else {
 				// Use the current current scene if one is not provided
 				synchronized(sceneLock) {
-					renderables = new ArrayList<>(currentScene);
+					renderables = sceneTree.getVisibleCandidates(message.cam);
 					overlay = new ArrayList<>(currentOverlay);
 				}
 			}
@@ -165,6 +165,35 @@ public class MRG1999a {
 		return p * norm;
 	}
 
+	/**
+	 * Fills part of an array with the next uniformly distributed double values U(0,1).
+	 * The values are the same as those returned by the same number of calls to nextUniform().
+	 * @param buf - array to be filled.
+	 * @param off - index of the first value to be set.
+	 * @param len - number of values to be set.
+	 */
+	public void nextUniforms(double[] buf, int off, int len) {
+		// Hold the state in local variables while the values are generated
+		long x0 = uint(s0), x1 = uint(s1), x2 = uint(s2);
+		long y0 = uint(s3), y1 = uint(s4), y2 = uint(s5);
+		int end = off + len;
+		for (int i = off; i < end; i++) {
+			long p1 = (1403580l * x1 - 810728l * x0) % m1;
+			if (p1 < 0) p1 += m1;
+			x0 = x1; x1 = x2; x2 = p1;
+
+			long p2 = (527612l * y2 - 1370589l * y0) % m2;
+			if (p2 < 0) p2 += m2;
+			y0 = y1; y1 = y2; y2 = p2;
+
+			long p = p1 - p2;
+			if (p <= 0) p += m1;
+			buf[i] = p * norm;
+		}
+		s0 = (int)x0; s1 = (int)x1; s2 = (int)x2;
+		s3 = (int)y0; s4 = (int)y1; s5 = (int)y2;
+	}
+
 	@Override
 	public String toString() {
 		return String.format("%d, %d, %d, %d, %d, %d",
@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2014 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,11 +18,12 @@
 package com.jaamsim.states;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 
+import com.jaamsim.BasicObjects.LogBuffer;
 import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.basicsim.Entity;
 import com.jaamsim.basicsim.FileEntity;
@@ -50,14 +52,22 @@ public class StateEntity extends DisplayEntity {
 		     exampleList = "'Transit - Seg1L' 'Transit - Seg1B'")
 	protected final StringListInput workingStateListInput;
 
+	protected static final int STATE_IDLE = StateTable.STATE_IDLE;
+	protected static final int STATE_WORKING = StateTable.STATE_WORKING;
+
+	private final StateTable stateTable; // Index numbers for the state names in the model
 	private StateRecord presentState; // The present state of the entity
-	private final HashMap<String, StateRecord> states;
+	private StateRecord[] stateArray; // State records indexed by state index, null if not used
+	private long[] totalTicks; // Ticks in each state, indexed by state index
+	private long[] currentCycleTicks; // Ticks in each state for the present cycle
+	private final ArrayList<StateRecord> states;
 	private final ArrayList<StateEntityListener> stateListeners;
 
 	private long lastStateCollectionTick;
 	private long workingTicks;
 
 	protected FileEntity stateReportFile;        // The file to store the state information
+	private LogBuffer stateReportBuffer;
 
 	{
 		stateGraphics = new StringKeyInput<>(DisplayEntity.class, "StateGraphics", "Key Inputs");
@@ -73,7 +83,11 @@ public class StateEntity extends DisplayEntity {
 	}
 
 	public StateEntity() {
-		states = new HashMap<>();
+		stateTable = getJaamSimModel().getStateTable();
+		stateArray = new StateRecord[stateTable.size()];
+		totalTicks = new long[stateArray.length];
+		currentCycleTicks = new long[stateArray.length];
+		states = new ArrayList<>();
 		stateListeners = new ArrayList<>();
 	}
 
@@ -86,13 +100,29 @@ public class StateEntity extends DisplayEntity {
 		if (testFlag(FLAG_GENERATED))
 			return;
 
+		// Close the state trace file from the previous run
+		if (stateReportFile != null) {
+			stateReportBuffer.flush();
+			stateReportFile.close();
+			stateReportFile = null;
+			stateReportBuffer = null;
+		}
+
 		// Create state trace file if required
 		if (traceState.getValue()) {
 			String fileName = InputAgent.getReportFileName(InputAgent.getRunName() + "-" + this.getName() + ".trc");
 			stateReportFile = new FileEntity( fileName);
+			stateReportBuffer = new LogBuffer(stateReportFile);
 		}
 	}
 
+	@Override
+	public void doEnd() {
+		super.doEnd();
+		if (stateReportBuffer != null)
+			stateReportBuffer.flush();
+	}
+
 	@Override
 	public void lateInit() {
 		super.lateInit();
@@ -110,17 +140,74 @@ public class StateEntity extends DisplayEntity {
 		if (EventManager.hasCurrent())
 			lastStateCollectionTick = getSimTicks();
 		workingTicks = 0;
+		Arrays.fill(stateArray, null);
+		Arrays.fill(totalTicks, 0L);
+		Arrays.fill(currentCycleTicks, 0L);
 		states.clear();
 
-		String initState = getInitialState().intern();
-		StateRecord init = new StateRecord(initState, isValidWorkingState(initState));
+		String initState = getInitialState();
+		StateRecord init = this.createState(stateTable.getIndex(initState));
 		init.startTick = lastStateCollectionTick;
 		presentState = init;
-		states.put(init.name, init);
 
 		this.setGraphicsForState(initState);
 	}
 
+	/**
+	 * Returns the index number for the specified state name. A new index number is assigned
+	 * if the state name has not been used before in this model.
+	 * <p>
+	 * The index number for a state name is the same for every StateEntity in the model, so
+	 * a subclass can look up the index numbers for its states in advance and use
+	 * setPresentState(int) to avoid looking up the state name on each state change. The
+	 * index numbers for Idle and Working are the same for every model, and are given by
+	 * STATE_IDLE and STATE_WORKING.
+	 * @param state - state name
+	 * @return index number for the state
+	 */
+	protected final int getStateIndex(String state) {
+		return stateTable.getIndex(state);
+	}
+
+	/**
+	 * Returns the state record for the specified state index, or null if the state has not
+	 * been used by this entity.
+	 */
+	private StateRecord getStateRecord(int index) {
+		if (index < 0 || index >= stateArray.length)
+			return null;
+		return stateArray[index];
+	}
+
+	private StateRecord createState(int index) {
+		String state = stateTable.getName(index);
+		if (index >= stateArray.length) {
+			int size = stateTable.size();
+			stateArray = Arrays.copyOf(stateArray, size);
+			totalTicks = Arrays.copyOf(totalTicks, size);
+			currentCycleTicks = Arrays.copyOf(currentCycleTicks, size);
+		}
+
+		StateRecord rec = new StateRecord(state, index, isValidWorkingState(state));
+		states.add(rec);
+		stateArray[index] = rec;
+		return rec;
+	}
+
+	/**
+	 * Returns the index number for the specified state name, after confirming that the
+	 * state is valid for this entity. An invalid state name is not assigned an index number.
+	 */
+	private int getValidStateIndex(String state) {
+		int index = stateTable.findIndex(state);
+		if (index >= 0)
+			return index;
+
+		if (!isValidState(state))
+			error("Specified state: %s is not valid", state);
+		return stateTable.getIndex(state);
+	}
+
 	public ArrayList<StateEntityListener> getStateListeners() {
 		return stateListeners;
 	}
@@ -166,17 +253,33 @@ public class StateEntity extends DisplayEntity {
 		if (presentState.name.equals(state))
 			return;
 
-		StateRecord nextState = states.get(state);
+		this.setPresentState(this.getValidStateIndex(state));
+	}
+
+	/**
+	 * Sets the state of this Entity to the state with the given index number.
+	 * @param index - index number returned by getStateIndex
+	 */
+	public final void setPresentState(int index) {
+		if (presentState == null)
+			this.initStateData();
+
+		if (presentState.index == index)
+			return;
+
+		StateRecord nextState = this.getStateRecord(index);
 		if (nextState == null) {
+			String state = stateTable.getName(index);
 			if (!isValidState(state))
 				error("Specified state: %s is not valid", state);
 
-			String intState = state.intern();
-			nextState = new StateRecord(intState, isValidWorkingState(intState));
-			states.put(nextState.name, nextState);
+			nextState = this.createState(index);
 		}
+		this.changeState(nextState);
+	}
 
-		this.setGraphicsForState(state);
+	private void changeState(StateRecord nextState) {
+		this.setGraphicsForState(nextState.name);
 
 		updateStateStats();
 		nextState.startTick = lastStateCollectionTick;
@@ -217,10 +320,14 @@ public class StateEntity extends DisplayEntity {
 			EventManager evt = EventManager.current();
 			double duration = evt.ticksToSeconds(curTick - prev.getStartTick());
 			double timeOfPrevStart = evt.ticksToSeconds(prev.getStartTick());
-			stateReportFile.format("%.5f  %s.setState( \"%s\" ) dt = %g\n",
-			                       timeOfPrevStart, this.getName(),
-			                       prev.name, duration);
-			stateReportFile.flush();
+			stateReportBuffer.value(timeOfPrevStart, 5);
+			stateReportBuffer.text("  ");
+			stateReportBuffer.text(this.getName());
+			stateReportBuffer.text(".setState( \"");
+			stateReportBuffer.text(prev.name);
+			stateReportBuffer.text("\" ) dt = ");
+			stateReportBuffer.value(duration, "%g");
+			stateReportBuffer.text("\n");
 		}
 
 		for (StateEntityListener each : stateListeners) {
@@ -239,8 +346,8 @@ public class StateEntity extends DisplayEntity {
 		long durTicks = curTick - lastStateCollectionTick;
 		lastStateCollectionTick = curTick;
 
-		presentState.totalTicks += durTicks;
-		presentState.currentCycleTicks += durTicks;
+		totalTicks[presentState.index] += durTicks;
+		currentCycleTicks[presentState.index] += durTicks;
 		if (presentState.working)
 			workingTicks += durTicks;
 	}
@@ -251,9 +358,9 @@ public class StateEntity extends DisplayEntity {
 	public void collectInitializationStats() {
 		updateStateStats();
 
-		for (StateRecord each : states.values()) {
-			each.initTicks = each.totalTicks;
-			each.totalTicks = 0;
+		for (StateRecord each : states) {
+			each.initTicks = totalTicks[each.index];
+			totalTicks[each.index] = 0;
 			each.completedCycleTicks = 0;
 		}
 	}
@@ -265,8 +372,8 @@ public class StateEntity extends DisplayEntity {
 		updateStateStats();
 
 		// clear totalHours for each state record
-		for (StateRecord each : states.values()) {
-			each.totalTicks = 0;
+		for (StateRecord each : states) {
+			totalTicks[each.index] = 0;
 			each.completedCycleTicks = 0;
 		}
 	}
@@ -278,8 +385,8 @@ public class StateEntity extends DisplayEntity {
 		updateStateStats();
 
 		// clear current cycle hours for each state record
-		for (StateRecord each : states.values()) {
-			each.currentCycleTicks = 0;
+		for (StateRecord each : states) {
+			currentCycleTicks[each.index] = 0;
 		}
 	}
 
@@ -290,25 +397,32 @@ public class StateEntity extends DisplayEntity {
 		updateStateStats();
 
 		// finalize cycle for each state record
-		for (StateRecord each : states.values()) {
-			each.completedCycleTicks += each.currentCycleTicks;
-			each.currentCycleTicks = 0;
+		for (StateRecord each : states) {
+			each.completedCycleTicks += currentCycleTicks[each.index];
+			currentCycleTicks[each.index] = 0;
 		}
 	}
 
 	public void addState(String str) {
-		if (states.get(str) != null)
+		this.addState(this.getValidStateIndex(str));
+	}
+
+	public void addState(int index) {
+		if (this.getStateRecord(index) != null)
 			return;
-		if (!isValidState(str))
-			error("Specified state: %s is not valid", str);
+		String state = stateTable.getName(index);
+		if (!isValidState(state))
+			error("Specified state: %s is not valid", state);
 
-		String state = str.intern();
-		StateRecord stateRec = new StateRecord(state, isValidWorkingState(state));
-		states.put(stateRec.name, stateRec);
+		this.createState(index);
 	}
 
 	public StateRecord getState(String state) {
-		return states.get(state);
+		return this.getStateRecord(stateTable.findIndex(state));
+	}
+
+	public StateRecord getState(int index) {
+		return this.getStateRecord(index);
 	}
 
 	public StateRecord getState() {
@@ -323,9 +437,7 @@ public class StateEntity extends DisplayEntity {
 	}
 
 	public ArrayList<StateRecord> getStateRecs() {
-		ArrayList<StateRecord> recs = new ArrayList<>(states.size());
-		for (StateRecord rec : states.values())
-			recs.add(rec);
+		ArrayList<StateRecord> recs = new ArrayList<>(states);
 		Collections.sort(recs, new StateRecSort());
 		return recs;
 	}
@@ -348,7 +460,7 @@ public class StateEntity extends DisplayEntity {
 		if (state == null)
 			return 0;
 
-		long ticks = state.totalTicks;
+		long ticks = totalTicks[state.index];
 		if (getState() == state)
 			ticks += (simTicks - lastStateCollectionTick);
 		return ticks;
@@ -358,7 +470,7 @@ public class StateEntity extends DisplayEntity {
 		if (state == null)
 			return 0;
 
-		long ticks = state.totalTicks;
+		long ticks = totalTicks[state.index];
 		if (getState() == state)
 			ticks += (getSimTicks() - lastStateCollectionTick);
 		return ticks;
@@ -368,7 +480,7 @@ public class StateEntity extends DisplayEntity {
 		if (state == null)
 			return 0;
 
-		long ticks = state.currentCycleTicks;
+		long ticks = currentCycleTicks[state.index];
 		if (getState() == state)
 			ticks += (getSimTicks() - lastStateCollectionTick);
 		return ticks;
@@ -414,7 +526,7 @@ public class StateEntity extends DisplayEntity {
 	 */
 	public double getTimeInState(double simTime, String state) {
 		long simTicks = EventManager.secsToNearestTick(simTime);
-		StateRecord rec = states.get(state.intern());
+		StateRecord rec = this.getState(state);
 		if (rec == null)
 			return 0.0;
 		long ticks = getTicksInState(simTicks, rec);
@@ -18,15 +18,15 @@ package com.jaamsim.states;
 
 public class StateRecord {
 	public final String name;
+	final int index;
 	long initTicks;
-	long totalTicks;
 	long completedCycleTicks;
-	long currentCycleTicks;
 	long startTick;
 	public final boolean working;
 
-	StateRecord(String state, boolean work) {
+	StateRecord(String state, int ind, boolean work) {
 		name = state;
+		index = ind;
 		working = work;
 	}
 
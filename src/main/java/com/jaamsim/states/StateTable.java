@@ -0,0 +1,73 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.states;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Assigns the index numbers for the state names used by the StateEntities in a model.
+ * Each model has its own table, so the index numbers for the state names entered by the
+ * user are discarded along with the model. The states Idle and Working are always
+ * assigned the index numbers 0 and 1.
+ */
+public class StateTable {
+	static final int STATE_IDLE = 0;
+	static final int STATE_WORKING = 1;
+
+	private final HashMap<String, Integer> indices = new HashMap<>();
+	private final ArrayList<String> names = new ArrayList<>();
+
+	public StateTable() {
+		getIndex("Idle");
+		getIndex("Working");
+	}
+
+	/**
+	 * Returns the index number for the specified state name. A new index number is
+	 * assigned if the state name has not been used before.
+	 */
+	synchronized int getIndex(String state) {
+		Integer ret = indices.get(state);
+		if (ret != null)
+			return ret;
+
+		int index = names.size();
+		names.add(state);
+		indices.put(state, index);
+		return index;
+	}
+
+	/**
+	 * Returns the index number for the specified state name, or -1 if an index number has
+	 * not been assigned.
+	 */
+	synchronized int findIndex(String state) {
+		Integer ret = indices.get(state);
+		if (ret == null)
+			return -1;
+		return ret;
+	}
+
+	synchronized String getName(int index) {
+		return names.get(index);
+	}
+
+	synchronized int size() {
+		return names.size();
+	}
+}
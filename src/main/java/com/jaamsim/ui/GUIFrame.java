@@ -76,6 +76,7 @@ import javax.swing.filechooser.FileNameExtensionFilter;
 import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.basicsim.Entity;
 import com.jaamsim.basicsim.ErrorException;
+import com.jaamsim.basicsim.ParallelRunner;
 import com.jaamsim.basicsim.Simulation;
 import com.jaamsim.controllers.RateLimiter;
 import com.jaamsim.controllers.RenderManager;
@@ -1229,7 +1230,7 @@ public class GUIFrame extends OSFixJFrame implements EventTimeListener, EventErr
 
 		// Set the run progress bar display
 		long cTime = System.currentTimeMillis();
-		double duration = Simulation.getRunDuration() + Simulation.getInitializationTime();
+		double duration = Simulation.getRunDuration() + Simulation.getInstance().getInitializationTime();
 		double timeElapsed = simTime - Simulation.getStartTime();
 		int progress = (int)(timeElapsed * 100.0d / duration);
 		this.setProgress(progress);
@@ -1664,7 +1665,8 @@ public class GUIFrame extends OSFixJFrame implements EventTimeListener, EventErr
 		boolean scriptMode = false;
 		boolean headless = false;
 
-		for (String each : args) {
+		for (int i = 0; i < args.length; i++) {
+			String each = args[i];
 			// Batch mode
 			if (each.equalsIgnoreCase("-b") ||
 			    each.equalsIgnoreCase("-batch")) {
@@ -1707,6 +1709,18 @@ public class GUIFrame extends OSFixJFrame implements EventTimeListener, EventErr
 				SAFE_GRAPHICS = true;
 				continue;
 			}
+			// Stack size in kilobytes for the threads that execute simulation processes
+			if (each.equalsIgnoreCase("-ss") ||
+			    each.equalsIgnoreCase("-stacksize")) {
+				i++;
+				try {
+					EventManager.setProcessStackSize(Long.parseLong(args[i]) * 1024L);
+				}
+				catch (RuntimeException e) {
+					LogBox.format("Invalid process stack size, expected a size in kilobytes after %s", each);
+				}
+				continue;
+			}
 			// Not a program directive, add to list of config files
 			configFiles.add(each);
 		}
@@ -1826,6 +1840,21 @@ public class GUIFrame extends OSFixJFrame implements EventTimeListener, EventErr
 		if (batch) {
 			if (InputAgent.numErrors() > 0)
 				GUIFrame.shutdown(0);
+
+			// Execute multiple runs in parallel if requested
+			if (ParallelRunner.isParallel()) {
+				try {
+					ParallelRunner.executeRuns();
+				}
+				catch (Throwable t) {
+					InputAgent.logMessage("Error executing parallel runs: %s", t.getMessage());
+					InputAgent.logStackTrace(t);
+					GUIFrame.shutdown(1);
+				}
+				InputAgent.closeLogFile();
+				GUIFrame.shutdown(0);
+			}
+
 			Simulation.start(evt);
 			return;
 		}
@@ -229,6 +229,8 @@ public class ObjectSelector extends FrameBox {
 		for (int i = 0; i < Entity.getAll().size(); i++) {
 			try {
 				final Entity ent = Entity.getAll().get(i);
+				if (ent == null)
+					continue;
 
 				// The instance for Simulation has already been added
 				if (ent == Simulation.getInstance())
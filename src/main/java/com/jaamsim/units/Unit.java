@@ -20,8 +20,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.jaamsim.basicsim.Entity;
+import com.jaamsim.basicsim.JaamSimModel;
 import com.jaamsim.basicsim.ObjectType;
 import com.jaamsim.input.Input;
 import com.jaamsim.input.Keyword;
@@ -39,13 +41,11 @@ public abstract class Unit extends Entity {
 		this.addInput(conversionFactorToSI);
 	}
 
-	private static final HashMap<Class<? extends Unit>, Unit>
-		preferredUnit = new HashMap<>();
-
 	public Unit() {}
 
-	private static final HashMap<Class<? extends Unit>, String>
-		siUnit = new HashMap<>();
+	// The SI unit for each unit type is shared by every model
+	private static final ConcurrentHashMap<Class<? extends Unit>, String>
+		siUnit = new ConcurrentHashMap<>();
 
 	public static final void setSIUnit(Class<? extends Unit> unitType, String si) {
 		siUnit.put(unitType, si);
@@ -78,24 +78,31 @@ public abstract class Unit extends Entity {
 		for (String utName : utList) {
 			ObjectType ot = Input.parseEntity(utName, ObjectType.class);
 			Class<? extends Unit> ut = Input.checkCast(ot.getJavaClass(), Unit.class);
-			preferredUnit.remove(ut);
+			getPreferredUnits().remove(ut);
 		}
 	}
 
+	/**
+	 * Returns the preferred units for the current model.
+	 */
+	private static HashMap<Class<? extends Unit>, Unit> getPreferredUnits() {
+		return JaamSimModel.getCurrent().getPreferredUnits();
+	}
+
 	public static final void setPreferredUnit(Class<? extends Unit> type, Unit u) {
 		if (u.getName().equals(Unit.getSIUnit(type))) {
-			preferredUnit.remove(type);
+			getPreferredUnits().remove(type);
 			return;
 		}
-		preferredUnit.put(type, u);
+		getPreferredUnits().put(type, u);
 	}
 
 	public static final ArrayList<Unit> getPreferredUnitList() {
-		return new ArrayList<>(preferredUnit.values());
+		return new ArrayList<>(getPreferredUnits().values());
 	}
 
 	public static final <T extends Unit> Unit getPreferredUnit(Class<T> type) {
-		return preferredUnit.get(type);
+		return getPreferredUnits().get(type);
 	}
 
 	public static final <T extends Unit> String getDisplayedUnit(Class<T> ut) {
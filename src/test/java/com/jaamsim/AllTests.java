@@ -24,6 +24,18 @@ import org.junit.runners.Suite.SuiteClasses;
 @SuiteClasses({
 	com.jaamsim.events.TestEventManager.class,
 	com.jaamsim.events.TestEventTree.class,
+	com.jaamsim.basicsim.TestJaamSimModel.class,
+	com.jaamsim.basicsim.TestParallelRunner.class,
+	com.jaamsim.ProcessFlow.TestQueue.class,
+	com.jaamsim.ProcessFlow.TestSeizeHeap.class,
+	com.jaamsim.states.TestStateEntity.class,
+	com.jaamsim.basicsim.TestEventRecorder.class,
+	com.jaamsim.datatypes.TestIndexedTreeSet.class,
+	com.jaamsim.Samples.TestTimeSeriesFileData.class,
+	com.jaamsim.Samples.TestTimeSeriesCursor.class,
+	com.jaamsim.BasicObjects.TestLogBuffer.class,
+	com.jaamsim.render.TestRenderableBVH.class,
+	com.jaamsim.render.TestDisplayModelBinding.class,
 	com.jaamsim.math.TestAABB.class,
 	com.jaamsim.math.TestQuaternion.class,
 	com.jaamsim.math.TestTransform.class,
@@ -60,6 +72,7 @@ import org.junit.runners.Suite.SuiteClasses;
 	com.jaamsim.probability.TestBooleanSelector.class,
 	com.jaamsim.MeshFiles.TestVertexMap.class,
 	com.jaamsim.MeshFiles.TestDataBlocks.class,
+	com.jaamsim.MeshFiles.TestMeshFileCache.class,
 	com.jaamsim.DirectedGraph.TestComplexDirectedGraph.class,
 	com.jaamsim.DirectedGraph.TestTrivalDirectedGraph.class,
 	com.jaamsim.Route.TestRouteComponents.class,
@@ -0,0 +1,118 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.BasicObjects;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import com.jaamsim.basicsim.ErrorException;
+import com.jaamsim.basicsim.FileEntity;
+
+public class TestLogBuffer {
+
+	/**
+	 * The text written through a LogBuffer is the same as the text formatted directly,
+	 * including entries that span several blocks and direct writes made after a flush.
+	 */
+	@Test
+	public void testLogBuffer() throws IOException {
+		File tmp = File.createTempFile("TestLogBuffer", ".log");
+		try {
+			FileEntity file = new FileEntity(tmp.getPath());
+			LogBuffer buffer = new LogBuffer(file);
+			StringBuilder expected = new StringBuilder();
+
+			file.write("Header");
+			expected.append("Header");
+			for (int i = 0; i < 10000; i++) {
+				double val = i * 0.37d;
+				buffer.newLine();
+				buffer.value(val);
+				buffer.tab();
+				buffer.value(val, 3);
+				buffer.tab();
+				buffer.text(i % 2 == 0 ? "even" : null);
+				expected.append(System.lineSeparator());
+				expected.append(String.format("%s\t%.3f\t%s", val, val, i % 2 == 0 ? "even" : "null"));
+
+				if (i == 5000) {
+					buffer.flush();
+					file.write("\tDirect");
+					expected.append("\tDirect");
+				}
+			}
+			buffer.flush();
+			file.close();
+
+			String actual = new String(Files.readAllBytes(tmp.toPath()), Charset.defaultCharset());
+			assertTrue(actual.equals(expected.toString()));
+		}
+		finally {
+			tmp.delete();
+		}
+	}
+
+	/**
+	 * An entry that cannot be written causes the next flush to throw an ErrorException
+	 * instead of being discarded, and the entries for other files are still written.
+	 */
+	@Test
+	public void testWriteError() throws IOException {
+		File tmp1 = File.createTempFile("TestLogBuffer", ".log");
+		File tmp2 = File.createTempFile("TestLogBuffer", ".log");
+		try {
+			FileEntity file1 = new FileEntity(tmp1.getPath());
+			LogBuffer buffer1 = new LogBuffer(file1);
+			buffer1.value(1.0d, "%d");
+			assertTrue(getFlushError(buffer1) != null);
+
+			// The error is reported again for later entries
+			buffer1.text("after");
+			assertTrue(getFlushError(buffer1) != null);
+			file1.close();
+
+			FileEntity file2 = new FileEntity(tmp2.getPath());
+			LogBuffer buffer2 = new LogBuffer(file2);
+			buffer2.text("other");
+			buffer2.flush();
+			file2.close();
+
+			String actual = new String(Files.readAllBytes(tmp2.toPath()), Charset.defaultCharset());
+			assertTrue(actual.equals("other"));
+		}
+		finally {
+			tmp1.delete();
+			tmp2.delete();
+		}
+	}
+
+	private static ErrorException getFlushError(LogBuffer buffer) {
+		try {
+			buffer.flush();
+		}
+		catch (ErrorException e) {
+			return e;
+		}
+		return null;
+	}
+}
@@ -1,6 +1,7 @@
 /*
  * JaamSim Discrete Event Simulation
  * Copyright (C) 2012 Ausenco Engineering Canada Inc.
+ * Copyright (C) 2017 JaamSim Software Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +21,12 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.zip.CRC32;
 
 import org.junit.Test;
 
@@ -256,4 +263,96 @@ public class TestDataBlocks {
 			assertTrue(grandChild.readDouble() == i * 16000);
 		}
 	}
+
+	@Test
+	public void testArraysWriteAndRead() throws Throwable {
+		FloatBuffer floats = FloatBuffer.allocate(99);
+		for (int i = 0; i < 99; ++i) {
+			floats.put(i, i * 0.25f);
+		}
+		IntBuffer ints = IntBuffer.allocate(33);
+		for (int i = 0; i < 33; ++i) {
+			ints.put(i, i * 7);
+		}
+
+		DataBlock block = new DataBlock("Arrays", 0);
+		DataBlock floatBlock = new DataBlock("Floats", 99 * 4);
+		floatBlock.writeFloats(floats);
+		block.addChildBlock(floatBlock);
+		DataBlock intBlock = new DataBlock("Ints", 33 * 4);
+		intBlock.writeInts(ints);
+		block.addChildBlock(intBlock);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BlockWriter.writeBlock(out, block);
+		byte[] binaryBlock = out.toByteArray();
+		assertTrue(binaryBlock.length % BlockUtils.ALIGNMENT == 0);
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect(binaryBlock.length);
+		buffer.put(binaryBlock);
+		DataBlock readBlock = BlockReader.readBlock(buffer, 0);
+
+		// The arrays are direct views of the buffer in native order, ready for OpenGL
+		FloatBuffer readFloats = readBlock.findChildByName("Floats").readFloats();
+		assertTrue(readFloats.isDirect());
+		assertTrue(readFloats.order() == ByteOrder.nativeOrder());
+		assertTrue(readFloats.equals(floats));
+
+		IntBuffer readInts = readBlock.findChildByName("Ints").readInts();
+		assertTrue(readInts.isDirect());
+		assertTrue(readInts.equals(ints));
+	}
+
+	/**
+	 * Blocks in the original unaligned format can still be read
+	 */
+	@Test
+	public void testReadUnalignedBlock() throws Throwable {
+		byte[] childData = new byte[12];
+		for (int i = 0; i < 3; ++i) {
+			BlockUtils.intToBytes(i * 42, childData, i * 4);
+		}
+		byte[] child = unalignedBlock("Kid", childData, new byte[0], 0);
+		byte[] parentData = new byte[8];
+		BlockUtils.longToBytes(123456789L, parentData, 0);
+		byte[] parent = unalignedBlock("Parent", parentData, child, 1);
+
+		DataBlock readBlock = BlockReader.readBlock(new ByteArrayInputStream(parent));
+		assertTrue(readBlock.getName().equals("Parent"));
+		assertTrue(readBlock.getDataSize() == 8);
+		assertTrue(readBlock.readLong() == 123456789L);
+		assertTrue(readBlock.getChildren().size() == 1);
+
+		DataBlock readChild = readBlock.getChildren().get(0);
+		assertTrue(readChild.getName().equals("Kid"));
+		for (int i = 0; i < 3; ++i) {
+			assertTrue(readChild.readInt() == i * 42);
+		}
+	}
+
+	private static byte[] unalignedBlock(String name, byte[] data, byte[] children, int numChildren) throws IOException {
+		byte[] nameBytes = name.getBytes("UTF-8");
+		byte[] numBytes = new byte[12];
+		BlockUtils.intToBytes(numChildren, numBytes, 0);
+		BlockUtils.longToBytes(children.length + data.length, numBytes, 4);
+
+		CRC32 headerCRC = new CRC32();
+		headerCRC.update(nameBytes);
+		headerCRC.update(0);
+		headerCRC.update(numBytes);
+		byte[] crcBytes = new byte[4];
+		BlockUtils.intToBytes((int)headerCRC.getValue(), crcBytes, 0);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(BlockUtils.header);
+		out.write(crcBytes);
+		out.write(nameBytes);
+		out.write(0);
+		out.write(numBytes);
+		out.write(children);
+		out.write(data);
+		out.write(new byte[4]); // payload CRC, not checked
+		out.write(BlockUtils.footer);
+		return out.toByteArray();
+	}
 }
@@ -0,0 +1,89 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.MeshFiles;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Test;
+
+public class TestMeshFileCache {
+
+	/**
+	 * A converted asset is written to the cache and read back with the same contents, and the
+	 * cached copy is not used once the asset has changed.
+	 */
+	@Test
+	public void testCacheRoundTrip() throws Exception {
+		File file = File.createTempFile("test", ".dae");
+		file.deleteOnExit();
+		try (InputStream in = TestMeshFileCache.class.getResourceAsStream("/resources/shapes/cube.dae")) {
+			Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		URI asset = file.toURI();
+		File cache = MeshFileCache.getCacheFile(asset);
+		cache.delete();
+
+		try {
+			// Cache miss
+			MeshData parsed = MeshFileCache.parse(asset, false);
+			MeshData loaded = MeshFileCache.load(asset);
+			assertTrue(cache.isFile());
+			assertSameMesh(parsed, loaded);
+
+			// Cache hit
+			byte[] hash = MeshFileCache.getContentHash(asset);
+			MeshData cached = MeshFileCache.openCache(cache, asset, hash);
+			assertTrue(cached != null);
+			assertSameMesh(parsed, cached);
+			assertTrue(MeshFileCache.openCache(cache, new File(file.getPath() + "x").toURI(), hash) == null);
+
+			// The asset has changed
+			try (FileOutputStream out = new FileOutputStream(file, true)) {
+				out.write("<!-- edited -->\n".getBytes("UTF-8"));
+			}
+			byte[] newHash = MeshFileCache.getContentHash(asset);
+			assertTrue(MeshFileCache.openCache(cache, asset, newHash) == null);
+			assertSameMesh(parsed, MeshFileCache.load(asset));
+			assertTrue(MeshFileCache.openCache(cache, asset, newHash) != null);
+
+			// A damaged cache file is replaced
+			Files.write(cache.toPath(), new byte[64], StandardOpenOption.TRUNCATE_EXISTING);
+			assertTrue(MeshFileCache.openCache(cache, asset, newHash) == null);
+			assertSameMesh(parsed, MeshFileCache.load(asset));
+		}
+		finally {
+			cache.delete();
+		}
+	}
+
+	private static void assertSameMesh(MeshData expected, MeshData actual) {
+		assertTrue(actual.getNumSubMeshes() == expected.getNumSubMeshes());
+		assertTrue(actual.getNumSubInstances() == expected.getNumSubInstances());
+		assertTrue(actual.getNumTriangles() == expected.getNumTriangles());
+		assertTrue(actual.getNumVertices() == expected.getNumVertices());
+		assertTrue(actual.getDefaultBounds().center.equals3(expected.getDefaultBounds().center));
+		assertTrue(actual.getDefaultBounds().radius.equals3(expected.getDefaultBounds().radius));
+	}
+}
@@ -18,8 +18,6 @@ package com.jaamsim.MeshFiles;
 
 import static org.junit.Assert.assertTrue;
 
-import java.util.ArrayList;
-
 import org.junit.Test;
 
 import com.jaamsim.math.Vec2d;
@@ -46,7 +44,29 @@ public class TestVertexMap {
 		assertTrue(ind2 == 0);
 		assertTrue(ind3 == 1);
 
-		ArrayList<Vertex> verts = map.getVertList();
-		assertTrue(verts.get(1).getTexCoord().equals2(vecD));
+		double[] texCoords = map.getTexCoords();
+		assertTrue(map.getNumVerts() == 2);
+		assertTrue(texCoords[2] == vecD.x && texCoords[3] == vecD.y);
+	}
+
+	/**
+	 * Vertices are still found after the map has grown, and a vertex without a texture
+	 * coordinate is different from one with a texture coordinate.
+	 */
+	@Test
+	public void testGrow() throws Throwable {
+		VertexMap map = new VertexMap();
+		Vec3d normal = new Vec3d(0, 0, 1);
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(map.getVertIndex(new Vec3d(i, i % 7, 0), normal, new Vec2d(i % 3, 0)) == i);
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(map.getVertIndex(new Vec3d(i, i % 7, 0), normal, new Vec2d(i % 3, 0)) == i);
+		}
+		assertTrue(map.getVertIndex(new Vec3d(0, 0, 0), normal, null) == 1000);
+
+		double[] positions = map.getPositions();
+		assertTrue(positions.length == 1001 * 3);
+		assertTrue(positions[999 * 3] == 999 && positions[999 * 3 + 1] == 999 % 7);
 	}
 }
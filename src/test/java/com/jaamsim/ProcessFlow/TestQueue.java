@@ -0,0 +1,166 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.ProcessFlow;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.jaamsim.Graphics.DisplayEntity;
+import com.jaamsim.basicsim.JaamSimModel;
+import com.jaamsim.events.TestFrameworkHelpers;
+import com.jaamsim.events.TestFrameworkHelpers.TestProcess;
+import com.jaamsim.input.InputAgent;
+import com.jaamsim.math.Vec3d;
+
+public class TestQueue {
+
+	/**
+	 * The entities displayed by a queue and their positions are the same as for a layout of
+	 * the whole queue, after a mix of additions, removals and changes to MaxPerLine and
+	 * MaxDisplayed.
+	 */
+	@Test
+	public void testLayout() throws Throwable {
+		TestFrameworkHelpers.runProcess(new JaamSimModel(), new TestProcess() {
+			@Override
+			public void run() {
+				checkQueueLayout();
+			}
+		}, 10000);
+	}
+
+	static void checkQueueLayout() {
+		Queue q = new Queue();
+		q.setName("Q");
+		q.setPosition(new Vec3d(3.0d, 2.0d, 0.0d));
+		q.setOrientation(new Vec3d(0.0d, 0.0d, 0.3d));
+		q.setSize(new Vec3d(2.0d, 1.0d, 0.1d));
+
+		// Entities added before the queue is first displayed
+		Random rand = new Random(1);
+		ArrayList<DisplayEntity> queued = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			queued.add(addEntity(q, "A" + i, rand));
+		}
+		q.updateGraphics(0.0d);
+		checkLayout(q, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+		int maxPerLine = 7;
+		int maxDisplayed = Integer.MAX_VALUE;
+		InputAgent.applyArgs(q, "MaxPerLine", Integer.toString(maxPerLine));
+		for (int step = 0; step < 400; step++) {
+			if (queued.isEmpty() || rand.nextInt(3) != 0) {
+				queued.add(addEntity(q, "E" + step, rand));
+			}
+			else {
+				DisplayEntity ent = queued.remove(rand.nextInt(queued.size()));
+				q.removeEntity(ent);
+			}
+
+			if (step == 100) {
+				maxDisplayed = 10;
+				InputAgent.applyArgs(q, "MaxDisplayed", Integer.toString(maxDisplayed));
+			}
+			if (step == 200) {
+				maxPerLine = 5;
+				InputAgent.applyArgs(q, "MaxPerLine", Integer.toString(maxPerLine));
+			}
+			if (step == 300) {
+				maxDisplayed = 40;
+				InputAgent.applyArgs(q, "MaxDisplayed", Integer.toString(maxDisplayed));
+			}
+
+			// The graphics are updated less often than the queue changes
+			if (step % 3 != 0)
+				continue;
+			q.updateGraphics(0.0d);
+			checkLayout(q, maxPerLine, maxDisplayed);
+		}
+
+		// More changes between two updates than are recorded for the graphics
+		for (int i = 0; i < 1200; i++) {
+			if (queued.isEmpty() || rand.nextBoolean()) {
+				queued.add(addEntity(q, "B" + i, rand));
+			}
+			else {
+				DisplayEntity ent = queued.remove(rand.nextInt(queued.size()));
+				q.removeEntity(ent);
+			}
+		}
+		q.updateGraphics(0.0d);
+		checkLayout(q, maxPerLine, maxDisplayed);
+
+		// Remove the entities from the front of the queue
+		while (q.getCount() > 3) {
+			q.removeFirst();
+		}
+		q.updateGraphics(0.0d);
+		checkLayout(q, maxPerLine, maxDisplayed);
+	}
+
+	private static DisplayEntity addEntity(Queue q, String name, Random rand) {
+		DisplayEntity ent = new DisplayEntity();
+		ent.setName(name);
+		ent.setSize(new Vec3d(0.5d + rand.nextInt(4) * 0.25d, 0.3d + rand.nextInt(5) * 0.2d, 0.1d));
+		q.addEntity(ent);
+		return ent;
+	}
+
+	/**
+	 * Compares the entities shown by the queue and their positions with a layout of the
+	 * whole queue.
+	 */
+	private static void checkLayout(Queue q, int maxPerLine, int maxDisplayed) {
+		ArrayList<DisplayEntity> list = q.getQueueList(0.0d);
+		int n = Math.min(list.size(), maxDisplayed);
+		for (int i = 0; i < list.size(); i++) {
+			assertTrue(list.get(i).getShow() == (i < n));
+		}
+
+		Vec3d qSize = q.getSize();
+		double maxWidth = 0.0d;
+		if (n > maxPerLine) {
+			for (int i = 0; i < n; i++) {
+				maxWidth = Math.max(maxWidth, list.get(i).getSize().y);
+			}
+		}
+
+		double distanceX = 0.5d * qSize.x;
+		double distanceY = 0.0d;
+		Vec3d tmp = new Vec3d();
+		for (int i = 0; i < n; i++) {
+			DisplayEntity item = list.get(i);
+			if (i > 0 && i % maxPerLine == 0) {
+				distanceX = 0.5d * qSize.x;
+				distanceY += maxWidth;
+			}
+			Vec3d itemSize = item.getSize();
+			distanceX += 0.5d * itemSize.x;
+			tmp.set3(-distanceX / qSize.x, distanceY / qSize.y, 0.0d);
+			distanceX += 0.5d * itemSize.x;
+
+			Vec3d expected = q.getGlobalPositionForAlignment(tmp);
+			expected.sub3(item.getGlobalPositionForAlignment(item.getAlignment()));
+			assertTrue(expected.mag3() < 1.0e-9d);
+			assertTrue(item.getOrientation().equals3(q.getOrientation()));
+		}
+	}
+}
@@ -0,0 +1,255 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.ProcessFlow;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.jaamsim.Graphics.DisplayEntity;
+import com.jaamsim.basicsim.JaamSimModel;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.TestFrameworkHelpers;
+import com.jaamsim.events.TestFrameworkHelpers.TestProcess;
+import com.jaamsim.input.InputAgent;
+
+public class TestSeizeHeap {
+
+	/**
+	 * The Seize objects are selected in the same order as by the stable sort that was used
+	 * previously, for entities with a mix of priorities.
+	 */
+	@Test
+	public void testMixedPriorities() throws Throwable {
+		runSeizeOrder(3, 1);
+	}
+
+	/**
+	 * The Seize objects are selected in the same order as by the stable sort that was used
+	 * previously, when every entity has the same priority and many arrive at the same time.
+	 */
+	@Test
+	public void testEqualPriorities() throws Throwable {
+		runSeizeOrder(1, 2);
+	}
+
+	private static void runSeizeOrder(final int numPriorities, final long seed) throws Throwable {
+		TestFrameworkHelpers.runProcess(new JaamSimModel(), new TestProcess() {
+			@Override
+			public void run() {
+				checkSeizeOrder(numPriorities, seed);
+			}
+		}, 10000);
+	}
+
+	/**
+	 * Builds two identical sets of Seize objects and queues, and compares the Seize objects
+	 * selected by the previous sort with those selected by SeizeHeap as entities arrive at
+	 * the queues and are removed from them.
+	 */
+	static void checkSeizeOrder(int numPriorities, long seed) {
+		int numSeize = 7;
+		ArrayList<Seize> sortList = createSeizeList("A", numSeize);
+		ArrayList<Seize> heapList = createSeizeList("B", numSeize);
+		SeizeHeap heap = new SeizeHeap();
+
+		Random rand = new Random(seed);
+		int numStrict = 0;
+		for (int round = 0; round < 400; round++) {
+
+			// Entities arrive at the queues, often at the same time as others
+			int numArrivals = rand.nextInt(5);
+			for (int i = 0; i < numArrivals; i++) {
+				int ind = rand.nextInt(numSeize);
+				int pri = rand.nextInt(numPriorities);
+				addEntity(sortList.get(ind).getQueue(), pri);
+				addEntity(heapList.get(ind).getQueue(), pri);
+			}
+
+			// Select the Seize objects that can start
+			int cap = 1 + rand.nextInt(5);
+			boolean strict = rand.nextInt(4) == 0;
+			if (strict)
+				numStrict++;
+			long roundSeed = rand.nextLong();
+			ArrayList<Integer> expected = selectBySort(sortList, cap, strict, new Random(roundSeed));
+			ArrayList<Integer> actual = selectByHeap(heap, heapList, cap, strict, new Random(roundSeed));
+			assertTrue(actual.equals(expected));
+
+			EventManager.waitTicks(rand.nextInt(3), 0, false, null);
+		}
+		assertTrue(numStrict > 0);
+	}
+
+	private static ArrayList<Seize> createSeizeList(String prefix, int n) {
+		ArrayList<Seize> ret = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			Queue q = new Queue();
+			q.setName(prefix + "Queue" + i);
+			Seize s = new Seize();
+			s.setName(prefix + "Seize" + i);
+			InputAgent.applyArgs(s, "WaitQueue", q.getName());
+			ret.add(s);
+		}
+		return ret;
+	}
+
+	private static void addEntity(Queue q, int pri) {
+		DisplayEntity ent = new DisplayEntity();
+		ent.setName(q.getName() + "_" + q.getTotalNumberAdded());
+		InputAgent.applyArgs(q, "Priority", Integer.toString(pri));
+		q.addEntity(ent);
+	}
+
+	/**
+	 * Returns whether each Seize object is ready to start for each of the selections made
+	 * from a set of Seize objects.
+	 */
+	private static boolean[][] getReady(Random rand, int cap, int n) {
+		boolean[][] ret = new boolean[cap][n];
+		for (int i = 0; i < cap; i++) {
+			for (int j = 0; j < n; j++) {
+				ret[i][j] = rand.nextInt(3) != 0;
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Removes the selected entity from its queue. Sometimes, an entity is also added to
+	 * another queue, or the first entity is removed from another queue, changing the first
+	 * entities for the Seize objects that were not selected.
+	 */
+	private static void startProcessing(ArrayList<Seize> seizeList, int ind, Random rand) {
+		seizeList.get(ind).getQueue().removeFirst();
+
+		int other = rand.nextInt(seizeList.size());
+		Queue q = seizeList.get(other).getQueue();
+		switch (rand.nextInt(4)) {
+		case 0:
+			addEntity(q, rand.nextInt(3));
+			break;
+		case 1:
+			if (q.getCount() > 1)
+				q.removeFirst();
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Selects the Seize objects in the same way as Resource.selectSeizeObjects, using
+	 * SeizeHeap.
+	 */
+	private static ArrayList<Integer> selectByHeap(SeizeHeap heap, ArrayList<Seize> seizeList,
+			int cap, boolean strict, Random rand) {
+		boolean[][] ready = getReady(rand, cap, seizeList.size());
+		ArrayList<Integer> ret = new ArrayList<>();
+		heap.init(seizeList);
+		try {
+			while (true) {
+				Seize selection = null;
+				while (!heap.isEmpty()) {
+					if (ready[ret.size()][seizeList.indexOf(heap.peek())]) {
+						selection = heap.take();
+						break;
+					}
+					if (strict)
+						return ret;
+					heap.take();
+				}
+				if (selection == null)
+					return ret;
+
+				int ind = seizeList.indexOf(selection);
+				ret.add(ind);
+				startProcessing(seizeList, ind, rand);
+				if (ret.size() == cap)
+					return ret;
+
+				heap.restore();
+			}
+		}
+		finally {
+			heap.clear();
+		}
+	}
+
+	/**
+	 * Selects the Seize objects using the stable sort that was used previously by
+	 * Resource.notifySeizeObjects.
+	 */
+	private static ArrayList<Integer> selectBySort(ArrayList<Seize> seizeList, int cap,
+			boolean strict, Random rand) {
+		boolean[][] ready = getReady(rand, cap, seizeList.size());
+		ArrayList<Integer> ret = new ArrayList<>();
+
+		ArrayList<Seize> list = new ArrayList<>(seizeList.size());
+		for (Seize s : seizeList) {
+			if (!s.getQueue().isEmpty()) {
+				list.add(s);
+			}
+		}
+		Collections.sort(list, seizeCompare);
+
+		while (true) {
+			Seize selection = null;
+			for (Seize s : list) {
+				if (ready[ret.size()][seizeList.indexOf(s)]) {
+					selection = s;
+					break;
+				}
+				if (strict)
+					return ret;
+			}
+			if (selection == null)
+				return ret;
+
+			int ind = seizeList.indexOf(selection);
+			ret.add(ind);
+			startProcessing(seizeList, ind, rand);
+			if (ret.size() == cap)
+				return ret;
+
+			if (selection.getQueue().isEmpty()) {
+				list.remove(selection);
+			}
+			else {
+				Collections.sort(list, seizeCompare);
+			}
+		}
+	}
+
+	private static final Comparator<Seize> seizeCompare = new Comparator<Seize>() {
+		@Override
+		public int compare(Seize s1, Seize s2) {
+			Queue que1 = s1.getQueue();
+			Queue que2 = s2.getQueue();
+			int ret = Integer.compare(que1.getFirstPriority(), que2.getFirstPriority());
+			if (ret == 0) {
+				return Double.compare(que2.getQueueTime(), que1.getQueueTime());
+			}
+			return ret;
+		}
+	};
+}
@@ -0,0 +1,204 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.Samples;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.jaamsim.basicsim.JaamSimModel;
+import com.jaamsim.basicsim.ObjectType;
+import com.jaamsim.basicsim.Simulation;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.input.InputAgent;
+import com.jaamsim.units.TimeUnit;
+
+public class TestTimeSeriesCursor {
+
+	/**
+	 * Lookups made with a cursor give the same values and next change times as the previous
+	 * TSPoint lookups, for time series with and without a cycle time, as the time moves
+	 * forward through several cycles and as it jumps backwards and forwards.
+	 */
+	@Test
+	public void testLookups() {
+		JaamSimModel model = new JaamSimModel();
+		try {
+			JaamSimModel.setCurrent(model);
+			InputAgent.defineEntityWithUniqueName(Simulation.class, "Simulation", "-", true);
+			ObjectType t = InputAgent.defineEntityWithUniqueName(ObjectType.class, "TestType", "-", true);
+			InputAgent.applyArgs(t, "JavaClass", "com.jaamsim.units.DimensionlessUnit");
+			TimeUnit sec = InputAgent.defineEntityWithUniqueName(TimeUnit.class, "TestSec", "-", true);
+
+			// The same cursors are used for each time series, so the first lookups for each one
+			// start from a position found in another one
+			TimeSeriesCursor valueCursor = new TimeSeriesCursor();
+			TimeSeriesCursor changeCursor = new TimeSeriesCursor();
+			long[] secs = { 0, 2, 3, 7, 8, 12 };
+			checkLookups(t, sec, secs, -1, 1, valueCursor, changeCursor);
+			checkLookups(t, sec, secs, 15, 2, valueCursor, changeCursor);
+			checkLookups(t, sec, secs, 12, 3, valueCursor, changeCursor);  // last point at the end of the cycle
+			checkLookups(t, sec, new long[] { 0 }, 5, 4, valueCursor, changeCursor);
+			checkLookups(t, sec, new long[] { 0, 1 }, -1, 5, valueCursor, changeCursor);
+		}
+		finally {
+			JaamSimModel.setCurrent(null);
+		}
+	}
+
+	private static void checkLookups(ObjectType t, TimeUnit sec, long[] secs, long cycleSecs, long seed,
+			TimeSeriesCursor valueCursor, TimeSeriesCursor changeCursor) {
+		Random rand = new Random(seed);
+		long ticksPerSec = EventManager.secsToNearestTick(1.0d);
+		long[] ticksList = new long[secs.length];
+		double[] valueList = new double[secs.length];
+		ArrayList<String> args = new ArrayList<>();
+		for (int i = 0; i < secs.length; i++) {
+			ticksList[i] = secs[i] * ticksPerSec;
+			valueList[i] = rand.nextInt(100);
+			args.addAll(Arrays.asList("{", Long.toString(secs[i]), sec.getName(),
+					Double.toString(valueList[i]), "}"));
+		}
+
+		TimeSeries ts = InputAgent.defineEntityWithUniqueName(TimeSeries.class, "TestSeries", "-", true);
+		InputAgent.applyArgs(ts, "UnitType", t.getName());
+		InputAgent.applyArgs(ts, "Value", args.toArray(new String[args.size()]));
+		long cycleTicks = Long.MAX_VALUE;
+		if (cycleSecs > 0) {
+			InputAgent.applyArgs(ts, "CycleTime", Long.toString(cycleSecs), sec.getName());
+			cycleTicks = cycleSecs * ticksPerSec;
+		}
+		ts.validate();
+		OldLookup old = new OldLookup(ticksList, valueList, cycleTicks);
+
+		// Forward through several cycles in steps that land on and between the points
+		long endTicks = 4 * (ticksList[ticksList.length - 1] + ticksPerSec);
+		for (long ticks = 0; ticks < endTicks; ticks += ticksPerSec / 4) {
+			checkLookup(ts, old, ticks, valueCursor, changeCursor);
+			checkLookup(ts, old, ticks + 1, valueCursor, changeCursor);
+			checkLookup(ts, old, ticks + ticksPerSec / 4 - 1, valueCursor, changeCursor);
+		}
+
+		// Backwards and forwards seeks, including ones to the same time and to times just
+		// before and after the points
+		for (int i = 0; i < 2000; i++) {
+			long ticks;
+			if (rand.nextBoolean()) {
+				ticks = rand.nextLong() & 0x7fffffffffffffL;
+			}
+			else {
+				ticks = rand.nextInt(5) * (cycleSecs > 0 ? cycleTicks : 0)
+						+ ticksList[rand.nextInt(ticksList.length)] + rand.nextInt(3) - 1;
+				ticks = Math.max(ticks, 0L);
+			}
+			checkLookup(ts, old, ticks, valueCursor, changeCursor);
+			checkLookup(ts, old, ticks, valueCursor, changeCursor);
+		}
+
+		// End of the simulation run (the old next change time overflowed for a cycle time)
+		assertTrue(ts.getValueForTicks(Long.MAX_VALUE, valueCursor) == old.getValueForTicks(Long.MAX_VALUE));
+		assertTrue(ts.getNextChangeAfterTicks(Long.MAX_VALUE, changeCursor) == Long.MAX_VALUE);
+		if (cycleSecs <= 0)
+			assertTrue(old.getNextChangeAfterTicks(Long.MAX_VALUE) == Long.MAX_VALUE);
+		checkLookup(ts, old, 0L, valueCursor, changeCursor);
+	}
+
+	private static void checkLookup(TimeSeries ts, OldLookup old, long ticks,
+			TimeSeriesCursor valueCursor, TimeSeriesCursor changeCursor) {
+		double val = old.getValueForTicks(ticks);
+		long next = old.getNextChangeAfterTicks(ticks);
+		assertTrue(ts.getValueForTicks(ticks, valueCursor) == val);
+		assertTrue(ts.getNextChangeAfterTicks(ticks, changeCursor) == next);
+		assertTrue(ts.getValueForTicks(ticks) == val);
+		assertTrue(ts.getNextChangeAfterTicks(ticks) == next);
+	}
+
+	/**
+	 * The lookups made by TimeSeries before TimeSeriesCursor was introduced.
+	 */
+	private static class OldLookup {
+		final long[] ticksList;
+		final double[] valueList;
+		final long cycleTicks;  // Long.MAX_VALUE if there is no cycle time
+
+		OldLookup(long[] ticksList, double[] valueList, long cycleTicks) {
+			this.ticksList = ticksList;
+			this.valueList = valueList;
+			this.cycleTicks = cycleTicks;
+		}
+
+		double getValueForTicks(long ticks) {
+			return getValue(getTSPointForTicks(ticks));
+		}
+
+		long getNextChangeAfterTicks(long ticks) {
+			return getTicks(getTSPointAfter(getTSPointForTicks(ticks)));
+		}
+
+		private boolean isCyclic() {
+			return cycleTicks != Long.MAX_VALUE;
+		}
+
+		private TSPoint getTSPointForTicks(long ticks) {
+			if (ticks == Long.MAX_VALUE) {
+				if (!isCyclic())
+					return new TSPoint(ticksList.length - 1, 0);
+				return new TSPoint(ticksList.length - 1, Long.MAX_VALUE);
+			}
+
+			long numberOfCycles = ticks / cycleTicks;
+			long ticksInCycle = ticks % cycleTicks;
+			if (ticksInCycle >= ticksList[ticksList.length - 1])
+				return new TSPoint(ticksList.length - 1, numberOfCycles);
+
+			int k = Arrays.binarySearch(ticksList, ticksInCycle);
+			if (k >= 0)
+				return new TSPoint(k, numberOfCycles);
+			return new TSPoint(-k - 2, numberOfCycles);
+		}
+
+		private TSPoint getTSPointAfter(TSPoint pt) {
+			if (pt.index == -1)
+				return new TSPoint(pt.index, pt.numberOfCycles);
+
+			if (pt.index == ticksList.length - 1) {
+				if (!isCyclic())
+					return new TSPoint(-1, pt.numberOfCycles);
+				return new TSPoint(0, pt.numberOfCycles + 1);
+			}
+			return new TSPoint(pt.index + 1, pt.numberOfCycles);
+		}
+
+		private long getTicks(TSPoint pt) {
+			if (pt.index == -1)
+				return Long.MAX_VALUE;
+			if (!isCyclic())
+				return ticksList[pt.index];
+			return ticksList[pt.index] + pt.numberOfCycles*cycleTicks;
+		}
+
+		private double getValue(TSPoint pt) {
+			if (pt.index == -1)
+				return valueList[valueList.length - 1];
+			return valueList[pt.index];
+		}
+	}
+}
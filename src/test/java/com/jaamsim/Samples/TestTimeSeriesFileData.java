@@ -0,0 +1,72 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.Samples;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestTimeSeriesFileData {
+
+	/**
+	 * The records read from a data file and the results of a binary search are the same as
+	 * for arrays.
+	 */
+	@Test
+	public void testBinarySearch() throws IOException {
+		int n = 100000;
+		long[] ticks = new long[n];
+		double[] values = new double[n];
+		Random rand = new Random(7);
+		long t = 0;
+		for (int i = 0; i < n; i++) {
+			t += 1 + rand.nextInt(50);
+			ticks[i] = t;
+			values[i] = rand.nextDouble();
+		}
+
+		File file = File.createTempFile("test", ".jts");
+		file.deleteOnExit();
+		TimeSeriesFileData.Writer writer = new TimeSeriesFileData.Writer(file, 1.0e-6);
+		for (int i = 0; i < n; i++) {
+			writer.add(ticks[i], values[i]);
+		}
+		writer.finish(null);
+
+		assertTrue(TimeSeriesFileData.isDataFile(file));
+		TimeSeriesFileData data = TimeSeriesFileData.open(file);
+		assertTrue(data.size() == n);
+		assertTrue(data.getTickLength() == 1.0e-6);
+		for (int i = 0; i < n; i += 97) {
+			assertTrue(data.getTicks(i) == ticks[i]);
+			assertTrue(data.getValue(i) == values[i]);
+		}
+
+		for (int i = 0; i < 20000; i++) {
+			long key = rand.nextInt((int) t + 100) - 50;
+			assertTrue(data.binarySearch(key) == Arrays.binarySearch(ticks, key));
+		}
+		assertTrue(data.binarySearch(ticks[0]) == 0);
+		assertTrue(data.binarySearch(ticks[1024]) == 1024);
+		assertTrue(data.binarySearch(ticks[n - 1]) == n - 1);
+	}
+}
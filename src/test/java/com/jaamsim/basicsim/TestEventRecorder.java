@@ -0,0 +1,299 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.EventTraceListener;
+import com.jaamsim.events.ProcessTarget;
+import com.jaamsim.events.TestFrameworkHelpers;
+
+public class TestEventRecorder {
+
+	/**
+	 * Passes each trace record to an EventRecorder and also collects the text for it.
+	 */
+	private static class TextListener implements EventTraceListener {
+		final EventRecorder recorder;
+		final EventTraceRecord rec = new EventTraceRecord();
+		final StringBuilder text = new StringBuilder();
+
+		TextListener(EventRecorder recorder) {
+			this.recorder = recorder;
+		}
+
+		private void finish() {
+			if (!rec.finish())
+				return;
+			for (String line : rec) {
+				text.append(line).append(System.lineSeparator());
+			}
+			rec.clear();
+		}
+
+		@Override
+		public void traceEvent(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
+			recorder.traceEvent(e, curTick, tick, priority, t);
+			rec.traceEvent(e, curTick, tick, priority, t);
+			this.finish();
+		}
+
+		@Override
+		public void traceWait(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
+			recorder.traceWait(e, curTick, tick, priority, t);
+			rec.traceWait(e, curTick, tick, priority, t);
+			this.finish();
+		}
+
+		@Override
+		public void traceSchedProcess(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
+			recorder.traceSchedProcess(e, curTick, tick, priority, t);
+			rec.traceSchedProcess(e, curTick, tick, priority, t);
+			this.finish();
+		}
+
+		@Override
+		public void traceProcessStart(EventManager e, ProcessTarget t, long tick) {
+			recorder.traceProcessStart(e, t, tick);
+			rec.traceProcessStart(e, t, tick);
+			this.finish();
+		}
+
+		@Override
+		public void traceProcessEnd(EventManager e, long tick) {
+			recorder.traceProcessEnd(e, tick);
+			rec.traceProcessEnd(e, tick);
+			this.finish();
+		}
+
+		@Override
+		public void traceInterrupt(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
+			recorder.traceInterrupt(e, curTick, tick, priority, t);
+			rec.traceInterrupt(e, curTick, tick, priority, t);
+			this.finish();
+		}
+
+		@Override
+		public void traceKill(EventManager e, long curTick, long tick, int priority, ProcessTarget t) {
+			recorder.traceKill(e, curTick, tick, priority, t);
+			rec.traceKill(e, curTick, tick, priority, t);
+			this.finish();
+		}
+
+		@Override
+		public void traceWaitUntil(EventManager e, long tick) {
+			recorder.traceWaitUntil(e, tick);
+			rec.traceWaitUntil(e, tick);
+			this.finish();
+		}
+
+		@Override
+		public void traceWaitUntilEnded(EventManager e, long tick, ProcessTarget t) {
+			recorder.traceWaitUntilEnded(e, tick, t);
+			rec.traceWaitUntilEnded(e, tick, t);
+			this.finish();
+		}
+	}
+
+	private static class StepTarget extends EntityTarget<Entity> {
+		final ArrayList<ProcessTarget> others;
+
+		StepTarget(Entity ent, ArrayList<ProcessTarget> others) {
+			super(ent, "step");
+			this.others = others;
+		}
+
+		@Override
+		public void process() {
+			for (int i = 0; i < 3; i++) {
+				EventManager.scheduleTicks(i, i, false, others.get(i), null);
+				EventManager.waitTicks(5, 1, false, null);
+			}
+			ent.setName(ent.getName() + "x");
+			EventManager.scheduleTicks(1, 0, false, new StepTarget(ent, others), null);
+		}
+	}
+
+	private static class NamedTarget extends ProcessTarget {
+		final String name;
+
+		NamedTarget(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String getDescription() {
+			return name;
+		}
+
+		@Override
+		public void process() {}
+	}
+
+	/**
+	 * The text for an event trace that has been written and read back is the same as the
+	 * text for the original trace records.
+	 */
+	@Test
+	public void testRecordAndRead() throws IOException {
+		File file = File.createTempFile("TestEventRecorder", ".evt");
+		File file2 = File.createTempFile("TestEventRecorder", ".evt");
+		try {
+			EventRecorder recorder = new EventRecorder(file.getPath());
+			TextListener listener = new TextListener(recorder);
+
+			Entity ent = new Entity();
+			ent.setName("TestEntity");
+			ArrayList<ProcessTarget> others = new ArrayList<>();
+			others.add(new NamedTarget("First"));
+			others.add(new NamedTarget("Second"));
+			others.add(new NamedTarget("First"));
+
+			EventManager evt = new EventManager("TestEventRecorderEVT");
+			evt.clear();
+			evt.setTraceListener(listener);
+			evt.scheduleProcessExternal(0, 0, false, new StepTarget(ent, others), null);
+			TestFrameworkHelpers.runEventsToTick(evt, 200, 1000);
+			evt.setTraceListener(null);
+			recorder.close();
+			ent.kill();
+
+			assertTrue(listener.text.length() > 0);
+			StringWriter out = new StringWriter();
+			EventTraceReader.convertToText(file, out);
+			assertTrue(out.toString().equals(listener.text.toString()));
+
+			// Compare the trace with itself and with an empty trace
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			PrintStream ps = new PrintStream(bytes);
+			assertTrue(EventTraceReader.compare(file, file, ps));
+			new EventRecorder(file2.getPath()).close();
+			assertTrue(!EventTraceReader.compare(file, file2, ps));
+		}
+		finally {
+			file.delete();
+			file2.delete();
+		}
+	}
+
+	/**
+	 * A trace with more records than the ring buffer holds is written in full while the
+	 * simulation thread waits for space.
+	 */
+	@Test
+	public void testRingFull() throws IOException {
+		File file = File.createTempFile("TestEventRecorder", ".evt");
+		try {
+			EventRecorder recorder = new EventRecorder(file.getPath());
+			TextListener listener = new TextListener(recorder);
+			EventManager evt = new EventManager("TestEventRecorderEVT");
+			ArrayList<ProcessTarget> targets = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				targets.add(new NamedTarget("Target" + i));
+			}
+			for (int i = 0; i < 100000; i++) {
+				listener.traceKill(evt, i / 10, i, i % 3, targets.get(i % 10));
+			}
+			recorder.close();
+
+			StringWriter out = new StringWriter();
+			EventTraceReader.convertToText(file, out);
+			assertTrue(out.toString().equals(listener.text.toString()));
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * A file closed by closeAtEnd contains the records up to the end of the event that was
+	 * being executed, and no records after it.
+	 */
+	@Test
+	public void testCloseAtEnd() throws IOException {
+		File file = File.createTempFile("TestEventRecorder", ".evt");
+		try {
+			EventRecorder recorder = new EventRecorder(file.getPath());
+			TextListener listener = new TextListener(recorder);
+			EventManager evt = new EventManager("TestEventRecorderEVT");
+			ProcessTarget target = new NamedTarget("Target");
+
+			listener.traceEvent(evt, 0, 0, 0, target);
+			listener.traceSchedProcess(evt, 0, 5, 1, target);
+			recorder.closeAtEnd();
+			listener.traceKill(evt, 0, 5, 1, target);
+			listener.traceProcessEnd(evt, 0);
+			String expected = listener.text.toString();
+			listener.traceEvent(evt, 5, 5, 1, target);
+			listener.traceProcessEnd(evt, 5);
+
+			StringWriter out = new StringWriter();
+			EventTraceReader.convertToText(file, out);
+			assertTrue(!expected.isEmpty());
+			assertTrue(out.toString().equals(expected));
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * An event trace file in the text format can still be read.
+	 */
+	@Test
+	public void testReadText() throws IOException {
+		File file = File.createTempFile("TestEventRecorder", ".evt");
+		File textFile = File.createTempFile("TestEventRecorder", ".evt");
+		try {
+			EventRecorder recorder = new EventRecorder(file.getPath());
+			TextListener listener = new TextListener(recorder);
+			EventManager evt = new EventManager("TestEventRecorderEVT");
+			ProcessTarget target = new NamedTarget("Target");
+			for (int i = 0; i < 10; i++) {
+				listener.traceEvent(evt, i, i, 0, target);
+				listener.traceSchedProcess(evt, i, i + 5, 1, target);
+				listener.traceWait(evt, i, i + 1, 0, target);
+			}
+			recorder.close();
+
+			try (FileWriter writer = new FileWriter(textFile)) {
+				writer.write(listener.text.toString());
+			}
+			StringWriter out = new StringWriter();
+			EventTraceReader.convertToText(textFile, out);
+			assertTrue(out.toString().equals(listener.text.toString()));
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			assertTrue(EventTraceReader.compare(file, textFile, new PrintStream(bytes)));
+		}
+		finally {
+			file.delete();
+			textFile.delete();
+		}
+	}
+}
@@ -0,0 +1,396 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import com.jaamsim.ProcessFlow.Queue;
+import com.jaamsim.ProcessFlow.Seize;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.TestFrameworkHelpers;
+import com.jaamsim.events.TestFrameworkHelpers.TestProcess;
+import com.jaamsim.input.InputAgent;
+import com.jaamsim.units.TimeUnit;
+import com.jaamsim.units.Unit;
+
+public class TestJaamSimModel {
+
+	/**
+	 * Entities with the same name can be defined in two models at once.
+	 */
+	@Test
+	public void testSeparateModels() {
+		JaamSimModel model1 = new JaamSimModel();
+		JaamSimModel model2 = new JaamSimModel();
+		try {
+			JaamSimModel.setCurrent(model1);
+			Entity ent1 = new Entity();
+			ent1.setName("TestEntity");
+
+			JaamSimModel.setCurrent(model2);
+			Entity ent2 = new Entity();
+			ent2.setName("TestEntity");
+			assertTrue(Entity.getNamedEntity("TestEntity") == ent2);
+			assertTrue(Entity.getAll().size() == 1);
+
+			JaamSimModel.setCurrent(model1);
+			assertTrue(Entity.getNamedEntity("TestEntity") == ent1);
+			assertTrue(ent1.getJaamSimModel() == model1);
+			assertTrue(ent2.getJaamSimModel() == model2);
+
+			JaamSimModel.setCurrent(null);
+			assertTrue(JaamSimModel.getCurrent() == JaamSimModel.getRootModel());
+			assertTrue(Entity.getNamedEntity("TestEntity") == null);
+		}
+		finally {
+			JaamSimModel.setCurrent(null);
+		}
+	}
+
+	/**
+	 * A Process acts on the model attached to its EventManager, regardless of the
+	 * model set for the thread that started it.
+	 */
+	@Test
+	public void testAttachedModel() throws Throwable {
+		JaamSimModel model = new JaamSimModel();
+		CreateProcess test = new CreateProcess();
+		TestFrameworkHelpers.runProcess(model, test, 10000);
+
+		assertTrue(test.model == model);
+		assertTrue(test.ent.getJaamSimModel() == model);
+		assertTrue(model.getEntities().size() == 1);
+		assertTrue(JaamSimModel.getCurrent() == JaamSimModel.getRootModel());
+	}
+
+	/**
+	 * Entities can be found by number and iterated over after others have been killed.
+	 */
+	@Test
+	public void testKilledEntities() {
+		JaamSimModel model = new JaamSimModel();
+		try {
+			JaamSimModel.setCurrent(model);
+			ArrayList<Entity> ents = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				Entity ent = new Entity();
+				ent.setName("Entity" + i);
+				ents.add(ent);
+			}
+
+			// Kill every second entity, including the last one
+			for (int i = 1; i < 10; i += 2) {
+				ents.get(i).kill();
+			}
+			assertTrue(Entity.idToEntity(ents.get(3).getEntityNumber()) == null);
+			assertTrue(Entity.idToEntity(ents.get(4).getEntityNumber()) == ents.get(4));
+			assertTrue(ents.get(3).testFlag(Entity.FLAG_DEAD));
+
+			int count = 0;
+			for (Entity ent : Entity.getClonesOfIterator(Entity.class)) {
+				assertTrue(ent == ents.get(2 * count));
+				count++;
+			}
+			assertTrue(count == 5);
+
+			// Killed entities are removed from the list once they make up half of it
+			assertTrue(model.getEntities().size() == 9);
+			ents.get(0).kill();
+			assertTrue(model.getEntities().size() == 4);
+			assertTrue(Entity.idToEntity(ents.get(6).getEntityNumber()) == ents.get(6));
+			assertTrue(Entity.getNamedEntity("Entity8") == ents.get(8));
+		}
+		finally {
+			JaamSimModel.setCurrent(null);
+		}
+	}
+
+	/**
+	 * Killing an entity that has already been killed has no effect, including one whose
+	 * entry in the entity list is still present as a null entry.
+	 */
+	@Test
+	public void testKillTwice() {
+		JaamSimModel model = new JaamSimModel();
+		try {
+			JaamSimModel.setCurrent(model);
+			ArrayList<Entity> ents = new ArrayList<>();
+			for (int i = 0; i < 5; i++) {
+				Entity ent = new Entity();
+				ent.setName("Entity" + i);
+				ents.add(ent);
+			}
+
+			// A named entity that is not the last one in the list
+			ents.get(1).kill();
+			assertTrue(model.getEntities().size() == 5);
+			ents.get(1).kill();
+			assertTrue(ents.get(1).testFlag(Entity.FLAG_DEAD));
+			assertTrue(model.getEntities().size() == 5);
+
+			// A generated entity
+			Entity gen = new Entity();
+			gen.setFlag(Entity.FLAG_GENERATED);
+			ents.get(2).kill();
+			gen.kill();
+			gen.kill();
+
+			int count = 0;
+			for (Entity ent : Entity.getClonesOfIterator(Entity.class)) {
+				assertTrue(ent == ents.get(count == 0 ? 0 : count + 2));
+				count++;
+			}
+			assertTrue(count == 3);
+			assertTrue(Entity.getNamedEntity("Entity3") == ents.get(3));
+			assertTrue(Entity.idToEntity(ents.get(4).getEntityNumber()) == ents.get(4));
+		}
+		finally {
+			JaamSimModel.setCurrent(null);
+		}
+	}
+
+	/**
+	 * An entity in a pool is re-used with a new name and number after it is killed.
+	 */
+	@Test
+	public void testEntityPool() {
+		JaamSimModel model = new JaamSimModel();
+		try {
+			JaamSimModel.setCurrent(model);
+			EntityPool<Entity> pool = new EntityPool<>();
+			assertTrue(pool.getEntity("Gen_1") == null);
+
+			Entity ent = new Entity();
+			ent.setFlag(Entity.FLAG_GENERATED);
+			ent.setName("Gen_1");
+			pool.addEntity(ent);
+			long num = ent.getEntityNumber();
+
+			ent.kill();
+			ent.kill();
+			assertTrue(pool.getFreeCount() == 1);
+
+			Entity ent2 = pool.getEntity("Gen_2");
+			assertTrue(ent2 == ent);
+			assertTrue(pool.getFreeCount() == 0);
+			assertTrue(ent.getName().equals("Gen_2"));
+			assertTrue(ent.getEntityNumber() > num);
+			assertTrue(!ent.testFlag(Entity.FLAG_DEAD));
+			assertTrue(Entity.idToEntity(ent.getEntityNumber()) == ent);
+			assertTrue(Entity.idToEntity(num) == null);
+		}
+		finally {
+			JaamSimModel.setCurrent(null);
+		}
+	}
+
+	/**
+	 * Entities of the selected classes are iterated over in order of entity number,
+	 * including those created during the iteration.
+	 */
+	@Test
+	public void testClonesOfIterator() {
+		JaamSimModel model = new JaamSimModel();
+		try {
+			JaamSimModel.setCurrent(model);
+			ArrayList<Entity> ents = new ArrayList<>();
+			for (int i = 0; i < 20; i++) {
+				Entity ent;
+				if (i % 4 == 0)
+					ent = new EntityA();
+				else if (i % 4 == 1)
+					ent = new EntityB();
+				else
+					ent = new Entity();
+				ent.setFlag(Entity.FLAG_GENERATED);
+				ent.setName("Entity" + i);
+				ents.add(ent);
+			}
+
+			// Kill entity A entries and create new ones during the iteration
+			ArrayList<Entity> found = new ArrayList<>();
+			for (EntityA ent : Entity.getClonesOfIterator(EntityA.class)) {
+				found.add(ent);
+				if (found.size() == 2) {
+					ents.get(4).kill();
+					ents.get(8).kill();
+					ents.get(12).kill();
+					Entity ent2 = new EntityB();
+					ent2.setFlag(Entity.FLAG_GENERATED);
+					ents.add(ent2);
+				}
+			}
+			int[] expected = {0, 1, 5, 9, 13, 16, 17, 20};
+			assertTrue(found.size() == expected.length);
+			for (int i = 0; i < found.size(); i++) {
+				assertTrue(found.get(i) == ents.get(expected[i]));
+			}
+
+			found.clear();
+			for (EntityA ent : Entity.getInstanceIterator(EntityA.class)) {
+				found.add(ent);
+			}
+			assertTrue(found.size() == 2);
+			assertTrue(found.get(0) == ents.get(0));
+			assertTrue(found.get(1) == ents.get(16));
+
+			int count = 0;
+			for (Entity ent : Entity.getClonesOfIterator(Entity.class)) {
+				assertTrue(!ent.testFlag(Entity.FLAG_DEAD));
+				count++;
+			}
+			assertTrue(count == 18);
+		}
+		finally {
+			JaamSimModel.setCurrent(null);
+		}
+	}
+
+	/**
+	 * A copy of a model holds its own entities with the same names and inputs, with
+	 * references to other entities resolved in the copy, and its own object types and
+	 * preferred units.
+	 */
+	@Test
+	public void testCopy() {
+		JaamSimModel model = new JaamSimModel();
+		JaamSimModel copy;
+		try {
+			JaamSimModel.setCurrent(model);
+			InputAgent.defineEntityWithUniqueName(Simulation.class, "Simulation", "-", true);
+			ObjectType t = InputAgent.defineEntityWithUniqueName(ObjectType.class, "TimeUnit", "-", true);
+			InputAgent.applyArgs(t, "JavaClass", TimeUnit.class.getName());
+			TimeUnit min = InputAgent.defineEntityWithUniqueName(TimeUnit.class, "min", "-", true);
+			InputAgent.applyArgs(min, "ConversionFactorToSI", "60", "1");
+			InputAgent.applyArgs(Simulation.getInstance(), "InitializationDuration", "2", "min");
+			InputAgent.applyArgs(Simulation.getInstance(), "DisplayedUnits", "min");
+			Queue q = InputAgent.defineEntityWithUniqueName(Queue.class, "Queue1", "-", true);
+			InputAgent.applyArgs(q, "Priority", "3");
+			Seize s = InputAgent.defineEntityWithUniqueName(Seize.class, "Seize1", "-", true);
+			InputAgent.setRecordEdits(true);
+			InputAgent.applyArgs(s, "WaitQueue", "Queue1");
+			Entity gen = new Entity();
+			gen.setFlag(Entity.FLAG_GENERATED);
+			gen.setName("Gen1");
+
+			copy = new JaamSimModel(model);
+			assertTrue(JaamSimModel.getCurrent() == model);
+			assertTrue(copy.getEntities().size() == model.getEntities().size() - 1);
+			assertTrue(Unit.getPreferredUnit(TimeUnit.class) == min);
+			assertTrue(ObjectType.getObjectTypeForClass(TimeUnit.class) == t);
+		}
+		finally {
+			JaamSimModel.setCurrent(null);
+		}
+
+		try {
+			JaamSimModel.setCurrent(copy);
+			Simulation sim = Simulation.getInstance();
+			assertTrue(sim != null && sim != model.getSimulation());
+			assertTrue(sim.getInitializationTime() == 120.0d);
+
+			Entity min = Entity.getNamedEntity("min");
+			assertTrue(min instanceof TimeUnit && min.getJaamSimModel() == copy);
+			assertTrue(Unit.getPreferredUnit(TimeUnit.class) == min);
+			assertTrue(ObjectType.getObjectTypeForClass(TimeUnit.class) == Entity.getNamedEntity("TimeUnit"));
+			assertTrue(ObjectType.getAll().size() == 1);
+
+			Seize s = (Seize)Entity.getNamedEntity("Seize1");
+			assertTrue(s.getQueue() == Entity.getNamedEntity("Queue1"));
+			assertTrue(s.getQueue().getJaamSimModel() == copy);
+			assertTrue(s.getInput("WaitQueue").isEdited() && s.testFlag(Entity.FLAG_EDITED));
+			assertTrue(s.getQueue().getInput("Priority").getValueString().equals("3"));
+			assertTrue(!s.getQueue().getInput("Priority").isEdited());
+			assertTrue(Entity.getNamedEntity("Gen1") == null);
+		}
+		finally {
+			JaamSimModel.setCurrent(null);
+		}
+	}
+
+	/**
+	 * Two models can be executed at the same time by separate EventManagers without
+	 * seeing each other's entities or object types.
+	 */
+	@Test
+	public void testConcurrentModels() throws Throwable {
+		final Throwable[] errors = new Throwable[2];
+		Thread[] threads = new Thread[2];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						TestFrameworkHelpers.runProcess(new JaamSimModel(), new ConcurrentProcess(), 10000);
+					}
+					catch (Throwable t) {
+						errors[index] = t;
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread each : threads) {
+			each.join();
+		}
+
+		for (Throwable each : errors) {
+			if (each != null)
+				throw each;
+		}
+	}
+
+	public static class EntityA extends Entity {}
+	public static class EntityB extends EntityA {}
+
+	private static class ConcurrentProcess implements TestProcess {
+		@Override
+		public void run() {
+			JaamSimModel model = JaamSimModel.getCurrent();
+			ObjectType t = InputAgent.defineEntityWithUniqueName(ObjectType.class, "TestType", "-", true);
+			InputAgent.applyArgs(t, "JavaClass", EntityA.class.getName());
+			for (int i = 0; i < 1000; i++) {
+				Entity ent = new EntityA();
+				ent.setName("Entity" + i);
+				EventManager.waitTicks(1, 0, false, null);
+
+				assertTrue(JaamSimModel.getCurrent() == model);
+				assertTrue(ObjectType.getObjectTypeForClass(EntityA.class) == t);
+				assertTrue(Entity.getNamedEntity("Entity" + i) == ent);
+				assertTrue(Entity.getNamedEntity("TestType") == t);
+				ent.kill();
+			}
+			assertTrue(ObjectType.getAll().size() == 1);
+		}
+	}
+
+	private static class CreateProcess implements TestProcess {
+		JaamSimModel model;
+		Entity ent;
+
+		@Override
+		public void run() {
+			model = JaamSimModel.getCurrent();
+			ent = new Entity();
+		}
+	}
+}
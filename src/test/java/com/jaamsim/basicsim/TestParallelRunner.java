@@ -0,0 +1,125 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.basicsim;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import com.jaamsim.input.InputAgent;
+
+public class TestParallelRunner {
+
+	private static final String[] CONFIG = {
+		"Define ExponentialDistribution { Arr Svc }",
+		"Define SimEntity { Proto }",
+		"Define EntityGenerator { Gen }",
+		"Define Queue { Q }",
+		"Define Server { Srv }",
+		"Define EntitySink { Sink }",
+		"Arr UnitType { TimeUnit }",
+		"Svc UnitType { TimeUnit }",
+		"Arr Mean { 1 min }",
+		"Arr RandomSeed { 1 }",
+		"Svc Mean { 0.8 min }",
+		"Svc RandomSeed { 2 }",
+		"Gen NextComponent { Q }",
+		"Gen InterArrivalTime { Arr }",
+		"Gen PrototypeEntity { Proto }",
+		"Srv WaitQueue { Q }",
+		"Srv ServiceTime { Svc }",
+		"Srv NextComponent { Sink }",
+		"Simulation RunDuration { 100 h }",
+		"Simulation GlobalSubstreamSeed { [Simulation].RunNumber }",
+		"Simulation PrintReport { FALSE }",
+		"Simulation UnitTypeList { DimensionlessUnit DimensionlessUnit }",
+		"Simulation RunOutputList { { [Q].QueueLengthAverage } { [Sink].NumberAdded } }",
+		"Simulation RunIndexDefinitionList { 2 }",
+		"Simulation StartingRunNumber { 1 }",
+		"Simulation EndingRunNumber { 2 }",
+	};
+
+	/**
+	 * Two runs with different random number substreams executed by separate copies of
+	 * the model at the same time give the same results as when they are executed in
+	 * sequence by one copy.
+	 */
+	@Test
+	public void testParallelRuns() throws Throwable {
+		File dir = Files.createTempDirectory("jaamsim-test").toFile();
+		File config = new File(dir, "test.cfg");
+		try {
+			try (PrintStream out = new PrintStream(config)) {
+				for (String line : CONFIG) {
+					out.println(line);
+				}
+			}
+			JaamSimModel model = loadModel(config);
+
+			String[][][] seq = ParallelRunner.executeWorkers(model, new int[][] { {1, 2} });
+			String[][][] par = ParallelRunner.executeWorkers(model, new int[][] { {1}, {2} });
+
+			String seq1 = seq[0][1][0];
+			String seq2 = seq[0][1][1];
+			assertTrue(seq1 != null && seq2 != null);
+			assertTrue(!seq1.equals(seq2));
+			assertTrue(par[0][1][0].equals(seq1));
+			assertTrue(par[1][1][0].equals(seq2));
+		}
+		finally {
+			deleteAll(dir);
+		}
+	}
+
+	/**
+	 * Loads the given configuration file into a new model in the same way as a batch run.
+	 */
+	private static JaamSimModel loadModel(File config) throws URISyntaxException {
+		JaamSimModel model = new JaamSimModel();
+		JaamSimModel.setCurrent(model);
+		try {
+			InputAgent.setBatch(true);
+			InputAgent.setRecordEdits(false);
+			InputAgent.readResource("<res>/inputs/autoload.cfg");
+			InputAgent.setPreDefinedEntityCount(Entity.getAll().get(Entity.getAll().size() - 1).getEntityNumber());
+			InputAgent.setConfigFile(config);
+			InputAgent.loadConfigurationFile(config);
+			InputAgent.setRecordEdits(true);
+			assertTrue(InputAgent.numErrors() == 0);
+			return model;
+		}
+		finally {
+			JaamSimModel.setCurrent(null);
+		}
+	}
+
+	private static void deleteAll(File file) throws IOException {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File each : files) {
+				deleteAll(each);
+			}
+		}
+		Files.deleteIfExists(file.toPath());
+	}
+}
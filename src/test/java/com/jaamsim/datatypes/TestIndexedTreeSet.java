@@ -0,0 +1,83 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.datatypes;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class TestIndexedTreeSet {
+
+	/**
+	 * Random additions and removals give the same contents and positions as a TreeSet.
+	 */
+	@Test
+	public void testRandomOperations() {
+		IndexedTreeSet<Integer> set = new IndexedTreeSet<>();
+		TreeSet<Integer> ref = new TreeSet<>();
+		Random rand = new Random(42);
+
+		for (int i = 0; i < 20000; i++) {
+			Integer val = rand.nextInt(2000);
+			if (rand.nextInt(3) == 0)
+				assertTrue(set.remove(val) == ref.remove(val));
+			else
+				assertTrue(set.add(val) == ref.add(val));
+			assertTrue(set.size() == ref.size());
+
+			if (i % 1000 != 0)
+				continue;
+
+			ArrayList<Integer> list = new ArrayList<>(ref);
+			Iterator<Integer> itr = set.iterator();
+			for (int j = 0; j < list.size(); j++) {
+				assertTrue(itr.next().equals(list.get(j)));
+				assertTrue(set.get(j).equals(list.get(j)));
+				assertTrue(set.indexOf(list.get(j)) == j);
+			}
+			assertTrue(!itr.hasNext());
+		}
+
+		assertTrue(set.first().equals(ref.first()));
+		assertTrue(set.last().equals(ref.last()));
+		assertTrue(set.indexOf(-1) == -1);
+		assertTrue(set.contains(ref.first()));
+		assertTrue(!set.contains(-1));
+	}
+
+	@Test
+	public void testRemoveAll() {
+		IndexedTreeSet<Integer> set = new IndexedTreeSet<>();
+		for (int i = 0; i < 1000; i++) {
+			set.add(i);
+		}
+
+		// Remove from the front as a queue would
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(set.first() == i);
+			assertTrue(set.indexOf(999) == 999 - i);
+			assertTrue(set.remove(i));
+		}
+		assertTrue(set.isEmpty());
+		assertTrue(!set.iterator().hasNext());
+	}
+}
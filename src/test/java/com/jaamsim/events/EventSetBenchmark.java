@@ -0,0 +1,75 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.events;
+
+import java.util.Random;
+
+/**
+ * Compares the EventSet implementations using the classic 'hold' model: the set is
+ * filled with a given number of nodes, then the next node is repeatedly removed
+ * and replaced with a new node a random interval later. The intervals are
+ * clustered on a small number of distinct values, as is typical of logistics models.
+ * <p>
+ * Run from the command line with the test classpath, this is not a unit test.
+ */
+public class EventSetBenchmark {
+	private static final int NUM_HOLDS = 2000000;
+
+	public static void main(String[] args) {
+		int[] sizes = { 1000, 100000, 1000000 };
+		for (int size : sizes) {
+			// Run each twice so that the second result is measured after JIT warm-up
+			for (int pass = 0; pass < 2; pass++) {
+				double tree = hold(new EventTree(), size);
+				double queue = hold(new CalendarQueue(), size);
+				if (pass == 0)
+					continue;
+
+				System.out.format("%8d pending nodes: EventTree %6.1f ns/hold, CalendarQueue %6.1f ns/hold%n",
+						size, tree, queue);
+			}
+		}
+	}
+
+	private static double hold(EventSet set, int size) {
+		Random rand = new Random(1);
+		for (int i = 0; i < size; i++) {
+			set.createOrFindNode(nextInterval(rand), rand.nextInt(5));
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < NUM_HOLDS; i++) {
+			EventNode next = set.getNextNode();
+			long now = next.schedTick;
+			set.removeNode(now, next.priority);
+			set.createOrFindNode(now + nextInterval(rand), rand.nextInt(5));
+		}
+		long elapsed = System.nanoTime() - start;
+
+		return (double)elapsed / NUM_HOLDS;
+	}
+
+	private static long nextInterval(Random rand) {
+		// Clustered delays of 1, 5, 60 or 3600 seconds at the default tick length
+		switch (rand.nextInt(4)) {
+		case 0: return 1000000L;
+		case 1: return 5000000L;
+		case 2: return 60000000L;
+		default: return 3600000000L + rand.nextInt(1000);
+		}
+	}
+}
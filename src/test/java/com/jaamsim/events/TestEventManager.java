@@ -23,6 +23,8 @@ import java.util.ArrayList;
 
 import org.junit.Test;
 
+import com.jaamsim.events.EventManager.EventSetType;
+
 public class TestEventManager {
 	/**
 	 * Test the static EventManager methods that can only be called from a Process
@@ -231,8 +233,18 @@ public class TestEventManager {
 	 */
 	@Test
 	public void testScheduleMixed() {
+		scheduleMixed(EventSetType.RED_BLACK_TREE);
+	}
+
+	@Test
+	public void testScheduleMixedCalendar() {
+		scheduleMixed(EventSetType.CALENDAR_QUEUE);
+	}
+
+	private void scheduleMixed(EventSetType type) {
 		EventManager evt = new EventManager("testScheduleMixedEVT");
 		evt.clear();
+		evt.setEventSetType(type);
 
 		ArrayList<String> log = new ArrayList<>();
 		evt.scheduleProcessExternal(0, 0, false, new LogTarget(0, log), null);
@@ -283,8 +295,18 @@ public class TestEventManager {
 	 */
 	@Test
 	public void testScheduleWait() {
+		scheduleWait(EventSetType.RED_BLACK_TREE);
+	}
+
+	@Test
+	public void testScheduleWaitCalendar() {
+		scheduleWait(EventSetType.CALENDAR_QUEUE);
+	}
+
+	private void scheduleWait(EventSetType type) {
 		EventManager evt = new EventManager("testScheduleWaitEVT");
 		evt.clear();
+		evt.setEventSetType(type);
 
 		final ArrayList<String> log = new ArrayList<>();
 		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
@@ -337,6 +359,149 @@ public class TestEventManager {
 		}
 	}
 
+	/**
+	 * Suspend many processes at the same time to test that new Processes are
+	 * created and handed out without going through the pool first.
+	 */
+	@Test
+	public void testManyWaitingProcesses() {
+		runManyWaitingProcesses("testManyWaitingProcessesEVT");
+	}
+
+	/**
+	 * Run many suspended processes on threads created with a smaller stack size.
+	 */
+	@Test
+	public void testProcessStackSize() {
+		try {
+			EventManager.setProcessStackSize(-1);
+			fail("Did not throw an error.");
+		}
+		catch (ProcessError e) {}
+
+		EventManager.setProcessStackSize(256 * 1024);
+		try {
+			runManyWaitingProcesses("testProcessStackSizeEVT");
+		}
+		finally {
+			EventManager.setProcessStackSize(0);
+		}
+	}
+
+	private static void runManyWaitingProcesses(String name) {
+		EventManager evt = new EventManager(name);
+		evt.clear();
+
+		final int numProcs = 500;
+		final ArrayList<String> log = new ArrayList<>();
+		for (int i = 0; i < numProcs; i++) {
+			evt.scheduleProcessExternal(0, 0, true, new ProcessTarget() {
+				@Override
+				public String getDescription() { return ""; }
+
+				@Override
+				public void process() {
+					EventManager.waitTicks(1, 0, true, null);
+					log.add("Wait:" + EventManager.simTicks());
+				}
+			}, null);
+		}
+
+		TestFrameworkHelpers.runEventsToTick(evt, 100, 5000);
+
+		assertTrue(log.size() == numProcs);
+		for (int i = 0; i < log.size(); i++) {
+			assertTrue(log.get(i).equals("Wait:1"));
+		}
+	}
+
+	/**
+	 * Test that a conditional with declared sources is only evaluated again after one
+	 * of its sources has changed, while an undeclared conditional is polled before
+	 * every advance of the clock.
+	 */
+	@Test
+	public void testTrackedConditional() {
+		CountingConditional polled = new CountingConditional();
+		CountingConditional tracked = new CountingConditional();
+		ConditionalSource src = new ConditionalSource();
+		ArrayList<ConditionalSource> sources = new ArrayList<>();
+		sources.add(src);
+		tracked.setSources(sources);
+		assertTrue(tracked.isTracked());
+		assertTrue(!polled.isTracked());
+
+		ArrayList<String> log = new ArrayList<>();
+		runConditional(polled, null, log);
+		runConditional(tracked, src, log);
+
+		// Both conditionals fire at the same time, but the tracked conditional is only
+		// evaluated when it is registered and when its source changes
+		assertTrue(log.size() == 2);
+		assertTrue(log.get(0).equals("Fired:5"));
+		assertTrue(log.get(1).equals("Fired:5"));
+		assertTrue(polled.count == 6);
+		assertTrue(tracked.count == 2);
+
+		tracked.clearSources();
+		assertTrue(!tracked.isTracked());
+	}
+
+	private static void runConditional(final CountingConditional cond, final ConditionalSource src, final ArrayList<String> log) {
+		EventManager evt = new EventManager("testTrackedConditionalEVT");
+		evt.clear();
+
+		evt.scheduleProcessExternal(0, 0, false, new ProcessTarget() {
+			@Override
+			public String getDescription() { return ""; }
+
+			@Override
+			public void process() {
+				EventManager.scheduleUntil(new ProcessTarget() {
+					@Override
+					public String getDescription() { return ""; }
+
+					@Override
+					public void process() {
+						log.add("Fired:" + EventManager.simTicks());
+					}
+				}, cond, null);
+			}
+		}, null);
+
+		// Advance the clock once per tick, satisfying the condition at tick 5
+		for (long i = 1; i <= 10; i++) {
+			final long tick = i;
+			evt.scheduleProcessExternal(tick, 0, false, new ProcessTarget() {
+				@Override
+				public String getDescription() { return ""; }
+
+				@Override
+				public void process() {
+					if (tick != 5)
+						return;
+
+					cond.value = true;
+					if (src != null)
+						src.changed();
+				}
+			}, null);
+		}
+
+		TestFrameworkHelpers.runEventsToTick(evt, 100, 1000);
+	}
+
+	private static class CountingConditional extends Conditional {
+		boolean value = false;
+		int count = 0;
+
+		@Override
+		public boolean evaluate() {
+			count++;
+			return value;
+		}
+	}
+
 	private static class LogTarget extends ProcessTarget {
 		final ArrayList<String> log;
 		final int num;
@@ -18,6 +18,8 @@ package com.jaamsim.events;
 
 import static org.junit.Assert.assertTrue;
 
+import java.util.Random;
+
 import org.junit.Test;
 
 public class TestEventTree {
@@ -84,4 +86,78 @@ public void testRBTree() {
 		assertTrue((20000-2-2*i) == nodeCount);
 	}
 }
+
+@Test
+public void testCalendarQueue() {
+	CalendarQueue queue = new CalendarQueue();
+
+	for (int i = 0; i < 10000; ++i) {
+		queue.createOrFindNode(i, 0);
+		int nodeCount = queue.verify();
+		assertTrue((i+1) == nodeCount);
+	}
+	for (int i = 0; i < 10000; ++i) {
+		assertTrue(queue.find(i,  0) != null);
+	}
+	assertTrue(queue.getNextNode().schedTick == 0);
+
+	for (int i = 0; i < 10000; ++i) {
+		assertTrue(queue.getNextNode().schedTick == i);
+		assertTrue(queue.removeNode(i, 0));
+		int nodeCount = queue.verify();
+		assertTrue(nodeCount == 10000 - i - 1);
+	}
+	assertTrue(queue.getNextNode() == null);
+
+	for (int i = 10000; i > 0; --i) {
+		queue.createOrFindNode(i, 0);
+		queue.createOrFindNode(-i, 0);
+		int nodeCount = queue.verify();
+		assertTrue(((10001-i)*2) == nodeCount);
+	}
+	assertTrue(queue.getNextNode().schedTick == -10000);
+
+	queue.createOrFindNode(Long.MAX_VALUE, 0);
+	queue.createOrFindNode(-10000, -1);
+	assertTrue(queue.getNextNode().priority == -1);
+	assertTrue(queue.removeNode(-10000, -1));
+	assertTrue(!queue.removeNode(-10000, -1));
+	queue.verify();
+}
+
+/**
+ * Run the same random sequence of insertions and removals against the red-black
+ * tree and the calendar queue and check that the next node always agrees.
+ */
+@Test
+public void testEventSetsAgree() {
+	EventTree tree = new EventTree();
+	CalendarQueue queue = new CalendarQueue();
+	Random rand = new Random(42);
+
+	long now = 0;
+	for (int i = 0; i < 50000; ++i) {
+		if (rand.nextInt(3) > 0) {
+			// Clustered times, occasionally far in the future
+			long tick = now + (rand.nextInt(10) == 0 ? rand.nextInt(1000000) : rand.nextInt(50));
+			int prio = rand.nextInt(5);
+			EventNode a = tree.createOrFindNode(tick, prio);
+			EventNode b = queue.createOrFindNode(tick, prio);
+			assertTrue(a.compareToNode(b) == 0);
+		}
+		else {
+			EventNode a = tree.getNextNode();
+			EventNode b = queue.getNextNode();
+			if (a == null) {
+				assertTrue(b == null);
+				continue;
+			}
+			assertTrue(a.compareToNode(b) == 0);
+			now = a.schedTick;
+			assertTrue(tree.removeNode(a.schedTick, a.priority));
+			assertTrue(queue.removeNode(b.schedTick, b.priority));
+		}
+	}
+	assertTrue(tree.verifyNodeCount() == queue.verify());
+}
 }
@@ -16,8 +16,63 @@
  */
 package com.jaamsim.events;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.jaamsim.basicsim.JaamSimModel;
 
 public class TestFrameworkHelpers {
+	public interface TestProcess {
+		public void run() throws Throwable;
+	}
+
+	/**
+	 * Runs a test as a process in a new EventManager attached to the given model. Any error
+	 * thrown by the test is re-thrown, and the test fails if it is not complete before the
+	 * timeout.
+	 */
+	public static void runProcess(JaamSimModel model, TestProcess test, long timeoutMS) throws Throwable {
+		EventManager evt = new EventManager("TestProcess");
+		model.attach(evt);
+
+		TestProcessTarget target = new TestProcessTarget(test);
+		evt.scheduleProcessExternal(0, 0, false, target, null);
+		evt.resume(Long.MAX_VALUE);
+		if (!target.done.await(timeoutMS, TimeUnit.MILLISECONDS)) {
+			evt.pause();
+			throw new RuntimeException("Test not complete before timeout");
+		}
+
+		if (target.error != null)
+			throw target.error;
+	}
+
+	private static class TestProcessTarget extends ProcessTarget {
+		final CountDownLatch done = new CountDownLatch(1);
+		final TestProcess test;
+		Throwable error;
+
+		TestProcessTarget(TestProcess test) {
+			this.test = test;
+		}
+
+		@Override
+		public String getDescription() {
+			return "TestProcessTarget";
+		}
+
+		@Override
+		public void process() {
+			try {
+				test.run();
+			}
+			catch (Throwable t) {
+				error = t;
+			}
+			done.countDown();
+		}
+	}
+
 	public static void runEventsToTick(EventManager evt, long tick, long timeoutMS) {
 		TestTimeListener tl = new TestTimeListener();
 		tl.waitforstop(evt, tick, timeoutMS);
@@ -0,0 +1,70 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+/**
+ * Compares the cost of evaluating numerical expressions with the interpreter and with
+ * the compiled version of the expression.
+ * <p>
+ * Run from the command line with the test classpath, this is not a unit test.
+ */
+public class ExpressionBenchmark {
+	private static final int NUM_CALLS = 10000000;
+
+	private static final String[] EXPRESSIONS = {
+		"this.DoubleOut * 2 + 3 * this.IntOut",
+		"this.BooleanOut ? max(this.DoubleOut, 1) : -this.IntOut",
+		"sqrt(abs(this.DoubleOut - 4)) + (this.IntOut > 3 && this.DoubleOut < 1e6)",
+	};
+
+	public static void main(String[] args) throws Exception {
+		TestOutput.OutputEntity ent = new TestOutput.OutputEntity();
+		ent.setName("ExpressionBenchmarkEntity");
+
+		for (String source : EXPRESSIONS) {
+			ExpParser.setCompileExpressions(false);
+			ExpParser.Expression interpreted = ExpParser.parseExpression(ExpEvaluator.getParseContext(ent, source), source);
+			ExpParser.setCompileExpressions(true);
+			ExpParser.Expression compiled = ExpParser.parseExpression(ExpEvaluator.getParseContext(ent, source), source);
+
+			// Run each twice so that the second result is measured after JIT warm-up
+			for (int pass = 0; pass < 2; pass++) {
+				double interpretedTime = evaluate(interpreted);
+				double compiledTime = evaluate(compiled);
+				if (pass == 0)
+					continue;
+
+				System.out.format("%s%n   interpreted %6.1f ns/call, compiled %6.1f ns/call%n",
+						source, interpretedTime, compiledTime);
+			}
+		}
+		ent.kill();
+	}
+
+	private static double evaluate(ExpParser.Expression exp) throws ExpError {
+		double sum = 0.0d;
+		long start = System.nanoTime();
+		for (int i = 0; i < NUM_CALLS; i++) {
+			sum += ExpEvaluator.evaluateExpression(exp, i).value;
+		}
+		long elapsed = System.nanoTime() - start;
+		// Use the sum so that the calls cannot be eliminated
+		if (sum == -1.0d)
+			System.out.println(sum);
+		return (double)elapsed / NUM_CALLS;
+	}
+}
@@ -0,0 +1,109 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.input;
+
+import java.lang.reflect.Method;
+
+/**
+ * Compares the cost of reading an output value through OutputHandle with a direct
+ * reflective call to the output method, which was the previous implementation, and
+ * measures the cost of looking up the handle by name as is done by an expression.
+ * <p>
+ * Run from the command line with the test classpath, this is not a unit test.
+ */
+public class OutputHandleBenchmark {
+	private static final int NUM_CALLS = 20000000;
+
+	public static void main(String[] args) throws Exception {
+		TestOutput.OutputEntity ent = new TestOutput.OutputEntity();
+		OutputHandle dbl = ent.getOutputHandle("DoubleOut");
+		OutputHandle str = ent.getOutputHandle("StringOut");
+		Method dblMethod = TestOutput.OutputEntity.class.getMethod("getDoubleOut", double.class);
+		Method strMethod = TestOutput.OutputEntity.class.getMethod("getStringOut", double.class);
+
+		// Run each twice so that the second result is measured after JIT warm-up
+		for (int pass = 0; pass < 2; pass++) {
+			double reflectDouble = reflectDouble(ent, dblMethod);
+			double handleDouble = handleDouble(dbl);
+			double reflectObject = reflectObject(ent, strMethod);
+			double handleObject = handleObject(str);
+			double lookupDouble = lookupDouble(ent, "DoubleOut".intern());
+			if (pass == 0)
+				continue;
+
+			System.out.format("double output: Method.invoke %6.1f ns/call, getValueAsDouble %6.1f ns/call%n",
+					reflectDouble, handleDouble);
+			System.out.format("String output: Method.invoke %6.1f ns/call, getValue         %6.1f ns/call%n",
+					reflectObject, handleObject);
+			System.out.format("double output looked up by name on each call: %6.1f ns/call%n",
+					lookupDouble);
+		}
+	}
+
+	private static double reflectDouble(Object ent, Method m) throws Exception {
+		double sum = 0.0d;
+		long start = System.nanoTime();
+		for (int i = 0; i < NUM_CALLS; i++) {
+			sum += ((Double)m.invoke(ent, (double)i)).doubleValue();
+		}
+		return finish(start, sum);
+	}
+
+	private static double handleDouble(OutputHandle oh) {
+		double sum = 0.0d;
+		long start = System.nanoTime();
+		for (int i = 0; i < NUM_CALLS; i++) {
+			sum += oh.getValueAsDouble(i, 0.0d);
+		}
+		return finish(start, sum);
+	}
+
+	private static double reflectObject(Object ent, Method m) throws Exception {
+		double sum = 0.0d;
+		long start = System.nanoTime();
+		for (int i = 0; i < NUM_CALLS; i++) {
+			sum += ((String)m.invoke(ent, (double)i)).length();
+		}
+		return finish(start, sum);
+	}
+
+	private static double handleObject(OutputHandle oh) {
+		double sum = 0.0d;
+		long start = System.nanoTime();
+		for (int i = 0; i < NUM_CALLS; i++) {
+			sum += oh.getValue(i, String.class).length();
+		}
+		return finish(start, sum);
+	}
+
+	private static double lookupDouble(TestOutput.OutputEntity ent, String name) {
+		double sum = 0.0d;
+		long start = System.nanoTime();
+		for (int i = 0; i < NUM_CALLS; i++) {
+			sum += ent.getOutputHandleInterned(name).getValueAsDouble(i, 0.0d);
+		}
+		return finish(start, sum);
+	}
+
+	private static double finish(long start, double sum) {
+		long elapsed = System.nanoTime() - start;
+		// Use the sum so that the calls cannot be eliminated
+		if (sum == -1.0d)
+			System.out.println(sum);
+		return (double)elapsed / NUM_CALLS;
+	}
+}
@@ -20,9 +20,16 @@ package com.jaamsim.input;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 
 import com.jaamsim.basicsim.Entity;
 import com.jaamsim.input.ExpParser.Assigner;
@@ -36,8 +43,33 @@ import com.jaamsim.units.SpeedUnit;
 import com.jaamsim.units.TimeUnit;
 import com.jaamsim.units.Unit;
 
+/**
+ * Each test is run with expression compilation both disabled and enabled.
+ */
+@RunWith(Parameterized.class)
 public class TestExpParser {
 
+	@Parameters(name = "compile={0}")
+	public static Collection<Object[]> data() {
+		return Arrays.asList(new Object[][] { { false }, { true } });
+	}
+
+	private final boolean compile;
+
+	public TestExpParser(boolean compile) {
+		this.compile = compile;
+	}
+
+	@Before
+	public void setCompile() {
+		ExpParser.setCompileExpressions(compile);
+	}
+
+	@After
+	public void resetCompile() {
+		ExpParser.setCompileExpressions(true);
+	}
+
 	private static void assertColSame(double[] vals, ExpResult.Collection col) throws ExpError {
 		ExpResult.Iterator colIt = col.getIter();
 		for (double val : vals) {
@@ -993,4 +1025,145 @@ public class TestExpParser {
 		assert(contained.value == 45.0);
 		assert(cont.lastAttribName.equals("blarg"));
 	}
+
+	static double numVal = 0;
+	static Class<? extends Unit> numUnit = DimensionlessUnit.class;
+
+	// Returns a number whose unit type is not known until the output is evaluated
+	private static class NumResolver implements ExpParser.OutputResolver {
+		@Override
+		public ExpResult resolve(EvalContext ec, ExpResult ent) throws ExpError {
+			return ExpResult.makeNumResult(numVal, numUnit);
+		}
+
+		@Override
+		public ExpValResult validate(ExpValResult entValRes) {
+			return ExpValResult.makeUndecidableRes();
+		}
+	}
+
+	private static class NumPC extends PC {
+		@Override
+		public OutputResolver getOutputResolver(String name) throws ExpError {
+			return new NumResolver();
+		}
+		@Override
+		public OutputResolver getConstOutputResolver(ExpResult constEnt,
+				String name) throws ExpError {
+			return new NumResolver();
+		}
+	}
+
+	@Test
+	public void testCompile() throws ExpError {
+		NumPC npc = new NumPC();
+		numUnit = DimensionlessUnit.class;
+
+		// Constant values are known when the expression is parsed
+		ExpParser.Expression exp = ExpParser.parseExpression(npc, "max(2, 3) * 2 + 1");
+		assertTrue(exp.isCompiled() == compile);
+		assertTrue(exp.evaluate(ec).value == 7);
+
+		// Strings are never compiled
+		exp = ExpParser.parseExpression(npc, "\"foo\" + \"bar\"");
+		assertTrue(!exp.isCompiled());
+
+		// The output's unit type is known once it has been evaluated
+		exp = ExpParser.parseExpression(npc, "[x].val * 2 + 1");
+		assertTrue(!exp.isCompiled());
+		numVal = 3;
+		assertTrue(exp.evaluate(ec).value == 7);
+		assertTrue(exp.isCompiled() == compile);
+		numVal = 4;
+		assertTrue(exp.evaluate(ec).value == 9);
+
+		// A change in the output's unit type returns the expression to the interpreter,
+		// which compiles it again using the new unit type
+		numUnit = TimeUnit.class;
+		ExpResult res = exp.evaluate(ec);
+		assertTrue(res.value == 9);
+		assertTrue(res.unitType == DimensionlessUnit.class);
+		assertTrue(exp.isCompiled() == compile);
+		numVal = 5;
+		assertTrue(exp.evaluate(ec).value == 11);
+		assertTrue(exp.isCompiled() == compile);
+		numUnit = DimensionlessUnit.class;
+
+		exp = ExpParser.parseExpression(npc, "[x].val > 2 ? max([x].val, 3) : -abs([x].val)");
+		double[] vals = { -4, 0, 2.5, 3, 10 };
+		double[] expected = { -4, 0, 3, 3, 10 };
+		for (int i = 0; i < vals.length; i++) {
+			numVal = vals[i];
+			assertTrue(exp.evaluate(ec).value == expected[i]);
+		}
+
+		exp = ExpParser.parseExpression(npc, "[x].val == 0 || 1/[x].val > 0.5 && !([x].val < 0)");
+		vals = new double[]{ 0, 1, 4, -1 };
+		expected = new double[]{ 1, 1, 0, 0 };
+		for (int i = 0; i < vals.length; i++) {
+			numVal = vals[i];
+			assertTrue(exp.evaluate(ec).value == expected[i]);
+		}
+
+		exp = ExpParser.parseExpression(npc, "choose([x].val, 10, 20, 30) + indexOfMax(1, [x].val, 2)");
+		numVal = 2;
+		assertTrue(exp.evaluate(ec).value == 22);
+		assertTrue(exp.isCompiled() == compile);
+		numVal = 3;
+		assertTrue(exp.evaluate(ec).value == 32);
+
+		// Errors are reported by the interpreter
+		numVal = 4;
+		boolean threw = false;
+		try {
+			exp.evaluate(ec);
+		}
+		catch (ExpError e) {
+			threw = true;
+			assertTrue(e.getMessage().startsWith("Invalid index: 4. Index must be between 1 and 3."));
+		}
+		assertTrue(threw);
+		assertTrue(!exp.isCompiled());
+	}
+
+	@Test
+	public void testEvaluateDouble() throws ExpError {
+		NumPC npc = new NumPC();
+		numUnit = DimensionlessUnit.class;
+		numVal = 3;
+
+		// Interpreted on the first evaluation and compiled on the second
+		ExpParser.Expression exp = ExpParser.parseExpression(npc, "[x].val * 2 + 1");
+		assertTrue(exp.evaluateDouble(ec, DimensionlessUnit.class) == 7);
+		assertTrue(exp.evaluateDouble(ec, DimensionlessUnit.class) == 7);
+		assertTrue(exp.evaluateDouble(ec, null) == 7);
+
+		boolean threw = false;
+		try {
+			exp.evaluateDouble(ec, TimeUnit.class);
+		}
+		catch (ExpError e) {
+			threw = true;
+		}
+		assertTrue(threw);
+
+		// Without a unit type, the value of any result is returned as for evaluate()
+		exp = ExpParser.parseExpression(npc, "\"foo\"");
+		assertTrue(exp.evaluateDouble(ec, null) == exp.evaluate(ec).value);
+		assertTrue(!exp.isCompiledFor(DimensionlessUnit.class));
+
+		threw = false;
+		try {
+			exp.evaluateDouble(ec, DimensionlessUnit.class);
+		}
+		catch (ExpError e) {
+			threw = true;
+		}
+		assertTrue(threw);
+
+		exp = ExpParser.parseExpression(npc, "[x].val * 2 + 1");
+		exp.evaluate(ec);
+		assertTrue(exp.isCompiledFor(DimensionlessUnit.class) == exp.isCompiled());
+		assertTrue(!exp.isCompiledFor(TimeUnit.class));
+	}
 }
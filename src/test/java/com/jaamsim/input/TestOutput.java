@@ -17,6 +17,7 @@
 package com.jaamsim.input;
 
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.lang.reflect.Method;
 
@@ -24,6 +25,7 @@ import org.junit.Test;
 
 import com.jaamsim.Graphics.DisplayEntity;
 import com.jaamsim.basicsim.Entity;
+import com.jaamsim.basicsim.ErrorException;
 
 public class TestOutput {
 
@@ -63,4 +65,68 @@ public class TestOutput {
 		}
 	}
 
+	public static class OutputEntity extends Entity {
+		@Output(name = "DoubleOut")
+		public double getDoubleOut(double simTime) {
+			return 2.0d * simTime;
+		}
+
+		@Output(name = "IntOut")
+		public int getIntOut(double simTime) {
+			return 7;
+		}
+
+		@Output(name = "BooleanOut")
+		public boolean getBooleanOut(double simTime) {
+			return simTime > 1.0d;
+		}
+
+		@Output(name = "StringOut")
+		public String getStringOut(double simTime) {
+			return "abc";
+		}
+
+		@Output(name = "ErrorOut")
+		public double getErrorOut(double simTime) {
+			throw new IllegalStateException("ErrorOut");
+		}
+	}
+
+	@Test
+	public void testOutputValues() {
+		OutputEntity ent = new OutputEntity();
+		ent.setName("TestOutputEntity");
+		assertTrue(ent.getOutputHandle("DoubleOut").getValueAsDouble(3.0d, 0.0d) == 6.0d);
+		assertTrue(ent.getOutputHandle("DoubleOut").getValue(3.0d, double.class) == 6.0d);
+		assertTrue(ent.getOutputHandle("IntOut").getValueAsDouble(3.0d, 0.0d) == 7.0d);
+		assertTrue(ent.getOutputHandle("IntOut").getValue(3.0d, int.class) == 7);
+		assertTrue(ent.getOutputHandle("BooleanOut").getValueAsDouble(3.0d, 0.0d) == 1.0d);
+		assertTrue(ent.getOutputHandle("BooleanOut").getValueAsDouble(0.0d, 0.0d) == 0.0d);
+		assertTrue(ent.getOutputHandle("StringOut").getValue(3.0d, String.class).equals("abc"));
+		assertTrue(ent.getOutputHandle("StringOut").getValue(3.0d, Double.class) == null);
+		assertTrue(ent.getOutputHandle("StringOut").getValueAsDouble(3.0d, -1.0d) == -1.0d);
+
+		try {
+			ent.getOutputHandle("ErrorOut").getValueAsDouble(3.0d, 0.0d);
+			fail("Did not throw an error.");
+		}
+		catch (ErrorException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		ent.kill();
+	}
+
+	@Test
+	public void testOutputHandleCache() {
+		OutputEntity ent = new OutputEntity();
+		ent.setName("TestOutputCacheEntity");
+		OutputHandle oh = ent.getOutputHandle("DoubleOut");
+		assertTrue(oh == ent.getOutputHandle("DoubleOut"));
+		assertTrue(oh == ent.getOutputHandleInterned("DoubleOut"));
+		assertTrue(oh == ent.getOutputHandle(new String("DoubleOut")));
+		assertTrue(oh != ent.getOutputHandle("IntOut"));
+		assertTrue(ent.getOutputHandle("MissingOut") == null);
+		assertTrue(OutputHandle.getOutputIndex(OutputEntity.class, "MissingOut") == -1);
+		ent.kill();
+	}
 }
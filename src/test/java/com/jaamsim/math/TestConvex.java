@@ -19,6 +19,7 @@ package com.jaamsim.math;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Random;
 
 import org.junit.Test;
 
@@ -74,6 +75,35 @@ public class TestConvex {
 		assertTrue(MathUtils.near(aabbDist, 2.0));
 	}
 
+	/**
+	 * A hull built from packed coordinates is the same as one built from a list of points.
+	 */
+	@Test
+	public void TestConvexPacked() {
+		Random rand = new Random(5);
+		ArrayList<Vec3d> points = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			Vec3d p = new Vec3d(rand.nextInt(50), rand.nextInt(50), rand.nextInt(50));
+			points.add(p);
+			points.add(new Vec3d(p));  // duplicate points are removed
+		}
+		double[] coords = new double[points.size() * 3];
+		for (int i = 0; i < points.size(); i++) {
+			coords[i*3] = points.get(i).x;
+			coords[i*3 + 1] = points.get(i).y;
+			coords[i*3 + 2] = points.get(i).z;
+		}
+
+		ConvexHull hull = ConvexHull.TryBuildHull(points, 5, 100, null);
+		ConvexHull packedHull = ConvexHull.TryBuildHull(coords, 5, 100, null);
+
+		assertTrue(hull.getVertices().size() == packedHull.getVertices().size());
+		for (int i = 0; i < hull.getVertices().size(); i++) {
+			assertTrue(hull.getVertices().get(i).equals3(packedHull.getVertices().get(i)));
+		}
+		assertTrue(hull.getFaces().size() == packedHull.getFaces().size());
+	}
+
 	private ArrayList<Vec4d> getPointsForCube(double r) {
 		ArrayList<Vec4d> ret = new ArrayList<>();
 
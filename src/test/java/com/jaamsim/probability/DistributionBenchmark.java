@@ -0,0 +1,88 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.probability;
+
+import com.jaamsim.ProbabilityDistributions.Distribution;
+import com.jaamsim.ProbabilityDistributions.ExponentialDistribution;
+import com.jaamsim.ProbabilityDistributions.LogLogisticDistribution;
+import com.jaamsim.ProbabilityDistributions.WeibullDistribution;
+import com.jaamsim.basicsim.ObjectType;
+import com.jaamsim.input.InputAgent;
+
+/**
+ * Compares the cost of sampling the inverse transform distributions with and without a
+ * sample buffer.
+ * <p>
+ * Run from the command line with the test classpath, this is not a unit test.
+ */
+public class DistributionBenchmark {
+	private static final int NUM_SAMPLES = 10000000;
+	private static final String BUFFER_SIZE = "1024";
+
+	public static void main(String[] args) {
+		ObjectType t = InputAgent.defineEntityWithUniqueName(ObjectType.class, "TestType", "-", true);
+		InputAgent.applyArgs(t, "JavaClass", "com.jaamsim.units.DimensionlessUnit");
+
+		Distribution[][] dists = new Distribution[3][2];
+		for (int i = 0; i < 2; i++) {
+			String bufferSize = (i == 0) ? "0" : BUFFER_SIZE;
+			dists[0][i] = define(ExponentialDistribution.class, t, bufferSize, "Mean", "10.0");
+			dists[1][i] = define(WeibullDistribution.class, t, bufferSize, "Scale", "10.0", "Shape", "2.0");
+			dists[2][i] = define(LogLogisticDistribution.class, t, bufferSize, "Scale", "10.0", "Shape", "4.0");
+		}
+
+		for (Distribution[] pair : dists) {
+			// Run each twice so that the second result is measured after JIT warm-up
+			for (int pass = 0; pass < 2; pass++) {
+				double singleTime = sample(pair[0]);
+				double bufferTime = sample(pair[1]);
+				if (pass == 0)
+					continue;
+
+				System.out.format("%s%n   single %6.1f ns/sample, buffered %6.1f ns/sample%n",
+						pair[0].getClass().getSimpleName(), singleTime, bufferTime);
+			}
+		}
+
+		// Stop the threads started by the EventManager
+		System.exit(0);
+	}
+
+	private static Distribution define(Class<? extends Distribution> klass, ObjectType t,
+			String bufferSize, String... args) {
+		Distribution dist = InputAgent.defineEntityWithUniqueName(klass, "Dist", "-", true);
+		InputAgent.applyArgs(dist, "UnitType", t.getName());
+		InputAgent.applyArgs(dist, "RandomSeed", "0");
+		InputAgent.applyArgs(dist, "SampleBufferSize", bufferSize);
+		for (int i = 0; i < args.length; i += 2) {
+			InputAgent.applyArgs(dist, args[i], args[i + 1]);
+		}
+		dist.validate();
+		return dist;
+	}
+
+	private static double sample(Distribution dist) {
+		dist.earlyInit();
+		long start = System.nanoTime();
+		double total = TestContinuousDistribution.sampleDistribution(dist, NUM_SAMPLES);
+		long elapsed = System.nanoTime() - start;
+		// Use the total so that the samples cannot be eliminated
+		if (total == -1.0d)
+			System.out.println(total);
+		return (double)elapsed / NUM_SAMPLES;
+	}
+}
@@ -18,9 +18,12 @@ package com.jaamsim.probability;
 
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+
 import org.junit.Test;
 
 import com.jaamsim.ProbabilityDistributions.ContinuousDistribution;
+import com.jaamsim.ProbabilityDistributions.Distribution;
 import com.jaamsim.Samples.SampleProvider;
 import com.jaamsim.basicsim.ObjectType;
 import com.jaamsim.events.EventManager;
@@ -61,6 +64,39 @@ public class TestContinuousDistribution {
 		return target.total;
 	}
 
+	/**
+	 * Checks that a distribution gives the same samples with and without a sample buffer.
+	 * @param klass - class of distribution to be tested.
+	 * @param inputs - keywords and values for the inputs to the distribution.
+	 */
+	static <T extends Distribution> void checkSampleBuffer(Class<T> klass, String... inputs) {
+		ObjectType t = InputAgent.defineEntityWithUniqueName(ObjectType.class, "TestType", "-", true);
+		InputAgent.applyArgs(t, "JavaClass", "com.jaamsim.units.DimensionlessUnit");
+
+		double[] total = new double[2];
+		ArrayList<T> dists = new ArrayList<>(2);
+		for (int i = 0; i < 2; i++) {
+			T dist = InputAgent.defineEntityWithUniqueName(klass, "Dist", "-", true);
+			InputAgent.applyArgs(dist, "UnitType", t.getName());
+			for (int j = 0; j < inputs.length; j += 2) {
+				InputAgent.applyArgs(dist, inputs[j], inputs[j + 1]);
+			}
+			InputAgent.applyArgs(dist, "RandomSeed", "0");
+			if (i == 1)
+				InputAgent.applyArgs(dist, "SampleBufferSize", "100");
+			dist.validate();
+			dist.earlyInit();
+			total[i] = TestContinuousDistribution.sampleDistribution(dist, 10007);
+			dists.add(dist);
+		}
+
+		assertTrue(total[0] == total[1]);
+		assertTrue(dists.get(0).getNumberOfSamples(0.0) == dists.get(1).getNumberOfSamples(0.0));
+		assertTrue(dists.get(0).getSampleMin(0.0) == dists.get(1).getSampleMin(0.0));
+		assertTrue(dists.get(0).getSampleMax(0.0) == dists.get(1).getSampleMax(0.0));
+		assertTrue(dists.get(0).getSampleStandardDeviation(0.0) == dists.get(1).getSampleStandardDeviation(0.0));
+	}
+
 	@Test
 	public void MeanAndStandardDeviation() {
 		ObjectType t = InputAgent.defineEntityWithUniqueName(ObjectType.class, "TestType", "-", true);
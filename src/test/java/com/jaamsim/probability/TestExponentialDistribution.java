@@ -46,4 +46,10 @@ public class TestExponentialDistribution {
 		assertTrue( Math.abs( dist.getSampleMean(0.0) / dist.getMeanValue(0.0) - 1.0 ) < 0.001 );
 		assertTrue( Math.abs( dist.getSampleStandardDeviation(0.0) / dist.getStandardDeviation(0.0) - 1.0 ) < 0.005 );
 	}
+
+	@Test
+	public void SampleBuffer() {
+		TestContinuousDistribution.checkSampleBuffer(ExponentialDistribution.class,
+				"Mean", "10.0", "MinValue", "1.0", "MaxValue", "30.0");
+	}
 }
@@ -47,4 +47,10 @@ public class TestLogLogisticDistribution {
 		assertTrue( Math.abs( dist.getSampleMean(0.0) / dist.getMeanValue(0.0) - 1.0 ) < 0.001 );
 		assertTrue( Math.abs( dist.getSampleStandardDeviation(0.0) / dist.getStandardDeviation(0.0) - 1.0 ) < 0.01 );
 	}
+
+	@Test
+	public void SampleBuffer() {
+		TestContinuousDistribution.checkSampleBuffer(LogLogisticDistribution.class,
+				"Scale", "10.0", "Shape", "4.0");
+	}
 }
@@ -66,4 +66,10 @@ public class TestWeibullDistribution {
 		assertTrue(Math.abs(dist.getStandardDeviation(0.0) - dist2.getStandardDeviation(0.0)) < 0.000001);
 		assertTrue(Math.abs(dist.getSampleMean(0.0) - dist2.getSampleMean(0.0) + 100.0) < 0.000001);
 	}
+
+	@Test
+	public void SampleBuffer() {
+		TestContinuousDistribution.checkSampleBuffer(WeibullDistribution.class,
+				"Scale", "10.0", "Shape", "2.0", "Location", "100.0");
+	}
 }
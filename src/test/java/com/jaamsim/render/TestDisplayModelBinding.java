@@ -0,0 +1,110 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.render;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import com.jaamsim.DisplayModels.ShapeModel;
+import com.jaamsim.Graphics.DisplayEntity;
+import com.jaamsim.Graphics.Region;
+import com.jaamsim.math.Color4d;
+import com.jaamsim.math.Vec3d;
+
+public class TestDisplayModelBinding {
+
+	private static ArrayList<RenderProxy> collect(DisplayModelBinding binding) {
+		ArrayList<RenderProxy> ret = new ArrayList<>();
+		binding.collectFrameProxies(0.0d, ret);
+		return ret;
+	}
+
+	private static boolean sameProxies(ArrayList<RenderProxy> a, ArrayList<RenderProxy> b) {
+		if (a.size() != b.size())
+			return false;
+		for (int i = 0; i < a.size(); i++) {
+			if (a.get(i) != b.get(i))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * The proxies for a static binding are re-used until its entity or the region that
+	 * contains the entity is changed.
+	 */
+	@Test
+	public void testReuse() {
+		ShapeModel model = new ShapeModel();
+		model.setName("TestBindingModel");
+		DisplayEntity ent = new DisplayEntity();
+		ent.setName("TestBindingEntity");
+		DisplayEntity other = new DisplayEntity();
+		other.setName("TestBindingOther");
+		Region region = new Region();
+		region.setName("TestBindingRegion");
+		DisplayModelBinding binding = model.getBinding(ent);
+		DisplayModelBinding otherBinding = model.getBinding(other);
+		try {
+			DisplayModelBinding.clearCacheCounters();
+			ArrayList<RenderProxy> first = collect(binding);
+			assertTrue(!first.isEmpty());
+			assertTrue(sameProxies(collect(binding), first));
+			assertTrue(DisplayModelBinding.getReuseCount() == 1);
+
+			// Changes to another entity do not affect the binding
+			other.setPosition(new Vec3d(1.0d, 2.0d, 0.0d));
+			collect(otherBinding);
+			assertTrue(sameProxies(collect(binding), first));
+
+			// Changing the size collects new proxies
+			ent.setSize(new Vec3d(2.0d, 2.0d, 1.0d));
+			ArrayList<RenderProxy> second = collect(binding);
+			assertTrue(!sameProxies(second, first));
+			assertTrue(sameProxies(collect(binding), second));
+
+			// So does changing a tag, but not setting it to the same value
+			ent.setTagColour(ShapeModel.TAG_CONTENTS, new Color4d(1.0d, 0.0d, 0.0d));
+			ArrayList<RenderProxy> third = collect(binding);
+			assertTrue(!sameProxies(third, second));
+			ent.setTagColour(ShapeModel.TAG_CONTENTS, new Color4d(1.0d, 0.0d, 0.0d));
+			assertTrue(sameProxies(collect(binding), third));
+
+			// Hiding the entity removes its proxies
+			ent.setCulled(true);
+			assertTrue(collect(binding).isEmpty());
+			ent.setCulled(false);
+			assertTrue(!collect(binding).isEmpty());
+
+			// Moving the region that contains the entity collects new proxies
+			ent.setRegion(region);
+			ArrayList<RenderProxy> fourth = collect(binding);
+			assertTrue(sameProxies(collect(binding), fourth));
+			region.setPosition(new Vec3d(5.0d, 0.0d, 0.0d));
+			assertTrue(!sameProxies(collect(binding), fourth));
+		}
+		finally {
+			ent.kill();
+			other.kill();
+			region.kill();
+			model.kill();
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.render;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.jaamsim.math.AABB;
+import com.jaamsim.math.Quaternion;
+import com.jaamsim.math.Ray;
+import com.jaamsim.math.Transform;
+import com.jaamsim.math.Vec3d;
+import com.jaamsim.math.Vec4d;
+
+public class TestRenderableBVH {
+
+	/**
+	 * Renderable that collides with a ray in the same way as DebugLine's bounds test.
+	 */
+	private static class BoxRenderable implements Renderable {
+		AABB bounds;
+
+		BoxRenderable(AABB bounds) {
+			this.bounds = bounds;
+		}
+
+		@Override
+		public void render(int contextID, Renderer renderer, Camera cam, Ray pickRay) {}
+		@Override
+		public void renderTransparent(int contextID, Renderer renderer, Camera cam, Ray pickRay) {}
+		@Override
+		public long getPickingID() { return 0; }
+		@Override
+		public AABB getBoundsRef() { return bounds; }
+		@Override
+		public boolean hasTransparent() { return false; }
+		@Override
+		public boolean renderForView(int viewID, Camera cam) { return true; }
+
+		@Override
+		public double getCollisionDist(Ray r, boolean precise) {
+			return bounds.collisionDist(r, bounds.radius.mag3() * 0.1);
+		}
+	}
+
+	private static AABB randomBox(Random rand) {
+		Vec3d center = new Vec3d(rand.nextDouble()*200 - 100, rand.nextDouble()*200 - 100, rand.nextDouble()*200 - 100);
+		Vec3d size = new Vec3d(rand.nextDouble()*5, rand.nextDouble()*5, rand.nextDouble()*5);
+		Vec3d max = new Vec3d();
+		Vec3d min = new Vec3d();
+		max.add3(center, size);
+		min.sub3(center, size);
+		return new AABB(max, min);
+	}
+
+	private static Ray randomRay(Random rand) {
+		Vec4d start = new Vec4d(rand.nextDouble()*300 - 150, rand.nextDouble()*300 - 150, rand.nextDouble()*300 - 150, 1.0d);
+		Vec4d target = new Vec4d(rand.nextDouble()*200 - 100, rand.nextDouble()*200 - 100, rand.nextDouble()*200 - 100, 1.0d);
+		Vec4d dir = new Vec4d();
+		dir.sub3(target, start);
+		dir.normalize3();
+		return new Ray(start, dir);
+	}
+
+	private static ArrayList<Renderable> rayHits(ArrayList<Renderable> list, Ray ray) {
+		ArrayList<Renderable> ret = new ArrayList<>();
+		for (Renderable r : list) {
+			if (r.getCollisionDist(ray, true) >= 0.0d)
+				ret.add(r);
+		}
+		return ret;
+	}
+
+	private static ArrayList<Renderable> visible(ArrayList<Renderable> list, Camera cam) {
+		ArrayList<Renderable> ret = new ArrayList<>();
+		for (Renderable r : list) {
+			if (cam.collides(r.getBoundsRef()))
+				ret.add(r);
+		}
+		return ret;
+	}
+
+	private static void checkQueries(RenderableBVH bvh, ArrayList<Renderable> scene, Random rand) {
+		for (int i = 0; i < 200; i++) {
+			Ray ray = randomRay(rand);
+			assertTrue(rayHits(bvh.getRayCandidates(ray), ray).equals(rayHits(scene, ray)));
+		}
+
+		for (int i = 0; i < 20; i++) {
+			Quaternion rot = new Quaternion();
+			rot.setRotZAxis(rand.nextDouble() * 2 * Math.PI);
+			Transform trans = new Transform(new Vec3d(rand.nextDouble()*100 - 50, rand.nextDouble()*100 - 50, 150), rot, 1.0d);
+			Camera cam = new Camera(Math.PI/3, 1.5, 0.1, 1000);
+			cam.setTransform(trans);
+			ArrayList<Renderable> candidates = bvh.getVisibleCandidates(cam);
+			assertTrue(visible(candidates, cam).equals(visible(scene, cam)));
+		}
+	}
+
+	/**
+	 * The renderables hit by a ray or visible to a camera are the same whether they are found
+	 * from the tree or by testing every renderable, including after the renderables move.
+	 */
+	@Test
+	public void testQueries() {
+		Random rand = new Random(1);
+		ArrayList<Renderable> scene = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			scene.add(new BoxRenderable(randomBox(rand)));
+		}
+		scene.add(new BoxRenderable(new AABB()));
+
+		RenderableBVH bvh = new RenderableBVH();
+		bvh.update(scene);
+		checkQueries(bvh, scene, rand);
+
+		// Move some of the renderables so that the tree is refit
+		for (int i = 0; i < scene.size(); i += 10) {
+			((BoxRenderable)scene.get(i)).bounds = randomBox(rand);
+		}
+		bvh.update(scene);
+		checkQueries(bvh, scene, rand);
+
+		// Change the number of renderables so that the tree is rebuilt
+		scene.remove(0);
+		bvh.update(scene);
+		checkQueries(bvh, scene, rand);
+
+		bvh.clear();
+		assertTrue(bvh.getRayCandidates(randomRay(rand)).isEmpty());
+	}
+}
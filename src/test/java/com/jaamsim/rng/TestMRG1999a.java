@@ -198,4 +198,20 @@ public class TestMRG1999a {
 
 		assertTrue(test1.toString().equals(test2.toString()));
 	}
+
+	@Test
+	public void testBulkUniforms() {
+		MRG1999a test1 = new MRG1999a(3, 2);
+		MRG1999a test2 = new MRG1999a(3, 2);
+
+		// Blocks of different sizes give the same values as single calls
+		double[] buf = new double[1000];
+		for (int len = 0; len <= 600; len += 37) {
+			test2.nextUniforms(buf, 5, len);
+			for (int i = 0; i < len; i++) {
+				assertTrue(buf[5 + i] == test1.nextUniform());
+			}
+			assertTrue(test1.toString().equals(test2.toString()));
+		}
+	}
 }
@@ -0,0 +1,127 @@
+/*
+ * JaamSim Discrete Event Simulation
+ * Copyright (C) 2017 JaamSim Software Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.jaamsim.states;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.jaamsim.basicsim.ErrorException;
+import com.jaamsim.basicsim.JaamSimModel;
+import com.jaamsim.events.EventManager;
+import com.jaamsim.events.TestFrameworkHelpers;
+import com.jaamsim.events.TestFrameworkHelpers.TestProcess;
+
+public class TestStateEntity {
+
+	/**
+	 * The state records found from an index number and from a state name are the same, and
+	 * the time spent in each state is recorded for both. A state name that is only known at
+	 * run time is assigned an index number in the model's own state table.
+	 */
+	@Test
+	public void testStateIndex() throws Throwable {
+		TestFrameworkHelpers.runProcess(new JaamSimModel(), new TestProcess() {
+			@Override
+			public void run() {
+				TestEntity ent = new TestEntity();
+				ent.setName("IndexEntity");
+				StateTable table = ent.getJaamSimModel().getStateTable();
+				int count = table.size();
+
+				ent.setPresentState(StateEntity.STATE_WORKING);
+				assertTrue(ent.getState().name.equals("Working"));
+				assertTrue(ent.getState() == ent.getState("Working"));
+				assertTrue(ent.getState() == ent.getState(StateEntity.STATE_WORKING));
+				assertTrue(ent.isWorking());
+				EventManager.waitTicks(10, 0, false, null);
+
+				ent.setPresentState("Idle");
+				assertTrue(ent.getState() == ent.getState(StateEntity.STATE_IDLE));
+				assertTrue(ent.getTicksInState(ent.getState("Working")) == 10);
+				EventManager.waitTicks(5, 0, false, null);
+
+				// A state name that is only known at run time
+				ent.setPresentState("Custom1");
+				assertTrue(ent.getState().name.equals("Custom1"));
+				assertTrue(ent.getState() == ent.getState("Custom1"));
+				assertTrue(ent.getState() == ent.getState(table.findIndex("Custom1")));
+				assertTrue(new JaamSimModel().getStateTable().findIndex("Custom1") == -1);
+				EventManager.waitTicks(7, 0, false, null);
+
+				ent.setPresentState(StateEntity.STATE_WORKING);
+				assertTrue(ent.getTicksInState(ent.getState("Idle")) == 5);
+				assertTrue(ent.getTicksInState(ent.getState("Custom1")) == 7);
+				assertTrue(ent.getStateRecs().size() == 3);
+				assertTrue(table.size() == count + 1);
+
+				// The records for the state names are discarded for a new run
+				ent.earlyInit();
+				assertTrue(ent.getState().name.equals("Idle"));
+				assertTrue(ent.getState("Custom1") == null);
+				assertTrue(ent.getStateRecs().size() == 1);
+			}
+		}, 10000);
+	}
+
+	/**
+	 * An invalid state name is rejected before it is assigned an index number or a state
+	 * record, and the present state is unchanged.
+	 */
+	@Test
+	public void testInvalidState() throws Throwable {
+		TestFrameworkHelpers.runProcess(new JaamSimModel(), new TestProcess() {
+			@Override
+			public void run() {
+				TestEntity ent = new TestEntity();
+				ent.setName("InvalidEntity");
+				StateTable table = ent.getJaamSimModel().getStateTable();
+				int count = table.size();
+
+				ent.setPresentState("Working");
+				assertTrue(isRejected(ent, "Bogus"));
+				assertTrue(ent.getState().name.equals("Working"));
+				assertTrue(ent.getState("Bogus") == null);
+				assertTrue(table.findIndex("Bogus") == -1);
+
+				// A state name that has an index number but is not valid for this entity
+				int index = table.getIndex("TestStateEntity.Other");
+				assertTrue(isRejected(ent, "TestStateEntity.Other"));
+				assertTrue(ent.getState(index) == null);
+				assertTrue(ent.getState().name.equals("Working"));
+				assertTrue(table.size() == count + 1);
+			}
+		}, 10000);
+	}
+
+	private static boolean isRejected(StateEntity ent, String state) {
+		try {
+			ent.setPresentState(state);
+		}
+		catch (ErrorException e) {
+			return true;
+		}
+		return false;
+	}
+
+	private static class TestEntity extends StateEntity {
+		@Override
+		public boolean isValidState(String state) {
+			return super.isValidState(state) || state.startsWith("Custom");
+		}
+	}
+}